@@ -51,4 +51,15 @@ public class GrpcProperties {
     private NettyProperties netty = new NettyProperties();
 
     private long shard = 0;
+
+    @Min(1)
+    private int subscriberBufferSize = 1000;
+
+    @NotNull
+    private OverflowPolicy subscriberOverflowPolicy = OverflowPolicy.CATCH_UP;
+
+    public enum OverflowPolicy {
+        CATCH_UP,
+        TERMINATE
+    }
 }
@@ -0,0 +1,128 @@
+package com.hedera.mirror.grpc.admission;
+
+/*-
+ * ‌
+ * Hedera Mirror Node
+ * ​
+ * Copyright (C) 2019 - 2020 Hedera Hashgraph, LLC
+ * ​
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ‍
+ */
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import javax.inject.Named;
+import lombok.extern.log4j.Log4j2;
+
+import com.hedera.mirror.grpc.domain.TopicMessageFilter;
+import com.hedera.mirror.grpc.exception.AdmissionRejectedException;
+
+/**
+ * Limits the rate of new subscriptions and historical queries so that a few clients can't use up the database capacity
+ * that the rest of them rely on. Each has a token bucket shared by all clients and a token bucket per client address.
+ * The client's bucket is checked first so that a client over its own limit doesn't use up the global tokens, and its
+ * token is given back if the global limit then rejects it so that clients aren't penalized for the load of others.
+ * Filters without an address, such as the internal ones, are only subject to the global limit.
+ */
+@Log4j2
+@Named
+public class AdmissionLimiter {
+
+    private final AdmissionProperties admissionProperties;
+    private final Limit queryLimit;
+    private final Limit subscriptionLimit;
+
+    public AdmissionLimiter(AdmissionProperties admissionProperties, MeterRegistry meterRegistry) {
+        this.admissionProperties = admissionProperties;
+        queryLimit = new Limit("query", "historical queries", admissionProperties.getGlobalQueries(),
+                admissionProperties.getPeerQueries(), meterRegistry);
+        subscriptionLimit = new Limit("subscription", "subscriptions", admissionProperties.getGlobalSubscriptions(),
+                admissionProperties.getPeerSubscriptions(), meterRegistry);
+    }
+
+    /**
+     * @throws AdmissionRejectedException if the historical query is over the rate limit
+     */
+    public void admitQuery(TopicMessageFilter filter) {
+        admit(queryLimit, filter);
+    }
+
+    /**
+     * @throws AdmissionRejectedException if the subscription is over the rate limit
+     */
+    public void admitSubscription(TopicMessageFilter filter) {
+        admit(subscriptionLimit, filter);
+    }
+
+    private void admit(Limit limit, TopicMessageFilter filter) {
+        if (admissionProperties.isEnabled()) {
+            limit.admit(filter);
+        }
+    }
+
+    private class Limit {
+
+        private final String description;
+        private final TokenBucket global;
+        private final AdmissionProperties.RateLimit peerRateLimit;
+        private final Cache<String, TokenBucket> peers;
+        private final Counter globalRejected;
+        private final Counter peerRejected;
+
+        private Limit(String type, String description, AdmissionProperties.RateLimit globalRateLimit,
+                      AdmissionProperties.RateLimit peerRateLimit, MeterRegistry meterRegistry) {
+            this.description = description;
+            this.peerRateLimit = peerRateLimit;
+            global = new TokenBucket(globalRateLimit);
+            peers = Caffeine.newBuilder()
+                    .expireAfterAccess(admissionProperties.getPeerExpiry())
+                    .maximumSize(admissionProperties.getMaxPeers())
+                    .build();
+            globalRejected = rejectedMetric(type, "global", meterRegistry);
+            peerRejected = rejectedMetric(type, "peer", meterRegistry);
+        }
+
+        void admit(TopicMessageFilter filter) {
+            String address = filter.getAddress();
+            TokenBucket peer = address != null ? peers.get(address, a -> new TokenBucket(peerRateLimit)) : null;
+
+            if (peer != null && !peer.tryAcquire()) {
+                peerRejected.increment();
+                log.warn("[{}] Rejected {} from {} over the client limit", filter.getSubscriberId(), description,
+                        address);
+                throw new AdmissionRejectedException("Too many " + description + " from this client", false);
+            }
+
+            if (!global.tryAcquire()) {
+                if (peer != null) {
+                    peer.release();
+                }
+                globalRejected.increment();
+                log.warn("[{}] Rejected {} from {} over the global limit", filter.getSubscriberId(), description,
+                        address);
+                throw new AdmissionRejectedException("Too many " + description + ". Please retry later", true);
+            }
+        }
+
+        private Counter rejectedMetric(String type, String scope, MeterRegistry meterRegistry) {
+            return Counter.builder("hedera.mirror.admission.rejected")
+                    .description("The number of subscriptions and historical queries rejected by rate limits")
+                    .tag("scope", scope)
+                    .tag("type", type)
+                    .register(meterRegistry);
+        }
+    }
+}
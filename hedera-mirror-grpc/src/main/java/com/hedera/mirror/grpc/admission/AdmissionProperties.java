@@ -0,0 +1,73 @@
+package com.hedera.mirror.grpc.admission;
+
+/*-
+ * ‌
+ * Hedera Mirror Node
+ * ​
+ * Copyright (C) 2019 - 2020 Hedera Hashgraph, LLC
+ * ​
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ‍
+ */
+
+import java.time.Duration;
+import javax.validation.Valid;
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+@Data
+@Validated
+@ConfigurationProperties("hedera.mirror.grpc.admission")
+public class AdmissionProperties {
+
+    private boolean enabled = true;
+
+    @NotNull
+    @Valid
+    private RateLimit globalQueries = new RateLimit(1000, 200);
+
+    @NotNull
+    @Valid
+    private RateLimit globalSubscriptions = new RateLimit(500, 100);
+
+    @Min(1)
+    private long maxPeers = 100_000;
+
+    @NotNull
+    @Valid
+    private RateLimit peerQueries = new RateLimit(50, 10);
+
+    @NotNull
+    private Duration peerExpiry = Duration.ofMinutes(5);
+
+    @NotNull
+    @Valid
+    private RateLimit peerSubscriptions = new RateLimit(25, 5);
+
+    @AllArgsConstructor
+    @Data
+    @NoArgsConstructor
+    public static class RateLimit {
+
+        @Min(1)
+        private int burst;
+
+        @Min(1)
+        private int rate;
+    }
+}
@@ -0,0 +1,74 @@
+package com.hedera.mirror.grpc.admission;
+
+/*-
+ * ‌
+ * Hedera Mirror Node
+ * ​
+ * Copyright (C) 2019 - 2020 Hedera Hashgraph, LLC
+ * ​
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ‍
+ */
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * A bucket that holds up to its burst in tokens and is refilled at a constant rate. It starts out full so that a burst
+ * can be admitted straight away, after which admissions are limited to the refill rate.
+ */
+class TokenBucket {
+
+    private final double burst;
+    private final double tokensPerNano;
+    private final LongSupplier nanoTime;
+    private double tokens;
+    private long lastRefill;
+
+    TokenBucket(AdmissionProperties.RateLimit rateLimit) {
+        this(rateLimit, System::nanoTime);
+    }
+
+    TokenBucket(AdmissionProperties.RateLimit rateLimit, LongSupplier nanoTime) {
+        this.nanoTime = nanoTime;
+        burst = rateLimit.getBurst();
+        tokensPerNano = (double) rateLimit.getRate() / TimeUnit.SECONDS.toNanos(1);
+        tokens = burst;
+        lastRefill = nanoTime.getAsLong();
+    }
+
+    /**
+     * Takes a token if one is available
+     *
+     * @return whether a token was taken
+     */
+    synchronized boolean tryAcquire() {
+        long now = nanoTime.getAsLong();
+        tokens = Math.min(burst, tokens + (now - lastRefill) * tokensPerNano);
+        lastRefill = now;
+
+        if (tokens < 1.0) {
+            return false;
+        }
+
+        tokens -= 1.0;
+        return true;
+    }
+
+    /**
+     * Returns a token taken by an admission that was rejected by another limit
+     */
+    synchronized void release() {
+        tokens = Math.min(burst, tokens + 1.0);
+    }
+}
@@ -0,0 +1,41 @@
+package com.hedera.mirror.grpc.config;
+
+/*-
+ * ‌
+ * Hedera Mirror Node
+ * ​
+ * Copyright (C) 2019 - 2020 Hedera Hashgraph, LLC
+ * ​
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ‍
+ */
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+@Configuration
+public class DatabaseConfiguration {
+
+    /**
+     * The scheduler that reactive pipelines use for blocking database calls. Its thread cap matches the size of the
+     * connection pool so that excess queries wait in its queue instead of each occupying a thread while it waits for a
+     * connection. Threads are created on demand and released when idle.
+     */
+    @Bean(destroyMethod = "dispose")
+    Scheduler databaseScheduler(HikariDataSource dataSource) {
+        return Schedulers.newBoundedElastic(dataSource.getMaximumPoolSize(), Integer.MAX_VALUE, "db", 60, true);
+    }
+}
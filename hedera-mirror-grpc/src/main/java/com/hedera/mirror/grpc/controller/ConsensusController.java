@@ -20,7 +20,6 @@ package com.hedera.mirror.grpc.controller;
  * ‍
  */
 
-import com.google.protobuf.ByteString;
 import com.hederahashgraph.api.proto.java.Timestamp;
 import io.grpc.Status;
 import io.grpc.StatusRuntimeException;
@@ -38,9 +37,12 @@ import reactor.core.publisher.Mono;
 import com.hedera.mirror.api.proto.ConsensusTopicQuery;
 import com.hedera.mirror.api.proto.ConsensusTopicResponse;
 import com.hedera.mirror.api.proto.ReactorConsensusServiceGrpc;
+import com.hedera.mirror.grpc.admission.AdmissionLimiter;
 import com.hedera.mirror.grpc.converter.InstantToLongConverter;
 import com.hedera.mirror.grpc.domain.TopicMessage;
 import com.hedera.mirror.grpc.domain.TopicMessageFilter;
+import com.hedera.mirror.grpc.exception.AdmissionRejectedException;
+import com.hedera.mirror.grpc.exception.SlowConsumerException;
 import com.hedera.mirror.grpc.exception.TopicNotFoundException;
 import com.hedera.mirror.grpc.service.TopicMessageService;
 import com.hedera.mirror.grpc.util.ProtoUtil;
@@ -58,29 +60,36 @@ public class ConsensusController extends ReactorConsensusServiceGrpc.ConsensusSe
 
     private static final String DB_ERROR = "Unable to connect to database. Please retry later";
 
+    private final AdmissionLimiter admissionLimiter;
     private final TopicMessageService topicMessageService;
 
     @Override
     public Flux<ConsensusTopicResponse> subscribeTopic(Mono<ConsensusTopicQuery> request) {
-        return request.map(this::toFilter)
+        String address = RemoteAddressInterceptor.REMOTE_ADDRESS.get(); // Only set on the calling thread
+        return request.map(query -> toFilter(query, address))
+                .doOnNext(admissionLimiter::admitSubscription)
                 .flatMapMany(topicMessageService::subscribeTopic)
-                .map(this::toResponse)
+                .map(TopicMessage::getResponse)
+                .onErrorMap(AdmissionRejectedException.class, e -> error(e, e.isGlobal() ? Status.UNAVAILABLE :
+                        Status.RESOURCE_EXHAUSTED))
                 .onErrorMap(ConstraintViolationException.class, e -> error(e, Status.INVALID_ARGUMENT))
                 .onErrorMap(IllegalArgumentException.class, e -> error(e, Status.INVALID_ARGUMENT))
                 .onErrorMap(NonTransientDataAccessResourceException.class, e -> error(e, Status.UNAVAILABLE, DB_ERROR))
+                .onErrorMap(SlowConsumerException.class, e -> error(e, Status.RESOURCE_EXHAUSTED))
                 .onErrorMap(TimeoutException.class, e -> error(e, Status.RESOURCE_EXHAUSTED))
                 .onErrorMap(TopicNotFoundException.class, e -> error(e, Status.NOT_FOUND))
                 .onErrorMap(TransientDataAccessException.class, e -> error(e, Status.RESOURCE_EXHAUSTED))
                 .onErrorMap(t -> unknownError(t));
     }
 
-    private TopicMessageFilter toFilter(ConsensusTopicQuery query) {
+    private TopicMessageFilter toFilter(ConsensusTopicQuery query, String address) {
         if (!query.hasTopicID()) {
             log.warn("Missing required topicID");
             throw Status.INVALID_ARGUMENT.augmentDescription("Missing required topicID").asRuntimeException();
         }
 
         TopicMessageFilter.TopicMessageFilterBuilder builder = TopicMessageFilter.builder()
+                .address(address)
                 .limit(query.getLimit())
                 .realmNum((int) query.getTopicID().getRealmNum())
                 .topicNum((int) query.getTopicID().getTopicNum());
@@ -101,15 +110,6 @@ public class ConsensusController extends ReactorConsensusServiceGrpc.ConsensusSe
         return builder.build();
     }
 
-    private ConsensusTopicResponse toResponse(TopicMessage topicMessage) {
-        return ConsensusTopicResponse.newBuilder()
-                .setConsensusTimestamp(ProtoUtil.toTimestamp(topicMessage.getConsensusTimestampInstant()))
-                .setMessage(ByteString.copyFrom(topicMessage.getMessage()))
-                .setSequenceNumber(topicMessage.getSequenceNumber())
-                .setRunningHash(ByteString.copyFrom(topicMessage.getRunningHash()))
-                .build();
-    }
-
     private Throwable error(Throwable t, Status status) {
         return error(t, status, t.getMessage());
     }
@@ -0,0 +1,60 @@
+package com.hedera.mirror.grpc.controller;
+
+/*-
+ * ‌
+ * Hedera Mirror Node
+ * ​
+ * Copyright (C) 2019 - 2020 Hedera Hashgraph, LLC
+ * ​
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ‍
+ */
+
+import io.grpc.Context;
+import io.grpc.Contexts;
+import io.grpc.Grpc;
+import io.grpc.Metadata;
+import io.grpc.ServerCall;
+import io.grpc.ServerCallHandler;
+import io.grpc.ServerInterceptor;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import net.devh.boot.grpc.server.interceptor.GrpcGlobalServerInterceptor;
+
+/**
+ * Makes the address of the client available to the controllers while they handle its call. Only the host is kept
+ * since a client can open many connections from different ports.
+ */
+@GrpcGlobalServerInterceptor
+public class RemoteAddressInterceptor implements ServerInterceptor {
+
+    static final Context.Key<String> REMOTE_ADDRESS = Context.key("remoteAddress");
+
+    @Override
+    public <T, R> ServerCall.Listener<T> interceptCall(ServerCall<T, R> call, Metadata headers,
+                                                      ServerCallHandler<T, R> next) {
+        SocketAddress socketAddress = call.getAttributes().get(Grpc.TRANSPORT_ATTR_REMOTE_ADDR);
+        Context context = Context.current().withValue(REMOTE_ADDRESS, toAddress(socketAddress));
+        return Contexts.interceptCall(context, call, headers, next);
+    }
+
+    private String toAddress(SocketAddress socketAddress) {
+        if (socketAddress instanceof InetSocketAddress) {
+            InetSocketAddress inetSocketAddress = (InetSocketAddress) socketAddress;
+            return inetSocketAddress.getAddress() != null ? inetSocketAddress.getAddress().getHostAddress() :
+                    inetSocketAddress.getHostString();
+        }
+
+        return socketAddress != null ? socketAddress.toString() : null;
+    }
+}
@@ -20,19 +20,26 @@ package com.hedera.mirror.grpc.domain;
  * ‍
  */
 
+import com.google.protobuf.UnsafeByteOperations;
 import java.time.Instant;
 import java.util.Comparator;
 import javax.persistence.Entity;
 import javax.persistence.Id;
+import javax.persistence.Transient;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.ToString;
 import org.springframework.data.domain.Persistable;
 
+import com.hedera.mirror.api.proto.ConsensusTopicResponse;
 import com.hedera.mirror.grpc.converter.InstantToLongConverter;
 import com.hedera.mirror.grpc.converter.LongToInstantConverter;
+import com.hedera.mirror.grpc.util.PayloadCodec;
+import com.hedera.mirror.grpc.util.ProtoUtil;
 
 @Data
 @Entity
@@ -59,6 +66,16 @@ public class TopicMessage implements Comparable<TopicMessage>, Persistable<Long>
 
     private int topicNum;
 
+    /**
+     * The response sent to subscribers. It's built once on first use and shared by every subscriber the message is sent
+     * to, so the byte arrays are wrapped instead of copied and must not be modified afterwards.
+     */
+    @EqualsAndHashCode.Exclude
+    @Getter(lazy = true)
+    @ToString.Exclude
+    @Transient
+    private final ConsensusTopicResponse response = toResponse();
+
     @Override
     public int compareTo(TopicMessage other) {
         return Comparator.nullsFirst(Comparator.comparingLong(TopicMessage::getSequenceNumber)).compare(this, other);
@@ -68,6 +85,15 @@ public class TopicMessage implements Comparable<TopicMessage>, Persistable<Long>
         return longToInstantConverter.convert(consensusTimestamp);
     }
 
+    private ConsensusTopicResponse toResponse() {
+        return ConsensusTopicResponse.newBuilder()
+                .setConsensusTimestamp(ProtoUtil.toTimestamp(getConsensusTimestampInstant()))
+                .setMessage(UnsafeByteOperations.unsafeWrap(PayloadCodec.decode(message)))
+                .setSequenceNumber(sequenceNumber)
+                .setRunningHash(UnsafeByteOperations.unsafeWrap(runningHash))
+                .build();
+    }
+
     @Override
     public Long getId() {
         return consensusTimestamp;
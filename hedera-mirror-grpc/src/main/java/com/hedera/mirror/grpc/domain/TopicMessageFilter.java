@@ -38,6 +38,8 @@ import com.hedera.mirror.grpc.validation.StartTime;
 @Value
 public class TopicMessageFilter {
 
+    private String address;
+
     private Instant endTime;
 
     @Min(0)
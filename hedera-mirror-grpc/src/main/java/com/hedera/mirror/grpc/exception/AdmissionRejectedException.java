@@ -0,0 +1,40 @@
+package com.hedera.mirror.grpc.exception;
+
+/*-
+ * ‌
+ * Hedera Mirror Node
+ * ​
+ * Copyright (C) 2019 - 2020 Hedera Hashgraph, LLC
+ * ​
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ‍
+ */
+
+import lombok.Getter;
+
+/**
+ * Thrown when a subscription or historical query is over its rate limit. Global rejections are due to the load on the
+ * server as a whole while the others are due to the client exceeding its own limit.
+ */
+@Getter
+public class AdmissionRejectedException extends RuntimeException {
+
+    private static final long serialVersionUID = 4217950325318651408L;
+
+    private final boolean global;
+
+    public AdmissionRejectedException(String message, boolean global) {
+        super(message);
+        this.global = global;
+    }
+}
@@ -0,0 +1,110 @@
+package com.hedera.mirror.grpc.listener;
+
+/*-
+ * ‌
+ * Hedera Mirror Node
+ * ​
+ * Copyright (C) 2019 - 2020 Hedera Hashgraph, LLC
+ * ​
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ‍
+ */
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import lombok.extern.log4j.Log4j2;
+import reactor.retry.Backoff;
+import reactor.retry.BackoffDelay;
+import reactor.retry.IterationContext;
+
+/**
+ * Adapts the delay between polls to what the previous poll returned. A full page likely means more messages are
+ * waiting, so the next poll happens immediately and a burst is drained without waiting an interval per page. A partial
+ * page resets the delay to the polling frequency, while each empty poll doubles it up to the maximum polling frequency
+ * so that an idle listener queries less often.
+ */
+@Log4j2
+class AdaptivePollingBackoff implements Backoff {
+
+    private final ListenerProperties listenerProperties;
+    private final AtomicLong backlog = new AtomicLong(0L);
+    private volatile Duration interval;
+
+    AdaptivePollingBackoff(ListenerProperties listenerProperties) {
+        this.listenerProperties = listenerProperties;
+        interval = listenerProperties.getPollingFrequency();
+    }
+
+    @Override
+    public BackoffDelay apply(IterationContext<?> context) {
+        return new BackoffDelay(interval);
+    }
+
+    Duration getInterval() {
+        return interval;
+    }
+
+    /**
+     * @return the number of messages read in consecutive full pages since the listener last caught up
+     */
+    long getBacklog() {
+        return backlog.get();
+    }
+
+    /**
+     * Adjusts the delay before the next poll
+     *
+     * @param count    the number of messages the poll returned
+     * @param pageSize the maximum number of messages the poll requested
+     */
+    void onPoll(long count, long pageSize) {
+        Duration pollingFrequency = listenerProperties.getPollingFrequency();
+
+        if (count >= pageSize) {
+            backlog.addAndGet(count);
+            interval = Duration.ZERO;
+        } else if (count > 0 || interval.compareTo(pollingFrequency) < 0) {
+            backlog.set(0L);
+            interval = pollingFrequency;
+        } else {
+            Duration max = listenerProperties.getMaxPollingFrequency();
+            Duration doubled = interval.multipliedBy(2);
+            interval = doubled.compareTo(max) < 0 ? doubled : Collections.max(List.of(max, pollingFrequency));
+        }
+
+        log.trace("Next poll in {}ms after {} messages", interval.toMillis(), count);
+    }
+
+    void reset() {
+        backlog.set(0L);
+        interval = listenerProperties.getPollingFrequency();
+    }
+
+    void register(MeterRegistry meterRegistry, String type) {
+        TimeGauge.builder("hedera.mirror.listener.interval", this, TimeUnit.MILLISECONDS, b -> b.interval.toMillis())
+                .description("The current delay between polls for new messages")
+                .tag("type", type)
+                .register(meterRegistry);
+
+        Gauge.builder("hedera.mirror.listener.backlog", backlog, AtomicLong::get)
+                .description("The number of messages read in full pages since the listener last caught up")
+                .tag("type", type)
+                .register(meterRegistry);
+    }
+}
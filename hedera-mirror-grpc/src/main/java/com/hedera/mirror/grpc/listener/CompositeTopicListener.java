@@ -20,6 +20,8 @@ package com.hedera.mirror.grpc.listener;
  * ‍
  */
 
+import java.util.List;
+import java.util.Optional;
 import javax.inject.Named;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.log4j.Log4j2;
@@ -37,6 +39,7 @@ import com.hedera.mirror.grpc.listener.ListenerProperties.ListenerType;
 public class CompositeTopicListener implements TopicListener {
 
     private final ListenerProperties listenerProperties;
+    private final NotifyingTopicListener notifyingTopicListener;
     private final PollingTopicListener pollingTopicListener;
     private final SharedPollingTopicListener sharedPollingTopicListener;
 
@@ -49,10 +52,21 @@ public class CompositeTopicListener implements TopicListener {
         return getTopicListener().listen(filter);
     }
 
+    @Override
+    public Optional<List<TopicMessage>> getBuffered(TopicMessageFilter filter) {
+        if (!listenerProperties.isEnabled() || !listenerProperties.isRetrieveBuffered()) {
+            return Optional.empty();
+        }
+
+        return getTopicListener().getBuffered(filter);
+    }
+
     private TopicListener getTopicListener() {
         ListenerType type = listenerProperties.getType();
 
         switch (type) {
+            case NOTIFY:
+                return notifyingTopicListener;
             case POLL:
                 return pollingTopicListener;
             case SHARED_POLL:
@@ -43,13 +43,19 @@ public class ListenerProperties {
     @Min(32)
     private int maxPageSize = 10000;
 
+    @NotNull
+    private Duration maxPollingFrequency = Duration.ofSeconds(5);
+
     @NotNull
     private Duration pollingFrequency = Duration.ofSeconds(1);
 
+    private boolean retrieveBuffered = true;
+
     @NotNull
     private ListenerType type = ListenerType.SHARED_POLL;
 
     public enum ListenerType {
+        NOTIFY,
         POLL,
         SHARED_POLL
     }
@@ -0,0 +1,218 @@
+package com.hedera.mirror.grpc.listener;
+
+/*-
+ * ‌
+ * Hedera Mirror Node
+ * ​
+ * Copyright (C) 2019 - 2020 Hedera Hashgraph, LLC
+ * ​
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ‍
+ */
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.inject.Named;
+import javax.sql.DataSource;
+import lombok.Data;
+import lombok.extern.log4j.Log4j2;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import com.hedera.mirror.grpc.converter.InstantToLongConverter;
+import com.hedera.mirror.grpc.domain.TopicMessage;
+import com.hedera.mirror.grpc.domain.TopicMessageFilter;
+import com.hedera.mirror.grpc.listener.ListenerProperties.ListenerType;
+import com.hedera.mirror.grpc.repository.TopicMessageRepository;
+
+/**
+ * Listens on the topic_message channel that the importer notifies with the consensus timestamp of the last topic
+ * message in each record file it commits. Instead of polling on an interval, new messages are only queried when a
+ * notification arrives with a timestamp after the last message seen, so messages are delivered as soon as they're
+ * committed. A single dedicated connection is used for the LISTEN and messages are shared with subscribers via a
+ * {@link TopicMessageDispatcher}.
+ */
+@Named
+@Log4j2
+public class NotifyingTopicListener implements TopicListener {
+
+    static final String CHANNEL = "topic_message";
+
+    private final DataSource dataSource;
+    private final ListenerProperties listenerProperties;
+    private final TopicMessageRepository topicMessageRepository;
+    private final InstantToLongConverter instantToLongConverter;
+    private final Scheduler scheduler;
+
+    private volatile TopicMessageDispatcher dispatcher;
+    private Disposable disposable;
+
+    public NotifyingTopicListener(DataSource dataSource, ListenerProperties listenerProperties,
+                                  TopicMessageRepository topicMessageRepository,
+                                  InstantToLongConverter instantToLongConverter) {
+        this.dataSource = dataSource;
+        this.listenerProperties = listenerProperties;
+        this.topicMessageRepository = topicMessageRepository;
+        this.instantToLongConverter = instantToLongConverter;
+        scheduler = Schedulers.newSingle("notify", true);
+        dispatcher = new TopicMessageDispatcher(listenerProperties.getBufferSize(), Long.MAX_VALUE);
+    }
+
+    /*
+     * Start listening on startup so that the connection is only held when this listener type is in use. This method is
+     * also used by tests to reset the buffer between runs. Outside these two use cases this method should not be used.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void init() {
+        if (disposable != null) {
+            disposable.dispose();
+        }
+
+        if (!listenerProperties.isEnabled() || listenerProperties.getType() != ListenerType.NOTIFY) {
+            dispatcher = new TopicMessageDispatcher(listenerProperties.getBufferSize(), Long.MAX_VALUE);
+            return;
+        }
+
+        NotifyingContext context = new NotifyingContext();
+        dispatcher = new TopicMessageDispatcher(listenerProperties.getBufferSize(),
+                context.getLastConsensusTimestamp());
+        // Closed on the scheduler so it's not closed while the connection is waiting for notifications
+        disposable = Flux.using(this::connect, c -> notifications(c, context),
+                c -> scheduler.schedule(() -> close(c)))
+                .subscribeOn(scheduler)
+                .name("notify")
+                .metrics()
+                .doOnError(e -> log.warn("Error listening for notifications: {}", e.getMessage()))
+                .retryBackoff(Long.MAX_VALUE, listenerProperties.getPollingFrequency())
+                .subscribe(dispatcher::dispatch);
+    }
+
+    @Override
+    public Flux<TopicMessage> listen(TopicMessageFilter filter) {
+        return dispatcher.listen(filter)
+                .doOnSubscribe(s -> log.info("Subscribing: {}", filter));
+    }
+
+    @Override
+    public Optional<List<TopicMessage>> getBuffered(TopicMessageFilter filter) {
+        return dispatcher.getBuffered(filter);
+    }
+
+    private Connection connect() throws SQLException {
+        Connection connection = dataSource.getConnection();
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("listen " + CHANNEL);
+        } catch (SQLException e) {
+            connection.close();
+            throw e;
+        }
+        log.info("Listening for notifications on {}", CHANNEL);
+        return connection;
+    }
+
+    private void close(Connection connection) {
+        try {
+            connection.close();
+            log.info("Stopped listening for notifications on {}", CHANNEL);
+        } catch (SQLException e) {
+            log.warn("Unable to close connection: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Catches up on any messages committed while not listening and then queries for new messages each time a
+     * notification is received. The wait for notifications is bounded by the polling frequency so that a cancelled
+     * subscription is noticed in a timely manner.
+     */
+    private Flux<TopicMessage> notifications(Connection connection, NotifyingContext context) {
+        return fetch(context)
+                .concatWith(Flux.defer(() -> receive(connection, context)).repeat());
+    }
+
+    private Flux<TopicMessage> receive(Connection connection, NotifyingContext context) {
+        int timeout = (int) listenerProperties.getPollingFrequency().toMillis();
+        PGNotification[] notifications;
+        try {
+            notifications = connection.unwrap(PGConnection.class).getNotifications(timeout);
+        } catch (SQLException e) {
+            return Flux.error(e);
+        }
+
+        if (notifications == null) {
+            return Flux.empty();
+        }
+
+        long highWaterMark = 0;
+        for (PGNotification notification : notifications) {
+            highWaterMark = Math.max(highWaterMark, parse(notification));
+        }
+
+        log.debug("Received {} notifications with high-water mark {}", notifications.length, highWaterMark);
+        if (highWaterMark <= context.getLastConsensusTimestamp()) {
+            return Flux.empty();
+        }
+
+        return fetch(context);
+    }
+
+    private long parse(PGNotification notification) {
+        try {
+            return Long.parseLong(notification.getParameter());
+        } catch (NumberFormatException e) {
+            log.warn("Ignoring invalid notification: {}", notification.getParameter());
+            return 0;
+        }
+    }
+
+    /**
+     * Queries for all messages after the last one seen, a page at a time until a page isn't full
+     */
+    private Flux<TopicMessage> fetch(NotifyingContext context) {
+        Pageable pageable = PageRequest.of(0, listenerProperties.getMaxPageSize());
+
+        return Flux.defer(() -> Flux.fromIterable(topicMessageRepository
+                .findLatest(context.getLastConsensusTimestamp(), pageable)))
+                .doOnSubscribe(s -> context.getPageCount().set(0L))
+                .doOnNext(context::onNext)
+                .repeat(() -> context.getPageCount().get() >= pageable.getPageSize())
+                .name("findLatest")
+                .metrics();
+    }
+
+    @Data
+    private class NotifyingContext {
+
+        private final AtomicLong pageCount = new AtomicLong(0L);
+        private volatile long lastConsensusTimestamp = instantToLongConverter
+                .convert(Instant.now().minus(listenerProperties.getBufferInitial()));
+
+        void onNext(TopicMessage topicMessage) {
+            lastConsensusTimestamp = topicMessage.getConsensusTimestamp();
+            pageCount.incrementAndGet();
+            log.trace("Next message: {}", topicMessage);
+        }
+    }
+}
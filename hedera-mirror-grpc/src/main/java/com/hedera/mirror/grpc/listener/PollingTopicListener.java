@@ -44,8 +44,7 @@ public class PollingTopicListener implements TopicListener {
 
     private final ListenerProperties listenerProperties;
     private final TopicMessageRepository topicMessageRepository;
-    private final Scheduler scheduler = Schedulers
-            .newParallel("poll", 4 * Runtime.getRuntime().availableProcessors(), true);
+    private final Scheduler databaseScheduler;
 
     @Override
     public Flux<TopicMessage> listen(TopicMessageFilter filter) {
@@ -53,11 +52,12 @@ public class PollingTopicListener implements TopicListener {
         Duration frequency = listenerProperties.getPollingFrequency();
 
         return Flux.defer(() -> poll(context))
-                .delaySubscription(frequency, scheduler)
+                .subscribeOn(databaseScheduler)
+                .delaySubscription(frequency, Schedulers.parallel())
                 .repeatWhen(Repeat.times(Long.MAX_VALUE)
-                        .fixedBackoff(frequency)
+                        .backoff(context.getBackoff())
                         .jitter(Jitter.random(0.1))
-                        .withBackoffScheduler(scheduler))
+                        .withBackoffScheduler(Schedulers.parallel()))
                 .name("poll")
                 .metrics()
                 .doOnNext(context::onNext)
@@ -76,15 +76,19 @@ public class PollingTopicListener implements TopicListener {
                 .startTime(startTime)
                 .build();
 
+        AtomicLong pageCount = new AtomicLong(0L);
         return Flux.fromStream(topicMessageRepository.findByFilter(newFilter))
                 .name("findByFilter")
-                .metrics();
+                .metrics()
+                .doOnNext(t -> pageCount.incrementAndGet())
+                .doOnComplete(() -> context.getBackoff().onPoll(pageCount.get(), pageSize));
     }
 
     @Data
     private class PollingContext {
 
         private final TopicMessageFilter filter;
+        private final AdaptivePollingBackoff backoff = new AdaptivePollingBackoff(listenerProperties);
         private final AtomicLong count = new AtomicLong(0L);
         private volatile TopicMessage last;
 
@@ -21,7 +21,10 @@ package com.hedera.mirror.grpc.listener;
  */
 
 import com.google.common.base.Stopwatch;
+import io.micrometer.core.instrument.MeterRegistry;
 import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
 import javax.inject.Named;
@@ -51,21 +54,25 @@ public class SharedPollingTopicListener implements TopicListener {
     private final TopicMessageRepository topicMessageRepository;
     private final InstantToLongConverter instantToLongConverter;
     private final Scheduler scheduler;
+    private final AdaptivePollingBackoff backoff;
 
-    private Flux<TopicMessage> poller = Flux.empty();
+    private volatile TopicMessageDispatcher dispatcher;
     private Disposable pollerDisposable;
 
     public SharedPollingTopicListener(ListenerProperties listenerProperties,
                                       TopicMessageRepository topicMessageRepository,
-                                      InstantToLongConverter instantToLongConverter) {
+                                      InstantToLongConverter instantToLongConverter, MeterRegistry meterRegistry) {
         this.listenerProperties = listenerProperties;
         this.topicMessageRepository = topicMessageRepository;
         this.instantToLongConverter = instantToLongConverter;
         scheduler = Schedulers.newSingle("shared-poll", true);
+        backoff = new AdaptivePollingBackoff(listenerProperties);
+        backoff.register(meterRegistry, "shared_poll");
+        dispatcher = new TopicMessageDispatcher(listenerProperties.getBufferSize(), Long.MAX_VALUE);
     }
 
     /*
-     * Subscribe on startup and ignore messages to start backfilling the buffer. This method is also used by tests to
+     * Subscribe on startup and dispatch messages to start backfilling the buffer. This method is also used by tests to
      * reset the buffer between runs. Outside these two use cases this method should not be used.
      */
     @EventListener(ApplicationReadyEvent.class)
@@ -75,13 +82,19 @@ public class SharedPollingTopicListener implements TopicListener {
         }
 
         if (!listenerProperties.isEnabled()) {
+            dispatcher = new TopicMessageDispatcher(listenerProperties.getBufferSize(), Long.MAX_VALUE);
             return;
         }
 
+        // Backfill the buffer on startup. Retries resume from the last message so the buffer has no gaps.
+        backoff.reset();
         PollingContext context = new PollingContext();
-        poller = Flux.defer(() -> poll(context))
+        context.setLastConsensusTimestamp(Instant.now().minus(listenerProperties.getBufferInitial()));
+        dispatcher = new TopicMessageDispatcher(listenerProperties.getBufferSize(),
+                instantToLongConverter.convert(context.getLastConsensusTimestamp()));
+        pollerDisposable = Flux.defer(() -> poll(context))
                 .repeatWhen(Repeat.times(Long.MAX_VALUE)
-                        .fixedBackoff(listenerProperties.getPollingFrequency())
+                        .backoff(backoff)
                         .withBackoffScheduler(scheduler))
                 .name("shared-poll")
                 .metrics()
@@ -89,18 +102,20 @@ public class SharedPollingTopicListener implements TopicListener {
                 .doOnNext(context::onNext)
                 .doOnSubscribe(context::onStart)
                 .retry()
-                .replay(listenerProperties.getBufferSize())
-                .autoConnect(1, disposable -> pollerDisposable = disposable);
-
-        poller.subscribe(t -> {}, e -> {});
+                .subscribe(dispatcher::dispatch);
     }
 
     @Override
     public Flux<TopicMessage> listen(TopicMessageFilter filter) {
-        return poller.filter(t -> filterMessage(t, filter))
+        return dispatcher.listen(filter)
                 .doOnSubscribe(s -> log.info("Subscribing: {}", filter));
     }
 
+    @Override
+    public Optional<List<TopicMessage>> getBuffered(TopicMessageFilter filter) {
+        return dispatcher.getBuffered(filter);
+    }
+
     private Flux<TopicMessage> poll(PollingContext context) {
         Instant instant = context.getLastConsensusTimestamp();
         Long consensusTimestamp = instantToLongConverter.convert(instant);
@@ -114,18 +129,12 @@ public class SharedPollingTopicListener implements TopicListener {
                 .doOnSubscribe(context::onPollStart);
     }
 
-    private boolean filterMessage(TopicMessage message, TopicMessageFilter filter) {
-        return filter.getRealmNum() == message.getRealmNum() &&
-                filter.getTopicNum() == message.getTopicNum() &&
-                !filter.getStartTime().isAfter(message.getConsensusTimestampInstant());
-    }
-
     @Data
     private class PollingContext {
 
         private final AtomicLong count = new AtomicLong(0L);
         private final Stopwatch stopwatch = Stopwatch.createUnstarted();
-        private volatile Instant lastConsensusTimestamp = Instant.now().minus(listenerProperties.getBufferInitial());
+        private volatile Instant lastConsensusTimestamp;
 
         void onNext(TopicMessage topicMessage) {
             count.incrementAndGet();
@@ -134,6 +143,7 @@ public class SharedPollingTopicListener implements TopicListener {
         }
 
         void onPollEnd() {
+            backoff.onPoll(count.get(), listenerProperties.getMaxPageSize());
             var elapsed = stopwatch.elapsed(TimeUnit.MILLISECONDS);
             var rate = elapsed > 0 ? (int) (1000.0 * count.get() / elapsed) : 0;
             log.debug("Finished querying with {} messages in {} ({}/s)", count, stopwatch, rate);
@@ -145,10 +155,9 @@ public class SharedPollingTopicListener implements TopicListener {
             log.debug("Querying for messages after timestamp {}", lastConsensusTimestamp);
         }
 
-        // Backfill the buffer on startup
         void onStart(Subscription subscription) {
-            lastConsensusTimestamp = Instant.now().minus(listenerProperties.getBufferInitial());
-            log.info("Starting to poll every {}ms", listenerProperties.getPollingFrequency().toMillis());
+            log.info("Starting to poll every {}ms to {}ms", listenerProperties.getPollingFrequency().toMillis(),
+                    listenerProperties.getMaxPollingFrequency().toMillis());
         }
     }
 }
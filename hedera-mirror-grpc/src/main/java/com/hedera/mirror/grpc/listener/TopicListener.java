@@ -20,6 +20,8 @@ package com.hedera.mirror.grpc.listener;
  * ‍
  */
 
+import java.util.List;
+import java.util.Optional;
 import reactor.core.publisher.Flux;
 
 import com.hedera.mirror.grpc.domain.TopicMessage;
@@ -31,4 +33,12 @@ import com.hedera.mirror.grpc.domain.TopicMessageFilter;
  */
 public interface TopicListener {
     Flux<TopicMessage> listen(TopicMessageFilter filter);
+
+    /**
+     * Returns the messages matching the filter from the listener's buffer of recent messages if it holds every message
+     * of the topic in the filter's range. Otherwise returns empty and the caller should query the database instead.
+     */
+    default Optional<List<TopicMessage>> getBuffered(TopicMessageFilter filter) {
+        return Optional.empty();
+    }
 }
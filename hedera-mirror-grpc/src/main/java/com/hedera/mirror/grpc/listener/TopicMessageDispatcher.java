@@ -0,0 +1,266 @@
+package com.hedera.mirror.grpc.listener;
+
+/*-
+ * ‌
+ * Hedera Mirror Node
+ * ​
+ * Copyright (C) 2019 - 2020 Hedera Hashgraph, LLC
+ * ​
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ‍
+ */
+
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import lombok.Value;
+import lombok.extern.log4j.Log4j2;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.FluxSink;
+
+import com.hedera.mirror.grpc.converter.InstantToLongConverter;
+import com.hedera.mirror.grpc.domain.TopicMessage;
+import com.hedera.mirror.grpc.domain.TopicMessageFilter;
+
+/**
+ * Routes messages from a single source to the subscribers of their topic. Subscribers are registered per (realm,
+ * topic) so that each message is only offered to the subscribers that are interested in it, instead of every
+ * subscriber filtering every message. The most recent messages are kept per topic so that new subscribers can be
+ * replayed the messages after their start time that were dispatched before they subscribed. The replay buffer is
+ * bounded across all topics by evicting the oldest message dispatched to any topic.
+ * <p>
+ * The buffer also serves as a cache of recent messages for historical queries. Each topic tracks the consensus
+ * timestamp after which it's known to hold every message of the topic, taking into account the timestamp the source
+ * started at, evictions and gaps in sequence numbers. Queries that start after that timestamp, or that start before it
+ * when the buffer holds the topic's first message, can be answered without going to the database. Since the source
+ * lags the database, a query with an end time must also end at or before the last dispatched message, unless the
+ * buffer reaches its limit first. Open-ended queries are served the rest by the listener.
+ * <p>
+ * {@link #dispatch(TopicMessage)} must be called from a single thread in consensus timestamp order.
+ */
+@Log4j2
+class TopicMessageDispatcher {
+
+    private static final InstantToLongConverter instantToLongConverter = new InstantToLongConverter();
+
+    private final int bufferSize;
+    private final Map<TopicKey, Topic> topics = new ConcurrentHashMap<>();
+    private final Deque<Topic> dispatchOrder = new ArrayDeque<>();
+    private volatile long completeAfter;
+    private volatile long lastConsensusTimestamp;
+
+    /**
+     * @param bufferSize    the maximum number of messages to buffer across all topics
+     * @param completeAfter the consensus timestamp after which the source dispatches every message
+     */
+    TopicMessageDispatcher(int bufferSize, long completeAfter) {
+        this.bufferSize = bufferSize;
+        this.completeAfter = completeAfter;
+        lastConsensusTimestamp = completeAfter;
+    }
+
+    void dispatch(TopicMessage topicMessage) {
+        // Sources may re-read messages after an error, so ignore those that were already dispatched
+        if (topicMessage.getConsensusTimestamp() <= lastConsensusTimestamp) {
+            return;
+        }
+
+        lastConsensusTimestamp = topicMessage.getConsensusTimestamp();
+        TopicKey key = new TopicKey(topicMessage.getRealmNum(), topicMessage.getTopicNum());
+
+        while (true) {
+            Topic topic = topics.computeIfAbsent(key, Topic::new);
+            synchronized (topic) {
+                if (!topic.isRemoved()) {
+                    topic.onNext(topicMessage);
+                    dispatchOrder.add(topic);
+                    break;
+                }
+            }
+        }
+
+        if (dispatchOrder.size() > bufferSize) {
+            Topic oldest = dispatchOrder.remove();
+            synchronized (oldest) {
+                completeAfter = oldest.evict();
+            }
+        }
+    }
+
+    Flux<TopicMessage> listen(TopicMessageFilter filter) {
+        TopicKey key = new TopicKey(filter.getRealmNum(), filter.getTopicNum());
+        return Flux.create(sink -> {
+            while (true) {
+                Topic topic = topics.computeIfAbsent(key, Topic::new);
+                synchronized (topic) {
+                    if (!topic.isRemoved()) {
+                        topic.subscribe(new Subscriber(filter.getStartTime(), sink));
+                        break;
+                    }
+                }
+            }
+        });
+    }
+
+    /**
+     * Returns the buffered messages that match the filter if the buffer holds every message of the topic in the
+     * filter's range, otherwise empty.
+     */
+    Optional<List<TopicMessage>> getBuffered(TopicMessageFilter filter) {
+        TopicKey key = new TopicKey(filter.getRealmNum(), filter.getTopicNum());
+        long startTime = instantToLongConverter.convert(filter.getStartTime());
+        Long endTime = filter.getEndTime() != null ? instantToLongConverter.convert(filter.getEndTime()) : null;
+        // Read before the topic so that every message before it is known to have been dispatched to the topic
+        long dispatched = lastConsensusTimestamp;
+        Topic topic = topics.get(key);
+
+        if (topic == null) {
+            // Every message of a topic that's not in the map was evicted or dispatched before the source started
+            return startTime > completeAfter && isDispatched(endTime, dispatched) ? Optional.of(List.of()) :
+                    Optional.empty();
+        }
+
+        synchronized (topic) {
+            return topic.getBuffered(filter, startTime, endTime, dispatched);
+        }
+    }
+
+    /**
+     * Whether every message before the exclusive end time has been dispatched. Open-ended ranges always are since the
+     * rest of their messages are still to be dispatched to the listener.
+     */
+    private static boolean isDispatched(Long endTime, long dispatched) {
+        return endTime == null || endTime <= dispatched;
+    }
+
+    int getTopicCount() {
+        return topics.size();
+    }
+
+    @Value
+    private static class TopicKey {
+        private int realmNum;
+        private int topicNum;
+    }
+
+    @Value
+    private static class Subscriber {
+        private Instant startTime;
+        private FluxSink<TopicMessage> sink;
+
+        void onNext(TopicMessage topicMessage) {
+            if (!startTime.isAfter(topicMessage.getConsensusTimestampInstant())) {
+                sink.next(topicMessage);
+            }
+        }
+    }
+
+    /**
+     * The replay buffer and subscribers of a single topic. Access is guarded by synchronizing on the instance so that
+     * new subscribers see every message exactly once, either as part of the replay or afterwards as it's dispatched.
+     * A topic with no buffered messages and no subscribers is removed from the map and marked as such so that a
+     * concurrent caller that still holds a reference to it retries with a new instance.
+     */
+    private class Topic {
+
+        private final TopicKey key;
+        private final NavigableMap<Long, TopicMessage> buffer = new TreeMap<>();
+        private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+        private long completeAfter;
+        private TopicMessage last;
+        private boolean removed = false;
+
+        private Topic(TopicKey key) {
+            this.key = key;
+            completeAfter = TopicMessageDispatcher.this.completeAfter;
+        }
+
+        boolean isRemoved() {
+            return removed;
+        }
+
+        void onNext(TopicMessage topicMessage) {
+            if (last != null && last.getSequenceNumber() + 1 != topicMessage.getSequenceNumber()) {
+                log.warn("Sequence number gap in {} between {} and {}", key, last, topicMessage);
+                completeAfter = topicMessage.getConsensusTimestamp() - 1;
+            }
+
+            last = topicMessage;
+            buffer.put(topicMessage.getConsensusTimestamp(), topicMessage);
+            subscribers.forEach(s -> s.onNext(topicMessage));
+        }
+
+        /**
+         * Removes the oldest buffered message
+         *
+         * @return the consensus timestamp of the removed message
+         */
+        long evict() {
+            TopicMessage evicted = buffer.pollFirstEntry().getValue();
+            completeAfter = Math.max(completeAfter, evicted.getConsensusTimestamp());
+            removeIfUnused();
+            return evicted.getConsensusTimestamp();
+        }
+
+        Optional<List<TopicMessage>> getBuffered(TopicMessageFilter filter, long startTime, Long endTime,
+                                                 long dispatched) {
+            Map.Entry<Long, TopicMessage> first = buffer.firstEntry();
+            boolean hasFirstMessage = first != null && first.getValue().getSequenceNumber() == 1 &&
+                    first.getKey() > completeAfter;
+            if (startTime <= completeAfter && !hasFirstMessage) {
+                return Optional.empty();
+            }
+
+            NavigableMap<Long, TopicMessage> range = endTime != null ? buffer.subMap(startTime, true, endTime, false) :
+                    buffer.tailMap(startTime, true);
+            List<TopicMessage> messages = new ArrayList<>();
+            for (TopicMessage topicMessage : range.values()) {
+                if (filter.hasLimit() && messages.size() >= filter.getLimit()) {
+                    break;
+                }
+                messages.add(topicMessage);
+            }
+
+            boolean limitReached = filter.hasLimit() && messages.size() >= filter.getLimit();
+            return limitReached || isDispatched(endTime, dispatched) ? Optional.of(messages) : Optional.empty();
+        }
+
+        void subscribe(Subscriber subscriber) {
+            buffer.values().forEach(subscriber::onNext);
+            subscribers.add(subscriber);
+            // Registered last since it runs immediately if the subscriber has already cancelled
+            subscriber.getSink().onDispose(() -> unsubscribe(subscriber));
+            log.debug("Subscribed to {} with {} subscribers", key, subscribers.size());
+        }
+
+        private synchronized void unsubscribe(Subscriber subscriber) {
+            subscribers.remove(subscriber);
+            removeIfUnused();
+        }
+
+        private void removeIfUnused() {
+            if (buffer.isEmpty() && subscribers.isEmpty()) {
+                removed = true;
+                topics.remove(key, this);
+            }
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.hedera.mirror.grpc.retriever;
+
+/*-
+ * ‌
+ * Hedera Mirror Node
+ * ​
+ * Copyright (C) 2019 - 2020 Hedera Hashgraph, LLC
+ * ​
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ‍
+ */
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.inject.Named;
+import lombok.Getter;
+import lombok.Value;
+import lombok.extern.log4j.Log4j2;
+import reactor.core.publisher.Flux;
+
+import com.hedera.mirror.grpc.domain.TopicMessage;
+import com.hedera.mirror.grpc.domain.TopicMessageFilter;
+
+/**
+ * Coalesces concurrent reads of the same page of messages into a single query. Reads with the same topic, start time
+ * and end time share the in-flight query as long as its limit covers theirs, and the query's results are replayed to
+ * every reader that joins before it completes. The query runs to completion even if all its readers cancel since a
+ * page is bounded by the retriever's maximum page size.
+ */
+@Log4j2
+@Named
+public class CoalescingTopicMessageReader {
+
+    private final TopicMessageCursorReader topicMessageCursorReader;
+    private final RetrieverProperties retrieverProperties;
+    private final Map<QueryKey, Query> queries = new ConcurrentHashMap<>();
+    private final Counter executedMetric;
+    private final Counter coalescedMetric;
+
+    public CoalescingTopicMessageReader(TopicMessageCursorReader topicMessageCursorReader,
+                                        RetrieverProperties retrieverProperties, MeterRegistry meterRegistry) {
+        this.topicMessageCursorReader = topicMessageCursorReader;
+        this.retrieverProperties = retrieverProperties;
+        executedMetric = queryMetric("executed", meterRegistry);
+        coalescedMetric = queryMetric("coalesced", meterRegistry);
+    }
+
+    public Flux<TopicMessage> read(TopicMessageFilter filter) {
+        if (!retrieverProperties.isCoalesce()) {
+            executedMetric.increment();
+            return topicMessageCursorReader.read(filter);
+        }
+
+        return Flux.defer(() -> {
+            Query created = new Query(filter);
+            Query query = queries.merge(created.getKey(), created, (e, c) -> e.covers(c) ? e : c);
+
+            if (query != created) {
+                coalescedMetric.increment();
+                log.debug("[{}] Coalesced query with {}", filter.getSubscriberId(), query.getFilter());
+                return query.getMessages().take(created.getLimit());
+            }
+
+            executedMetric.increment();
+            return query.getMessages();
+        });
+    }
+
+    int getInFlightCount() {
+        return queries.size();
+    }
+
+    private Counter queryMetric(String type, MeterRegistry meterRegistry) {
+        return Counter.builder("hedera.mirror.retriever.queries")
+                .description("The number of historical message queries executed or coalesced into an in-flight query")
+                .tag("type", type)
+                .register(meterRegistry);
+    }
+
+    @Value
+    private static class QueryKey {
+        private int realmNum;
+        private int topicNum;
+        private Instant startTime;
+        private Instant endTime;
+    }
+
+    @Getter
+    private class Query {
+        private final TopicMessageFilter filter;
+        private final QueryKey key;
+        private final long limit;
+        private final Flux<TopicMessage> messages;
+
+        private Query(TopicMessageFilter filter) {
+            this.filter = filter;
+            key = new QueryKey(filter.getRealmNum(), filter.getTopicNum(), filter.getStartTime(), filter.getEndTime());
+            limit = filter.hasLimit() ? filter.getLimit() : Long.MAX_VALUE;
+            messages = Flux.defer(() -> topicMessageCursorReader.read(filter))
+                    .doFinally(s -> queries.remove(key, this))
+                    .replay()
+                    .autoConnect();
+        }
+
+        boolean covers(Query other) {
+            return limit >= other.getLimit();
+        }
+    }
+}
@@ -27,6 +27,7 @@ import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
 import javax.inject.Named;
 import lombok.Data;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.log4j.Log4j2;
 import reactor.core.publisher.Flux;
 import reactor.core.scheduler.Scheduler;
@@ -36,23 +37,15 @@ import reactor.retry.Repeat;
 
 import com.hedera.mirror.grpc.domain.TopicMessage;
 import com.hedera.mirror.grpc.domain.TopicMessageFilter;
-import com.hedera.mirror.grpc.repository.TopicMessageRepository;
 
 @Named
 @Log4j2
+@RequiredArgsConstructor
 public class PollingTopicMessageRetriever implements TopicMessageRetriever {
 
     private final RetrieverProperties retrieverProperties;
-    private final TopicMessageRepository topicMessageRepository;
-    private final Scheduler scheduler;
-
-    public PollingTopicMessageRetriever(RetrieverProperties retrieverProperties,
-                                        TopicMessageRepository topicMessageRepository) {
-        this.retrieverProperties = retrieverProperties;
-        this.topicMessageRepository = topicMessageRepository;
-        int threadCount = retrieverProperties.getThreadMultiplier() * Runtime.getRuntime().availableProcessors();
-        scheduler = Schedulers.newParallel("retriever", threadCount, true);
-    }
+    private final CoalescingTopicMessageReader coalescingTopicMessageReader;
+    private final Scheduler databaseScheduler;
 
     @Override
     public Flux<TopicMessage> retrieve(TopicMessageFilter filter) {
@@ -62,14 +55,15 @@ public class PollingTopicMessageRetriever implements TopicMessageRetriever {
 
         PollingContext context = new PollingContext(filter);
         return Flux.defer(() -> poll(context))
+                .subscribeOn(databaseScheduler)
                 .repeatWhen(Repeat.create(r -> !context.isComplete(), Long.MAX_VALUE)
                         .fixedBackoff(retrieverProperties.getPollingFrequency())
                         .jitter(Jitter.random(0.1))
-                        .withBackoffScheduler(scheduler))
+                        .withBackoffScheduler(Schedulers.parallel()))
                 .name("retriever")
                 .metrics()
                 .retryBackoff(Long.MAX_VALUE, Duration.ofSeconds(1))
-                .timeout(retrieverProperties.getTimeout(), scheduler)
+                .timeout(retrieverProperties.getTimeout(), Schedulers.parallel())
                 .doOnCancel(context::onComplete)
                 .doOnComplete(context::onComplete)
                 .doOnNext(context::onNext);
@@ -89,7 +83,7 @@ public class PollingTopicMessageRetriever implements TopicMessageRetriever {
                 .build();
 
         log.debug("Executing query: {}", newFilter);
-        return Flux.fromStream(topicMessageRepository.findByFilter(newFilter))
+        return coalescingTopicMessageReader.read(newFilter)
                 .name("findByFilter")
                 .metrics();
     }
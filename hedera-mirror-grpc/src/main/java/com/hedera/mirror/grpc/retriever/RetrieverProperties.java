@@ -32,17 +32,19 @@ import org.springframework.validation.annotation.Validated;
 @ConfigurationProperties("hedera.mirror.grpc.retriever")
 public class RetrieverProperties {
 
+    private boolean coalesce = true;
+
     private boolean enabled = true;
 
+    @Min(1)
+    private int fetchSize = 100;
+
     @Min(32)
     private int maxPageSize = 1000;
 
     @NotNull
     private Duration pollingFrequency = Duration.ofSeconds(2L);
 
-    @Min(1)
-    private int threadMultiplier = 4;
-
     @NotNull
     private Duration timeout = Duration.ofSeconds(60L);
 }
@@ -0,0 +1,138 @@
+package com.hedera.mirror.grpc.retriever;
+
+/*-
+ * ‌
+ * Hedera Mirror Node
+ * ​
+ * Copyright (C) 2019 - 2020 Hedera Hashgraph, LLC
+ * ​
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ‍
+ */
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import javax.inject.Named;
+import javax.sql.DataSource;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.log4j.Log4j2;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.SynchronousSink;
+import reactor.core.scheduler.Schedulers;
+
+import com.hedera.mirror.grpc.converter.InstantToLongConverter;
+import com.hedera.mirror.grpc.domain.TopicMessage;
+import com.hedera.mirror.grpc.domain.TopicMessageFilter;
+
+/**
+ * Reads the messages matching a filter from a JDBC cursor, fetching rows from the database in batches of the fetch
+ * size. Rows are mapped directly to messages without going through the persistence context, so a page of results is
+ * never fully materialized as managed entities. The connection is held until the cursor is exhausted, errors or is
+ * cancelled.
+ * <p>
+ * Up to the retriever's maximum page size of rows are read ahead of the subscriber's demand, so a page is read in one
+ * go and its connection is returned to the pool regardless of how slowly the client consumes it. Otherwise a few slow
+ * clients could hold on to enough connections to starve everything else that needs the database.
+ */
+@Log4j2
+@Named
+@RequiredArgsConstructor
+public class TopicMessageCursorReader {
+
+    private static final String SELECT_BY_FILTER = "select consensus_timestamp, message, realm_num, running_hash, " +
+            "sequence_number, topic_num from topic_message where realm_num = ? and topic_num = ? and " +
+            "consensus_timestamp >= ?";
+
+    private final DataSource dataSource;
+    private final InstantToLongConverter converter;
+    private final RetrieverProperties retrieverProperties;
+
+    public Flux<TopicMessage> read(TopicMessageFilter filter) {
+        // Hidden so that the buffer can't fuse with the cursor and pull rows only as they're requested downstream
+        return Flux.using(() -> new Cursor(filter), c -> Flux.generate(c::next), Cursor::close)
+                .hide()
+                .publishOn(Schedulers.immediate(), retrieverProperties.getMaxPageSize());
+    }
+
+    /**
+     * An open result set over the messages matching a filter. Postgres only fetches rows in batches of the fetch size
+     * when auto-commit is off, otherwise the driver reads the whole result into memory.
+     */
+    private class Cursor {
+
+        private final Connection connection;
+        private final PreparedStatement statement;
+        private final ResultSet resultSet;
+
+        private Cursor(TopicMessageFilter filter) throws SQLException {
+            StringBuilder sql = new StringBuilder(SELECT_BY_FILTER);
+            if (filter.getEndTime() != null) {
+                sql.append(" and consensus_timestamp < ?");
+            }
+            sql.append(" order by consensus_timestamp asc");
+            if (filter.hasLimit()) {
+                sql.append(" limit ?");
+            }
+
+            connection = dataSource.getConnection();
+            try {
+                connection.setAutoCommit(false);
+                connection.setReadOnly(true);
+                statement = connection.prepareStatement(sql.toString());
+                statement.setFetchSize(retrieverProperties.getFetchSize());
+
+                int index = 1;
+                statement.setInt(index++, filter.getRealmNum());
+                statement.setInt(index++, filter.getTopicNum());
+                statement.setLong(index++, converter.convert(filter.getStartTime()));
+                if (filter.getEndTime() != null) {
+                    statement.setLong(index++, converter.convert(filter.getEndTime()));
+                }
+                if (filter.hasLimit()) {
+                    statement.setLong(index, filter.getLimit());
+                }
+
+                resultSet = statement.executeQuery();
+            } catch (SQLException e) {
+                connection.close();
+                throw e;
+            }
+        }
+
+        void next(SynchronousSink<TopicMessage> sink) {
+            try {
+                if (!resultSet.next()) {
+                    sink.complete();
+                    return;
+                }
+
+                sink.next(new TopicMessage(resultSet.getLong(1), resultSet.getBytes(2), resultSet.getInt(3),
+                        resultSet.getBytes(4), resultSet.getLong(5), resultSet.getInt(6)));
+            } catch (SQLException e) {
+                sink.error(e);
+            }
+        }
+
+        void close() {
+            try {
+                // Nothing was written, so ending the transaction either way just closes the cursor
+                connection.rollback();
+                connection.close();
+            } catch (SQLException e) {
+                log.warn("Unable to close cursor: {}", e.getMessage());
+            }
+        }
+    }
+}
@@ -21,23 +21,35 @@ package com.hedera.mirror.grpc.service;
  */
 
 import com.google.common.base.Stopwatch;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
 import java.time.Instant;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
 import javax.inject.Named;
 import lombok.Data;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.log4j.Log4j2;
 import org.springframework.validation.annotation.Validated;
+import reactor.core.Exceptions;
+import reactor.core.publisher.BufferOverflowStrategy;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
 import reactor.retry.Repeat;
 
 import com.hedera.mirror.grpc.GrpcProperties;
+import com.hedera.mirror.grpc.GrpcProperties.OverflowPolicy;
+import com.hedera.mirror.grpc.admission.AdmissionLimiter;
 import com.hedera.mirror.grpc.domain.Entity;
 import com.hedera.mirror.grpc.domain.EntityType;
 import com.hedera.mirror.grpc.domain.TopicMessage;
 import com.hedera.mirror.grpc.domain.TopicMessageFilter;
+import com.hedera.mirror.grpc.exception.SlowConsumerException;
 import com.hedera.mirror.grpc.exception.TopicNotFoundException;
 import com.hedera.mirror.grpc.listener.TopicListener;
 import com.hedera.mirror.grpc.repository.EntityRepository;
@@ -45,21 +57,53 @@ import com.hedera.mirror.grpc.retriever.TopicMessageRetriever;
 
 @Named
 @Log4j2
-@RequiredArgsConstructor
 @Validated
 public class TopicMessageServiceImpl implements TopicMessageService {
 
     private final GrpcProperties grpcProperties;
+    private final AdmissionLimiter admissionLimiter;
     private final TopicListener topicListener;
     private final EntityRepository entityRepository;
     private final TopicMessageRetriever topicMessageRetriever;
+    private final Scheduler databaseScheduler;
+    private final Set<AtomicLong> subscriberQueues = ConcurrentHashMap.newKeySet();
+    private final Map<OverflowPolicy, Counter> overflowMetrics = new EnumMap<>(OverflowPolicy.class);
+
+    public TopicMessageServiceImpl(GrpcProperties grpcProperties, AdmissionLimiter admissionLimiter,
+                                   TopicListener topicListener, EntityRepository entityRepository,
+                                   TopicMessageRetriever topicMessageRetriever, Scheduler databaseScheduler,
+                                   MeterRegistry meterRegistry) {
+        this.grpcProperties = grpcProperties;
+        this.admissionLimiter = admissionLimiter;
+        this.topicListener = topicListener;
+        this.entityRepository = entityRepository;
+        this.topicMessageRetriever = topicMessageRetriever;
+        this.databaseScheduler = databaseScheduler;
+
+        Gauge.builder("hedera.mirror.subscriber.queued", subscriberQueues, q -> q.stream()
+                .mapToLong(AtomicLong::get).sum())
+                .description("The number of incoming messages queued across all subscribers")
+                .register(meterRegistry);
+
+        Gauge.builder("hedera.mirror.subscriber.queued.max", subscriberQueues, q -> q.stream()
+                .mapToLong(AtomicLong::get).max().orElse(0L))
+                .description("The largest number of incoming messages queued for a single subscriber")
+                .register(meterRegistry);
+
+        for (OverflowPolicy policy : OverflowPolicy.values()) {
+            overflowMetrics.put(policy, Counter.builder("hedera.mirror.subscriber.overflow")
+                    .description("The number of incoming messages that overflowed a slow subscriber's queue")
+                    .tag("policy", policy.name().toLowerCase())
+                    .register(meterRegistry));
+        }
+    }
 
     @Override
     public Flux<TopicMessage> subscribeTopic(TopicMessageFilter filter) {
         log.info("Subscribing to topic: {}", filter);
         TopicContext topicContext = new TopicContext(filter);
 
-        return topicExists(filter).thenMany(topicMessageRetriever.retrieve(filter)
+        return topicExists(filter).thenMany(historicalMessages(filter)
                 .concatWith(Flux.defer(() -> incomingMessages(topicContext))) // Defer creation until query complete
                 .filter(t -> t.compareTo(topicContext.getLastTopicMessage()) > 0) // Ignore duplicates
                 .takeWhile(t -> filter.getEndTime() == null || t.getConsensusTimestampInstant()
@@ -71,14 +115,32 @@ public class TopicMessageServiceImpl implements TopicMessageService {
     }
 
     private Mono<?> topicExists(TopicMessageFilter filter) {
-        return Mono.justOrEmpty(entityRepository
+        return Mono.fromCallable(() -> entityRepository
                 .findByCompositeKey(grpcProperties.getShard(), filter.getRealmNum(), filter.getTopicNum()))
+                .subscribeOn(databaseScheduler)
+                .flatMap(Mono::justOrEmpty)
                 .switchIfEmpty(grpcProperties.isCheckTopicExists() ? Mono.error(new TopicNotFoundException()) :
                         Mono.just(Entity.builder().entityTypeId(EntityType.TOPIC).build()))
                 .filter(e -> e.getEntityTypeId() == EntityType.TOPIC)
                 .switchIfEmpty(Mono.error(new IllegalArgumentException("Not a valid topic")));
     }
 
+    /**
+     * Serves historical messages from the listener's buffer of recent messages when it covers the whole range so that
+     * subscribers starting close to now don't need to query the database. Only queries that go to the database are
+     * subject to the admission limits, and the queries that fill in missing messages later on aren't since the
+     * subscription was already admitted.
+     */
+    private Flux<TopicMessage> historicalMessages(TopicMessageFilter filter) {
+        return Flux.defer(() -> topicListener.getBuffered(filter)
+                .map(messages -> {
+                    log.debug("[{}] Retrieved {} buffered messages", filter.getSubscriberId(), messages.size());
+                    return Flux.fromIterable(messages);
+                })
+                .orElseGet(() -> Mono.fromRunnable(() -> admissionLimiter.admitQuery(filter))
+                        .thenMany(topicMessageRetriever.retrieve(filter))));
+    }
+
     private Flux<TopicMessage> incomingMessages(TopicContext topicContext) {
         if (topicContext.isComplete()) {
             return Flux.empty();
@@ -95,10 +157,31 @@ public class TopicMessageServiceImpl implements TopicMessageService {
                 .build();
 
         return topicListener.listen(newFilter)
+                .as(t -> buffer(topicContext, t))
                 .takeUntilOther(pastEndTime(topicContext))
                 .concatMap(t -> missingMessages(topicContext, t));
     }
 
+    /**
+     * Bounds the number of incoming messages queued for a subscriber that requests them slower than they arrive. When
+     * the queue overflows the subscription either fails or the oldest queued messages are dropped, in which case the
+     * gap is filled in from the database once the subscriber catches up to it.
+     */
+    private Flux<TopicMessage> buffer(TopicContext topicContext, Flux<TopicMessage> incoming) {
+        int bufferSize = grpcProperties.getSubscriberBufferSize();
+        OverflowPolicy policy = grpcProperties.getSubscriberOverflowPolicy();
+        BufferOverflowStrategy strategy = policy == OverflowPolicy.TERMINATE ? BufferOverflowStrategy.ERROR :
+                BufferOverflowStrategy.DROP_OLDEST;
+        AtomicLong queued = new AtomicLong(0L);
+
+        return incoming.doOnNext(t -> queued.incrementAndGet())
+                .onBackpressureBuffer(bufferSize, t -> topicContext.onOverflow(queued, policy), strategy)
+                .doOnNext(t -> queued.decrementAndGet())
+                .onErrorMap(Exceptions::isOverflow, e -> new SlowConsumerException())
+                .doOnSubscribe(s -> subscriberQueues.add(queued))
+                .doFinally(s -> subscriberQueues.remove(queued));
+    }
+
     private Flux<Object> pastEndTime(TopicContext topicContext) {
         if (topicContext.getFilter().getEndTime() == null) {
             return Flux.never();
@@ -199,6 +282,19 @@ public class TopicMessageServiceImpl implements TopicMessageService {
                     filter.getSubscriberId(), topicId, count, stopwatch, rate());
         }
 
+        void onOverflow(AtomicLong queued, OverflowPolicy policy) {
+            queued.decrementAndGet(); // The dropped or rejected message
+            overflowMetrics.get(policy).increment();
+
+            if (policy == OverflowPolicy.TERMINATE) {
+                log.warn("[{}] Topic {} terminating slow subscriber with {} queued messages",
+                        filter.getSubscriberId(), topicId, queued);
+            } else {
+                log.debug("[{}] Topic {} dropped oldest queued message for slow subscriber", filter.getSubscriberId(),
+                        topicId);
+            }
+        }
+
         void onNext(TopicMessage topicMessage) {
             if (!isNext(topicMessage)) {
                 throw new IllegalStateException(String
@@ -0,0 +1,90 @@
+package com.hedera.mirror.grpc.util;
+
+/*-
+ * ‌
+ * Hedera Mirror Node
+ * ​
+ * Copyright (C) 2019 - 2020 Hedera Hashgraph, LLC
+ * ​
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ‍
+ */
+
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+import lombok.extern.log4j.Log4j2;
+
+/**
+ * Decodes payloads that the importer may have compressed before writing them to the database. Compressed payloads
+ * start with a magic marker followed by a format byte, while anything else is returned as is. Must match the
+ * importer's PayloadCodec.
+ * <p>
+ * A compressed payload that can't be decoded is returned as stored instead of failing, since the error would otherwise
+ * end every subscription that replays the message.
+ */
+@Log4j2
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public final class PayloadCodec {
+
+    private static final byte FORMAT_RAW = 0;
+    private static final byte FORMAT_DEFLATE = 1;
+    private static final byte[] MAGIC = {0x00, 'H', 'M', 'C'};
+    private static final int HEADER_LENGTH = MAGIC.length + 1;
+
+    public static byte[] decode(byte[] data) {
+        if (data == null || data.length < HEADER_LENGTH ||
+                !Arrays.equals(data, 0, MAGIC.length, MAGIC, 0, MAGIC.length)) {
+            return data;
+        }
+
+        byte[] payload = Arrays.copyOfRange(data, HEADER_LENGTH, data.length);
+        switch (data[MAGIC.length]) {
+            case FORMAT_RAW:
+                return payload;
+            case FORMAT_DEFLATE:
+                try {
+                    return inflate(payload);
+                } catch (IllegalArgumentException e) {
+                    log.warn("Unable to decode payload of {} bytes: {}", data.length, e.getMessage());
+                    return data;
+                }
+            default:
+                return data;
+        }
+    }
+
+    private static byte[] inflate(byte[] compressed) {
+        Inflater inflater = new Inflater(true);
+        try {
+            inflater.setInput(compressed);
+            ByteArrayOutputStream outputStream = new ByteArrayOutputStream(compressed.length * 4);
+            byte[] buffer = new byte[4096];
+            while (!inflater.finished()) {
+                int length = inflater.inflate(buffer);
+                if (length == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new IllegalArgumentException("Truncated compressed payload");
+                }
+                outputStream.write(buffer, 0, length);
+            }
+            return outputStream.toByteArray();
+        } catch (DataFormatException e) {
+            throw new IllegalArgumentException("Invalid compressed payload", e);
+        } finally {
+            inflater.end();
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package com.hedera.mirror.grpc.admission;
+
+/*-
+ * ‌
+ * Hedera Mirror Node
+ * ​
+ * Copyright (C) 2019 - 2020 Hedera Hashgraph, LLC
+ * ​
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ‍
+ */
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.hedera.mirror.grpc.domain.TopicMessageFilter;
+import com.hedera.mirror.grpc.exception.AdmissionRejectedException;
+
+public class AdmissionLimiterTest {
+
+    private AdmissionProperties admissionProperties;
+    private MeterRegistry meterRegistry;
+    private AdmissionLimiter admissionLimiter;
+
+    @BeforeEach
+    void setup() {
+        admissionProperties = new AdmissionProperties();
+        admissionProperties.setGlobalQueries(new AdmissionProperties.RateLimit(3, 1));
+        admissionProperties.setGlobalSubscriptions(new AdmissionProperties.RateLimit(3, 1));
+        admissionProperties.setPeerQueries(new AdmissionProperties.RateLimit(2, 1));
+        admissionProperties.setPeerSubscriptions(new AdmissionProperties.RateLimit(2, 1));
+        meterRegistry = new SimpleMeterRegistry();
+        admissionLimiter = new AdmissionLimiter(admissionProperties, meterRegistry);
+    }
+
+    @Test
+    void peerLimit() {
+        admissionLimiter.admitSubscription(filter("1.1.1.1"));
+        admissionLimiter.admitSubscription(filter("1.1.1.1"));
+
+        assertThatThrownBy(() -> admissionLimiter.admitSubscription(filter("1.1.1.1")))
+                .isInstanceOf(AdmissionRejectedException.class)
+                .hasMessage("Too many subscriptions from this client")
+                .hasFieldOrPropertyWithValue("global", false);
+        assertThat(rejected("subscription", "peer")).isEqualTo(1.0);
+        assertThat(rejected("subscription", "global")).isZero();
+
+        admissionLimiter.admitSubscription(filter("2.2.2.2"));
+    }
+
+    @Test
+    void globalLimit() {
+        admissionLimiter.admitQuery(filter("1.1.1.1"));
+        admissionLimiter.admitQuery(filter("2.2.2.2"));
+        admissionLimiter.admitQuery(filter("3.3.3.3"));
+
+        assertThatThrownBy(() -> admissionLimiter.admitQuery(filter("4.4.4.4")))
+                .isInstanceOf(AdmissionRejectedException.class)
+                .hasMessage("Too many historical queries. Please retry later")
+                .hasFieldOrPropertyWithValue("global", true);
+        assertThat(rejected("query", "global")).isEqualTo(1.0);
+        assertThat(rejected("query", "peer")).isZero();
+    }
+
+    @Test
+    void peerRejectionDoesNotUseGlobalTokens() {
+        for (int i = 0; i < 2; i++) {
+            admissionLimiter.admitQuery(filter("1.1.1.1"));
+        }
+
+        for (int i = 0; i < 5; i++) {
+            assertThatThrownBy(() -> admissionLimiter.admitQuery(filter("1.1.1.1")))
+                    .isInstanceOf(AdmissionRejectedException.class);
+        }
+
+        admissionLimiter.admitQuery(filter("2.2.2.2"));
+        assertThat(rejected("query", "peer")).isEqualTo(5.0);
+    }
+
+    @Test
+    void globalRejectionDoesNotUsePeerTokens() {
+        admissionLimiter.admitQuery(filter("2.2.2.2"));
+        admissionLimiter.admitQuery(filter("3.3.3.3"));
+        admissionLimiter.admitQuery(filter("4.4.4.4"));
+
+        for (int i = 0; i < 3; i++) {
+            assertThatThrownBy(() -> admissionLimiter.admitQuery(filter("1.1.1.1")))
+                    .isInstanceOf(AdmissionRejectedException.class)
+                    .hasFieldOrPropertyWithValue("global", true);
+        }
+
+        assertThat(rejected("query", "global")).isEqualTo(3.0);
+        assertThat(rejected("query", "peer")).isZero();
+    }
+
+    @Test
+    void noAddress() {
+        for (int i = 0; i < 3; i++) {
+            admissionLimiter.admitQuery(filter(null));
+        }
+
+        assertThatThrownBy(() -> admissionLimiter.admitQuery(filter(null)))
+                .isInstanceOf(AdmissionRejectedException.class)
+                .hasFieldOrPropertyWithValue("global", true);
+    }
+
+    @Test
+    void separateLimits() {
+        for (int i = 0; i < 2; i++) {
+            admissionLimiter.admitQuery(filter("1.1.1.1"));
+            admissionLimiter.admitSubscription(filter("1.1.1.1"));
+        }
+
+        assertThat(rejected("query", "peer")).isZero();
+        assertThat(rejected("subscription", "peer")).isZero();
+    }
+
+    @Test
+    void disabled() {
+        admissionProperties.setEnabled(false);
+
+        for (int i = 0; i < 10; i++) {
+            admissionLimiter.admitSubscription(filter("1.1.1.1"));
+        }
+
+        assertThat(rejected("subscription", "peer")).isZero();
+        assertThat(rejected("subscription", "global")).isZero();
+    }
+
+    private TopicMessageFilter filter(String address) {
+        return TopicMessageFilter.builder()
+                .address(address)
+                .build();
+    }
+
+    private double rejected(String type, String scope) {
+        return meterRegistry.counter("hedera.mirror.admission.rejected", "scope", scope, "type", type).count();
+    }
+}
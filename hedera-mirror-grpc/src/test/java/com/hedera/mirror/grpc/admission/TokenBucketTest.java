@@ -0,0 +1,83 @@
+package com.hedera.mirror.grpc.admission;
+
+/*-
+ * ‌
+ * Hedera Mirror Node
+ * ​
+ * Copyright (C) 2019 - 2020 Hedera Hashgraph, LLC
+ * ​
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ‍
+ */
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+public class TokenBucketTest {
+
+    private long nanoTime = 0L;
+    private final TokenBucket tokenBucket = new TokenBucket(new AdmissionProperties.RateLimit(3, 2), () -> nanoTime);
+
+    @Test
+    void startsFull() {
+        assertThat(tokenBucket.tryAcquire()).isTrue();
+        assertThat(tokenBucket.tryAcquire()).isTrue();
+        assertThat(tokenBucket.tryAcquire()).isTrue();
+        assertThat(tokenBucket.tryAcquire()).isFalse();
+    }
+
+    @Test
+    void refills() {
+        drain();
+
+        nanoTime += TimeUnit.MILLISECONDS.toNanos(250);
+        assertThat(tokenBucket.tryAcquire()).isFalse();
+
+        nanoTime += TimeUnit.MILLISECONDS.toNanos(250);
+        assertThat(tokenBucket.tryAcquire()).isTrue();
+        assertThat(tokenBucket.tryAcquire()).isFalse();
+    }
+
+    @Test
+    void refillsUpToBurst() {
+        drain();
+
+        nanoTime += TimeUnit.SECONDS.toNanos(10);
+        drain();
+        assertThat(tokenBucket.tryAcquire()).isFalse();
+    }
+
+    @Test
+    void release() {
+        drain();
+
+        tokenBucket.release();
+        assertThat(tokenBucket.tryAcquire()).isTrue();
+        assertThat(tokenBucket.tryAcquire()).isFalse();
+    }
+
+    @Test
+    void releaseUpToBurst() {
+        tokenBucket.release();
+        drain();
+        assertThat(tokenBucket.tryAcquire()).isFalse();
+    }
+
+    private void drain() {
+        for (int i = 0; i < 3; i++) {
+            tokenBucket.tryAcquire();
+        }
+    }
+}
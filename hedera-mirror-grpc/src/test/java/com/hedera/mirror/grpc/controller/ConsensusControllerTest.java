@@ -34,6 +34,8 @@ import net.devh.boot.grpc.client.inject.GrpcClient;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
@@ -43,10 +45,13 @@ import com.hedera.mirror.api.proto.ConsensusTopicQuery;
 import com.hedera.mirror.api.proto.ConsensusTopicResponse;
 import com.hedera.mirror.api.proto.ReactorConsensusServiceGrpc;
 import com.hedera.mirror.grpc.GrpcIntegrationTest;
+import com.hedera.mirror.grpc.admission.AdmissionLimiter;
 import com.hedera.mirror.grpc.domain.DomainBuilder;
 import com.hedera.mirror.grpc.domain.TopicMessage;
+import com.hedera.mirror.grpc.exception.AdmissionRejectedException;
 import com.hedera.mirror.grpc.listener.ListenerProperties;
 import com.hedera.mirror.grpc.listener.SharedPollingTopicListener;
+import com.hedera.mirror.grpc.service.TopicMessageService;
 import com.hedera.mirror.grpc.util.ProtoUtil;
 
 @Log4j2
@@ -225,6 +230,50 @@ public class ConsensusControllerTest extends GrpcIntegrationTest {
                 .verify(Duration.ofMillis(500));
     }
 
+    @Test
+    void subscriptionRejectedByPeerLimit() {
+        AdmissionLimiter admissionLimiter = Mockito.mock(AdmissionLimiter.class);
+        Mockito.doThrow(new AdmissionRejectedException("Too many subscriptions from this client", false))
+                .when(admissionLimiter).admitSubscription(ArgumentMatchers.any());
+
+        subscribeTopic(admissionLimiter, Mockito.mock(TopicMessageService.class))
+                .as(StepVerifier::create)
+                .expectErrorSatisfies(t -> assertException(t, Status.Code.RESOURCE_EXHAUSTED,
+                        "Too many subscriptions from this client"))
+                .verify(Duration.ofMillis(500));
+    }
+
+    @Test
+    void queryRejectedByGlobalLimit() {
+        TopicMessageService topicMessageService = Mockito.mock(TopicMessageService.class);
+        Mockito.when(topicMessageService.subscribeTopic(ArgumentMatchers.any())).thenReturn(Flux.error(
+                new AdmissionRejectedException("Too many historical queries. Please retry later", true)));
+
+        subscribeTopic(Mockito.mock(AdmissionLimiter.class), topicMessageService)
+                .as(StepVerifier::create)
+                .expectErrorSatisfies(t -> assertException(t, Status.Code.UNAVAILABLE,
+                        "Too many historical queries. Please retry later"))
+                .verify(Duration.ofMillis(500));
+    }
+
+    @Test
+    void responseBuiltOnce() throws Exception {
+        TopicMessage topicMessage = domainBuilder.topicMessage().block();
+
+        assertThat(topicMessage.getResponse())
+                .isEqualTo(response(topicMessage))
+                .isSameAs(topicMessage.getResponse());
+    }
+
+    private Flux<ConsensusTopicResponse> subscribeTopic(AdmissionLimiter admissionLimiter,
+                                                        TopicMessageService topicMessageService) {
+        ConsensusTopicQuery query = ConsensusTopicQuery.newBuilder()
+                .setConsensusStartTime(Timestamp.newBuilder().setSeconds(0).build())
+                .setTopicID(TopicID.newBuilder().setRealmNum(0).setTopicNum(0).build())
+                .build();
+        return new ConsensusController(admissionLimiter, topicMessageService).subscribeTopic(Mono.just(query));
+    }
+
     void assertException(Throwable t, Status.Code status, String message) {
         assertThat(t).isNotNull()
                 .isInstanceOf(StatusRuntimeException.class)
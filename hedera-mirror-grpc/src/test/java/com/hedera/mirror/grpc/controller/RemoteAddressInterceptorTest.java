@@ -0,0 +1,80 @@
+package com.hedera.mirror.grpc.controller;
+
+/*-
+ * ‌
+ * Hedera Mirror Node
+ * ​
+ * Copyright (C) 2019 - 2020 Hedera Hashgraph, LLC
+ * ​
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ‍
+ */
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.grpc.Attributes;
+import io.grpc.Grpc;
+import io.grpc.Metadata;
+import io.grpc.ServerCall;
+import io.grpc.ServerCallHandler;
+import io.grpc.inprocess.InProcessSocketAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+public class RemoteAddressInterceptorTest {
+
+    private final RemoteAddressInterceptor remoteAddressInterceptor = new RemoteAddressInterceptor();
+
+    @Test
+    void inetAddress() {
+        assertThat(interceptCall(new InetSocketAddress("10.0.0.1", 50211))).isEqualTo("10.0.0.1");
+    }
+
+    @Test
+    void unresolvedAddress() {
+        assertThat(interceptCall(InetSocketAddress.createUnresolved("example.com", 50211))).isEqualTo("example.com");
+    }
+
+    @Test
+    void otherAddress() {
+        assertThat(interceptCall(new InProcessSocketAddress("local"))).isEqualTo("local");
+    }
+
+    @Test
+    void noAddress() {
+        assertThat(interceptCall(null)).isNull();
+    }
+
+    @SuppressWarnings("unchecked")
+    private String interceptCall(SocketAddress socketAddress) {
+        ServerCall<Object, Object> call = Mockito.mock(ServerCall.class);
+        Attributes.Builder attributes = Attributes.newBuilder();
+        if (socketAddress != null) {
+            attributes.set(Grpc.TRANSPORT_ATTR_REMOTE_ADDR, socketAddress);
+        }
+        Mockito.when(call.getAttributes()).thenReturn(attributes.build());
+
+        AtomicReference<String> address = new AtomicReference<>();
+        ServerCallHandler<Object, Object> next = (c, h) -> {
+            address.set(RemoteAddressInterceptor.REMOTE_ADDRESS.get());
+            return new ServerCall.Listener<>() {
+            };
+        };
+
+        remoteAddressInterceptor.interceptCall(call, new Metadata(), next);
+        return address.get();
+    }
+}
@@ -0,0 +1,122 @@
+package com.hedera.mirror.grpc.listener;
+
+/*-
+ * ‌
+ * Hedera Mirror Node
+ * ​
+ * Copyright (C) 2019 - 2020 Hedera Hashgraph, LLC
+ * ​
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ‍
+ */
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class AdaptivePollingBackoffTest {
+
+    private static final long PAGE_SIZE = 10;
+
+    private ListenerProperties listenerProperties;
+    private AdaptivePollingBackoff backoff;
+
+    @BeforeEach
+    void setup() {
+        listenerProperties = new ListenerProperties();
+        listenerProperties.setPollingFrequency(Duration.ofMillis(100));
+        listenerProperties.setMaxPollingFrequency(Duration.ofMillis(350));
+        backoff = new AdaptivePollingBackoff(listenerProperties);
+    }
+
+    @Test
+    void initial() {
+        assertThat(backoff.getInterval()).isEqualTo(Duration.ofMillis(100));
+        assertThat(backoff.apply(null).delay()).isEqualTo(Duration.ofMillis(100));
+        assertThat(backoff.getBacklog()).isZero();
+    }
+
+    @Test
+    void fullPage() {
+        backoff.onPoll(PAGE_SIZE, PAGE_SIZE);
+        assertThat(backoff.getInterval()).isEqualTo(Duration.ZERO);
+        assertThat(backoff.getBacklog()).isEqualTo(10L);
+
+        backoff.onPoll(PAGE_SIZE, PAGE_SIZE);
+        assertThat(backoff.getInterval()).isEqualTo(Duration.ZERO);
+        assertThat(backoff.getBacklog()).isEqualTo(20L);
+
+        backoff.onPoll(1, PAGE_SIZE);
+        assertThat(backoff.getInterval()).isEqualTo(Duration.ofMillis(100));
+        assertThat(backoff.getBacklog()).isZero();
+    }
+
+    @Test
+    void idle() {
+        backoff.onPoll(0, PAGE_SIZE);
+        assertThat(backoff.getInterval()).isEqualTo(Duration.ofMillis(200));
+
+        backoff.onPoll(0, PAGE_SIZE);
+        assertThat(backoff.getInterval()).isEqualTo(Duration.ofMillis(350));
+
+        backoff.onPoll(0, PAGE_SIZE);
+        assertThat(backoff.getInterval()).isEqualTo(Duration.ofMillis(350));
+
+        backoff.onPoll(1, PAGE_SIZE);
+        assertThat(backoff.getInterval()).isEqualTo(Duration.ofMillis(100));
+    }
+
+    @Test
+    void idleAfterFullPage() {
+        backoff.onPoll(PAGE_SIZE, PAGE_SIZE);
+        backoff.onPoll(0, PAGE_SIZE);
+        assertThat(backoff.getInterval()).isEqualTo(Duration.ofMillis(100));
+        assertThat(backoff.getBacklog()).isZero();
+    }
+
+    @Test
+    void maxLessThanPollingFrequency() {
+        listenerProperties.setMaxPollingFrequency(Duration.ofMillis(50));
+        backoff.onPoll(0, PAGE_SIZE);
+        assertThat(backoff.getInterval()).isEqualTo(Duration.ofMillis(100));
+    }
+
+    @Test
+    void reset() {
+        backoff.onPoll(PAGE_SIZE, PAGE_SIZE);
+        backoff.reset();
+        assertThat(backoff.getInterval()).isEqualTo(Duration.ofMillis(100));
+        assertThat(backoff.getBacklog()).isZero();
+    }
+
+    @Test
+    void metrics() {
+        MeterRegistry meterRegistry = new SimpleMeterRegistry();
+        backoff.register(meterRegistry, "test");
+        backoff.onPoll(PAGE_SIZE, PAGE_SIZE);
+
+        assertThat(meterRegistry.get("hedera.mirror.listener.interval").tag("type", "test").timeGauge()
+                .value(TimeUnit.MILLISECONDS)).isZero();
+        assertThat(meterRegistry.get("hedera.mirror.listener.backlog").tag("type", "test").gauge().value())
+                .isEqualTo(10.0);
+
+        backoff.onPoll(0, PAGE_SIZE);
+        assertThat(meterRegistry.get("hedera.mirror.listener.interval").tag("type", "test").timeGauge()
+                .value(TimeUnit.MILLISECONDS)).isEqualTo(100.0);
+    }
+}
@@ -0,0 +1,167 @@
+package com.hedera.mirror.grpc.listener;
+
+/*-
+ * ‌
+ * Hedera Mirror Node
+ * ​
+ * Copyright (C) 2019 - 2020 Hedera Hashgraph, LLC
+ * ​
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ‍
+ */
+
+import java.time.Duration;
+import java.time.Instant;
+import javax.annotation.Resource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import com.hedera.mirror.grpc.GrpcIntegrationTest;
+import com.hedera.mirror.grpc.domain.DomainBuilder;
+import com.hedera.mirror.grpc.domain.TopicMessage;
+import com.hedera.mirror.grpc.domain.TopicMessageFilter;
+
+public class NotifyingTopicListenerTest extends GrpcIntegrationTest {
+
+    @Resource
+    private DomainBuilder domainBuilder;
+
+    @Resource
+    private JdbcTemplate jdbcTemplate;
+
+    @Resource
+    private ListenerProperties listenerProperties;
+
+    @Resource
+    private NotifyingTopicListener topicListener;
+
+    private TopicMessageFilter filter;
+
+    @BeforeEach
+    void setup() {
+        listenerProperties.setEnabled(true);
+        listenerProperties.setType(ListenerProperties.ListenerType.NOTIFY);
+        topicListener.init(); // Clear the buffer between runs
+        filter = TopicMessageFilter.builder()
+                .startTime(Instant.EPOCH)
+                .build();
+    }
+
+    @AfterEach
+    void after() {
+        listenerProperties.setEnabled(false);
+        listenerProperties.setType(ListenerProperties.ListenerType.SHARED_POLL);
+        topicListener.init();
+    }
+
+    @Test
+    void notification() {
+        topicListener.listen(filter)
+                .map(TopicMessage::getSequenceNumber)
+                .as(StepVerifier::create)
+                .thenAwait(Duration.ofMillis(50))
+                .then(() -> notify(domainBuilder.topicMessages(3)))
+                .expectNext(1L, 2L, 3L)
+                .thenCancel()
+                .verify(Duration.ofMillis(500));
+    }
+
+    @Test
+    void noNotification() {
+        topicListener.listen(filter)
+                .as(StepVerifier::create)
+                .thenAwait(Duration.ofMillis(50))
+                .then(() -> domainBuilder.topicMessages(3).blockLast())
+                .expectNoEvent(Duration.ofMillis(200))
+                .thenCancel()
+                .verify(Duration.ofMillis(500));
+    }
+
+    @Test
+    void alreadySeen() {
+        topicListener.listen(filter)
+                .map(TopicMessage::getSequenceNumber)
+                .as(StepVerifier::create)
+                .thenAwait(Duration.ofMillis(50))
+                .then(() -> notify(domainBuilder.topicMessages(1)))
+                .expectNext(1L)
+                .then(() -> {
+                    domainBuilder.topicMessages(1).blockLast();
+                    jdbcTemplate.execute("select pg_notify('topic_message', '1')");
+                })
+                .expectNoEvent(Duration.ofMillis(200))
+                .thenCancel()
+                .verify(Duration.ofMillis(500));
+    }
+
+    @Test
+    void greaterThanPageSize() {
+        int maxPageSize = listenerProperties.getMaxPageSize();
+        listenerProperties.setMaxPageSize(2);
+
+        try {
+            topicListener.listen(filter)
+                    .map(TopicMessage::getSequenceNumber)
+                    .as(StepVerifier::create)
+                    .thenAwait(Duration.ofMillis(50))
+                    .then(() -> notify(domainBuilder.topicMessages(5)))
+                    .expectNext(1L, 2L, 3L, 4L, 5L)
+                    .thenCancel()
+                    .verify(Duration.ofMillis(500));
+        } finally {
+            listenerProperties.setMaxPageSize(maxPageSize);
+        }
+    }
+
+    @Test
+    void catchUpOnStart() {
+        domainBuilder.topicMessages(2).blockLast();
+        topicListener.init();
+
+        topicListener.listen(filter)
+                .map(TopicMessage::getSequenceNumber)
+                .as(StepVerifier::create)
+                .expectNext(1L, 2L)
+                .thenCancel()
+                .verify(Duration.ofMillis(500));
+    }
+
+    @Test
+    void topicNum() {
+        Flux<TopicMessage> generator = Flux.concat(
+                domainBuilder.topicMessage(t -> t.topicNum(0)),
+                domainBuilder.topicMessage(t -> t.topicNum(1)),
+                domainBuilder.topicMessage(t -> t.topicNum(2))
+        );
+
+        TopicMessageFilter topicFilter = filter.toBuilder().topicNum(1).build();
+
+        topicListener.listen(topicFilter)
+                .map(TopicMessage::getSequenceNumber)
+                .as(StepVerifier::create)
+                .thenAwait(Duration.ofMillis(50))
+                .then(() -> notify(generator))
+                .expectNext(2L)
+                .thenCancel()
+                .verify(Duration.ofMillis(500));
+    }
+
+    private void notify(Flux<TopicMessage> topicMessages) {
+        TopicMessage last = topicMessages.blockLast();
+        jdbcTemplate.execute("select pg_notify('topic_message', '" + last.getConsensusTimestamp() + "')");
+    }
+}
@@ -20,6 +20,8 @@ package com.hedera.mirror.grpc.listener;
  * ‍
  */
 
+import static org.assertj.core.api.Assertions.assertThat;
+
 import com.google.common.util.concurrent.Uninterruptibles;
 import java.time.Duration;
 import java.time.Instant;
@@ -127,4 +129,24 @@ public class SharedPollingTopicListenerTest extends AbstractTopicListenerTest {
 
         listenerProperties.setBufferSize(bufferSize);
     }
+
+    @Test
+    void getBuffered() {
+        TopicMessageFilter filter = TopicMessageFilter.builder()
+                .startTime(Instant.EPOCH)
+                .build();
+
+        getTopicListener().listen(filter)
+                .map(TopicMessage::getSequenceNumber)
+                .as(StepVerifier::create)
+                .thenAwait(Duration.ofMillis(50))
+                .then(() -> domainBuilder.topicMessages(2).blockLast())
+                .expectNext(1L, 2L)
+                .thenCancel()
+                .verify(Duration.ofMillis(500));
+
+        assertThat(topicListener.getBuffered(filter))
+                .hasValueSatisfying(t -> assertThat(t).extracting(TopicMessage::getSequenceNumber)
+                        .containsExactly(1L, 2L));
+    }
 }
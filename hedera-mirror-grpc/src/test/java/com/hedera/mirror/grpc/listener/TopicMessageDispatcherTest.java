@@ -0,0 +1,253 @@
+package com.hedera.mirror.grpc.listener;
+
+/*-
+ * ‌
+ * Hedera Mirror Node
+ * ​
+ * Copyright (C) 2019 - 2020 Hedera Hashgraph, LLC
+ * ​
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ‍
+ */
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Test;
+import reactor.test.StepVerifier;
+
+import com.hedera.mirror.grpc.converter.InstantToLongConverter;
+import com.hedera.mirror.grpc.domain.TopicMessage;
+import com.hedera.mirror.grpc.domain.TopicMessageFilter;
+
+public class TopicMessageDispatcherTest {
+
+    private final Instant now = Instant.now();
+    private long count = 0;
+    private final TopicMessageDispatcher dispatcher = new TopicMessageDispatcher(3,
+            new InstantToLongConverter().convert(now));
+
+    @Test
+    void routesToTopic() {
+        StepVerifier stepVerifier = dispatcher.listen(filter(0, 1, Instant.EPOCH))
+                .map(TopicMessage::getSequenceNumber)
+                .as(StepVerifier::create)
+                .expectNext(1L, 2L)
+                .thenCancel()
+                .verifyLater();
+
+        dispatcher.dispatch(topicMessage(0, 1, 1));
+        dispatcher.dispatch(topicMessage(0, 2, 1));
+        dispatcher.dispatch(topicMessage(1, 1, 1));
+        dispatcher.dispatch(topicMessage(0, 1, 2));
+
+        stepVerifier.verify(Duration.ofMillis(500));
+    }
+
+    @Test
+    void replay() {
+        dispatcher.dispatch(topicMessage(0, 1, 1));
+        dispatcher.dispatch(topicMessage(0, 2, 1));
+        dispatcher.dispatch(topicMessage(0, 1, 2));
+
+        dispatcher.listen(filter(0, 1, Instant.EPOCH))
+                .map(TopicMessage::getSequenceNumber)
+                .as(StepVerifier::create)
+                .expectNext(1L, 2L)
+                .then(() -> dispatcher.dispatch(topicMessage(0, 1, 3)))
+                .expectNext(3L)
+                .thenCancel()
+                .verify(Duration.ofMillis(500));
+    }
+
+    @Test
+    void replayStartTime() {
+        dispatcher.dispatch(topicMessage(0, 1, 1));
+        dispatcher.dispatch(topicMessage(0, 1, 2));
+        dispatcher.dispatch(topicMessage(0, 1, 3));
+
+        dispatcher.listen(filter(0, 1, now.plusNanos(2)))
+                .map(TopicMessage::getSequenceNumber)
+                .as(StepVerifier::create)
+                .expectNext(2L, 3L)
+                .thenCancel()
+                .verify(Duration.ofMillis(500));
+    }
+
+    @Test
+    void bufferBoundedAcrossTopics() {
+        dispatcher.dispatch(topicMessage(0, 1, 1));
+        dispatcher.dispatch(topicMessage(0, 2, 1));
+        dispatcher.dispatch(topicMessage(0, 1, 2));
+        dispatcher.dispatch(topicMessage(0, 2, 2));
+
+        dispatcher.listen(filter(0, 1, Instant.EPOCH))
+                .map(TopicMessage::getSequenceNumber)
+                .as(StepVerifier::create)
+                .expectNext(2L)
+                .thenCancel()
+                .verify(Duration.ofMillis(500));
+
+        dispatcher.listen(filter(0, 2, Instant.EPOCH))
+                .map(TopicMessage::getSequenceNumber)
+                .as(StepVerifier::create)
+                .expectNext(1L, 2L)
+                .thenCancel()
+                .verify(Duration.ofMillis(500));
+    }
+
+    @Test
+    void unusedTopicsRemoved() {
+        for (int i = 1; i <= 6; i++) {
+            dispatcher.dispatch(topicMessage(0, i, 1));
+        }
+        assertThat(dispatcher.getTopicCount()).isEqualTo(3);
+
+        dispatcher.listen(filter(0, 10, Instant.EPOCH))
+                .as(StepVerifier::create)
+                .then(() -> assertThat(dispatcher.getTopicCount()).isEqualTo(4))
+                .thenCancel()
+                .verify(Duration.ofMillis(500));
+
+        assertThat(dispatcher.getTopicCount()).isEqualTo(3);
+    }
+
+    @Test
+    void duplicatesIgnored() {
+        TopicMessage topicMessage = topicMessage(0, 1, 1);
+        dispatcher.dispatch(topicMessage);
+        dispatcher.dispatch(topicMessage(0, 1, 2));
+        dispatcher.dispatch(topicMessage);
+
+        dispatcher.listen(filter(0, 1, Instant.EPOCH))
+                .map(TopicMessage::getSequenceNumber)
+                .as(StepVerifier::create)
+                .expectNext(1L, 2L)
+                .thenCancel()
+                .verify(Duration.ofMillis(500));
+    }
+
+    @Test
+    void getBuffered() {
+        dispatcher.dispatch(topicMessage(0, 1, 5));
+        dispatcher.dispatch(topicMessage(0, 1, 6));
+
+        assertThat(sequenceNumbers(dispatcher.getBuffered(filter(0, 1, now.plusNanos(1))))).containsExactly(5L, 6L);
+        assertThat(sequenceNumbers(dispatcher.getBuffered(filter(0, 1, now.plusNanos(2))))).containsExactly(6L);
+        assertThat(dispatcher.getBuffered(filter(0, 1, now))).isEmpty();
+        assertThat(dispatcher.getBuffered(filter(0, 1, Instant.EPOCH))).isEmpty();
+    }
+
+    @Test
+    void getBufferedFirstMessage() {
+        dispatcher.dispatch(topicMessage(0, 1, 1));
+        dispatcher.dispatch(topicMessage(0, 1, 2));
+
+        assertThat(sequenceNumbers(dispatcher.getBuffered(filter(0, 1, Instant.EPOCH)))).containsExactly(1L, 2L);
+    }
+
+    @Test
+    void getBufferedNoMessages() {
+        assertThat(dispatcher.getBuffered(filter(0, 1, now.plusNanos(1)))).hasValue(List.of());
+        assertThat(dispatcher.getBuffered(filter(0, 1, now))).isEmpty();
+    }
+
+    @Test
+    void getBufferedEvicted() {
+        dispatcher.dispatch(topicMessage(0, 1, 1));
+        dispatcher.dispatch(topicMessage(0, 2, 2));
+        dispatcher.dispatch(topicMessage(0, 2, 3));
+        dispatcher.dispatch(topicMessage(0, 2, 4));
+
+        assertThat(dispatcher.getBuffered(filter(0, 1, Instant.EPOCH))).isEmpty();
+        assertThat(dispatcher.getBuffered(filter(0, 1, now.plusNanos(1)))).isEmpty();
+        assertThat(dispatcher.getBuffered(filter(0, 1, now.plusNanos(2)))).hasValue(List.of());
+        assertThat(sequenceNumbers(dispatcher.getBuffered(filter(0, 2, now.plusNanos(1))))).containsExactly(2L, 3L,
+                4L);
+    }
+
+    @Test
+    void getBufferedGap() {
+        dispatcher.dispatch(topicMessage(0, 1, 1));
+        dispatcher.dispatch(topicMessage(0, 1, 3));
+
+        assertThat(dispatcher.getBuffered(filter(0, 1, Instant.EPOCH))).isEmpty();
+        assertThat(dispatcher.getBuffered(filter(0, 1, now.plusNanos(1)))).isEmpty();
+        assertThat(sequenceNumbers(dispatcher.getBuffered(filter(0, 1, now.plusNanos(2))))).containsExactly(3L);
+    }
+
+    @Test
+    void getBufferedEndTimeAndLimit() {
+        dispatcher.dispatch(topicMessage(0, 1, 1));
+        dispatcher.dispatch(topicMessage(0, 1, 2));
+        dispatcher.dispatch(topicMessage(0, 1, 3));
+
+        TopicMessageFilter filter = filter(0, 1, Instant.EPOCH);
+        assertThat(sequenceNumbers(dispatcher.getBuffered(filter.toBuilder().endTime(now.plusNanos(3)).build())))
+                .containsExactly(1L, 2L);
+        assertThat(sequenceNumbers(dispatcher.getBuffered(filter.toBuilder().limit(1).build())))
+                .containsExactly(1L);
+    }
+
+    @Test
+    void getBufferedEndTimeAfterDispatched() {
+        dispatcher.dispatch(topicMessage(0, 1, 1));
+        dispatcher.dispatch(topicMessage(0, 1, 2));
+
+        TopicMessageFilter filter = filter(0, 1, Instant.EPOCH).toBuilder().endTime(now.plusNanos(3)).build();
+        assertThat(dispatcher.getBuffered(filter)).isEmpty();
+        assertThat(dispatcher.getBuffered(filter.toBuilder().topicNum(2).startTime(now.plusNanos(1)).build()))
+                .isEmpty();
+        assertThat(sequenceNumbers(dispatcher.getBuffered(filter.toBuilder().limit(2).build())))
+                .containsExactly(1L, 2L);
+
+        dispatcher.dispatch(topicMessage(0, 2, 1));
+        assertThat(sequenceNumbers(dispatcher.getBuffered(filter))).containsExactly(1L, 2L);
+    }
+
+    @Test
+    void getBufferedNoMessagesEndTime() {
+        TopicMessageFilter filter = filter(0, 1, now.plusNanos(1)).toBuilder().endTime(now.plusNanos(2)).build();
+        assertThat(dispatcher.getBuffered(filter)).isEmpty();
+
+        dispatcher.dispatch(topicMessage(0, 2, 1));
+        dispatcher.dispatch(topicMessage(0, 2, 2));
+        assertThat(dispatcher.getBuffered(filter)).hasValue(List.of());
+    }
+
+    private List<Long> sequenceNumbers(Optional<List<TopicMessage>> topicMessages) {
+        assertThat(topicMessages).isPresent();
+        return topicMessages.get().stream().map(TopicMessage::getSequenceNumber).collect(Collectors.toList());
+    }
+
+    private TopicMessageFilter filter(int realmNum, int topicNum, Instant startTime) {
+        return TopicMessageFilter.builder()
+                .realmNum(realmNum)
+                .startTime(startTime)
+                .topicNum(topicNum)
+                .build();
+    }
+
+    private TopicMessage topicMessage(int realmNum, int topicNum, long sequenceNumber) {
+        return TopicMessage.builder()
+                .consensusTimestamp(now.plusNanos(++count))
+                .realmNum(realmNum)
+                .sequenceNumber(sequenceNumber)
+                .topicNum(topicNum)
+                .build();
+    }
+}
@@ -0,0 +1,182 @@
+package com.hedera.mirror.grpc.retriever;
+
+/*-
+ * ‌
+ * Hedera Mirror Node
+ * ​
+ * Copyright (C) 2019 - 2020 Hedera Hashgraph, LLC
+ * ​
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ‍
+ */
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.time.Instant;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+import reactor.test.publisher.TestPublisher;
+
+import com.hedera.mirror.grpc.domain.TopicMessage;
+import com.hedera.mirror.grpc.domain.TopicMessageFilter;
+
+public class CoalescingTopicMessageReaderTest {
+
+    private final Instant now = Instant.now();
+    private final TopicMessageFilter filter = TopicMessageFilter.builder()
+            .limit(2)
+            .startTime(now)
+            .build();
+
+    private TestPublisher<TopicMessage> publisher;
+    private TopicMessageCursorReader topicMessageCursorReader;
+    private RetrieverProperties retrieverProperties;
+    private MeterRegistry meterRegistry;
+    private CoalescingTopicMessageReader coalescingTopicMessageReader;
+
+    @BeforeEach
+    void setup() {
+        publisher = TestPublisher.create();
+        topicMessageCursorReader = Mockito.mock(TopicMessageCursorReader.class);
+        Mockito.when(topicMessageCursorReader.read(ArgumentMatchers.any())).thenReturn(publisher.flux());
+        retrieverProperties = new RetrieverProperties();
+        meterRegistry = new SimpleMeterRegistry();
+        coalescingTopicMessageReader = new CoalescingTopicMessageReader(topicMessageCursorReader,
+                retrieverProperties, meterRegistry);
+    }
+
+    @Test
+    void coalesced() {
+        StepVerifier first = sequenceNumbers(filter).expectNext(1L, 2L).expectComplete().verifyLater();
+        StepVerifier second = sequenceNumbers(filter.toBuilder().subscriberId("second").build())
+                .expectNext(1L, 2L)
+                .expectComplete()
+                .verifyLater();
+
+        publisher.next(topicMessage(1), topicMessage(2)).complete();
+
+        first.verify(Duration.ofMillis(500));
+        second.verify(Duration.ofMillis(500));
+        Mockito.verify(topicMessageCursorReader, Mockito.times(1)).read(ArgumentMatchers.any());
+        assertThat(queries("executed")).isEqualTo(1.0);
+        assertThat(queries("coalesced")).isEqualTo(1.0);
+        assertThat(coalescingTopicMessageReader.getInFlightCount()).isZero();
+    }
+
+    @Test
+    void joinAfterMessages() {
+        StepVerifier first = sequenceNumbers(filter).expectNext(1L, 2L).expectComplete().verifyLater();
+        publisher.next(topicMessage(1));
+
+        StepVerifier second = sequenceNumbers(filter).expectNext(1L, 2L).expectComplete().verifyLater();
+        publisher.next(topicMessage(2)).complete();
+
+        first.verify(Duration.ofMillis(500));
+        second.verify(Duration.ofMillis(500));
+        assertThat(queries("coalesced")).isEqualTo(1.0);
+    }
+
+    @Test
+    void smallerLimit() {
+        StepVerifier first = sequenceNumbers(filter).expectNext(1L, 2L).expectComplete().verifyLater();
+        StepVerifier second = sequenceNumbers(filter.toBuilder().limit(1).build())
+                .expectNext(1L)
+                .expectComplete()
+                .verifyLater();
+
+        publisher.next(topicMessage(1), topicMessage(2)).complete();
+
+        first.verify(Duration.ofMillis(500));
+        second.verify(Duration.ofMillis(500));
+        assertThat(queries("coalesced")).isEqualTo(1.0);
+    }
+
+    @Test
+    void notCoalesced() {
+        StepVerifier first = sequenceNumbers(filter).thenCancel().verifyLater();
+        StepVerifier second = sequenceNumbers(filter.toBuilder().limit(3).build()).thenCancel().verifyLater();
+        StepVerifier third = sequenceNumbers(filter.toBuilder().startTime(now.plusNanos(1)).build())
+                .thenCancel()
+                .verifyLater();
+        StepVerifier fourth = sequenceNumbers(filter.toBuilder().topicNum(1).build()).thenCancel().verifyLater();
+
+        first.verify(Duration.ofMillis(500));
+        second.verify(Duration.ofMillis(500));
+        third.verify(Duration.ofMillis(500));
+        fourth.verify(Duration.ofMillis(500));
+        Mockito.verify(topicMessageCursorReader, Mockito.times(4)).read(ArgumentMatchers.any());
+        assertThat(queries("executed")).isEqualTo(4.0);
+        assertThat(queries("coalesced")).isZero();
+    }
+
+    @Test
+    void newQueryAfterComplete() {
+        Mockito.when(topicMessageCursorReader.read(ArgumentMatchers.any()))
+                .thenReturn(Flux.just(topicMessage(1), topicMessage(2)));
+
+        sequenceNumbers(filter).expectNext(1L, 2L).expectComplete().verify(Duration.ofMillis(500));
+        sequenceNumbers(filter).expectNext(1L, 2L).expectComplete().verify(Duration.ofMillis(500));
+
+        Mockito.verify(topicMessageCursorReader, Mockito.times(2)).read(ArgumentMatchers.any());
+        assertThat(queries("executed")).isEqualTo(2.0);
+    }
+
+    @Test
+    void error() {
+        StepVerifier first = sequenceNumbers(filter).expectNext(1L).expectError().verifyLater();
+        StepVerifier second = sequenceNumbers(filter).expectNext(1L).expectError().verifyLater();
+
+        publisher.next(topicMessage(1)).error(new RuntimeException("error"));
+
+        first.verify(Duration.ofMillis(500));
+        second.verify(Duration.ofMillis(500));
+        assertThat(coalescingTopicMessageReader.getInFlightCount()).isZero();
+    }
+
+    @Test
+    void disabled() {
+        retrieverProperties.setCoalesce(false);
+
+        StepVerifier first = sequenceNumbers(filter).thenCancel().verifyLater();
+        StepVerifier second = sequenceNumbers(filter).thenCancel().verifyLater();
+
+        first.verify(Duration.ofMillis(500));
+        second.verify(Duration.ofMillis(500));
+        Mockito.verify(topicMessageCursorReader, Mockito.times(2)).read(ArgumentMatchers.any());
+        assertThat(queries("coalesced")).isZero();
+    }
+
+    private StepVerifier.Step<Long> sequenceNumbers(TopicMessageFilter topicMessageFilter) {
+        return coalescingTopicMessageReader.read(topicMessageFilter)
+                .map(TopicMessage::getSequenceNumber)
+                .as(StepVerifier::create);
+    }
+
+    private double queries(String type) {
+        return meterRegistry.counter("hedera.mirror.retriever.queries", "type", type).count();
+    }
+
+    private TopicMessage topicMessage(long sequenceNumber) {
+        return TopicMessage.builder()
+                .consensusTimestamp(now.plusNanos(sequenceNumber))
+                .sequenceNumber(sequenceNumber)
+                .build();
+    }
+}
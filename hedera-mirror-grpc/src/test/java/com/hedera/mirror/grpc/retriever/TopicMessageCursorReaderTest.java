@@ -0,0 +1,163 @@
+package com.hedera.mirror.grpc.retriever;
+
+/*-
+ * ‌
+ * Hedera Mirror Node
+ * ​
+ * Copyright (C) 2019 - 2020 Hedera Hashgraph, LLC
+ * ​
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ‍
+ */
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.zaxxer.hikari.HikariDataSource;
+import java.time.Duration;
+import java.time.Instant;
+import javax.annotation.Resource;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.test.StepVerifier;
+
+import com.hedera.mirror.grpc.GrpcIntegrationTest;
+import com.hedera.mirror.grpc.domain.DomainBuilder;
+import com.hedera.mirror.grpc.domain.TopicMessage;
+import com.hedera.mirror.grpc.domain.TopicMessageFilter;
+
+public class TopicMessageCursorReaderTest extends GrpcIntegrationTest {
+
+    @Resource
+    private DataSource dataSource;
+
+    @Resource
+    private DomainBuilder domainBuilder;
+
+    @Resource
+    private RetrieverProperties retrieverProperties;
+
+    @Resource
+    private TopicMessageCursorReader topicMessageCursorReader;
+
+    private int fetchSize;
+
+    @BeforeEach
+    void setup() {
+        fetchSize = retrieverProperties.getFetchSize();
+        retrieverProperties.setFetchSize(1);
+    }
+
+    @AfterEach
+    void after() {
+        retrieverProperties.setFetchSize(fetchSize);
+    }
+
+    @Test
+    void readEmpty() {
+        TopicMessageFilter filter = TopicMessageFilter.builder()
+                .startTime(Instant.EPOCH)
+                .build();
+
+        topicMessageCursorReader.read(filter)
+                .as(StepVerifier::create)
+                .expectComplete()
+                .verify(Duration.ofMillis(500));
+    }
+
+    @Test
+    void read() {
+        TopicMessage topicMessage1 = domainBuilder.topicMessage().block();
+        domainBuilder.topicMessage(t -> t.topicNum(1)).block();
+        TopicMessage topicMessage3 = domainBuilder.topicMessage().block();
+        TopicMessage topicMessage4 = domainBuilder.topicMessage().block();
+        TopicMessage topicMessage5 = domainBuilder.topicMessage().block();
+
+        TopicMessageFilter filter = TopicMessageFilter.builder()
+                .startTime(topicMessage1.getConsensusTimestampInstant())
+                .build();
+
+        topicMessageCursorReader.read(filter)
+                .as(StepVerifier::create)
+                .expectNext(topicMessage1, topicMessage3, topicMessage4, topicMessage5)
+                .expectComplete()
+                .verify(Duration.ofMillis(500));
+    }
+
+    @Test
+    void readWithEndTimeAndLimit() {
+        TopicMessage topicMessage1 = domainBuilder.topicMessage().block();
+        TopicMessage topicMessage2 = domainBuilder.topicMessage().block();
+        TopicMessage topicMessage3 = domainBuilder.topicMessage().block();
+        TopicMessage topicMessage4 = domainBuilder.topicMessage().block();
+
+        TopicMessageFilter filter = TopicMessageFilter.builder()
+                .startTime(topicMessage2.getConsensusTimestampInstant())
+                .endTime(topicMessage4.getConsensusTimestampInstant())
+                .build();
+
+        topicMessageCursorReader.read(filter)
+                .as(StepVerifier::create)
+                .expectNext(topicMessage2, topicMessage3)
+                .expectComplete()
+                .verify(Duration.ofMillis(500));
+
+        topicMessageCursorReader.read(filter.toBuilder().limit(1).build())
+                .as(StepVerifier::create)
+                .expectNext(topicMessage2)
+                .expectComplete()
+                .verify(Duration.ofMillis(500));
+    }
+
+    @Test
+    void readDemand() {
+        TopicMessage topicMessage1 = domainBuilder.topicMessage().block();
+        TopicMessage topicMessage2 = domainBuilder.topicMessage().block();
+        domainBuilder.topicMessage().block();
+
+        TopicMessageFilter filter = TopicMessageFilter.builder()
+                .startTime(Instant.EPOCH)
+                .build();
+
+        topicMessageCursorReader.read(filter)
+                .as(t -> StepVerifier.create(t, 1))
+                .expectNext(topicMessage1)
+                .expectNoEvent(Duration.ofMillis(50))
+                .thenRequest(1)
+                .expectNext(topicMessage2)
+                .thenCancel()
+                .verify(Duration.ofMillis(500));
+    }
+
+    @Test
+    void slowSubscriberReleasesConnection() throws Exception {
+        TopicMessage topicMessage1 = domainBuilder.topicMessage().block();
+        TopicMessage topicMessage2 = domainBuilder.topicMessage().block();
+        TopicMessage topicMessage3 = domainBuilder.topicMessage().block();
+
+        TopicMessageFilter filter = TopicMessageFilter.builder()
+                .startTime(Instant.EPOCH)
+                .build();
+        HikariDataSource hikariDataSource = dataSource.unwrap(HikariDataSource.class);
+
+        topicMessageCursorReader.read(filter)
+                .as(t -> StepVerifier.create(t, 1))
+                .expectNext(topicMessage1)
+                .then(() -> assertThat(hikariDataSource.getHikariPoolMXBean().getActiveConnections()).isZero())
+                .thenRequest(2)
+                .expectNext(topicMessage2, topicMessage3)
+                .expectComplete()
+                .verify(Duration.ofMillis(500));
+    }
+}
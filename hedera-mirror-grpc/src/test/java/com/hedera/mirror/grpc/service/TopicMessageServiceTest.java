@@ -20,12 +20,18 @@ package com.hedera.mirror.grpc.service;
  * ‍
  */
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import java.time.Duration;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
 import javax.annotation.Resource;
 import javax.validation.ConstraintViolationException;
 import org.junit.jupiter.api.AfterEach;
@@ -34,15 +40,18 @@ import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentMatchers;
 import org.mockito.Mockito;
 import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Schedulers;
 import reactor.test.StepVerifier;
 
 import com.hedera.mirror.grpc.GrpcIntegrationTest;
 import com.hedera.mirror.grpc.GrpcProperties;
+import com.hedera.mirror.grpc.admission.AdmissionLimiter;
 import com.hedera.mirror.grpc.domain.DomainBuilder;
 import com.hedera.mirror.grpc.domain.Entity;
 import com.hedera.mirror.grpc.domain.EntityType;
 import com.hedera.mirror.grpc.domain.TopicMessage;
 import com.hedera.mirror.grpc.domain.TopicMessageFilter;
+import com.hedera.mirror.grpc.exception.SlowConsumerException;
 import com.hedera.mirror.grpc.exception.TopicNotFoundException;
 import com.hedera.mirror.grpc.listener.ListenerProperties;
 import com.hedera.mirror.grpc.listener.SharedPollingTopicListener;
@@ -53,6 +62,8 @@ import com.hedera.mirror.grpc.retriever.TopicMessageRetriever;
 
 public class TopicMessageServiceTest extends GrpcIntegrationTest {
 
+    private final AdmissionLimiter admissionLimiter = Mockito.mock(AdmissionLimiter.class);
+
     @Resource
     private TopicMessageService topicMessageService;
 
@@ -480,13 +491,34 @@ public class TopicMessageServiceTest extends GrpcIntegrationTest {
                 .verify(Duration.ofMillis(500));
     }
 
+    @Test
+    void topicExistsQueriedOnSubscribe() {
+        TopicListener topicListener = Mockito.mock(TopicListener.class);
+        EntityRepository entityRepository = Mockito.mock(EntityRepository.class);
+        TopicMessageRetriever topicMessageRetriever = Mockito.mock(TopicMessageRetriever.class);
+        topicMessageService = new TopicMessageServiceImpl(new GrpcProperties(), admissionLimiter, topicListener,
+                entityRepository, topicMessageRetriever, Schedulers.immediate(), new SimpleMeterRegistry());
+
+        TopicMessageFilter filter = TopicMessageFilter.builder()
+                .startTime(Instant.EPOCH)
+                .build();
+
+        Flux<TopicMessage> flux = topicMessageService.subscribeTopic(filter);
+        Mockito.verifyNoInteractions(entityRepository);
+
+        flux.as(StepVerifier::create)
+                .expectError(TopicNotFoundException.class)
+                .verify(Duration.ofMillis(500));
+        Mockito.verify(entityRepository).findByCompositeKey(0, filter.getRealmNum(), filter.getTopicNum());
+    }
+
     @Test
     void duplicateMessages() {
         TopicListener topicListener = Mockito.mock(TopicListener.class);
         EntityRepository entityRepository = Mockito.mock(EntityRepository.class);
         TopicMessageRetriever topicMessageRetriever = Mockito.mock(TopicMessageRetriever.class);
-        topicMessageService = new TopicMessageServiceImpl(new GrpcProperties(), topicListener, entityRepository,
-                topicMessageRetriever);
+        topicMessageService = new TopicMessageServiceImpl(new GrpcProperties(), admissionLimiter, topicListener,
+                entityRepository, topicMessageRetriever, Schedulers.immediate(), new SimpleMeterRegistry());
 
         TopicMessageFilter retrieverFilter = TopicMessageFilter.builder()
                 .startTime(Instant.EPOCH)
@@ -516,13 +548,41 @@ public class TopicMessageServiceTest extends GrpcIntegrationTest {
                 .verify(Duration.ofMillis(700));
     }
 
+    @Test
+    void historicalMessagesFromBuffer() {
+        TopicListener topicListener = Mockito.mock(TopicListener.class);
+        EntityRepository entityRepository = Mockito.mock(EntityRepository.class);
+        TopicMessageRetriever topicMessageRetriever = Mockito.mock(TopicMessageRetriever.class);
+        topicMessageService = new TopicMessageServiceImpl(new GrpcProperties(), admissionLimiter, topicListener,
+                entityRepository, topicMessageRetriever, Schedulers.immediate(), new SimpleMeterRegistry());
+
+        TopicMessageFilter filter = TopicMessageFilter.builder()
+                .startTime(Instant.EPOCH)
+                .build();
+
+        Mockito.when(entityRepository.findByCompositeKey(0, filter.getRealmNum(), filter.getTopicNum()))
+                .thenReturn(Optional.of(Entity.builder().entityTypeId(EntityType.TOPIC).build()));
+        Mockito.when(topicListener.getBuffered(filter))
+                .thenReturn(Optional.of(List.of(topicMessage(1), topicMessage(2))));
+        Mockito.when(topicListener.listen(ArgumentMatchers.any())).thenReturn(Flux.just(topicMessage(3)));
+
+        topicMessageService.subscribeTopic(filter)
+                .map(TopicMessage::getSequenceNumber)
+                .as(StepVerifier::create)
+                .expectNext(1L, 2L, 3L)
+                .expectComplete()
+                .verify(Duration.ofMillis(700));
+
+        Mockito.verifyNoInteractions(admissionLimiter, topicMessageRetriever);
+    }
+
     @Test
     void missingMessages() {
         TopicListener topicListener = Mockito.mock(TopicListener.class);
         EntityRepository entityRepository = Mockito.mock(EntityRepository.class);
         TopicMessageRetriever topicMessageRetriever = Mockito.mock(TopicMessageRetriever.class);
-        topicMessageService = new TopicMessageServiceImpl(new GrpcProperties(), topicListener, entityRepository,
-                topicMessageRetriever);
+        topicMessageService = new TopicMessageServiceImpl(new GrpcProperties(), admissionLimiter, topicListener,
+                entityRepository, topicMessageRetriever, Schedulers.immediate(), new SimpleMeterRegistry());
 
         TopicMessageFilter filter = TopicMessageFilter.builder()
                 .startTime(Instant.EPOCH)
@@ -551,6 +611,92 @@ public class TopicMessageServiceTest extends GrpcIntegrationTest {
                 .expectNext(1L, 2L, 3L, 4L)
                 .thenCancel()
                 .verify(Duration.ofMillis(700));
+
+        // Only the historical query is subject to admission, not the query for the missing messages
+        Mockito.verify(admissionLimiter).admitQuery(filter);
+        Mockito.verifyNoMoreInteractions(admissionLimiter);
+    }
+
+    @Test
+    void slowSubscriberTerminated() {
+        GrpcProperties properties = new GrpcProperties();
+        properties.setSubscriberBufferSize(2);
+        properties.setSubscriberOverflowPolicy(GrpcProperties.OverflowPolicy.TERMINATE);
+        MeterRegistry meterRegistry = new SimpleMeterRegistry();
+        TopicMessageFilter filter = TopicMessageFilter.builder()
+                .startTime(Instant.EPOCH)
+                .build();
+        slowSubscriberTest(properties, meterRegistry, filter);
+
+        topicMessageService.subscribeTopic(filter)
+                .map(TopicMessage::getSequenceNumber)
+                .as(t -> StepVerifier.create(t, 0))
+                .thenAwait(Duration.ofMillis(200))
+                .thenRequest(Long.MAX_VALUE)
+                .thenConsumeWhile(t -> true)
+                .expectError(SlowConsumerException.class)
+                .verify(Duration.ofMillis(700));
+
+        assertThat(meterRegistry.counter("hedera.mirror.subscriber.overflow", "policy", "terminate").count())
+                .isEqualTo(1.0);
+        assertThat(meterRegistry.get("hedera.mirror.subscriber.queued").gauge().value()).isZero();
+    }
+
+    @Test
+    void slowSubscriberCatchesUp() {
+        GrpcProperties properties = new GrpcProperties();
+        properties.setSubscriberBufferSize(2);
+        MeterRegistry meterRegistry = new SimpleMeterRegistry();
+        TopicMessageFilter filter = TopicMessageFilter.builder()
+                .startTime(Instant.EPOCH)
+                .build();
+        slowSubscriberTest(properties, meterRegistry, filter);
+
+        topicMessageService.subscribeTopic(filter)
+                .map(TopicMessage::getSequenceNumber)
+                .as(t -> StepVerifier.create(t, 0))
+                .thenAwait(Duration.ofMillis(200))
+                .then(() -> assertThat(meterRegistry.get("hedera.mirror.subscriber.queued.max").gauge().value())
+                        .isEqualTo(2.0))
+                .thenRequest(Long.MAX_VALUE)
+                .expectNextSequence(LongStream.rangeClosed(1L, 1000L).boxed().collect(Collectors.toList()))
+                .thenCancel()
+                .verify(Duration.ofMillis(700));
+
+        assertThat(meterRegistry.counter("hedera.mirror.subscriber.overflow", "policy", "catch_up").count())
+                .isPositive();
+        assertThat(meterRegistry.get("hedera.mirror.subscriber.queued").gauge().value()).isZero();
+    }
+
+    /**
+     * The listener emits all of its messages shortly after it's subscribed to, so they overflow a small buffer for a
+     * subscriber that hasn't requested any yet. The retriever returns any missing messages between two messages.
+     */
+    private void slowSubscriberTest(GrpcProperties properties, MeterRegistry meterRegistry,
+                                    TopicMessageFilter filter) {
+        TopicListener topicListener = Mockito.mock(TopicListener.class);
+        EntityRepository entityRepository = Mockito.mock(EntityRepository.class);
+        TopicMessageRetriever topicMessageRetriever = Mockito.mock(TopicMessageRetriever.class);
+        topicMessageService = new TopicMessageServiceImpl(properties, admissionLimiter, topicListener,
+                entityRepository, topicMessageRetriever, Schedulers.immediate(), meterRegistry);
+
+        List<TopicMessage> topicMessages = LongStream.rangeClosed(1L, 1000L)
+                .mapToObj(this::topicMessage)
+                .collect(Collectors.toList());
+
+        Mockito.when(entityRepository.findByCompositeKey(0, filter.getRealmNum(), filter.getTopicNum()))
+                .thenReturn(Optional.of(Entity.builder().entityTypeId(EntityType.TOPIC).build()));
+        Mockito.when(topicListener.listen(ArgumentMatchers.any())).thenReturn(Flux.fromIterable(topicMessages)
+                .delaySubscription(Duration.ofMillis(50)));
+        Mockito.when(topicMessageRetriever.retrieve(ArgumentMatchers.any())).thenAnswer(invocation -> {
+            TopicMessageFilter missing = invocation.getArgument(0);
+            if (missing.getEndTime() == null) {
+                return Flux.empty();
+            }
+            return Flux.fromIterable(topicMessages)
+                    .filter(t -> !t.getConsensusTimestampInstant().isBefore(missing.getStartTime()))
+                    .filter(t -> t.getConsensusTimestampInstant().isBefore(missing.getEndTime()));
+        });
     }
 
     @Test
@@ -606,8 +752,8 @@ public class TopicMessageServiceTest extends GrpcIntegrationTest {
         TopicListener topicListener = Mockito.mock(TopicListener.class);
         EntityRepository entityRepository = Mockito.mock(EntityRepository.class);
         TopicMessageRetriever topicMessageRetriever = Mockito.mock(TopicMessageRetriever.class);
-        topicMessageService = new TopicMessageServiceImpl(new GrpcProperties(), topicListener, entityRepository,
-                topicMessageRetriever);
+        topicMessageService = new TopicMessageServiceImpl(new GrpcProperties(), admissionLimiter, topicListener,
+                entityRepository, topicMessageRetriever, Schedulers.immediate(), new SimpleMeterRegistry());
 
         TopicMessageFilter retrieverFilter = TopicMessageFilter.builder()
                 .startTime(Instant.EPOCH)
@@ -656,8 +802,8 @@ public class TopicMessageServiceTest extends GrpcIntegrationTest {
         TopicListener topicListener = Mockito.mock(TopicListener.class);
         EntityRepository entityRepository = Mockito.mock(EntityRepository.class);
         TopicMessageRetriever topicMessageRetriever = Mockito.mock(TopicMessageRetriever.class);
-        topicMessageService = new TopicMessageServiceImpl(new GrpcProperties(), topicListener, entityRepository,
-                topicMessageRetriever);
+        topicMessageService = new TopicMessageServiceImpl(new GrpcProperties(), admissionLimiter, topicListener,
+                entityRepository, topicMessageRetriever, Schedulers.immediate(), new SimpleMeterRegistry());
 
         // historic messages
         TopicMessage retrieved1 = topicMessage(1);
@@ -0,0 +1,77 @@
+package com.hedera.mirror.grpc.util;
+
+/*-
+ * ‌
+ * Hedera Mirror Node
+ * ​
+ * Copyright (C) 2019 - 2020 Hedera Hashgraph, LLC
+ * ​
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ‍
+ */
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Arrays;
+import java.util.zip.Deflater;
+import org.junit.jupiter.api.Test;
+
+public class PayloadCodecTest {
+
+    private static final byte[] PAYLOAD = "message message message message message".getBytes();
+
+    @Test
+    void uncompressed() {
+        assertThat(PayloadCodec.decode(null)).isNull();
+        assertThat(PayloadCodec.decode(PAYLOAD)).isSameAs(PAYLOAD);
+    }
+
+    @Test
+    void raw() {
+        assertThat(PayloadCodec.decode(withHeader(0, PAYLOAD))).isEqualTo(PAYLOAD);
+    }
+
+    @Test
+    void deflate() {
+        Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+        deflater.setInput(PAYLOAD);
+        deflater.finish();
+        byte[] buffer = new byte[1024];
+        int length = deflater.deflate(buffer);
+        deflater.end();
+
+        assertThat(PayloadCodec.decode(withHeader(1, Arrays.copyOf(buffer, length)))).isEqualTo(PAYLOAD);
+    }
+
+    @Test
+    void corrupt() {
+        byte[] data = withHeader(1, new byte[] {-1, -1, -1});
+        assertThat(PayloadCodec.decode(data)).isSameAs(data);
+    }
+
+    @Test
+    void unknownFormat() {
+        byte[] data = withHeader(9, PAYLOAD);
+        assertThat(PayloadCodec.decode(data)).isSameAs(data);
+    }
+
+    private byte[] withHeader(int format, byte[] payload) {
+        byte[] data = new byte[payload.length + 5];
+        data[1] = 'H';
+        data[2] = 'M';
+        data[3] = 'C';
+        data[4] = (byte) format;
+        System.arraycopy(payload, 0, data, 5, payload.length);
+        return data;
+    }
+}
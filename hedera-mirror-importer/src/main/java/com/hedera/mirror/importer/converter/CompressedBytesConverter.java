@@ -0,0 +1,45 @@
+package com.hedera.mirror.importer.converter;
+
+/*-
+ * ‌
+ * Hedera Mirror Node
+ * ​
+ * Copyright (C) 2019 - 2020 Hedera Hashgraph, LLC
+ * ​
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ‍
+ */
+
+import javax.persistence.AttributeConverter;
+import javax.persistence.Converter;
+
+import com.hedera.mirror.importer.util.PayloadCodec;
+
+/**
+ * Transparently decompresses payload columns that may have been compressed by the record parser. Values are written
+ * uncompressed but escaped like the parser does, so that a payload that starts with the codec marker survives a round
+ * trip.
+ */
+@Converter
+public class CompressedBytesConverter implements AttributeConverter<byte[], byte[]> {
+
+    @Override
+    public byte[] convertToDatabaseColumn(byte[] attribute) {
+        return PayloadCodec.escape(attribute);
+    }
+
+    @Override
+    public byte[] convertToEntityAttribute(byte[] data) {
+        return PayloadCodec.decode(data);
+    }
+}
@@ -0,0 +1,276 @@
+package com.hedera.mirror.importer.db;
+
+/*-
+ * ‌
+ * Hedera Mirror Node
+ * ​
+ * Copyright (C) 2019 - 2020 Hedera Hashgraph, LLC
+ * ​
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ‍
+ */
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import javax.inject.Named;
+import javax.sql.DataSource;
+import lombok.Value;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import com.hedera.mirror.importer.exception.ParserSQLException;
+import com.hedera.mirror.importer.util.Utility;
+
+/**
+ * Creates the consensus timestamp range partitions of t_transactions, t_cryptotransferlists and topic_message and
+ * maps a row to the partition it belongs in. Partitions are created ahead of the current time on a schedule, and on
+ * demand for older rows (e.g. when catching up from the start of the stream). Partition creation is committed on its
+ * own connection so that a partition is never rolled back along with the data that was about to be written to it.
+ * <p>
+ * Partitions are named after the first and last day of their range, so a name always identifies a single range. A row
+ * goes to the existing partition that covers it, and a new partition is aligned to the interval but cut short where it
+ * would overlap an existing one, so the ranges of a table never overlap even after the interval is changed. Rows at or
+ * before the newest row in the parent table, which were ingested before partitioning was enabled, keep going to the
+ * parent so that a replay in idempotent mode finds the rows it conflicts with.
+ */
+@Log4j2
+@Named
+public class PartitionManager {
+
+    public static final String CRYPTO_TRANSFER_LIST = "t_cryptotransferlists";
+    public static final String TOPIC_MESSAGE = "topic_message";
+    public static final String TRANSACTION = "t_transactions";
+
+    private static final Map<String, String> PARTITION_COLUMNS = Map.of(
+            CRYPTO_TRANSFER_LIST, "consensus_timestamp",
+            TOPIC_MESSAGE, "consensus_timestamp",
+            TRANSACTION, "consensus_ns");
+    private static final long DAY = Duration.ofDays(1L).toNanos();
+    private static final DateTimeFormatter PARTITION_DATE = DateTimeFormatter.ofPattern("yyyyMMdd")
+            .withZone(ZoneOffset.UTC);
+    private static final Pattern PARTITION_SUFFIX = Pattern.compile("_p(\\d{8})_(\\d{8})");
+    private static final String CREATE_PARTITION = "select create_consensus_partition(?, ?, ?, ?, ?)";
+    private static final String SELECT_PARTITIONS = "select c.relname from pg_inherits i " +
+            "join pg_class c on c.oid = i.inhrelid where i.inhparent = ?::regclass order by c.relname";
+
+    private final DataSource dataSource;
+    private final PartitionProperties properties;
+    private final Map<String, Partitions> partitions = new ConcurrentHashMap<>();
+
+    public PartitionManager(DataSource dataSource, PartitionProperties properties) {
+        this.dataSource = dataSource;
+        this.properties = properties;
+
+        if (properties.getInterval().toNanos() % DAY != 0) {
+            throw new IllegalArgumentException("Partition interval must be a whole number of days");
+        }
+    }
+
+    /**
+     * Returns the name of the table that a row with the given consensus timestamp should be inserted into, creating
+     * the partition if it doesn't exist yet. Returns the table itself if partitioning is disabled or the row is not
+     * newer than the rows that were ingested before partitioning was enabled.
+     */
+    public String getPartition(String table, long consensusTimestamp) {
+        if (!properties.isEnabled()) {
+            return table;
+        }
+
+        Partitions tablePartitions = partitions.computeIfAbsent(table, this::load);
+        if (consensusTimestamp <= tablePartitions.newestInParent) {
+            return table;
+        }
+
+        Partition partition = tablePartitions.find(consensusTimestamp);
+        if (partition == null) {
+            synchronized (tablePartitions) {
+                partition = tablePartitions.find(consensusTimestamp);
+                if (partition == null) {
+                    partition = createPartition(tablePartitions.newPartition(table, consensusTimestamp,
+                            properties.getInterval().toNanos()));
+                    tablePartitions.byStart.put(partition.getStart(), partition);
+                }
+            }
+        }
+        return partition.getName();
+    }
+
+    @Scheduled(fixedRate = 3_600_000L)
+    public void createPartitions() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+
+        long now = Utility.convertInstantToNanos(Instant.now());
+        long interval = properties.getInterval().toNanos();
+        for (int i = 0; i <= properties.getAhead(); i++) {
+            for (String table : PARTITION_COLUMNS.keySet()) {
+                getPartition(table, now + i * interval);
+            }
+        }
+    }
+
+    /**
+     * Returns the existing partitions of the table, oldest first. Child tables that weren't created by the partition
+     * manager are left out.
+     */
+    List<Partition> getPartitions(String table) {
+        List<Partition> result = new ArrayList<>();
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement(SELECT_PARTITIONS)) {
+            statement.setString(1, table);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    Partition partition = parse(table, resultSet.getString(1));
+                    if (partition != null) {
+                        result.add(partition);
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            throw new ParserSQLException("Error listing partitions of " + table, e);
+        }
+        return result;
+    }
+
+    /**
+     * Drops the partition along with all of its rows
+     */
+    void dropPartition(Partition partition) {
+        Partitions tablePartitions = partitions.get(partition.getTable());
+        if (tablePartitions != null) {
+            tablePartitions.byStart.remove(partition.getStart(), partition);
+        }
+
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.execute("drop table if exists " + partition.getName());
+            log.info("Dropped partition {} for consensus timestamps [{}, {})", partition.getName(),
+                    partition.getStart(), partition.getEnd());
+        } catch (SQLException e) {
+            throw new ParserSQLException("Error dropping partition " + partition.getName(), e);
+        }
+    }
+
+    private Partitions load(String table) {
+        Partitions tablePartitions;
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(String.format("select max(%s) from only %s",
+                     PARTITION_COLUMNS.get(table), table))) {
+            resultSet.next();
+            long newestInParent = resultSet.getLong(1);
+            tablePartitions = new Partitions(resultSet.wasNull() ? Long.MIN_VALUE : newestInParent);
+        } catch (SQLException e) {
+            throw new ParserSQLException("Error loading partitions of " + table, e);
+        }
+
+        getPartitions(table).forEach(p -> tablePartitions.byStart.put(p.getStart(), p));
+        return tablePartitions;
+    }
+
+    private Partition createPartition(Partition partition) {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement(CREATE_PARTITION)) {
+            statement.setString(1, partition.getTable());
+            statement.setString(2, PARTITION_COLUMNS.get(partition.getTable()));
+            statement.setString(3, partition.getName());
+            statement.setLong(4, partition.getStart());
+            statement.setLong(5, partition.getEnd());
+            statement.execute();
+            log.info("Using partition {} for consensus timestamps [{}, {})", partition.getName(),
+                    partition.getStart(), partition.getEnd());
+            return partition;
+        } catch (SQLException e) {
+            throw new ParserSQLException("Error creating partition " + partition.getName(), e);
+        }
+    }
+
+    private static Partition parse(String table, String name) {
+        Matcher matcher = PARTITION_SUFFIX.matcher(name);
+        if (!name.startsWith(table) || !matcher.region(table.length(), name.length()).matches()) {
+            log.warn("Ignoring child table {} of {} that isn't a partition", name, table);
+            return null;
+        }
+        return new Partition(table, name, toNanos(matcher.group(1)), toNanos(matcher.group(2)));
+    }
+
+    private static String name(String table, long start, long end) {
+        return table + "_p" + PARTITION_DATE.format(Instant.ofEpochSecond(0, start)) + "_" +
+                PARTITION_DATE.format(Instant.ofEpochSecond(0, end));
+    }
+
+    private static long toNanos(String date) {
+        return Utility.convertInstantToNanos(LocalDate.parse(date, PARTITION_DATE)
+                .atStartOfDay(ZoneOffset.UTC).toInstant());
+    }
+
+    @Value
+    static class Partition {
+        private final String table;
+        private final String name;
+        private final long start;
+        private final long end;
+    }
+
+    private static class Partitions {
+
+        // The newest consensus timestamp in the parent table when partitioning was first used
+        private final long newestInParent;
+        private final NavigableMap<Long, Partition> byStart = new ConcurrentSkipListMap<>();
+
+        Partitions(long newestInParent) {
+            this.newestInParent = newestInParent;
+        }
+
+        Partition find(long consensusTimestamp) {
+            Map.Entry<Long, Partition> floor = byStart.floorEntry(consensusTimestamp);
+            return floor != null && consensusTimestamp < floor.getValue().getEnd() ? floor.getValue() : null;
+        }
+
+        /**
+         * Returns the interval aligned range the timestamp falls in, cut short where it overlaps existing partitions
+         */
+        Partition newPartition(String table, long consensusTimestamp, long interval) {
+            long start = consensusTimestamp - Math.floorMod(consensusTimestamp, interval);
+            long end = start + interval;
+
+            Map.Entry<Long, Partition> previous = byStart.floorEntry(consensusTimestamp);
+            if (previous != null) {
+                start = Math.max(start, previous.getValue().getEnd());
+            }
+            Long next = byStart.higherKey(consensusTimestamp);
+            if (next != null) {
+                end = Math.min(end, next);
+            }
+
+            return new Partition(table, name(table, start, end), start, end);
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.hedera.mirror.importer.db;
+
+/*-
+ * ‌
+ * Hedera Mirror Node
+ * ​
+ * Copyright (C) 2019 - 2020 Hedera Hashgraph, LLC
+ * ​
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ‍
+ */
+
+import java.time.Duration;
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotNull;
+import lombok.Data;
+import org.hibernate.validator.constraints.time.DurationMin;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+@Data
+@Validated
+@ConfigurationProperties("hedera.mirror.importer.partition")
+public class PartitionProperties {
+
+    /**
+     * The number of partitions after the current one to create ahead of ingest
+     */
+    @Min(0)
+    private int ahead = 2;
+
+    private boolean enabled = false;
+
+    /**
+     * The consensus timestamp range covered by each partition, in whole days. Partitions are aligned to multiples of
+     * the interval since the epoch, so changing it only affects partitions that don't exist yet. Those are cut short
+     * where they would overlap an existing partition.
+     */
+    @DurationMin(days = 1)
+    @NotNull
+    private Duration interval = Duration.ofDays(30L);
+}
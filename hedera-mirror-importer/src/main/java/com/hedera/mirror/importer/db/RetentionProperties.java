@@ -0,0 +1,54 @@
+package com.hedera.mirror.importer.db;
+
+/*-
+ * ‌
+ * Hedera Mirror Node
+ * ​
+ * Copyright (C) 2019 - 2020 Hedera Hashgraph, LLC
+ * ​
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ‍
+ */
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotNull;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+@Data
+@Validated
+@ConfigurationProperties("hedera.mirror.importer.retention")
+public class RetentionProperties {
+
+    /**
+     * How long to pause between batches so pruning doesn't compete with ingest for I/O
+     */
+    @NotNull
+    private Duration batchDelay = Duration.ofMillis(100L);
+
+    @Min(1)
+    private int batchSize = 10_000;
+
+    private boolean enabled = false;
+
+    /**
+     * How long to keep the rows of each table, measured back from the newest transaction. Tables that aren't listed are
+     * kept forever.
+     */
+    @NotNull
+    private Map<String, Duration> tables = new LinkedHashMap<>();
+}
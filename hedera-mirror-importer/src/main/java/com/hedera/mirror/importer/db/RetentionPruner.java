@@ -0,0 +1,180 @@
+package com.hedera.mirror.importer.db;
+
+/*-
+ * ‌
+ * Hedera Mirror Node
+ * ​
+ * Copyright (C) 2019 - 2020 Hedera Hashgraph, LLC
+ * ​
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ‍
+ */
+
+import com.google.common.base.Stopwatch;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import javax.inject.Named;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import com.hedera.mirror.importer.util.ShutdownHelper;
+import com.hedera.mirror.importer.util.Utility;
+
+/**
+ * Deletes rows that are older than the configured retention period of their table. Rows are deleted oldest first in
+ * batches that are each committed on their own, using the table's consensus timestamp index to find them, with a pause
+ * between batches to throttle the load on the database. Batches are bounded by row (ctid) rather than timestamp since
+ * a single timestamp can have many rows, such as a whole account balances snapshot. Partitions are pruned one at a
+ * time since ctids are only unique within a physical table, and partitions whose whole range has expired are dropped
+ * instead.
+ * <p>
+ * Expiry is measured back from the newest transaction rather than the current time so that an importer that's catching
+ * up doesn't prune data it has just ingested. The same reference point is used for every table in a run so that the
+ * rows of a transaction expire together, even from tables that no longer receive new rows.
+ */
+@Log4j2
+@Named
+public class RetentionPruner {
+
+    private static final Map<String, String> TIMESTAMP_COLUMNS = Map.ofEntries(
+            Map.entry("account_balances", "consensus_timestamp"),
+            Map.entry("entity_activity", "consensus_timestamp"),
+            Map.entry("non_fee_transfers", "consensus_timestamp"),
+            Map.entry("t_contract_result", "consensus_timestamp"),
+            Map.entry("t_cryptotransferlists", "consensus_timestamp"),
+            Map.entry("t_file_data", "consensus_timestamp"),
+            Map.entry("t_transactions", "consensus_ns"),
+            Map.entry("topic_message", "consensus_timestamp"),
+            Map.entry("transaction_hash_prefix", "consensus_timestamp"),
+            Map.entry("transaction_rollup_hour", "consensus_timestamp"),
+            Map.entry("transaction_rollup_minute", "consensus_timestamp"),
+            Map.entry("transaction_rollup_second", "consensus_timestamp"));
+
+    private final JdbcTemplate jdbcTemplate;
+    private final PartitionManager partitionManager;
+    private final RetentionProperties properties;
+    private final MeterRegistry meterRegistry;
+
+    public RetentionPruner(JdbcTemplate jdbcTemplate, PartitionManager partitionManager,
+                           RetentionProperties properties, MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.partitionManager = partitionManager;
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+
+        properties.getTables().keySet().forEach(table -> {
+            if (!TIMESTAMP_COLUMNS.containsKey(table)) {
+                throw new IllegalArgumentException("Retention is not supported for table " + table);
+            }
+        });
+    }
+
+    @Scheduled(fixedDelay = 3_600_000L)
+    public void prune() {
+        if (!properties.isEnabled() || properties.getTables().isEmpty()) {
+            return;
+        }
+
+        long newest = getNewestTimestamp();
+
+        for (Map.Entry<String, Duration> retention : properties.getTables().entrySet()) {
+            if (ShutdownHelper.isStopping()) {
+                return;
+            }
+
+            try {
+                prune(retention.getKey(), newest - retention.getValue().toNanos());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                log.error("Error pruning {}", retention.getKey(), e);
+            }
+        }
+    }
+
+    /**
+     * Returns the consensus timestamp of the newest transaction, or the current time if there are none
+     */
+    private long getNewestTimestamp() {
+        Long newest = jdbcTemplate.queryForObject("select max(consensus_ns) from t_transactions", Long.class);
+        return newest != null ? newest : Utility.convertInstantToNanos(Instant.now());
+    }
+
+    private void prune(String table, long expiry) throws InterruptedException {
+        Counter rowsMetric = Counter.builder("hedera.mirror.retention.rows")
+                .description("The number of expired rows that were deleted")
+                .tag("table", table)
+                .register(meterRegistry);
+        Stopwatch stopwatch = Stopwatch.createStarted();
+        long total = 0;
+
+        try {
+            String column = TIMESTAMP_COLUMNS.get(table);
+            Map<String, PartitionManager.Partition> partitions = partitionManager.getPartitions(table).stream()
+                    .collect(Collectors.toMap(PartitionManager.Partition::getName, Function.identity()));
+
+            for (String relation : getRelations(table)) {
+                PartitionManager.Partition partition = partitions.get(relation);
+                if (partition != null && partition.getEnd() <= expiry) {
+                    partitionManager.dropPartition(partition);
+                    continue;
+                } else if (partition != null && partition.getStart() >= expiry) {
+                    continue;
+                }
+
+                String delete = String.format("delete from only %1$s where ctid = any(array(" +
+                        "select ctid from only %1$s where %2$s < ? order by %2$s limit ?))", relation, column);
+                int deleted;
+                do {
+                    deleted = jdbcTemplate.update(delete, expiry, properties.getBatchSize());
+                    total += deleted;
+                    rowsMetric.increment(deleted);
+                    log.debug("Deleted {} rows from {} older than {}", deleted, relation, expiry);
+
+                    if (deleted > 0) {
+                        Thread.sleep(properties.getBatchDelay().toMillis());
+                    }
+                } while (deleted > 0 && !ShutdownHelper.isStopping());
+            }
+        } finally {
+            Timer.builder("hedera.mirror.retention.duration")
+                    .description("The duration in ms it took to prune the table")
+                    .tag("table", table)
+                    .register(meterRegistry)
+                    .record(stopwatch.elapsed());
+            log.info("Pruned {} rows from {} older than {} in {}", total, table, expiry, stopwatch);
+        }
+    }
+
+    /**
+     * Returns the table followed by its partitions, oldest first
+     */
+    private List<String> getRelations(String table) {
+        List<String> relations = new ArrayList<>();
+        relations.add(table);
+        relations.addAll(jdbcTemplate.queryForList("select c.relname from pg_inherits i " +
+                "join pg_class c on c.oid = i.inhrelid where i.inhparent = ?::regclass order by c.relname",
+                String.class, table));
+        return relations;
+    }
+}
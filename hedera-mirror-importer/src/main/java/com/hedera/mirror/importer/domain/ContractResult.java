@@ -21,6 +21,7 @@ package com.hedera.mirror.importer.domain;
  */
 
 import javax.persistence.Column;
+import javax.persistence.Convert;
 import javax.persistence.Entity;
 import javax.persistence.Id;
 import javax.persistence.Table;
@@ -28,6 +29,8 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import com.hedera.mirror.importer.converter.CompressedBytesConverter;
+
 @Data
 @Entity
 @NoArgsConstructor
@@ -39,10 +42,12 @@ public class ContractResult {
     private Long consensusTimestamp;
 
     @Column(name = "function_params")
+    @Convert(converter = CompressedBytesConverter.class)
     private byte[] functionParameters;
 
     private Long gasSupplied;
 
+    @Convert(converter = CompressedBytesConverter.class)
     private byte[] callResult;
 
     private Long gasUsed;
@@ -0,0 +1,46 @@
+package com.hedera.mirror.importer.domain;
+
+/*-
+ * ‌
+ * Hedera Mirror Node
+ * ​
+ * Copyright (C) 2019 - 2020 Hedera Hashgraph, LLC
+ * ​
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ‍
+ */
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.Value;
+
+/**
+ * A transaction that an entity was involved in, used to look up an entity's transactions without scanning transfers.
+ */
+@Value
+public class EntityActivity {
+    private Long entityId;
+    private Long consensusTimestamp;
+    private Role role;
+
+    @Getter
+    @RequiredArgsConstructor
+    public enum Role {
+
+        PAYER(1),
+        TRANSFER(2),
+        ENTITY(3);
+
+        private final int id;
+    }
+}
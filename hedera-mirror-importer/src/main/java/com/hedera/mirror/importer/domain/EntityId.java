@@ -24,9 +24,30 @@ import lombok.Value;
 
 @Value
 public class EntityId {
+
+    private static final int SHARD_BITS = 15;
+    private static final int REALM_BITS = 16;
+    private static final int NUM_BITS = 32;
+
     private Long id;
     private Long entityShard;
     private Long entityRealm;
     private Long entityNum;
     private Integer entityTypeId;
+
+    /**
+     * Encodes the shard, realm and number into the id stored in t_entities so that it can be computed without a
+     * lookup. Must match the encode_entity_id database function.
+     */
+    public static long encode(long shard, long realm, long num) {
+        if (shard < 0 || shard >= 1L << SHARD_BITS || realm < 0 || realm >= 1L << REALM_BITS ||
+                num < 0 || num >= 1L << NUM_BITS) {
+            throw new IllegalArgumentException(String.format("Entity %d.%d.%d can't be encoded", shard, realm, num));
+        }
+        return (shard << (REALM_BITS + NUM_BITS)) | (realm << NUM_BITS) | num;
+    }
+
+    public static EntityId of(long shard, long realm, long num, Integer entityTypeId) {
+        return new EntityId(encode(shard, realm, num), shard, realm, num, entityTypeId);
+    }
 }
@@ -20,6 +20,7 @@ package com.hedera.mirror.importer.domain;
  * ‍
  */
 
+import javax.persistence.Convert;
 import javax.persistence.Entity;
 import javax.persistence.Id;
 import javax.persistence.Table;
@@ -27,6 +28,8 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import com.hedera.mirror.importer.converter.CompressedBytesConverter;
+
 @Data
 @Entity
 @NoArgsConstructor
@@ -37,5 +40,6 @@ public class FileData {
     @Id
     private Long consensusTimestamp;
 
+    @Convert(converter = CompressedBytesConverter.class)
     private byte[] fileData;
 }
@@ -20,12 +20,15 @@ package com.hedera.mirror.importer.domain;
  * ‍
  */
 
+import javax.persistence.Convert;
 import javax.persistence.Entity;
 import javax.persistence.Id;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import com.hedera.mirror.importer.converter.CompressedBytesConverter;
+
 @Data
 @Entity
 @NoArgsConstructor
@@ -35,6 +38,7 @@ public class TopicMessage {
     @Id
     private long consensusTimestamp;
 
+    @Convert(converter = CompressedBytesConverter.class)
     private byte[] message;
 
     private int realmNum;
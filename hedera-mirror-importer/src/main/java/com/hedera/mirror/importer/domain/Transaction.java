@@ -22,6 +22,7 @@ package com.hedera.mirror.importer.domain;
 
 import javax.persistence.CascadeType;
 import javax.persistence.Column;
+import javax.persistence.Convert;
 import javax.persistence.Entity;
 import javax.persistence.Id;
 import javax.persistence.JoinColumn;
@@ -33,6 +34,8 @@ import lombok.NoArgsConstructor;
 import lombok.ToString;
 import org.springframework.data.domain.Persistable;
 
+import com.hedera.mirror.importer.converter.CompressedBytesConverter;
+
 @Data
 @Entity
 @NoArgsConstructor
@@ -72,6 +75,7 @@ public class Transaction implements Persistable<Long> {
 
     private byte[] transactionHash;
 
+    @Convert(converter = CompressedBytesConverter.class)
     private byte[] transactionBytes;
 
     // Helper to avoid having to update a 100 places in tests
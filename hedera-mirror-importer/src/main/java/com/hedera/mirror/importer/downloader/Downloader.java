@@ -58,7 +58,7 @@ import com.hedera.mirror.importer.domain.ApplicationStatusCode;
 import com.hedera.mirror.importer.domain.FileStreamSignature;
 import com.hedera.mirror.importer.domain.NodeAddress;
 import com.hedera.mirror.importer.exception.SignatureVerificationException;
-import com.hedera.mirror.importer.repository.ApplicationStatusRepository;
+import com.hedera.mirror.importer.stream.StreamStateTracker;
 import com.hedera.mirror.importer.util.ShutdownHelper;
 import com.hedera.mirror.importer.util.Utility;
 
@@ -66,17 +66,17 @@ public abstract class Downloader {
     protected final Logger log = LogManager.getLogger(getClass());
 
     private final S3AsyncClient s3Client;
-    private final ApplicationStatusRepository applicationStatusRepository;
+    private final StreamStateTracker streamStateTracker;
     private final NetworkAddressBook networkAddressBook;
     private final DownloaderProperties downloaderProperties;
     // Thread pool used one per node during the download process for signatures.
     private final ExecutorService signatureDownloadThreadPool;
     private Set<String> nodeAccountIds;
 
-    public Downloader(S3AsyncClient s3Client, ApplicationStatusRepository applicationStatusRepository,
+    public Downloader(S3AsyncClient s3Client, StreamStateTracker streamStateTracker,
                       NetworkAddressBook networkAddressBook, DownloaderProperties downloaderProperties) {
         this.s3Client = s3Client;
-        this.applicationStatusRepository = applicationStatusRepository;
+        this.streamStateTracker = streamStateTracker;
         this.networkAddressBook = networkAddressBook;
         this.downloaderProperties = downloaderProperties;
         signatureDownloadThreadPool = Executors.newFixedThreadPool(downloaderProperties.getThreads());
@@ -99,6 +99,10 @@ public abstract class Downloader {
             log.warn(e.getMessage());
         } catch (Exception e) {
             log.error("Error downloading files", e);
+        } finally {
+            // Last valid file and hash are updated in memory per file and written to the database once per batch. If
+            // the process stops before the flush, the files since the last flush are downloaded again on restart.
+            streamStateTracker.flush();
         }
     }
 
@@ -110,7 +114,7 @@ public abstract class Downloader {
      * @return key: sig file name value: a list of sig files with the same name and from different nodes folder;
      */
     private Multimap<String, FileStreamSignature> downloadSigFiles() throws InterruptedException {
-        String lastValidFileName = applicationStatusRepository.findByStatusCode(getLastValidDownloadedFileKey());
+        String lastValidFileName = streamStateTracker.get(getLastValidDownloadedFileKey());
         // foo.rcd < foo.rcd_sig. If we read foo.rcd from application stats, we have to start listing from
         // next to 'foo.rcd_sig'.
         String lastValidSigFileName = lastValidFileName.isEmpty() ? "" : lastValidFileName + "_sig";
@@ -309,11 +313,11 @@ public abstract class Downloader {
                             if (moveFile(signedDataFile, destination)) {
                                 log.debug("Successfully moved file from {} to {}", signedDataFile, destination);
                                 if (getLastValidDownloadedFileHashKey() != null) {
-                                    applicationStatusRepository.updateStatusValue(getLastValidDownloadedFileHashKey(),
+                                    streamStateTracker.update(getLastValidDownloadedFileHashKey(),
                                             signature.getHashAsHex());
                                 }
-                                applicationStatusRepository
-                                        .updateStatusValue(getLastValidDownloadedFileKey(), destination.getName());
+                                streamStateTracker.update(getLastValidDownloadedFileKey(), destination.getName());
+                                onVerified(destination);
                                 valid = true;
                                 break;
                             }
@@ -322,6 +326,10 @@ public abstract class Downloader {
                         log.warn("Hash doesn't match the hash contained in valid signature file. Will try to download" +
                                 " a file with same timestamp from other nodes and check the Hash: {}", signedDataFile);
                     }
+                } catch (InterruptedException e) {
+                    log.warn("Interrupted while handing off {}", sigFileName);
+                    Thread.currentThread().interrupt();
+                    return;
                 } catch (Exception e) {
                     log.error("Error downloading data file corresponding to {}", sigFileName, e);
                 }
@@ -334,14 +342,14 @@ public abstract class Downloader {
     }
 
     /**
-     * Verifies that prevFileHash in given {@code file} matches that in application repository.
+     * Verifies that prevFileHash in given {@code file} matches the hash of the last valid downloaded file.
      *
      * @throws Exception
      */
     protected boolean verifyHashChain(File file) {
         String filePath = file.getAbsolutePath();
-        String lastValidFileHash = applicationStatusRepository.findByStatusCode(getLastValidDownloadedFileHashKey());
-        String bypassMismatch = applicationStatusRepository.findByStatusCode(getBypassHashKey());
+        String lastValidFileHash = streamStateTracker.get(getLastValidDownloadedFileHashKey());
+        String bypassMismatch = streamStateTracker.get(getBypassHashKey());
         String prevFileHash = getPrevFileHash(filePath);
 
         if (prevFileHash == null) {
@@ -381,6 +389,13 @@ public abstract class Downloader {
         return null;
     }
 
+    /**
+     * Called after a data file has been verified and moved to the valid directory, in the order the files were signed.
+     * Implementations may block to slow down downloading when the consumer of the files is falling behind.
+     */
+    protected void onVerified(File file) throws InterruptedException {
+    }
+
     protected abstract ApplicationStatusCode getLastValidDownloadedFileKey();
 
     protected abstract ApplicationStatusCode getLastValidDownloadedFileHashKey();
@@ -30,16 +30,16 @@ import software.amazon.awssdk.services.s3.S3AsyncClient;
 import com.hedera.mirror.importer.addressbook.NetworkAddressBook;
 import com.hedera.mirror.importer.domain.ApplicationStatusCode;
 import com.hedera.mirror.importer.downloader.Downloader;
-import com.hedera.mirror.importer.repository.ApplicationStatusRepository;
+import com.hedera.mirror.importer.stream.StreamStateTracker;
 
 @Log4j2
 @Named
 public class AccountBalancesDownloader extends Downloader {
 
     public AccountBalancesDownloader(
-            S3AsyncClient s3Client, ApplicationStatusRepository applicationStatusRepository,
+            S3AsyncClient s3Client, StreamStateTracker streamStateTracker,
             NetworkAddressBook networkAddressBook, BalanceDownloaderProperties downloaderProperties) {
-        super(s3Client, applicationStatusRepository, networkAddressBook, downloaderProperties);
+        super(s3Client, streamStateTracker, networkAddressBook, downloaderProperties);
     }
 
     @Override
@@ -30,16 +30,16 @@ import com.hedera.mirror.importer.addressbook.NetworkAddressBook;
 import com.hedera.mirror.importer.domain.ApplicationStatusCode;
 import com.hedera.mirror.importer.downloader.Downloader;
 import com.hedera.mirror.importer.parser.event.EventStreamFileParser;
-import com.hedera.mirror.importer.repository.ApplicationStatusRepository;
+import com.hedera.mirror.importer.stream.StreamStateTracker;
 
 @Log4j2
 @Named
 public class EventStreamFileDownloader extends Downloader {
 
     public EventStreamFileDownloader(
-            S3AsyncClient s3Client, ApplicationStatusRepository applicationStatusRepository,
+            S3AsyncClient s3Client, StreamStateTracker streamStateTracker,
             NetworkAddressBook networkAddressBook, EventDownloaderProperties downloaderProperties) {
-        super(s3Client, applicationStatusRepository, networkAddressBook, downloaderProperties);
+        super(s3Client, streamStateTracker, networkAddressBook, downloaderProperties);
     }
 
     @Override
@@ -20,6 +20,7 @@ package com.hedera.mirror.importer.downloader.record;
  * ‍
  */
 
+import java.io.File;
 import javax.inject.Named;
 
 import lombok.extern.log4j.Log4j2;
@@ -30,16 +31,21 @@ import com.hedera.mirror.importer.addressbook.NetworkAddressBook;
 import com.hedera.mirror.importer.domain.ApplicationStatusCode;
 import com.hedera.mirror.importer.downloader.Downloader;
 import com.hedera.mirror.importer.parser.record.RecordFileParser;
-import com.hedera.mirror.importer.repository.ApplicationStatusRepository;
+import com.hedera.mirror.importer.parser.record.RecordFileQueue;
+import com.hedera.mirror.importer.stream.StreamStateTracker;
 
 @Log4j2
 @Named
 public class RecordFileDownloader extends Downloader {
 
+    private final RecordFileQueue recordFileQueue;
+
     public RecordFileDownloader(
-            S3AsyncClient s3Client, ApplicationStatusRepository applicationStatusRepository,
-            NetworkAddressBook networkAddressBook, RecordDownloaderProperties downloaderProperties) {
-        super(s3Client, applicationStatusRepository, networkAddressBook, downloaderProperties);
+            S3AsyncClient s3Client, StreamStateTracker streamStateTracker,
+            NetworkAddressBook networkAddressBook, RecordDownloaderProperties downloaderProperties,
+            RecordFileQueue recordFileQueue) {
+        super(s3Client, streamStateTracker, networkAddressBook, downloaderProperties);
+        this.recordFileQueue = recordFileQueue;
     }
 
     @Override
@@ -48,6 +54,11 @@ public class RecordFileDownloader extends Downloader {
         downloadNextBatch();
     }
 
+    @Override
+    protected void onVerified(File file) throws InterruptedException {
+        recordFileQueue.put(file);
+    }
+
     @Override
     protected ApplicationStatusCode getLastValidDownloadedFileKey() {
         return ApplicationStatusCode.LAST_VALID_DOWNLOADED_RECORD_FILE;
@@ -23,48 +23,72 @@ package com.hedera.mirror.importer.migration;
 import com.google.common.base.Stopwatch;
 import com.hederahashgraph.api.proto.java.AccountID;
 import com.hederahashgraph.api.proto.java.CryptoGetInfoResponse.AccountInfo;
-
 import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileReader;
 import java.nio.file.Path;
-import java.util.Optional;
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
 import javax.inject.Named;
-
+import lombok.Value;
 import lombok.extern.log4j.Log4j2;
 import org.apache.commons.codec.binary.Base64;
 import org.apache.commons.lang3.StringUtils;
 import org.flywaydb.core.api.migration.BaseJavaMigration;
 import org.flywaydb.core.api.migration.Context;
-import org.springframework.context.annotation.Lazy;
-import org.springframework.jdbc.core.JdbcOperations;
 
 import com.hedera.mirror.importer.MirrorProperties;
 import com.hedera.mirror.importer.domain.Entities;
-import com.hedera.mirror.importer.domain.EntityType;
-import com.hedera.mirror.importer.repository.EntityRepository;
-import com.hedera.mirror.importer.repository.EntityTypeRepository;
 import com.hedera.mirror.importer.util.Utility;
 
+/**
+ * Creates or fills in the entities of the accounts listed in accountInfo.txt. The file is processed in chunks: the
+ * AccountInfo records of a chunk are decoded in parallel, the existing entities of the chunk are looked up with a
+ * single query, missing entities are inserted with a single statement and the remaining changes are applied as a JDBC
+ * batch. Entities that already have a create transaction are left as is.
+ */
 @Log4j2
 @Named
 public class V1_11_6__Missing_Entities extends BaseJavaMigration {
 
+    static final int CHUNK_SIZE = 2000;
+
+    private static final String SELECT_ACCOUNT_TYPE = "select id from t_entity_types where name = 'account'";
+
+    private static final String SELECT_ENTITIES = "select e.id, e.entity_shard, e.entity_realm, e.entity_num, " +
+            "e.exp_time_ns, e.auto_renew_period, e.key, e.ed25519_public_key_hex, e.fk_prox_acc_id, e.deleted, " +
+            "exists (select 1 from t_transactions t join t_transaction_types tt on t.fk_trans_type_id = tt.id " +
+            "where t.fk_cud_entity_id = e.id and tt.name in ('CONTRACTCREATEINSTANCE', 'CRYPTOCREATEACCOUNT', " +
+            "'FILECREATE')) as created from t_entities e join unnest(?, ?, ?) as k (shard, realm, num) on " +
+            "e.entity_shard = k.shard and e.entity_realm = k.realm and e.entity_num = k.num";
+
+    private static final String INSERT_ENTITIES = "insert into t_entities (entity_shard, entity_realm, entity_num, " +
+            "fk_entity_type_id) select shard, realm, num, ? from unnest(?, ?, ?) as k (shard, realm, num) " +
+            "returning id, entity_shard, entity_realm, entity_num, exp_time_ns, auto_renew_period, key, " +
+            "ed25519_public_key_hex, fk_prox_acc_id, deleted, false as created";
+
+    private static final String UPDATE_ENTITY = "update t_entities set exp_time_ns = ?, auto_renew_period = ?, " +
+            "key = ?, ed25519_public_key_hex = ?, fk_prox_acc_id = ?, deleted = ? where id = ?";
+
     private final MirrorProperties mirrorProperties;
-    private final EntityRepository entityRepository;
-    private final EntityTypeRepository entityTypeRepository;
-    private final JdbcOperations jdbcOperations;
-
-    // There's a circular dependency of Flyway -> this -> Repositories/JdbcOperations -> Flyway, so use @Lazy to
-    // break it.
-    // Correct way is to not use repositories and construct manually: new JdbcTemplate(context.getConnection())
-    public V1_11_6__Missing_Entities(MirrorProperties mirrorProperties, @Lazy EntityRepository entityRepository,
-                                     @Lazy EntityTypeRepository entityTypeRepository,
-                                     @Lazy JdbcOperations jdbcOperations) {
+
+    public V1_11_6__Missing_Entities(MirrorProperties mirrorProperties) {
         this.mirrorProperties = mirrorProperties;
-        this.entityRepository = entityRepository;
-        this.entityTypeRepository = entityTypeRepository;
-        this.jdbcOperations = jdbcOperations;
     }
 
     @Override
@@ -77,22 +101,28 @@ public class V1_11_6__Missing_Entities extends BaseJavaMigration {
 
         log.info("Importing account file {}", accountInfoFile.getAbsoluteFile());
         Stopwatch stopwatch = Stopwatch.createStarted();
+        Connection connection = context.getConnection();
+        int accountTypeId = getAccountTypeId(connection);
         long count = 0L;
 
         try (BufferedReader reader = new BufferedReader(new FileReader(accountInfoFile))) {
+            List<String> chunk = new ArrayList<>(CHUNK_SIZE);
             String line = null;
 
             while ((line = reader.readLine()) != null) {
-                try {
-                    if (StringUtils.isNotBlank(line)) {
-                        updateAccount(line);
-                    }
-
-                    ++count;
-                } catch (Exception e) {
-                    log.error("Unable to load AccountInfo: {}", line, e);
+                if (StringUtils.isNotBlank(line)) {
+                    chunk.add(line);
+                }
+
+                if (chunk.size() >= CHUNK_SIZE) {
+                    count += updateAccounts(connection, accountTypeId, parse(chunk));
+                    chunk.clear();
                 }
             }
+
+            if (!chunk.isEmpty()) {
+                count += updateAccounts(connection, accountTypeId, parse(chunk));
+            }
         }
 
         log.info("Successfully loaded {} accounts in {}", count, stopwatch);
@@ -102,25 +132,89 @@ public class V1_11_6__Missing_Entities extends BaseJavaMigration {
         return mirrorProperties.getDataPath().resolve("accountInfo.txt");
     }
 
-    private void updateAccount(String line) throws Exception {
-        byte[] data = Base64.decodeBase64(line);
-        AccountInfo accountInfo = AccountInfo.parseFrom(data);
-        AccountID accountID = accountInfo.getAccountID();
+    /**
+     * Decodes the AccountInfo records in parallel, dropping any that can't be decoded but keeping the file order
+     */
+    private List<AccountInfo> parse(List<String> lines) {
+        return lines.parallelStream()
+                .map(this::parse)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
 
-        Optional<Entities> entityExists = entityRepository
-                .findByPrimaryKey(accountID.getShardNum(), accountID.getRealmNum(), accountID.getAccountNum());
-        if (entityExists.isPresent() && hasCreateTransaction(entityExists.get())) {
-            return;
+    private AccountInfo parse(String line) {
+        try {
+            return AccountInfo.parseFrom(Base64.decodeBase64(line));
+        } catch (Exception e) {
+            log.error("Unable to load AccountInfo: {}", line, e);
+            return null;
         }
+    }
+
+    private int updateAccounts(Connection connection, int accountTypeId, List<AccountInfo> accountInfos)
+            throws SQLException {
+        Set<Key> keys = new LinkedHashSet<>();
+        accountInfos.forEach(accountInfo -> {
+            keys.add(Key.of(accountInfo.getAccountID()));
+            if (accountInfo.hasProxyAccountID()) {
+                keys.add(Key.of(accountInfo.getProxyAccountID()));
+            }
+        });
+
+        Map<Key, Row> rows = selectEntities(connection, keys);
 
-        Entities entity = entityExists.orElseGet(() -> toEntity(accountID));
+        // Entities with a create transaction are skipped, so only create the proxies of accounts that will be updated.
+        // An account's proxy is only set once, so later records for the same account don't need their proxy.
+        Set<Key> missing = new LinkedHashSet<>();
+        Set<Key> proxied = new HashSet<>();
+        for (AccountInfo accountInfo : accountInfos) {
+            Key key = Key.of(accountInfo.getAccountID());
+            Row row = rows.get(key);
+            if (row == null) {
+                missing.add(key);
+            } else if (row.isCreated() || row.getEntity().getProxyAccountId() != null) {
+                continue;
+            }
 
+            if (accountInfo.hasProxyAccountID() && proxied.add(key)) {
+                Key proxyKey = Key.of(accountInfo.getProxyAccountID());
+                if (!rows.containsKey(proxyKey)) {
+                    missing.add(proxyKey);
+                }
+            }
+        }
+
+        rows.putAll(insertEntities(connection, accountTypeId, missing));
+
+        Map<Long, Entities> updated = new LinkedHashMap<>();
+        for (AccountInfo accountInfo : accountInfos) {
+            AccountID accountID = accountInfo.getAccountID();
+            Row row = rows.get(Key.of(accountID));
+            if (row.isCreated()) {
+                continue;
+            }
+
+            Entities entity = row.getEntity();
+            Long proxyAccountId = null;
+            if (entity.getProxyAccountId() == null && accountInfo.hasProxyAccountID()) {
+                proxyAccountId = rows.get(Key.of(accountInfo.getProxyAccountID())).getEntity().getId();
+            }
+            update(entity, accountInfo, proxyAccountId);
+            log.debug("Updating entity {} for account {}", entity.getId(), accountID);
+            updated.put(entity.getId(), entity);
+        }
+
+        updateEntities(connection, updated.values());
+        return accountInfos.size();
+    }
+
+    private void update(Entities entity, AccountInfo accountInfo, Long proxyAccountId) {
         if (entity.getExpiryTimeNs() == null && accountInfo.hasExpirationTime()) {
             try {
                 entity.setExpiryTimeNs(Utility.timeStampInNanos(accountInfo.getExpirationTime()));
             } catch (ArithmeticException e) {
-                log.warn("Invalid expiration time for account {}: {}", accountID.getAccountNum(), StringUtils
-                        .trim(e.getMessage()));
+                log.warn("Invalid expiration time for account {}: {}", accountInfo.getAccountID().getAccountNum(),
+                        StringUtils.trim(e.getMessage()));
             }
         }
 
@@ -132,41 +226,120 @@ public class V1_11_6__Missing_Entities extends BaseJavaMigration {
             entity.setKey(accountInfo.getKey().toByteArray());
         }
 
-        if (entity.getProxyAccountId() == null && accountInfo.hasProxyAccountID()) {
-            AccountID proxyAccountID = accountInfo.getProxyAccountID();
-            Entities proxyEntity = entityRepository
-                    .findByPrimaryKey(proxyAccountID.getShardNum(), proxyAccountID.getRealmNum(), proxyAccountID
-                            .getAccountNum())
-                    .orElseGet(() -> entityRepository.save(toEntity(proxyAccountID)));
-            entity.setProxyAccountId(proxyEntity.getId());
+        if (entity.getProxyAccountId() == null && proxyAccountId != null) {
+            entity.setProxyAccountId(proxyAccountId);
         }
 
         if (accountInfo.getDeleted()) {
             entity.setDeleted(accountInfo.getDeleted());
         }
+    }
 
-        if (entityExists.isPresent()) {
-            log.debug("Updating entity {} for account {}", entity.getId(), accountID);
-        } else {
-            log.debug("Creating entity for account {}", accountID);
+    private int getAccountTypeId(Connection connection) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(SELECT_ACCOUNT_TYPE);
+             ResultSet resultSet = statement.executeQuery()) {
+            resultSet.next();
+            return resultSet.getInt(1);
         }
+    }
 
-        entityRepository.save(entity);
+    private Map<Key, Row> selectEntities(Connection connection, Collection<Key> keys) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(SELECT_ENTITIES)) {
+            bindKeys(connection, statement, 1, keys);
+            return toRows(statement.executeQuery());
+        }
     }
 
-    private Entities toEntity(AccountID accountID) {
-        Entities entity = new Entities();
-        entity.setEntityNum(accountID.getAccountNum());
-        entity.setEntityRealm(accountID.getRealmNum());
-        entity.setEntityShard(accountID.getShardNum());
-        entity.setEntityTypeId(entityTypeRepository.findByName("account").map(EntityType::getId).get());
-        return entity;
+    private Map<Key, Row> insertEntities(Connection connection, int accountTypeId, Collection<Key> keys)
+            throws SQLException {
+        if (keys.isEmpty()) {
+            return Map.of();
+        }
+
+        try (PreparedStatement statement = connection.prepareStatement(INSERT_ENTITIES)) {
+            statement.setInt(1, accountTypeId);
+            bindKeys(connection, statement, 2, keys);
+            Map<Key, Row> rows = toRows(statement.executeQuery());
+            log.debug("Created {} entities", rows.size());
+            return rows;
+        }
+    }
+
+    private void updateEntities(Connection connection, Collection<Entities> entities) throws SQLException {
+        if (entities.isEmpty()) {
+            return;
+        }
+
+        try (PreparedStatement statement = connection.prepareStatement(UPDATE_ENTITY)) {
+            for (Entities entity : entities) {
+                statement.setObject(1, entity.getExpiryTimeNs(), Types.BIGINT);
+                statement.setObject(2, entity.getAutoRenewPeriod(), Types.BIGINT);
+                statement.setBytes(3, entity.getKey());
+                statement.setString(4, entity.getEd25519PublicKeyHex());
+                statement.setObject(5, entity.getProxyAccountId(), Types.BIGINT);
+                statement.setBoolean(6, entity.isDeleted());
+                statement.setLong(7, entity.getId());
+                statement.addBatch();
+            }
+            statement.executeBatch();
+        }
+    }
+
+    private void bindKeys(Connection connection, PreparedStatement statement, int index, Collection<Key> keys)
+            throws SQLException {
+        List<Long> shards = new ArrayList<>(keys.size());
+        List<Long> realms = new ArrayList<>(keys.size());
+        List<Long> nums = new ArrayList<>(keys.size());
+        keys.forEach(key -> {
+            shards.add(key.getShard());
+            realms.add(key.getRealm());
+            nums.add(key.getNum());
+        });
+        statement.setArray(index, toArray(connection, shards));
+        statement.setArray(index + 1, toArray(connection, realms));
+        statement.setArray(index + 2, toArray(connection, nums));
+    }
+
+    private Array toArray(Connection connection, List<Long> values) throws SQLException {
+        return connection.createArrayOf("bigint", values.toArray());
+    }
+
+    private Map<Key, Row> toRows(ResultSet resultSet) throws SQLException {
+        try (resultSet) {
+            Map<Key, Row> rows = new HashMap<>();
+            while (resultSet.next()) {
+                Entities entity = new Entities();
+                entity.setId(resultSet.getLong("id"));
+                entity.setEntityShard(resultSet.getLong("entity_shard"));
+                entity.setEntityRealm(resultSet.getLong("entity_realm"));
+                entity.setEntityNum(resultSet.getLong("entity_num"));
+                entity.setExpiryTimeNs(resultSet.getObject("exp_time_ns", Long.class));
+                entity.setAutoRenewPeriod(resultSet.getObject("auto_renew_period", Long.class));
+                entity.setKey(resultSet.getBytes("key"));
+                entity.setEd25519PublicKeyHex(resultSet.getString("ed25519_public_key_hex"));
+                entity.setProxyAccountId(resultSet.getObject("fk_prox_acc_id", Long.class));
+                entity.setDeleted(resultSet.getBoolean("deleted"));
+                Key key = new Key(entity.getEntityShard(), entity.getEntityRealm(), entity.getEntityNum());
+                rows.putIfAbsent(key, new Row(entity, resultSet.getBoolean("created")));
+            }
+            return rows;
+        }
+    }
+
+    @Value
+    private static class Key {
+        private final long shard;
+        private final long realm;
+        private final long num;
+
+        static Key of(AccountID accountID) {
+            return new Key(accountID.getShardNum(), accountID.getRealmNum(), accountID.getAccountNum());
+        }
     }
 
-    private boolean hasCreateTransaction(Entities entity) {
-        return jdbcOperations
-                .queryForObject("select count(*) > 0 from t_transactions t, t_transaction_types tt where " +
-                                "t.fk_cud_entity_id = ? and t.fk_trans_type_id = tt.id and tt.name in (?,?,?)",
-                        new Object[] {entity.getId(), "CONTRACTCREATEINSTANCE", "CRYPTOCREATEACCOUNT", "FILECREATE"}, Boolean.class);
+    @Value
+    private static class Row {
+        private final Entities entity;
+        private final boolean created;
     }
 }
@@ -26,8 +26,10 @@ import com.hedera.mirror.importer.parser.domain.StreamFileData;
 public interface StreamFileListener<T> {
     /**
      * Called when starting to process a new stream file.
+     *
+     * @return true if the file was already processed and is being replayed
      */
-    void onStart(StreamFileData streamFileData) throws ImporterException;
+    boolean onStart(StreamFileData streamFileData) throws ImporterException;
 
     void onEnd(T fileInfo) throws ImporterException;
 
@@ -45,6 +45,18 @@ import com.hedera.mirror.importer.util.TimestampConverter;
  */
 @Log4j2
 public final class AccountBalancesFileLoader implements AutoCloseable {
+    private static final String RECONCILE_BALANCES = "insert into account_balance_current (realm_num, " +
+            "entity_num, balance, consensus_timestamp) " +
+            "select b.account_realm_num, b.account_num, b.balance + coalesce(t.amount, 0), " +
+            "coalesce(t.consensus_timestamp, b.consensus_timestamp) " +
+            "from account_balances b left join (" +
+            "select realm_num, entity_num, sum(amount) as amount, max(consensus_timestamp) as consensus_timestamp " +
+            "from t_cryptotransferlists where consensus_timestamp > ? group by realm_num, entity_num) t " +
+            "on b.account_realm_num = t.realm_num and b.account_num = t.entity_num " +
+            "where b.consensus_timestamp = ? " +
+            "on conflict (realm_num, entity_num) do update set balance = excluded.balance " +
+            "where account_balance_current.balance <> excluded.balance";
+
     private final Path filePath;
     private final Instant filenameTimestamp;
     private final AccountBalancesDataset dataset;
@@ -194,6 +206,7 @@ public final class AccountBalancesFileLoader implements AutoCloseable {
             if (processRecordStream(insertBalance, longConsensusTimestamp, stream)) {
                 updateSet.setLong(1, longConsensusTimestamp);
                 updateSet.execute();
+                reconcileBalances(conn, longConsensusTimestamp);
                 log.info("Successfully processed account balances file {} with {} records in {}", filePath,
                         validRowCount, stopwatch);
                 return true;
@@ -207,6 +220,51 @@ public final class AccountBalancesFileLoader implements AutoCloseable {
         return false;
     }
 
+    /**
+     * Uses the balance file as a checkpoint for the running balances in account_balance_current. The balance of each
+     * account in the file plus its transfers since is the expected current balance. Any account that doesn't match
+     * (or is missing) is corrected and logged. This can only be done once the record stream has been processed past
+     * the balance file's timestamp, so the check is skipped otherwise.
+     */
+    private void reconcileBalances(Connection conn, long consensusTimestamp) throws SQLException {
+        conn.setAutoCommit(false);
+        try (var lockBalances = conn.prepareStatement(
+                "lock table account_balance_current in share row exclusive mode");
+             var recordsProcessed = conn.prepareStatement(
+                     "select exists (select 1 from t_transactions where consensus_ns > ?)");
+             var reconcileBalances = conn.prepareStatement(RECONCILE_BALANCES)) {
+            // Keeps record files from being committed until the balances have been reconciled
+            lockBalances.execute();
+
+            recordsProcessed.setLong(1, consensusTimestamp);
+            try (var resultSet = recordsProcessed.executeQuery()) {
+                if (!resultSet.next() || !resultSet.getBoolean(1)) {
+                    log.info("Not reconciling current balances since records haven't been processed past {}",
+                            filePath);
+                    conn.commit();
+                    return;
+                }
+            }
+
+            reconcileBalances.setLong(1, consensusTimestamp);
+            reconcileBalances.setLong(2, consensusTimestamp);
+            int corrected = reconcileBalances.executeUpdate();
+            conn.commit();
+
+            if (corrected > 0) {
+                log.warn("Corrected {} current balances that didn't match {}", corrected, filePath);
+            } else {
+                log.info("Current balances match {}", filePath);
+            }
+        } catch (SQLException e) {
+            // The balance file itself was loaded successfully, so the next one will retry the reconciliation
+            log.error("Error reconciling current balances with {}", filePath, e);
+            conn.rollback();
+        } finally {
+            conn.setAutoCommit(true);
+        }
+    }
+
     @Override
     public void close() throws Exception {
         if (null != dataset) {
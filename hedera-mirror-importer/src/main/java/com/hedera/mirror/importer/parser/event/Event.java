@@ -0,0 +1,63 @@
+package com.hedera.mirror.importer.parser.event;
+
+/*-
+ * ‌
+ * Hedera Mirror Node
+ * ​
+ * Copyright (C) 2019 - 2020 Hedera Hashgraph, LLC
+ * ​
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ‍
+ */
+
+import java.time.Instant;
+import lombok.Builder;
+import lombok.Value;
+
+/**
+ * An event read from an event stream file, ready to be persisted to t_events.
+ */
+@Builder
+@Value
+public class Event {
+
+    private long consensusOrder;
+
+    private Instant consensusTimestamp;
+
+    private long creatorId;
+
+    private long creatorSeq;
+
+    private byte[] hash;
+
+    private long otherId;
+
+    private byte[] otherParentHash;
+
+    private long otherParentGen;
+
+    private long otherSeq;
+
+    private byte[] selfParentHash;
+
+    private long selfParentGen;
+
+    private byte[] signature;
+
+    private Instant timeCreated;
+
+    // counts[0] is the number of bytes in the transaction array, counts[1] the number of system transactions and
+    // counts[2] the number of application transactions
+    private int[] txCounts;
+}
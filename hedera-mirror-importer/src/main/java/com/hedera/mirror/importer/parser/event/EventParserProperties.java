@@ -22,6 +22,7 @@ package com.hedera.mirror.importer.parser.event;
 
 import java.nio.file.Path;
 import java.time.Duration;
+import javax.validation.constraints.Min;
 import javax.validation.constraints.NotNull;
 import lombok.Data;
 import org.springframework.boot.context.properties.ConfigurationProperties;
@@ -38,11 +39,23 @@ public class EventParserProperties implements ParserProperties {
 
     private final MirrorProperties mirrorProperties;
 
+    /**
+     * PreparedStatement.executeBatch() is called after every batchSize number of events from event stream file.
+     */
+    @Min(1)
+    private int batchSize = 1000;
+
     private boolean enabled = false;
 
     @NotNull
     private Duration frequency = Duration.ofMinutes(1L);
 
+    /**
+     * The number of recent event hash to id mappings to keep in memory for resolving parent events.
+     */
+    @Min(1)
+    private long hashCacheSize = 100_000;
+
     private boolean keepFiles = false;
 
     @Override
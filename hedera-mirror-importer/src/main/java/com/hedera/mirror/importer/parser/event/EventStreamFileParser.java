@@ -28,11 +28,6 @@ import java.io.FileInputStream;
 import java.io.IOException;
 import java.nio.file.Path;
 import java.security.MessageDigest;
-import java.sql.Connection;
-import java.sql.PreparedStatement;
-import java.sql.ResultSet;
-import java.sql.SQLException;
-import java.sql.Types;
 import java.time.Instant;
 import java.util.Arrays;
 import java.util.List;
@@ -44,8 +39,7 @@ import org.springframework.scheduling.annotation.Scheduled;
 
 import com.hedera.mirror.importer.domain.ApplicationStatusCode;
 import com.hedera.mirror.importer.parser.FileParser;
-import com.hedera.mirror.importer.repository.ApplicationStatusRepository;
-import com.hedera.mirror.importer.util.DatabaseUtilities;
+import com.hedera.mirror.importer.stream.StreamStateTracker;
 import com.hedera.mirror.importer.util.FileDelimiter;
 import com.hedera.mirror.importer.util.ShutdownHelper;
 import com.hedera.mirror.importer.util.Utility;
@@ -54,17 +48,15 @@ import com.hedera.mirror.importer.util.Utility;
 @Named
 public class EventStreamFileParser implements FileParser {
 
-    private static final Long PARENT_HASH_NULL = null;
-    private static final long PARENT_HASH_NOT_FOUND_MATCH = -2;
-    private static final String PARSED_DIR = "/parsedEventStreamFiles/";
-    private static Connection connect = null;
-    private final ApplicationStatusRepository applicationStatusRepository;
+    private final StreamStateTracker streamStateTracker;
     private final EventParserProperties parserProperties;
+    private final EventStreamWriter eventStreamWriter;
 
-    public EventStreamFileParser(ApplicationStatusRepository applicationStatusRepository,
-                                 EventParserProperties parserProperties) {
-        this.applicationStatusRepository = applicationStatusRepository;
+    public EventStreamFileParser(StreamStateTracker streamStateTracker, EventParserProperties parserProperties,
+                                 EventStreamWriter eventStreamWriter) {
+        this.streamStateTracker = streamStateTracker;
         this.parserProperties = parserProperties;
+        this.eventStreamWriter = eventStreamWriter;
     }
 
     /**
@@ -109,13 +101,25 @@ public class EventStreamFileParser implements FileParser {
     }
 
     /**
-     * Given a EventStream file name, read and parse and return as a list of service record pair
+     * Given a EventStream file name, read and parse it and store its events in a single database transaction
      *
      * @param fileName         the name of record file to read
      * @param previousFileHash previous file hash
      * @throws Exception
      */
     private LoadResult loadEventStreamFile(String fileName, String previousFileHash) throws Exception {
+        LoadResult loadResult = LoadResult.ERROR;
+        try {
+            loadResult = readEventStreamFile(fileName, previousFileHash);
+            return loadResult;
+        } finally {
+            if (loadResult != LoadResult.OK) {
+                eventStreamWriter.onError();
+            }
+        }
+    }
+
+    private LoadResult readEventStreamFile(String fileName, String previousFileHash) throws Exception {
 
         File file = new File(fileName);
         String readPrevFileHash;
@@ -142,6 +146,7 @@ public class EventStreamFileParser implements FileParser {
         }
 
         Stopwatch stopwatch = Stopwatch.createStarted();
+        eventStreamWriter.onStart(fileName);
 
         try (DataInputStream dis = new DataInputStream(new FileInputStream(file))) {
             md = MessageDigest.getInstance(FileDelimiter.HASH_ALGORITHM);
@@ -175,8 +180,7 @@ public class EventStreamFileParser implements FileParser {
 
                         if (!Arrays.equals(new byte[48], readPrevFileHashBytes) && !readPrevFileHash.contentEquals(
                                 previousFileHash)) {
-                            if (applicationStatusRepository
-                                    .findByStatusCode(ApplicationStatusCode.EVENT_HASH_MISMATCH_BYPASS_UNTIL_AFTER)
+                            if (streamStateTracker.get(ApplicationStatusCode.EVENT_HASH_MISMATCH_BYPASS_UNTIL_AFTER)
                                     .compareTo(fileName) < 0) {
                                 // last file for which mismatch is allowed is in the past
                                 log.error("Hash mismatch for file {}. Previous = {}, Current = {}", fileName,
@@ -229,10 +233,7 @@ public class EventStreamFileParser implements FileParser {
             md.update(contentHash);
         }
         String thisFileHash = Utility.bytesToHex(md.digest());
-        if (!Utility.hashIsEmpty(thisFileHash)) {
-            applicationStatusRepository
-                    .updateStatusValue(ApplicationStatusCode.LAST_PROCESSED_EVENT_HASH, thisFileHash);
-        }
+        eventStreamWriter.onEnd(thisFileHash);
         return LoadResult.OK;
     }
 
@@ -303,93 +304,33 @@ public class EventStreamFileParser implements FileParser {
                     Utility.bytesToHex(signature), Utility.bytesToHex(hash), consensusTimeStamp, consensusOrder);
         }
 
-        if (storeEvent(creatorId, creatorSeq, otherId, otherSeq, selfParentGen, otherParentGen, selfParentHash,
-                otherParentHash, counts, timeCreated, signature, hash, consensusTimeStamp, consensusOrder)) {
-            return true;
-        } else {
-            return false;
-        }
+        return storeEvent(Event.builder()
+                .consensusOrder(consensusOrder)
+                .consensusTimestamp(consensusTimeStamp)
+                .creatorId(creatorId)
+                .creatorSeq(creatorSeq)
+                .hash(hash)
+                .otherId(otherId)
+                .otherParentGen(otherParentGen)
+                .otherParentHash(otherParentHash)
+                .otherSeq(otherSeq)
+                .selfParentGen(selfParentGen)
+                .selfParentHash(selfParentHash)
+                .signature(signature)
+                .timeCreated(timeCreated)
+                .txCounts(counts)
+                .build());
     }
 
     /**
      * Store parsed Event information into database
      *
-     * @param creatorId
-     * @param creatorSeq
-     * @param otherId
-     * @param otherSeq
-     * @param selfParentGen
-     * @param otherParentGen
-     * @param selfParentHash
-     * @param otherParentHash
-     * @param txCounts
-     * @param timeCreated
-     * @param signature
-     * @param hash
-     * @param consensusTimeStamp
-     * @param consensusOrder
-     * @return
+     * @param event
+     * @return whether the event was successfully stored
      */
-    private boolean storeEvent(long creatorId, long creatorSeq, long otherId, long otherSeq, long selfParentGen,
-                               long otherParentGen, byte[] selfParentHash, byte[] otherParentHash, int[] txCounts,
-                               Instant timeCreated, byte[] signature, byte[] hash, Instant consensusTimeStamp,
-                               long consensusOrder) {
+    private boolean storeEvent(Event event) {
         try {
-            long generation = Math.max(selfParentGen, otherParentGen) + 1;
-            Long self_parent_id = null;
-            if (selfParentHash != null) {
-                self_parent_id = getIdForParent(selfParentHash, "selfParentHash");
-            }
-            Long other_parent_id = null;
-            if (otherParentHash != null) {
-                other_parent_id = getIdForParent(otherParentHash, "otherParentHash");
-            }
-
-            int txsBytesCount = txCounts[0];
-            int platformTxCount = txCounts[1];
-            int appTxCount = txCounts[2];
-
-            long timeCreatedInNanos = Utility.convertInstantToNanos(timeCreated);
-            long consensusTimestampInNanos = Utility.convertInstantToNanos(consensusTimeStamp);
-            PreparedStatement insertEvent = connect.prepareStatement(
-                    "insert into t_events (consensus_order, creator_node_id, creator_seq, other_node_id, other_seq, " +
-                            "self_parent_generation, other_parent_generation, generation, self_parent_id, " +
-                            "other_parent_id, created_timestamp_ns, signature, consensus_timestamp_ns, " +
-                            "txs_bytes_count, platform_tx_count, app_tx_count, latency_ns, hash, self_parent_hash, " +
-                            "other_parent_hash) "
-                            + " values (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?) ");
-
-            insertEvent.setLong(1, consensusOrder);
-            insertEvent.setLong(2, creatorId);
-            insertEvent.setLong(3, creatorSeq);
-            insertEvent.setLong(4, otherId);
-            insertEvent.setLong(5, otherSeq);
-            insertEvent.setLong(6, selfParentGen);
-            insertEvent.setLong(7, otherParentGen);
-            insertEvent.setLong(8, generation);
-            if (self_parent_id != null && self_parent_id >= 0) {
-                insertEvent.setLong(9, self_parent_id);
-            } else {
-                insertEvent.setNull(9, Types.BIGINT);
-            }
-            if (other_parent_id != null && other_parent_id >= 0) {
-                insertEvent.setLong(10, other_parent_id);
-            } else {
-                insertEvent.setNull(10, Types.BIGINT);
-            }
-            insertEvent.setLong(11, timeCreatedInNanos);
-            insertEvent.setBytes(12, signature);
-            insertEvent.setLong(13, consensusTimestampInNanos);
-            insertEvent.setInt(14, txsBytesCount);
-            insertEvent.setInt(15, platformTxCount);
-            insertEvent.setInt(16, appTxCount);
-            insertEvent.setLong(17, consensusTimestampInNanos - timeCreatedInNanos);
-            insertEvent.setBytes(18, hash);
-            insertEvent.setBytes(19, selfParentHash);
-            insertEvent.setBytes(20, otherParentHash);
-            insertEvent.execute();
-            log.info("Successfully stored event with consensusOrder {}", consensusOrder);
-            insertEvent.close();
+            eventStreamWriter.onEvent(event);
         } catch (Exception ex) {
             log.error("Error storing event", ex);
             return false;
@@ -397,37 +338,6 @@ public class EventStreamFileParser implements FileParser {
         return true;
     }
 
-    /**
-     * Find an event's id in t_events table which hash value matches the given byte array return PARENT_HASH_NULL if the
-     * byte array is null; return PARENT_HASH_NOT_FOUND_MATCH if didn't find a match;
-     *
-     * @param hash
-     * @param name
-     * @return
-     * @throws SQLException
-     */
-    private long getIdForParent(byte[] hash, String name) throws SQLException {
-        if (hash == null) {
-            return PARENT_HASH_NULL;
-        } else {
-            PreparedStatement query = connect.prepareStatement(
-                    "SELECT id FROM t_events WHERE hash = ?");
-            query.setBytes(1, hash);
-            query.execute();
-            ResultSet resultSet = query.getResultSet();
-            long id;
-            if (resultSet.next()) {
-                id = resultSet.getLong(1);
-            } else {
-                log.error("There isn't an event's hash in the database that matches {}: {}", hash, name);
-                id = PARENT_HASH_NOT_FOUND_MATCH;
-            }
-            resultSet.close();
-            query.close();
-            return id;
-        }
-    }
-
     /**
      * read an Instant from a data stream
      */
@@ -483,8 +393,7 @@ public class EventStreamFileParser implements FileParser {
      */
     private boolean loadEventStreamFiles(List<String> fileNames) throws Exception {
 
-        String prevFileHash = applicationStatusRepository
-                .findByStatusCode(ApplicationStatusCode.LAST_PROCESSED_EVENT_HASH);
+        String prevFileHash = streamStateTracker.get(ApplicationStatusCode.LAST_PROCESSED_EVENT_HASH);
         for (String name : fileNames) {
             if (ShutdownHelper.isStopping()) {
                 return false;
@@ -493,8 +402,7 @@ public class EventStreamFileParser implements FileParser {
             if (loadResult == LoadResult.STOP) {
                 return false;
             }
-            prevFileHash = applicationStatusRepository
-                    .findByStatusCode(ApplicationStatusCode.LAST_PROCESSED_EVENT_HASH);
+            prevFileHash = streamStateTracker.get(ApplicationStatusCode.LAST_PROCESSED_EVENT_HASH);
             if (loadResult == LoadResult.OK) {
                 Utility.moveOrDeleteParsedFile(name, parserProperties);
             }
@@ -517,13 +425,12 @@ public class EventStreamFileParser implements FileParser {
             Path path = parserProperties.getValidPath();
             log.info("Parsing event files from {}", path);
             File file = path.toFile();
-            connect = DatabaseUtilities.openDatabase(connect);
 
             boolean result = true;
             if (file.isFile()) {
                 log.info("Loading event file {}", path);
-                if (loadEventStreamFile(path.toString(), applicationStatusRepository
-                        .findByStatusCode(ApplicationStatusCode.LAST_PROCESSED_EVENT_HASH)) == LoadResult.STOP) {
+                if (loadEventStreamFile(path.toString(), streamStateTracker
+                        .get(ApplicationStatusCode.LAST_PROCESSED_EVENT_HASH)) == LoadResult.STOP) {
                     result = false;
                 }
             } else if (file.isDirectory()) { //if it's a directory
@@ -544,12 +451,6 @@ public class EventStreamFileParser implements FileParser {
             } else {
                 log.error("Event file {} does not exist", path);
             }
-
-            try {
-                connect = DatabaseUtilities.closeDatabase(connect);
-            } catch (SQLException e) {
-                log.error("Error closing database connection", e);
-            }
         } catch (Exception e) {
             log.error("Error parsing events files", e);
         }
@@ -0,0 +1,256 @@
+package com.hedera.mirror.importer.parser.event;
+
+/*-
+ * ‌
+ * Hedera Mirror Node
+ * ​
+ * Copyright (C) 2019 - 2020 Hedera Hashgraph, LLC
+ * ​
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ‍
+ */
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import java.nio.ByteBuffer;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import javax.inject.Named;
+import javax.sql.DataSource;
+import lombok.extern.log4j.Log4j2;
+
+import com.hedera.mirror.importer.domain.ApplicationStatusCode;
+import com.hedera.mirror.importer.exception.ParserSQLException;
+import com.hedera.mirror.importer.stream.StreamStateTracker;
+import com.hedera.mirror.importer.util.Utility;
+
+/**
+ * Writes events to t_events in JDBC batches, one database transaction per event stream file. Event ids are allocated
+ * up front from the sequence in blocks so that the ids of recently written events can be kept in an in-memory hash to
+ * id map. Parent ids are resolved from that map and only fall back to querying the database on a miss (e.g. the
+ * first file after a restart). The last processed event hash is updated in the same transaction as the file's events.
+ */
+@Log4j2
+@Named
+public class EventStreamWriter {
+
+    private static final String INSERT_EVENT = "insert into t_events (id, consensus_order, creator_node_id, " +
+            "creator_seq, other_node_id, other_seq, self_parent_generation, other_parent_generation, generation, " +
+            "self_parent_id, other_parent_id, created_timestamp_ns, signature, consensus_timestamp_ns, " +
+            "txs_bytes_count, platform_tx_count, app_tx_count, latency_ns, hash, self_parent_hash, " +
+            "other_parent_hash) values (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String NEXT_EVENT_IDS = "select nextval('s_events_id_seq') from generate_series(1, ?)";
+    private static final String SELECT_EVENT_ID = "select id from t_events where hash = ?";
+
+    private final DataSource dataSource;
+    private final EventParserProperties parserProperties;
+    private final StreamStateTracker streamStateTracker;
+    private final Cache<ByteBuffer, Long> eventIds;
+    private final Deque<Long> availableIds = new ArrayDeque<>();
+    private final Collection<ByteBuffer> pendingHashes = new ArrayList<>();
+    private Connection connection;
+    private PreparedStatement insertEvent;
+    private PreparedStatement nextEventIds;
+    private PreparedStatement selectEventId;
+    private int batchCount = 0;
+
+    public EventStreamWriter(DataSource dataSource, EventParserProperties parserProperties,
+                             StreamStateTracker streamStateTracker) {
+        this.dataSource = dataSource;
+        this.parserProperties = parserProperties;
+        this.streamStateTracker = streamStateTracker;
+        eventIds = Caffeine.newBuilder()
+                .maximumSize(parserProperties.getHashCacheSize())
+                .build();
+    }
+
+    public void onStart(String fileName) {
+        try {
+            connection = dataSource.getConnection();
+            connection.setAutoCommit(false);
+            connection.setClientInfo("ApplicationName", getClass().getCanonicalName());
+            insertEvent = connection.prepareStatement(INSERT_EVENT);
+            nextEventIds = connection.prepareStatement(NEXT_EVENT_IDS);
+            selectEventId = connection.prepareStatement(SELECT_EVENT_ID);
+            batchCount = 0;
+        } catch (SQLException e) {
+            throw new ParserSQLException("Error setting up connection and statements for " + fileName, e);
+        }
+    }
+
+    public void onEvent(Event event) {
+        try {
+            // Resolve parents before binding parameters since a cache miss may need to flush the current batch
+            Long selfParentId = getIdForParent(event.getSelfParentHash(), "selfParentHash");
+            Long otherParentId = getIdForParent(event.getOtherParentHash(), "otherParentHash");
+            long id = nextEventId();
+            long timeCreatedInNanos = Utility.convertInstantToNanos(event.getTimeCreated());
+            long consensusTimestampInNanos = Utility.convertInstantToNanos(event.getConsensusTimestamp());
+            int[] txCounts = event.getTxCounts();
+
+            insertEvent.setLong(F_EVENT.ID.ordinal(), id);
+            insertEvent.setLong(F_EVENT.CONSENSUS_ORDER.ordinal(), event.getConsensusOrder());
+            insertEvent.setLong(F_EVENT.CREATOR_NODE_ID.ordinal(), event.getCreatorId());
+            insertEvent.setLong(F_EVENT.CREATOR_SEQ.ordinal(), event.getCreatorSeq());
+            insertEvent.setLong(F_EVENT.OTHER_NODE_ID.ordinal(), event.getOtherId());
+            insertEvent.setLong(F_EVENT.OTHER_SEQ.ordinal(), event.getOtherSeq());
+            insertEvent.setLong(F_EVENT.SELF_PARENT_GENERATION.ordinal(), event.getSelfParentGen());
+            insertEvent.setLong(F_EVENT.OTHER_PARENT_GENERATION.ordinal(), event.getOtherParentGen());
+            insertEvent.setLong(F_EVENT.GENERATION.ordinal(),
+                    Math.max(event.getSelfParentGen(), event.getOtherParentGen()) + 1);
+            setNullableLong(F_EVENT.SELF_PARENT_ID, selfParentId);
+            setNullableLong(F_EVENT.OTHER_PARENT_ID, otherParentId);
+            insertEvent.setLong(F_EVENT.CREATED_TIMESTAMP_NS.ordinal(), timeCreatedInNanos);
+            insertEvent.setBytes(F_EVENT.SIGNATURE.ordinal(), event.getSignature());
+            insertEvent.setLong(F_EVENT.CONSENSUS_TIMESTAMP_NS.ordinal(), consensusTimestampInNanos);
+            insertEvent.setInt(F_EVENT.TXS_BYTES_COUNT.ordinal(), txCounts[0]);
+            insertEvent.setInt(F_EVENT.PLATFORM_TX_COUNT.ordinal(), txCounts[1]);
+            insertEvent.setInt(F_EVENT.APP_TX_COUNT.ordinal(), txCounts[2]);
+            insertEvent.setLong(F_EVENT.LATENCY_NS.ordinal(), consensusTimestampInNanos - timeCreatedInNanos);
+            insertEvent.setBytes(F_EVENT.HASH.ordinal(), event.getHash());
+            insertEvent.setBytes(F_EVENT.SELF_PARENT_HASH.ordinal(), event.getSelfParentHash());
+            insertEvent.setBytes(F_EVENT.OTHER_PARENT_HASH.ordinal(), event.getOtherParentHash());
+            insertEvent.addBatch();
+
+            ByteBuffer hash = ByteBuffer.wrap(event.getHash());
+            eventIds.put(hash, id);
+            pendingHashes.add(hash);
+
+            if (++batchCount >= parserProperties.getBatchSize()) {
+                executeBatch();
+            }
+        } catch (SQLException e) {
+            throw new ParserSQLException("Error storing event with consensus order " + event.getConsensusOrder(), e);
+        }
+    }
+
+    public void onEnd(String fileHash) {
+        try {
+            executeBatch();
+            if (!Utility.hashIsEmpty(fileHash)) {
+                streamStateTracker.persist(connection, ApplicationStatusCode.LAST_PROCESSED_EVENT_HASH, fileHash);
+            }
+            connection.commit();
+            pendingHashes.clear();
+            closeConnectionAndStatements();
+
+            if (!Utility.hashIsEmpty(fileHash)) {
+                streamStateTracker.set(ApplicationStatusCode.LAST_PROCESSED_EVENT_HASH, fileHash);
+            }
+        } catch (SQLException e) {
+            throw new ParserSQLException(e);
+        }
+    }
+
+    public void onError() {
+        if (connection == null) {
+            return;
+        }
+
+        // Rolled back events will be re-inserted with new ids, so their cached ids are no longer valid
+        eventIds.invalidateAll(pendingHashes);
+        pendingHashes.clear();
+
+        try {
+            connection.rollback();
+            closeConnectionAndStatements();
+        } catch (SQLException e) {
+            log.error("Exception while rolling transaction back", e);
+        }
+    }
+
+    private void executeBatch() throws SQLException {
+        if (batchCount > 0) {
+            int[] events = insertEvent.executeBatch();
+            log.debug("Inserted {} events", events.length);
+            batchCount = 0;
+        }
+    }
+
+    private void closeConnectionAndStatements() throws SQLException {
+        insertEvent.close();
+        nextEventIds.close();
+        selectEventId.close();
+        connection.close();
+        connection = null;
+    }
+
+    /**
+     * Allocates event ids from the sequence in blocks of batchSize so that ids are known before the insert is executed
+     */
+    private long nextEventId() throws SQLException {
+        if (availableIds.isEmpty()) {
+            nextEventIds.setInt(1, parserProperties.getBatchSize());
+            try (ResultSet resultSet = nextEventIds.executeQuery()) {
+                while (resultSet.next()) {
+                    availableIds.add(resultSet.getLong(1));
+                }
+            }
+        }
+        return availableIds.remove();
+    }
+
+    private void setNullableLong(F_EVENT column, Long value) throws SQLException {
+        if (value != null) {
+            insertEvent.setLong(column.ordinal(), value);
+        } else {
+            insertEvent.setNull(column.ordinal(), Types.BIGINT);
+        }
+    }
+
+    /**
+     * Find the id of the event with the given hash, first in the cache of recently written events and then in the
+     * t_events table. Returns null if the hash is null or there's no match.
+     */
+    private Long getIdForParent(byte[] hash, String name) throws SQLException {
+        if (hash == null) {
+            return null;
+        }
+
+        ByteBuffer key = ByteBuffer.wrap(hash);
+        Long id = eventIds.getIfPresent(key);
+        if (id != null) {
+            return id;
+        }
+
+        // Parents are written in earlier batches of this transaction or previous files, so flush before querying
+        executeBatch();
+        selectEventId.setBytes(1, hash);
+        try (ResultSet resultSet = selectEventId.executeQuery()) {
+            if (resultSet.next()) {
+                id = resultSet.getLong(1);
+                eventIds.put(key, id);
+                return id;
+            }
+        }
+
+        log.error("There isn't an event's hash in the database that matches {}: {}", Utility.bytesToHex(hash),
+                name);
+        return null;
+    }
+
+    enum F_EVENT {
+        ZERO // column indices start at 1, this creates the necessary offset
+        , ID, CONSENSUS_ORDER, CREATOR_NODE_ID, CREATOR_SEQ, OTHER_NODE_ID, OTHER_SEQ, SELF_PARENT_GENERATION,
+        OTHER_PARENT_GENERATION, GENERATION, SELF_PARENT_ID, OTHER_PARENT_ID, CREATED_TIMESTAMP_NS, SIGNATURE,
+        CONSENSUS_TIMESTAMP_NS, TXS_BYTES_COUNT, PLATFORM_TX_COUNT, APP_TX_COUNT, LATENCY_NS, HASH,
+        SELF_PARENT_HASH, OTHER_PARENT_HASH
+    }
+}
@@ -0,0 +1,157 @@
+package com.hedera.mirror.importer.parser.record;
+
+/*-
+ * ‌
+ * Hedera Mirror Node
+ * ​
+ * Copyright (C) 2019 - 2020 Hedera Hashgraph, LLC
+ * ​
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ‍
+ */
+
+import java.util.ArrayList;
+import java.util.List;
+import javax.inject.Named;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.context.annotation.Primary;
+
+import com.hedera.mirror.importer.domain.ContractResult;
+import com.hedera.mirror.importer.domain.CryptoTransfer;
+import com.hedera.mirror.importer.domain.EntityActivity;
+import com.hedera.mirror.importer.domain.FileData;
+import com.hedera.mirror.importer.domain.LiveHash;
+import com.hedera.mirror.importer.domain.NonFeeTransfer;
+import com.hedera.mirror.importer.domain.RecordFile;
+import com.hedera.mirror.importer.domain.TopicMessage;
+import com.hedera.mirror.importer.domain.Transaction;
+import com.hedera.mirror.importer.exception.ImporterException;
+import com.hedera.mirror.importer.parser.RecordStreamFileListener;
+import com.hedera.mirror.importer.parser.domain.StreamFileData;
+import com.hedera.mirror.importer.parser.record.segment.SegmentWriterProperties;
+import com.hedera.mirror.importer.parser.record.segment.SegmentWritingRecordParsedItemHandler;
+
+/**
+ * Fans parsed items out to the database and to any other enabled sinks. The database decides whether a file is a
+ * replay, in which case only the database sees it since the other sinks already got the file when it was first
+ * ingested. The other sinks are ended first so that a failure in any of them, or in the database commit, rolls back
+ * the file everywhere.
+ */
+@Log4j2
+@Named
+@Primary
+public class CompositeRecordParsedItemHandler implements RecordParsedItemHandler, RecordStreamFileListener {
+
+    private final List<RecordParsedItemHandler> handlers = new ArrayList<>();
+    private final List<RecordStreamFileListener> listeners = new ArrayList<>();
+    private int active = 0;
+
+    public CompositeRecordParsedItemHandler(PostgresWritingRecordParsedItemHandler postgresHandler,
+                                            SegmentWritingRecordParsedItemHandler segmentHandler,
+                                            SegmentWriterProperties segmentWriterProperties) {
+        handlers.add(postgresHandler);
+        listeners.add(postgresHandler);
+
+        if (segmentWriterProperties.isEnabled()) {
+            handlers.add(segmentHandler);
+            listeners.add(segmentHandler);
+            log.info("Writing parsed items to segments in {}", segmentWriterProperties.getPath());
+        }
+    }
+
+    @Override
+    public boolean onStart(StreamFileData streamFileData) {
+        active = 1;
+        boolean replay = listeners.get(0).onStart(streamFileData);
+        if (!replay) {
+            for (; active < listeners.size(); ++active) {
+                listeners.get(active).onStart(streamFileData);
+            }
+        }
+        return replay;
+    }
+
+    @Override
+    public void onEnd(RecordFile recordFile) {
+        for (int i = active - 1; i >= 0; --i) {
+            listeners.get(i).onEnd(recordFile);
+        }
+    }
+
+    @Override
+    public void onError() {
+        for (int i = 0; i < active; ++i) {
+            try {
+                listeners.get(i).onError();
+            } catch (Exception e) {
+                log.error("Error rolling back {}", listeners.get(i).getClass().getSimpleName(), e);
+            }
+        }
+    }
+
+    @Override
+    public void onTransaction(Transaction transaction) throws ImporterException {
+        for (int i = 0; i < active; ++i) {
+            handlers.get(i).onTransaction(transaction);
+        }
+    }
+
+    @Override
+    public void onCryptoTransferList(CryptoTransfer cryptoTransfer) throws ImporterException {
+        for (int i = 0; i < active; ++i) {
+            handlers.get(i).onCryptoTransferList(cryptoTransfer);
+        }
+    }
+
+    @Override
+    public void onNonFeeTransfer(NonFeeTransfer nonFeeTransfer) throws ImporterException {
+        for (int i = 0; i < active; ++i) {
+            handlers.get(i).onNonFeeTransfer(nonFeeTransfer);
+        }
+    }
+
+    @Override
+    public void onTopicMessage(TopicMessage topicMessage) throws ImporterException {
+        for (int i = 0; i < active; ++i) {
+            handlers.get(i).onTopicMessage(topicMessage);
+        }
+    }
+
+    @Override
+    public void onContractResult(ContractResult contractResult) throws ImporterException {
+        for (int i = 0; i < active; ++i) {
+            handlers.get(i).onContractResult(contractResult);
+        }
+    }
+
+    @Override
+    public void onFileData(FileData fileData) throws ImporterException {
+        for (int i = 0; i < active; ++i) {
+            handlers.get(i).onFileData(fileData);
+        }
+    }
+
+    @Override
+    public void onLiveHash(LiveHash liveHash) throws ImporterException {
+        for (int i = 0; i < active; ++i) {
+            handlers.get(i).onLiveHash(liveHash);
+        }
+    }
+
+    @Override
+    public void onEntityActivity(EntityActivity entityActivity) throws ImporterException {
+        for (int i = 0; i < active; ++i) {
+            handlers.get(i).onEntityActivity(entityActivity);
+        }
+    }
+}
@@ -34,4 +34,25 @@ public class PostgresWriterProperties {
      */
     @Min(1)
     private int batchSize = 100;
+
+    /**
+     * Whether to compress transaction bytes, file data, contract results and topic messages that are at least
+     * compressThreshold bytes
+     */
+    private boolean compress = false;
+
+    @Min(1)
+    private int compressThreshold = 1024;
+
+    /**
+     * Whether every insert ignores rows that already exist on their natural key, so that a file that was already
+     * ingested can be replayed instead of being rejected as a duplicate.
+     */
+    private boolean idempotent = false;
+
+    /**
+     * Whether to notify the topic_message channel with the consensus timestamp of the last topic message in the record
+     * file when it's committed, so listeners don't need to poll for new messages.
+     */
+    private boolean notifyTopicMessages = true;
 }
@@ -22,14 +22,24 @@ package com.hedera.mirror.importer.parser.record;
 
 import java.sql.Connection;
 import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
 import javax.inject.Named;
 import javax.sql.DataSource;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.log4j.Log4j2;
+import org.apache.commons.lang3.ArrayUtils;
+import org.apache.commons.lang3.tuple.Pair;
+import org.apache.commons.lang3.tuple.Triple;
 
+import com.hedera.mirror.importer.db.PartitionManager;
+import com.hedera.mirror.importer.domain.ApplicationStatusCode;
 import com.hedera.mirror.importer.domain.ContractResult;
 import com.hedera.mirror.importer.domain.CryptoTransfer;
+import com.hedera.mirror.importer.domain.EntityActivity;
 import com.hedera.mirror.importer.domain.FileData;
 import com.hedera.mirror.importer.domain.LiveHash;
 import com.hedera.mirror.importer.domain.NonFeeTransfer;
@@ -42,46 +52,98 @@ import com.hedera.mirror.importer.exception.ParserException;
 import com.hedera.mirror.importer.exception.ParserSQLException;
 import com.hedera.mirror.importer.parser.RecordStreamFileListener;
 import com.hedera.mirror.importer.parser.domain.StreamFileData;
-import com.hedera.mirror.importer.repository.RecordFileRepository;
+import com.hedera.mirror.importer.stream.StreamStateTracker;
+import com.hedera.mirror.importer.util.PayloadCodec;
+import com.hedera.mirror.importer.util.Utility;
 
 @Log4j2
 @Named
 @RequiredArgsConstructor
 public class PostgresWritingRecordParsedItemHandler implements RecordParsedItemHandler, RecordStreamFileListener {
+    private static final String INSERT_TRANSACTION = " (fk_node_acc_id, memo, valid_start_ns, type, fk_payer_acc_id"
+            + ", result, consensus_ns, fk_cud_entity_id, charged_tx_fee"
+            + ", initial_balance, valid_duration_seconds, max_fee"
+            + ", transaction_hash, transaction_bytes)"
+            + " VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String INSERT_TRANSFER_LIST = " (consensus_timestamp, amount, realm_num, entity_num)"
+            + " VALUES (?, ?, ?, ?)";
+    private static final String INSERT_TOPIC_MESSAGE = " (consensus_timestamp, realm_num, topic_num, message"
+            + ", running_hash, sequence_number) values (?, ?, ?, ?, ?, ?)";
+    private static final String NOTIFY_TOPIC_MESSAGE = "select pg_notify('topic_message', ?)";
+    private static final String UPSERT_BALANCE = "insert into account_balance_current (realm_num, entity_num, "
+            + "balance, consensus_timestamp) values (?, ?, ?, ?) on conflict (realm_num, entity_num) do update set "
+            + "balance = account_balance_current.balance + excluded.balance, "
+            + "consensus_timestamp = excluded.consensus_timestamp";
+    private static final String UPSERT_ROLLUP = " (consensus_timestamp, type, result, count, charged_tx_fee)"
+            + " values (?, ?, ?, ?, ?) on conflict (consensus_timestamp, type, result) do update set"
+            + " count = r.count + excluded.count, charged_tx_fee = r.charged_tx_fee + excluded.charged_tx_fee";
+
     private long batch_count = 0;
-    private PreparedStatement sqlInsertTransaction;
-    private PreparedStatement sqlInsertTransferList;
+    // Partitioned tables have a statement per partition that the file's rows are inserted into
+    private final Map<String, PreparedStatement> sqlInsertTransaction = new LinkedHashMap<>();
+    private final Map<String, PreparedStatement> sqlInsertTransferList = new LinkedHashMap<>();
+    private final Map<String, PreparedStatement> sqlInsertTopicMessage = new LinkedHashMap<>();
+    // Net change to each account's balance in the file, sorted so that rows are always locked in the same order
+    private final Map<Pair<Long, Long>, BalanceChange> balanceChanges = new TreeMap<>();
+    // Count and fees of the file's transactions by second, type and result
+    private final Map<Triple<Long, Integer, Integer>, Rollup> rollups = new TreeMap<>();
     private PreparedStatement sqlInsertNonFeeTransfers;
     private PreparedStatement sqlInsertFileData;
     private PreparedStatement sqlInsertContractResult;
     private PreparedStatement sqlInsertLiveHashes;
-    private PreparedStatement sqlInsertTopicMessage;
+    private PreparedStatement sqlInsertEntityActivity;
+    private PreparedStatement sqlInsertTransactionHash;
     private final PostgresWriterProperties properties;
     private final DataSource dataSource;
-    private final RecordFileRepository recordFileRepository;
+    private final StreamStateTracker streamStateTracker;
+    private final PartitionManager partitionManager;
     private Connection connection;
+    private String onConflict;
+    private long recordFileId;
+    private boolean replay;
+    private long lastTopicMessageTimestamp;
 
     @Override
-    public void onStart(StreamFileData streamFileData) {
+    public boolean onStart(StreamFileData streamFileData) {
         String fileName = streamFileData.getFilename();
-        if (recordFileRepository.findByName(fileName).size() > 0) {
-            throw new DuplicateFileException("File already exists in the database: " + fileName);
-        }
         try {
             initConnectionAndStatements();
         } catch (Exception e) {
             throw new ParserException("Error setting up connection and statements", e);
         }
+
+        // Relies on the unique index on name to detect duplicates instead of querying for the file first. The
+        // connection is left open for onError() to roll back.
+        insertRecordFile(fileName);
+        if (replay) {
+            log.info("Replaying file already in the database: {}", fileName);
+        }
+        return replay;
     }
 
     @Override
     public void onEnd(RecordFile recordFile) {
         executeBatches();
         try {
-            recordFileRepository.save(recordFile);
+            // A replayed file was already linked into the hash chain when it was first ingested
+            String fileHash = replay ? null : recordFile.getFileHash();
+            if (!replay) {
+                updateRecordFile(recordFile);
+                updateBalances();
+                updateRollups();
+            }
+            if (!Utility.hashIsEmpty(fileHash)) {
+                streamStateTracker.persist(connection, ApplicationStatusCode.LAST_PROCESSED_RECORD_HASH, fileHash);
+            }
+            notifyTopicMessages();
+
             // commit the changes to the database
             connection.commit();
             closeConnectionAndStatements();
+
+            if (!Utility.hashIsEmpty(fileHash)) {
+                streamStateTracker.set(ApplicationStatusCode.LAST_PROCESSED_RECORD_HASH, fileHash);
+            }
         } catch (SQLException e) {
             throw new ParserSQLException(e);
         }
@@ -89,6 +151,8 @@ public class PostgresWritingRecordParsedItemHandler implements RecordParsedItemH
 
     @Override
     public void onError() {
+        balanceChanges.clear();
+        rollups.clear();
         try {
             connection.rollback();
             closeConnectionAndStatements();
@@ -97,6 +161,104 @@ public class PostgresWritingRecordParsedItemHandler implements RecordParsedItemH
         }
     }
 
+    /**
+     * Inserts the file into t_record_files. In idempotent mode an existing row is locked instead, so that concurrent
+     * replays of the same file wait for each other, and the file is flagged as a replay if that row is complete.
+     */
+    private void insertRecordFile(String fileName) {
+        String sql = "insert into t_record_files (name) values (?) on conflict " + (properties.isIdempotent() ?
+                "(name) do update set name = excluded.name returning id, file_hash is not null" :
+                "do nothing returning id, false");
+        try (PreparedStatement insertRecordFile = connection.prepareStatement(sql)) {
+            insertRecordFile.setString(1, fileName);
+            try (ResultSet resultSet = insertRecordFile.executeQuery()) {
+                if (!resultSet.next()) {
+                    throw new DuplicateFileException("File already exists in the database: " + fileName);
+                }
+                recordFileId = resultSet.getLong(1);
+                replay = resultSet.getBoolean(2);
+            }
+        } catch (SQLException e) {
+            throw new ParserSQLException("Error inserting record file " + fileName, e);
+        }
+    }
+
+    private void updateRecordFile(RecordFile recordFile) throws SQLException {
+        try (PreparedStatement updateRecordFile = connection.prepareStatement("update t_record_files set " +
+                "load_start = ?, load_end = ?, file_hash = ?, prev_hash = ? where id = ?")) {
+            updateRecordFile.setObject(1, recordFile.getLoadStart());
+            updateRecordFile.setObject(2, recordFile.getLoadEnd());
+            updateRecordFile.setString(3, recordFile.getFileHash());
+            updateRecordFile.setString(4, recordFile.getPreviousHash());
+            updateRecordFile.setLong(5, recordFileId);
+            updateRecordFile.executeUpdate();
+        }
+    }
+
+    /**
+     * Applies the file's net balance changes to account_balance_current in the same transaction as its transfers. Not
+     * done for replays since their changes were applied when the file was first ingested.
+     */
+    private void updateBalances() throws SQLException {
+        try (PreparedStatement upsertBalance = connection.prepareStatement(UPSERT_BALANCE)) {
+            for (Map.Entry<Pair<Long, Long>, BalanceChange> entry : balanceChanges.entrySet()) {
+                BalanceChange balanceChange = entry.getValue();
+                upsertBalance.setShort(1, entry.getKey().getLeft().shortValue());
+                upsertBalance.setInt(2, entry.getKey().getRight().intValue());
+                upsertBalance.setLong(3, balanceChange.amount);
+                upsertBalance.setLong(4, balanceChange.consensusTimestamp);
+                upsertBalance.addBatch();
+            }
+            int[] balances = upsertBalance.executeBatch();
+            log.debug("Updated {} account balances", balances.length);
+        }
+        balanceChanges.clear();
+    }
+
+    /**
+     * Adds the file's transaction counts and fees to the per second rollup and the coarser rollups derived from it.
+     * Not done for replays since their transactions were counted when the file was first ingested.
+     */
+    private void updateRollups() throws SQLException {
+        for (RollupInterval interval : RollupInterval.values()) {
+            Map<Triple<Long, Integer, Integer>, Rollup> intervalRollups = new TreeMap<>();
+            rollups.forEach((key, rollup) -> {
+                long start = key.getLeft() - key.getLeft() % interval.nanos;
+                intervalRollups.computeIfAbsent(Triple.of(start, key.getMiddle(), key.getRight()), k -> new Rollup())
+                        .add(rollup.count, rollup.chargedTxFee);
+            });
+
+            try (PreparedStatement upsertRollup = connection.prepareStatement("insert into " + interval.table
+                    + " as r" + UPSERT_ROLLUP)) {
+                for (Map.Entry<Triple<Long, Integer, Integer>, Rollup> entry : intervalRollups.entrySet()) {
+                    upsertRollup.setLong(1, entry.getKey().getLeft());
+                    upsertRollup.setInt(2, entry.getKey().getMiddle());
+                    upsertRollup.setInt(3, entry.getKey().getRight());
+                    upsertRollup.setLong(4, entry.getValue().count);
+                    upsertRollup.setLong(5, entry.getValue().chargedTxFee);
+                    upsertRollup.addBatch();
+                }
+                upsertRollup.executeBatch();
+            }
+        }
+        rollups.clear();
+    }
+
+    /**
+     * Notifies listeners of the high-water mark of the file's topic messages. Notifications are only delivered when
+     * the transaction commits, so listeners never see a timestamp before its messages are visible.
+     */
+    private void notifyTopicMessages() throws SQLException {
+        if (!properties.isNotifyTopicMessages() || lastTopicMessageTimestamp == 0) {
+            return;
+        }
+
+        try (PreparedStatement notifyTopicMessage = connection.prepareStatement(NOTIFY_TOPIC_MESSAGE)) {
+            notifyTopicMessage.setString(1, Long.toString(lastTopicMessageTimestamp));
+            notifyTopicMessage.execute();
+        }
+    }
+
     private void initConnectionAndStatements() throws ParserSQLException {
         try {
             connection = dataSource.getConnection();
@@ -105,51 +267,81 @@ public class PostgresWritingRecordParsedItemHandler implements RecordParsedItemH
         } catch (SQLException e) {
             throw new ParserSQLException("Error setting up connection to database", e);
         }
+        // Every table but non_fee_transfers has a unique index on its natural key for the conflict clause to use
+        onConflict = properties.isIdempotent() ? " on conflict do nothing" : "";
+        balanceChanges.clear();
+        rollups.clear();
+        lastTopicMessageTimestamp = 0;
         try {
-            sqlInsertTransaction = connection.prepareStatement("INSERT INTO t_transactions"
-                    + " (fk_node_acc_id, memo, valid_start_ns, type, fk_payer_acc_id"
-                    + ", result, consensus_ns, fk_cud_entity_id, charged_tx_fee"
-                    + ", initial_balance, valid_duration_seconds, max_fee"
-                    + ", transaction_hash, transaction_bytes)"
-                    + " VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)");
-
-            sqlInsertTransferList = connection.prepareStatement("INSERT INTO t_cryptotransferlists"
-                    + " (consensus_timestamp, amount, realm_num, entity_num)"
-                    + " VALUES (?, ?, ?, ?)");
-
             sqlInsertNonFeeTransfers = connection.prepareStatement("insert into non_fee_transfers"
                     + " (consensus_timestamp, amount, realm_num, entity_num)"
                     + " values (?, ?, ?, ?)");
 
             sqlInsertFileData = connection.prepareStatement("INSERT INTO t_file_data"
                     + " (consensus_timestamp, file_data)"
-                    + " VALUES (?, ?)");
+                    + " VALUES (?, ?)" + onConflict);
 
             sqlInsertContractResult = connection.prepareStatement("INSERT INTO t_contract_result"
                     + " (consensus_timestamp, function_params, gas_supplied, call_result, gas_used)"
-                    + " VALUES (?, ?, ?, ?, ?)");
+                    + " VALUES (?, ?, ?, ?, ?)" + onConflict);
 
             sqlInsertLiveHashes = connection.prepareStatement("INSERT INTO t_livehashes"
                     + " (consensus_timestamp, livehash)"
-                    + " VALUES (?, ?)");
+                    + " VALUES (?, ?)" + onConflict);
 
-            sqlInsertTopicMessage = connection.prepareStatement("insert into topic_message"
-                    + " (consensus_timestamp, realm_num, topic_num, message, running_hash, sequence_number)"
-                    + " values (?, ?, ?, ?, ?, ?)");
+            sqlInsertEntityActivity = connection.prepareStatement("insert into entity_activity"
+                    + " (entity_id, consensus_timestamp, role)"
+                    + " values (?, ?, ?)" + onConflict);
+
+            sqlInsertTransactionHash = connection.prepareStatement("insert into transaction_hash_prefix"
+                    + " (hash_prefix, consensus_timestamp)"
+                    + " values (?, ?)" + onConflict);
         } catch (SQLException e) {
             throw new ParserSQLException("Unable to prepare SQL statements", e);
         }
     }
 
+    /**
+     * Returns the insert statement for the partition of the table that the consensus timestamp falls in, preparing
+     * it on first use within the file
+     */
+    private PreparedStatement insertInto(Map<String, PreparedStatement> statements, String table,
+                                         long consensusTimestamp, String columnsAndValues) throws SQLException {
+        String partition = partitionManager.getPartition(table, consensusTimestamp);
+        PreparedStatement statement = statements.get(partition);
+        if (statement == null) {
+            statement = connection.prepareStatement("insert into " + partition + columnsAndValues + onConflict);
+            statements.put(partition, statement);
+        }
+        return statement;
+    }
+
+    private static int[] executeBatch(Map<String, PreparedStatement> statements) throws SQLException {
+        int[] counts = new int[0];
+        for (PreparedStatement statement : statements.values()) {
+            counts = ArrayUtils.addAll(counts, statement.executeBatch());
+        }
+        return counts;
+    }
+
+    private static void close(Map<String, PreparedStatement> statements) throws SQLException {
+        for (PreparedStatement statement : statements.values()) {
+            statement.close();
+        }
+        statements.clear();
+    }
+
     private void closeConnectionAndStatements() {
         try {
-            sqlInsertTransaction.close();
-            sqlInsertTransferList.close();
+            close(sqlInsertTransaction);
+            close(sqlInsertTransferList);
             sqlInsertNonFeeTransfers.close();
             sqlInsertFileData.close();
             sqlInsertContractResult.close();
             sqlInsertLiveHashes.close();
-            sqlInsertTopicMessage.close();
+            sqlInsertEntityActivity.close();
+            sqlInsertTransactionHash.close();
+            close(sqlInsertTopicMessage);
 
             connection.close();
         } catch (SQLException e) {
@@ -159,17 +351,19 @@ public class PostgresWritingRecordParsedItemHandler implements RecordParsedItemH
 
     private void executeBatches() {
         try {
-            int[] transactions = sqlInsertTransaction.executeBatch();
-            int[] transferLists = sqlInsertTransferList.executeBatch();
+            int[] transactions = executeBatch(sqlInsertTransaction);
+            sqlInsertTransactionHash.executeBatch();
+            int[] transferLists = executeBatch(sqlInsertTransferList);
             int[] nonFeeTransfers = sqlInsertNonFeeTransfers.executeBatch();
             int[] fileData = sqlInsertFileData.executeBatch();
             int[] contractResult = sqlInsertContractResult.executeBatch();
             int[] liveHashes = sqlInsertLiveHashes.executeBatch();
-            int[] topicMessages = sqlInsertTopicMessage.executeBatch();
+            int[] topicMessages = executeBatch(sqlInsertTopicMessage);
+            int[] entityActivities = sqlInsertEntityActivity.executeBatch();
             log.info("Inserted {} transactions, {} transfer lists, {} files, {} contracts, {} claims, {} topic " +
-                            "messages, {} non-fee transfers",
+                            "messages, {} non-fee transfers, {} entity activities",
                     transactions.length, transferLists.length, fileData.length, contractResult.length,
-                    liveHashes.length, topicMessages.length, nonFeeTransfers.length);
+                    liveHashes.length, topicMessages.length, nonFeeTransfers.length, entityActivities.length);
         } catch (SQLException e) {
             log.error("Error committing sql insert batch ", e);
             throw new ParserSQLException(e);
@@ -180,6 +374,8 @@ public class PostgresWritingRecordParsedItemHandler implements RecordParsedItemH
     @Override
     public void onTransaction(Transaction transaction) throws ImporterException {
         try {
+            PreparedStatement sqlInsertTransaction = insertInto(this.sqlInsertTransaction,
+                    PartitionManager.TRANSACTION, transaction.getConsensusNs(), INSERT_TRANSACTION);
             // Temporary until we convert SQL statements to repository invocations
             if (transaction.getEntity() != null) {
                 sqlInsertTransaction.setLong(F_TRANSACTION.CUD_ENTITY_ID.ordinal(), transaction.getEntity().getId());
@@ -198,10 +394,21 @@ public class PostgresWritingRecordParsedItemHandler implements RecordParsedItemH
             sqlInsertTransaction.setLong(F_TRANSACTION.CHARGED_TX_FEE.ordinal(), transaction.getChargedTxFee());
             sqlInsertTransaction.setLong(F_TRANSACTION.MAX_FEE.ordinal(), transaction.getMaxFee());
             sqlInsertTransaction.setBytes(F_TRANSACTION.TRANSACTION_HASH.ordinal(), transaction.getTransactionHash());
-            sqlInsertTransaction.setBytes(F_TRANSACTION.TRANSACTION_BYTES.ordinal(), transaction.getTransactionBytes());
+            sqlInsertTransaction.setBytes(F_TRANSACTION.TRANSACTION_BYTES.ordinal(),
+                    encode(transaction.getTransactionBytes()));
             sqlInsertTransaction.setLong(F_TRANSACTION.INITIAL_BALANCE.ordinal(), transaction.getInitialBalance());
             sqlInsertTransaction.addBatch();
 
+            if (ArrayUtils.isNotEmpty(transaction.getTransactionHash())) {
+                sqlInsertTransactionHash.setLong(1, Utility.hashPrefix(transaction.getTransactionHash()));
+                sqlInsertTransactionHash.setLong(2, transaction.getConsensusNs());
+                sqlInsertTransactionHash.addBatch();
+            }
+
+            long second = transaction.getConsensusNs() - transaction.getConsensusNs() % RollupInterval.SECOND.nanos;
+            rollups.computeIfAbsent(Triple.of(second, transaction.getType(), transaction.getResult()),
+                    k -> new Rollup()).add(1, transaction.getChargedTxFee());
+
             if (batch_count == properties.getBatchSize() - 1) {
                 // execute any remaining batches
                 executeBatches();
@@ -216,19 +423,36 @@ public class PostgresWritingRecordParsedItemHandler implements RecordParsedItemH
     @Override
     public void onCryptoTransferList(CryptoTransfer cryptoTransfer) throws ImporterException {
         try {
+            PreparedStatement sqlInsertTransferList = insertInto(this.sqlInsertTransferList,
+                    PartitionManager.CRYPTO_TRANSFER_LIST, cryptoTransfer.getConsensusTimestamp(),
+                    INSERT_TRANSFER_LIST);
             sqlInsertTransferList.setLong(F_TRANSFERLIST.CONSENSUS_TIMESTAMP.ordinal(),
                     cryptoTransfer.getConsensusTimestamp());
             sqlInsertTransferList.setLong(F_TRANSFERLIST.REALM_NUM.ordinal(), cryptoTransfer.getRealmNum());
             sqlInsertTransferList.setLong(F_TRANSFERLIST.ENTITY_NUM.ordinal(), cryptoTransfer.getEntityNum());
             sqlInsertTransferList.setLong(F_TRANSFERLIST.AMOUNT.ordinal(), cryptoTransfer.getAmount());
             sqlInsertTransferList.addBatch();
+
+            BalanceChange balanceChange = balanceChanges.computeIfAbsent(
+                    Pair.of(cryptoTransfer.getRealmNum(), cryptoTransfer.getEntityNum()), k -> new BalanceChange());
+            balanceChange.amount += cryptoTransfer.getAmount();
+            balanceChange.consensusTimestamp = Math.max(balanceChange.consensusTimestamp,
+                    cryptoTransfer.getConsensusTimestamp());
         } catch (SQLException e) {
             throw new ParserSQLException(e);
         }
     }
 
+    /**
+     * Non-fee transfers have no natural key since a transaction can repeat the same transfer, so a replayed file's
+     * transfers are skipped instead of relying on a conflict clause. They were committed along with the file.
+     */
     @Override
     public void onNonFeeTransfer(NonFeeTransfer nonFeeTransfer) throws ImporterException {
+        if (replay) {
+            return;
+        }
+
         try {
             sqlInsertNonFeeTransfers.setLong(F_NONFEETRANSFER.CONSENSUS_TIMESTAMP.ordinal(),
                     nonFeeTransfer.getConsensusTimestamp());
@@ -244,14 +468,17 @@ public class PostgresWritingRecordParsedItemHandler implements RecordParsedItemH
     @Override
     public void onTopicMessage(TopicMessage topicMessage) throws ImporterException {
         try {
+            PreparedStatement sqlInsertTopicMessage = insertInto(this.sqlInsertTopicMessage,
+                    PartitionManager.TOPIC_MESSAGE, topicMessage.getConsensusTimestamp(), INSERT_TOPIC_MESSAGE);
             sqlInsertTopicMessage.setLong(F_TOPICMESSAGE.CONSENSUS_TIMESTAMP.ordinal(),
                     topicMessage.getConsensusTimestamp());
             sqlInsertTopicMessage.setShort(F_TOPICMESSAGE.REALM_NUM.ordinal(), (short) topicMessage.getRealmNum());
             sqlInsertTopicMessage.setInt(F_TOPICMESSAGE.TOPIC_NUM.ordinal(), topicMessage.getTopicNum());
-            sqlInsertTopicMessage.setBytes(F_TOPICMESSAGE.MESSAGE.ordinal(), topicMessage.getMessage());
+            sqlInsertTopicMessage.setBytes(F_TOPICMESSAGE.MESSAGE.ordinal(), encode(topicMessage.getMessage()));
             sqlInsertTopicMessage.setBytes(F_TOPICMESSAGE.RUNNING_HASH.ordinal(), topicMessage.getRunningHash());
             sqlInsertTopicMessage.setLong(F_TOPICMESSAGE.SEQUENCE_NUMBER.ordinal(), topicMessage.getSequenceNumber());
             sqlInsertTopicMessage.addBatch();
+            lastTopicMessageTimestamp = Math.max(lastTopicMessageTimestamp, topicMessage.getConsensusTimestamp());
         } catch (SQLException e) {
             throw new ParserSQLException(e);
         }
@@ -262,10 +489,11 @@ public class PostgresWritingRecordParsedItemHandler implements RecordParsedItemH
         try {
             sqlInsertContractResult.setLong(F_CONTRACT_RESULT.CONSENSUS_TIMESTAMP.ordinal(),
                     contractResult.getConsensusTimestamp());
-            sqlInsertContractResult
-                    .setBytes(F_CONTRACT_RESULT.FUNCTION_PARAMS.ordinal(), contractResult.getFunctionParameters());
+            sqlInsertContractResult.setBytes(F_CONTRACT_RESULT.FUNCTION_PARAMS.ordinal(),
+                    encode(contractResult.getFunctionParameters()));
             sqlInsertContractResult.setLong(F_CONTRACT_RESULT.GAS_SUPPLIED.ordinal(), contractResult.getGasSupplied());
-            sqlInsertContractResult.setBytes(F_CONTRACT_RESULT.CALL_RESULT.ordinal(), contractResult.getCallResult());
+            sqlInsertContractResult.setBytes(F_CONTRACT_RESULT.CALL_RESULT.ordinal(),
+                    encode(contractResult.getCallResult()));
             sqlInsertContractResult.setLong(F_CONTRACT_RESULT.GAS_USED.ordinal(), contractResult.getGasUsed());
             sqlInsertContractResult.addBatch();
         } catch (SQLException e) {
@@ -277,7 +505,7 @@ public class PostgresWritingRecordParsedItemHandler implements RecordParsedItemH
     public void onFileData(FileData fileData) throws ImporterException {
         try {
             sqlInsertFileData.setLong(F_FILE_DATA.CONSENSUS_TIMESTAMP.ordinal(), fileData.getConsensusTimestamp());
-            sqlInsertFileData.setBytes(F_FILE_DATA.FILE_DATA.ordinal(), fileData.getFileData());
+            sqlInsertFileData.setBytes(F_FILE_DATA.FILE_DATA.ordinal(), encode(fileData.getFileData()));
             sqlInsertFileData.addBatch();
         } catch (SQLException e) {
             throw new ParserSQLException(e);
@@ -296,6 +524,52 @@ public class PostgresWritingRecordParsedItemHandler implements RecordParsedItemH
         }
     }
 
+    @Override
+    public void onEntityActivity(EntityActivity entityActivity) throws ImporterException {
+        try {
+            sqlInsertEntityActivity.setLong(F_ENTITY_ACTIVITY.ENTITY_ID.ordinal(), entityActivity.getEntityId());
+            sqlInsertEntityActivity.setLong(F_ENTITY_ACTIVITY.CONSENSUS_TIMESTAMP.ordinal(),
+                    entityActivity.getConsensusTimestamp());
+            sqlInsertEntityActivity.setShort(F_ENTITY_ACTIVITY.ROLE.ordinal(),
+                    (short) entityActivity.getRole().getId());
+            sqlInsertEntityActivity.addBatch();
+        } catch (SQLException e) {
+            throw new ParserSQLException(e);
+        }
+    }
+
+    private byte[] encode(byte[] payload) {
+        return properties.isCompress() ? PayloadCodec.encode(payload, properties.getCompressThreshold()) :
+                PayloadCodec.escape(payload);
+    }
+
+    private static class BalanceChange {
+        private long amount = 0;
+        private long consensusTimestamp = 0;
+    }
+
+    private static class Rollup {
+        private long count = 0;
+        private long chargedTxFee = 0;
+
+        private void add(long count, long chargedTxFee) {
+            this.count += count;
+            this.chargedTxFee += chargedTxFee;
+        }
+    }
+
+    private enum RollupInterval {
+        SECOND(1_000_000_000L), MINUTE(60_000_000_000L), HOUR(3_600_000_000_000L);
+
+        private final long nanos;
+        private final String table;
+
+        RollupInterval(long nanos) {
+            this.nanos = nanos;
+            table = "transaction_rollup_" + name().toLowerCase();
+        }
+    }
+
     enum F_TRANSACTION {
         ZERO // column indices start at 1, this creates the necessary offset
         , FK_NODE_ACCOUNT_ID, MEMO, VALID_START_NS, TYPE, FK_PAYER_ACCOUNT_ID, RESULT, CONSENSUS_NS,
@@ -329,4 +603,8 @@ public class PostgresWritingRecordParsedItemHandler implements RecordParsedItemH
     enum F_LIVEHASHES {
         ZERO, CONSENSUS_TIMESTAMP, LIVEHASH
     }
+
+    enum F_ENTITY_ACTIVITY {
+        ZERO, ENTITY_ID, CONSENSUS_TIMESTAMP, ROLE
+    }
 }
@@ -21,6 +21,7 @@ package com.hedera.mirror.importer.parser.record;
  */
 
 import com.google.common.base.Stopwatch;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.hederahashgraph.api.proto.java.Transaction;
 import com.hederahashgraph.api.proto.java.TransactionBody.DataCase;
 import com.hederahashgraph.api.proto.java.TransactionRecord;
@@ -32,17 +33,29 @@ import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
-import java.io.InputStream;
 import java.nio.file.Path;
 import java.time.Duration;
 import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
+import javax.annotation.PreDestroy;
 import javax.inject.Named;
+import lombok.Value;
 import lombok.extern.log4j.Log4j2;
 import org.apache.commons.codec.binary.Hex;
+import org.apache.commons.lang3.tuple.Pair;
 import org.springframework.scheduling.annotation.Scheduled;
 
 import com.hedera.mirror.importer.domain.ApplicationStatusCode;
@@ -53,7 +66,7 @@ import com.hedera.mirror.importer.parser.FileParser;
 import com.hedera.mirror.importer.parser.RecordStreamFileListener;
 import com.hedera.mirror.importer.parser.domain.RecordItem;
 import com.hedera.mirror.importer.parser.domain.StreamFileData;
-import com.hedera.mirror.importer.repository.ApplicationStatusRepository;
+import com.hedera.mirror.importer.stream.StreamStateTracker;
 import com.hedera.mirror.importer.util.FileDelimiter;
 import com.hedera.mirror.importer.util.ShutdownHelper;
 import com.hedera.mirror.importer.util.Utility;
@@ -65,26 +78,35 @@ import com.hedera.mirror.importer.util.Utility;
 @Named
 public class RecordFileParser implements FileParser {
 
-    private final ApplicationStatusRepository applicationStatusRepository;
+    private final StreamStateTracker streamStateTracker;
     private final RecordParserProperties parserProperties;
     private final MeterRegistry meterRegistry;
     private final RecordItemListener recordItemListener;
     private final RecordStreamFileListener recordStreamFileListener;
+    private final RecordFileQueue recordFileQueue;
+    private final ExecutorService readExecutor;
+
+    // Scan the valid directory for files on startup and after an error, otherwise take files from the queue
+    private boolean recover = true;
 
     // Metrics
     private final Timer.Builder parseDurationMetric;
     private final Timer.Builder transactionLatencyMetric;
     private final DistributionSummary.Builder transactionSizeMetric;
 
-    public RecordFileParser(ApplicationStatusRepository applicationStatusRepository,
-                            RecordParserProperties parserProperties, MeterRegistry meterRegistry,
-                            RecordItemListener recordItemListener,
-                            RecordStreamFileListener recordStreamFileListener) {
-        this.applicationStatusRepository = applicationStatusRepository;
+    public RecordFileParser(StreamStateTracker streamStateTracker, RecordParserProperties parserProperties,
+                            MeterRegistry meterRegistry, RecordItemListener recordItemListener,
+                            RecordStreamFileListener recordStreamFileListener, RecordFileQueue recordFileQueue) {
+        this.streamStateTracker = streamStateTracker;
         this.parserProperties = parserProperties;
         this.meterRegistry = meterRegistry;
         this.recordItemListener = recordItemListener;
         this.recordStreamFileListener = recordStreamFileListener;
+        this.recordFileQueue = recordFileQueue;
+        readExecutor = Executors.newFixedThreadPool(parserProperties.getThreads(), new ThreadFactoryBuilder()
+                .setDaemon(true)
+                .setNameFormat("record-reader-%d")
+                .build());
 
         parseDurationMetric = Timer.builder("hedera.mirror.parse.duration")
                 .description("The duration in ms it took to parse the file and store it in the database");
@@ -98,6 +120,14 @@ public class RecordFileParser implements FileParser {
                         "processed the transaction");
     }
 
+    @PreDestroy
+    public void close() throws InterruptedException {
+        readExecutor.shutdownNow();
+        if (!readExecutor.awaitTermination(10, TimeUnit.SECONDS)) {
+            log.warn("Timed out waiting for record file readers to stop");
+        }
+    }
+
     /**
      * Given a service record name, read its prevFileHash
      *
@@ -140,21 +170,23 @@ public class RecordFileParser implements FileParser {
      *
      * @param streamFileData containing information about file to be processed
      */
-    public void loadRecordFile(StreamFileData streamFileData) throws IOException {
-        Stopwatch stopwatch = Stopwatch.createStarted();
-        long loadStart = Instant.now().getEpochSecond();
-        recordStreamFileListener.onStart(streamFileData);
+    public void loadRecordFile(StreamFileData streamFileData) throws Exception {
+        loadRecordFile(streamFileData, () -> readRecordFile(streamFileData),
+                streamStateTracker.get(ApplicationStatusCode.LAST_PROCESSED_RECORD_HASH));
+    }
+
+    /**
+     * Reads and parses a record file into memory without touching any state shared with other files, so several
+     * consecutive files can be read concurrently.
+     */
+    private ParsedRecordFile readRecordFile(StreamFileData streamFileData) throws IOException {
         String fileName = streamFileData.getFilename();
-        String expectedPrevFileHash = applicationStatusRepository.findByStatusCode(
-                ApplicationStatusCode.LAST_PROCESSED_RECORD_HASH);
-        long counter = 0;
-        Integer recordFileVersion = 0;
-        Boolean success = false;
+        String prevFileHash = null;
+        List<RecordItem> recordItems = new ArrayList<>();
 
         try (DataInputStream dis = new DataInputStream(streamFileData.getInputStream())) {
-            recordFileVersion = dis.readInt();
+            int recordFileVersion = dis.readInt();
             int version = dis.readInt();
-            log.info("Loading version {} record file: {}", recordFileVersion, fileName);
             while (dis.available() != 0) {
                 byte typeDelimiter = dis.readByte();
 
@@ -162,27 +194,9 @@ public class RecordFileParser implements FileParser {
                     case FileDelimiter.RECORD_TYPE_PREV_HASH:
                         byte[] readFileHash = new byte[48];
                         dis.read(readFileHash);
-                        String actualPrevFileHash = Hex.encodeHexString(readFileHash);
-                        if (Utility.hashIsEmpty(expectedPrevFileHash)) {
-                            log.error("Previous file hash not available");
-                            expectedPrevFileHash = actualPrevFileHash;
-                        }
-                        log.trace("actual file hash = {}, expected file hash = {}", actualPrevFileHash,
-                                expectedPrevFileHash);
-                        if (!actualPrevFileHash.contentEquals(expectedPrevFileHash)) {
-                            if (applicationStatusRepository
-                                    .findByStatusCode(ApplicationStatusCode.RECORD_HASH_MISMATCH_BYPASS_UNTIL_AFTER)
-                                    .compareTo(Utility.getFileName(fileName)) < 0) {
-                                // last file for which mismatch is allowed is in the past
-                                throw new ParserException(String.format(
-                                        "Hash mismatch for file %s. Actual = %s, Expected = %s",
-                                        fileName, expectedPrevFileHash, actualPrevFileHash));
-                            }
-                        }
+                        prevFileHash = Hex.encodeHexString(readFileHash);
                         break;
                     case FileDelimiter.RECORD_TYPE_RECORD:
-                        counter++;
-
                         int byteLength = dis.readInt();
                         byte[] transactionRawBytes = new byte[byteLength];
                         dis.readFully(transactionRawBytes);
@@ -193,31 +207,7 @@ public class RecordFileParser implements FileParser {
                         dis.readFully(recordRawBytes);
                         TransactionRecord txRecord = TransactionRecord.parseFrom(recordRawBytes);
 
-                        try {
-                            if (log.isTraceEnabled()) {
-                                log.trace("Transaction = {}, Record = {}", Utility
-                                        .printProtoMessage(transaction), Utility.printProtoMessage(txRecord));
-                            } else {
-                                log.debug("Storing transaction with consensus timestamp {}", () -> Utility
-                                        .printProtoMessage(txRecord.getConsensusTimestamp()));
-                            }
-
-                            recordItemListener.onItem(
-                                    new RecordItem(transaction, txRecord, transactionRawBytes, recordRawBytes));
-                        } finally {
-                            // TODO: Refactor to not parse TransactionBody twice
-                            DataCase dc = Utility.getTransactionBody(transaction).getDataCase();
-                            String type = dc != null && dc != DataCase.DATA_NOT_SET ? dc.name() : "UNKNOWN";
-                            transactionSizeMetric.tag("type", type)
-                                    .register(meterRegistry)
-                                    .record(transactionRawBytes.length);
-
-                            Instant consensusTimestamp = Utility
-                                    .convertToInstant(txRecord.getConsensusTimestamp());
-                            transactionLatencyMetric.tag("type", type)
-                                    .register(meterRegistry)
-                                    .record(Duration.between(consensusTimestamp, Instant.now()));
-                        }
+                        recordItems.add(new RecordItem(transaction, txRecord, transactionRawBytes, recordRawBytes));
                         break;
                     case FileDelimiter.RECORD_TYPE_SIGNATURE:
                         int sigLength = dis.readInt();
@@ -231,16 +221,92 @@ public class RecordFileParser implements FileParser {
                                 "Unknown record file delimiter %s for file %s", typeDelimiter, fileName));
                 }
             }
-            String thisFileHash = Hex.encodeHexString(Utility.getFileHash(fileName));
-            log.trace("Calculated file hash for the current file {}", thisFileHash);
-            recordStreamFileListener.onEnd(new RecordFile(null, fileName, loadStart, Instant.now().getEpochSecond(),
-                    thisFileHash, expectedPrevFileHash));
 
-            if (!Utility.hashIsEmpty(thisFileHash)) {
-                applicationStatusRepository
-                        .updateStatusValue(ApplicationStatusCode.LAST_PROCESSED_RECORD_HASH, thisFileHash);
+            String fileHash = Hex.encodeHexString(Utility.getFileHash(fileName));
+            log.trace("Calculated file hash for the current file {}", fileHash);
+            return new ParsedRecordFile(recordFileVersion, prevFileHash, fileHash, recordItems);
+        }
+    }
+
+    /**
+     * Loads a record file that was read by {@link #readRecordFile(StreamFileData)} after verifying it links to the
+     * previous file in the hash chain
+     *
+     * @param streamFileData       containing information about file to be processed
+     * @param parsedRecordFile     supplies the file's parsed contents, possibly waiting for them to be read
+     * @param expectedPrevFileHash the hash of the last file that was loaded
+     * @return the hash of this file, or the expected previous hash if this file was a replay
+     */
+    private String loadRecordFile(StreamFileData streamFileData, Callable<ParsedRecordFile> parsedRecordFile,
+                                  String expectedPrevFileHash) throws Exception {
+        Stopwatch stopwatch = Stopwatch.createStarted();
+        long loadStart = Instant.now().getEpochSecond();
+        boolean replay = recordStreamFileListener.onStart(streamFileData);
+        String fileName = streamFileData.getFilename();
+        long counter = 0;
+        Integer recordFileVersion = 0;
+        Boolean success = false;
+
+        try {
+            ParsedRecordFile recordFile = parsedRecordFile.call();
+            recordFileVersion = recordFile.getVersion();
+            log.info("Loading version {} record file: {}", recordFileVersion, fileName);
+
+            // A replayed file was verified when it was first loaded and doesn't move the hash chain forward
+            String actualPrevFileHash = recordFile.getPrevFileHash();
+            if (actualPrevFileHash != null && !replay) {
+                if (Utility.hashIsEmpty(expectedPrevFileHash)) {
+                    log.error("Previous file hash not available");
+                    expectedPrevFileHash = actualPrevFileHash;
+                }
+                log.trace("actual file hash = {}, expected file hash = {}", actualPrevFileHash, expectedPrevFileHash);
+                if (!actualPrevFileHash.contentEquals(expectedPrevFileHash)) {
+                    if (streamStateTracker.get(ApplicationStatusCode.RECORD_HASH_MISMATCH_BYPASS_UNTIL_AFTER)
+                            .compareTo(Utility.getFileName(fileName)) < 0) {
+                        // last file for which mismatch is allowed is in the past
+                        throw new ParserException(String.format(
+                                "Hash mismatch for file %s. Actual = %s, Expected = %s",
+                                fileName, expectedPrevFileHash, actualPrevFileHash));
+                    }
+                }
+            }
+
+            for (RecordItem recordItem : recordFile.getRecordItems()) {
+                counter++;
+                Transaction transaction = recordItem.getTransaction();
+                TransactionRecord txRecord = recordItem.getRecord();
+
+                try {
+                    if (log.isTraceEnabled()) {
+                        log.trace("Transaction = {}, Record = {}", Utility
+                                .printProtoMessage(transaction), Utility.printProtoMessage(txRecord));
+                    } else {
+                        log.debug("Storing transaction with consensus timestamp {}", () -> Utility
+                                .printProtoMessage(txRecord.getConsensusTimestamp()));
+                    }
+
+                    recordItemListener.onItem(recordItem);
+                } finally {
+                    // TODO: Refactor to not parse TransactionBody twice
+                    DataCase dc = Utility.getTransactionBody(transaction).getDataCase();
+                    String type = dc != null && dc != DataCase.DATA_NOT_SET ? dc.name() : "UNKNOWN";
+                    transactionSizeMetric.tag("type", type)
+                            .register(meterRegistry)
+                            .record(recordItem.getTransactionBytes().length);
+
+                    Instant consensusTimestamp = Utility
+                            .convertToInstant(txRecord.getConsensusTimestamp());
+                    transactionLatencyMetric.tag("type", type)
+                            .register(meterRegistry)
+                            .record(Duration.between(consensusTimestamp, Instant.now()));
+                }
             }
+
+            // The listener updates LAST_PROCESSED_RECORD_HASH in the same transaction as the rest of the file
+            recordStreamFileListener.onEnd(new RecordFile(null, fileName, loadStart, Instant.now().getEpochSecond(),
+                    recordFile.getFileHash(), replay ? actualPrevFileHash : expectedPrevFileHash));
             success = true;
+            return replay ? expectedPrevFileHash : recordFile.getFileHash();
         } finally {
             log.info("Finished parsing {} transactions from record file {} in {}", counter, fileName, stopwatch);
             parseDurationMetric.tag("type", "record")
@@ -252,71 +318,158 @@ public class RecordFileParser implements FileParser {
     }
 
     /**
-     * read and parse a list of record files
+     * read and parse a list of record files. Up to the configured number of threads read and parse consecutive files
+     * ahead of time, while the files are loaded into the database one at a time in order. A file is only loaded after
+     * it's verified to link to the one before it, and the files after a failed one are discarded.
      *
-     * @throws Exception
+     * @return false if parsing stopped before all files were processed
      */
-    private void loadRecordFiles(List<String> fileNames) {
+    private boolean loadRecordFiles(List<String> fileNames) {
         Collections.sort(fileNames);
-        for (String name : fileNames) {
-            if (ShutdownHelper.isStopping()) {
-                return;
-            }
-            InputStream fileInputStream;
-            try {
-                fileInputStream = new FileInputStream(new File(name));
-            } catch (FileNotFoundException e) {
-                log.warn("File does not exist {}", name);
-                return;
+        Iterator<String> remaining = fileNames.iterator();
+        Deque<Pair<StreamFileData, Future<ParsedRecordFile>>> pending = new ArrayDeque<>();
+        String expectedPrevFileHash = streamStateTracker.get(ApplicationStatusCode.LAST_PROCESSED_RECORD_HASH);
+        boolean complete = true;
+
+        try {
+            while (remaining.hasNext() || !pending.isEmpty()) {
+                while (complete && remaining.hasNext() && pending.size() < parserProperties.getThreads()) {
+                    String name = remaining.next();
+                    try {
+                        StreamFileData streamFileData = new StreamFileData(name, new FileInputStream(new File(name)));
+                        pending.add(Pair.of(streamFileData, readExecutor.submit(() -> readRecordFile(streamFileData))));
+                    } catch (FileNotFoundException e) {
+                        log.warn("File does not exist {}", name);
+                        complete = false; // still load the files before it
+                    }
+                }
+
+                if (pending.isEmpty() || ShutdownHelper.isStopping()) {
+                    return false;
+                }
+
+                Pair<StreamFileData, Future<ParsedRecordFile>> next = pending.remove();
+                String name = next.getLeft().getFilename();
+                try {
+                    expectedPrevFileHash = loadRecordFile(next.getLeft(), () -> getResult(next.getRight()),
+                            expectedPrevFileHash);
+                    Utility.moveOrDeleteParsedFile(name, parserProperties);
+                } catch (Exception e) {
+                    log.error("Error parsing file {}", name, e);
+                    recordStreamFileListener.onError();
+                    if (!(e instanceof DuplicateFileException)) { // if DuplicateFileException, continue with other files
+                        return false;
+                    }
+                }
             }
-            try {
-                loadRecordFile(new StreamFileData(name, fileInputStream));
-                Utility.moveOrDeleteParsedFile(name, parserProperties);
-            } catch (Exception e) {
-                log.error("Error parsing file {}", name, e);
-                recordStreamFileListener.onError();
-                if (!(e instanceof DuplicateFileException)) { // if DuplicateFileException, continue with other files
-                    return;
+            return complete;
+        } finally {
+            // Files whose read never started would otherwise leave their stream open
+            for (Pair<StreamFileData, Future<ParsedRecordFile>> p : pending) {
+                p.getRight().cancel(true);
+                try {
+                    p.getLeft().getInputStream().close();
+                } catch (IOException e) {
+                    log.warn("Error closing file {}", p.getLeft().getFilename(), e);
                 }
             }
         }
     }
 
+    private static <T> T getResult(Future<T> future) throws Exception {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            throw cause instanceof Exception ? (Exception) cause : e;
+        }
+    }
+
     @Override
     @Scheduled(fixedRateString = "${hedera.mirror.parser.record.frequency:500}")
     public void parse() {
         if (!parserProperties.isEnabled()) {
+            // Files aren't queued while disabled, so pick them up from the valid directory once re-enabled
+            recover = true;
             return;
         }
         if (ShutdownHelper.isStopping()) {
             return;
         }
-        Path path = parserProperties.getValidPath();
-        log.debug("Parsing record files from {}", path);
+
         try {
-            File file = path.toFile();
-            if (file.isDirectory()) { //if it's a directory
-
-                String[] files = file.list(); // get all files under the directory
-                Arrays.sort(files);           // sorted by name (timestamp)
-
-                // add directory prefix to get full path
-                List<String> fullPaths = Arrays.asList(files).stream()
-                        .filter(f -> Utility.isRecordFile(f))
-                        .map(s -> file + "/" + s)
-                        .collect(Collectors.toList());
-
-                if (fullPaths != null && fullPaths.size() != 0) {
-                    log.trace("Processing record files: {}", fullPaths);
-                    loadRecordFiles(fullPaths);
-                } else {
-                    log.debug("No files to parse");
-                }
+            if (recover) {
+                recover = !parseValidPath();
             } else {
-                log.error("Input parameter is not a folder: {}", path);
+                recover = !parseQueue();
             }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
         } catch (Exception e) {
             log.error("Error parsing files", e);
+            recover = true;
         }
     }
+
+    /**
+     * Parses files as they're handed off by the downloader, waiting up to the configured frequency for the next one
+     */
+    private boolean parseQueue() throws InterruptedException {
+        File file;
+        while (!ShutdownHelper.isStopping() && (file = recordFileQueue.poll(parserProperties.getFrequency())) != null) {
+            // Take everything else that's queued so the files after this one can be read concurrently
+            List<File> files = new ArrayList<>();
+            files.add(file);
+            recordFileQueue.drainTo(files);
+
+            // Files that no longer exist were already processed by the directory scan
+            List<String> fileNames = files.stream()
+                    .filter(File::exists)
+                    .map(File::getPath)
+                    .collect(Collectors.toList());
+
+            if (!fileNames.isEmpty() && !loadRecordFiles(fileNames)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean parseValidPath() {
+        // Files queued before the scan will be in the directory listing. Files queued after are skipped by
+        // parseQueue() if the scan already processed them.
+        recordFileQueue.clear();
+        Path path = parserProperties.getValidPath();
+        log.debug("Parsing record files from {}", path);
+        File file = path.toFile();
+        if (!file.isDirectory()) {
+            log.error("Input parameter is not a folder: {}", path);
+            return false;
+        }
+
+        String[] files = file.list(); // get all files under the directory
+        Arrays.sort(files);           // sorted by name (timestamp)
+
+        // add directory prefix to get full path
+        List<String> fullPaths = Arrays.asList(files).stream()
+                .filter(f -> Utility.isRecordFile(f))
+                .map(s -> file + "/" + s)
+                .collect(Collectors.toList());
+
+        if (fullPaths.isEmpty()) {
+            log.debug("No files to parse");
+            return true;
+        }
+
+        log.trace("Processing record files: {}", fullPaths);
+        return loadRecordFiles(fullPaths);
+    }
+
+    @Value
+    private static class ParsedRecordFile {
+        private final int version;
+        private final String prevFileHash;
+        private final String fileHash;
+        private final List<RecordItem> recordItems;
+    }
 }
@@ -0,0 +1,87 @@
+package com.hedera.mirror.importer.parser.record;
+
+/*-
+ * ‌
+ * Hedera Mirror Node
+ * ​
+ * Copyright (C) 2019 - 2020 Hedera Hashgraph, LLC
+ * ​
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ‍
+ */
+
+import java.io.File;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import javax.inject.Named;
+import lombok.extern.log4j.Log4j2;
+
+import com.hedera.mirror.importer.util.ShutdownHelper;
+
+/**
+ * Hands record files off from the downloader to the parser as soon as they're verified and moved to the valid
+ * directory. The queue is bounded so that the downloader is slowed down when the parser falls behind. Files are still
+ * written to the valid directory, so anything left in the queue on shutdown is recovered by the parser's directory scan
+ * on startup.
+ */
+@Log4j2
+@Named
+public class RecordFileQueue {
+
+    private static final long OFFER_TIMEOUT_MS = 1000L;
+
+    private final RecordParserProperties parserProperties;
+    private final BlockingQueue<File> queue;
+
+    public RecordFileQueue(RecordParserProperties parserProperties) {
+        this.parserProperties = parserProperties;
+        queue = new LinkedBlockingQueue<>(parserProperties.getQueueCapacity());
+    }
+
+    /**
+     * Adds a file to the queue, waiting for space to become available if necessary. Files are not queued when the
+     * parser is disabled since nothing would consume them.
+     */
+    public void put(File file) throws InterruptedException {
+        while (parserProperties.isEnabled() && !ShutdownHelper.isStopping()) {
+            if (queue.offer(file, OFFER_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+                log.trace("Queued {}", file);
+                return;
+            }
+            log.debug("Waiting for parser to catch up before queueing {}", file);
+        }
+    }
+
+    /**
+     * Retrieves and removes the next file, waiting up to the given timeout for one to become available
+     *
+     * @return the next file or null if none became available before the timeout
+     */
+    public File poll(Duration timeout) throws InterruptedException {
+        return queue.poll(timeout.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Removes all files that are currently queued and adds them to the given collection without waiting
+     */
+    public void drainTo(Collection<File> files) {
+        queue.drainTo(files);
+    }
+
+    public void clear() {
+        queue.clear();
+    }
+}
@@ -21,6 +21,7 @@ package com.hedera.mirror.importer.parser.record;
  */
 
 import com.google.protobuf.InvalidProtocolBufferException;
+import com.hederahashgraph.api.proto.java.AccountAmount;
 import com.hederahashgraph.api.proto.java.AccountID;
 import com.hederahashgraph.api.proto.java.ConsensusSubmitMessageTransactionBody;
 import com.hederahashgraph.api.proto.java.ContractCallTransactionBody;
@@ -44,6 +45,7 @@ import com.hederahashgraph.api.proto.java.TransactionRecord;
 import com.hederahashgraph.api.proto.java.TransferList;
 import java.io.IOException;
 import java.sql.SQLException;
+import java.util.LinkedHashSet;
 import java.util.Set;
 import java.util.function.Predicate;
 import javax.inject.Named;
@@ -53,6 +55,7 @@ import com.hedera.mirror.importer.addressbook.NetworkAddressBook;
 import com.hedera.mirror.importer.domain.ContractResult;
 import com.hedera.mirror.importer.domain.CryptoTransfer;
 import com.hedera.mirror.importer.domain.Entities;
+import com.hedera.mirror.importer.domain.EntityActivity;
 import com.hedera.mirror.importer.domain.EntityId;
 import com.hedera.mirror.importer.domain.EntityType;
 import com.hedera.mirror.importer.domain.FileData;
@@ -421,6 +424,33 @@ public class RecordItemParser implements RecordItemListener {
 
         recordParsedItemHandler.onTransaction(tx);
         log.debug("Storing transaction: {}", tx);
+
+        if (parserProperties.getPersist().isEntityActivity()) {
+            insertEntityActivity(tx, txRecord);
+        }
+    }
+
+    /**
+     * Indexes the transaction by the entities involved in it: the payer, the accounts in its transfer list and the
+     * entity it created or updated. An entity is only indexed once per role even if it appears several times.
+     */
+    private void insertEntityActivity(com.hedera.mirror.importer.domain.Transaction tx, TransactionRecord txRecord) {
+        long consensusNs = tx.getConsensusNs();
+        Set<EntityActivity> entityActivities = new LinkedHashSet<>();
+        entityActivities.add(new EntityActivity(tx.getPayerAccountId(), consensusNs, EntityActivity.Role.PAYER));
+
+        for (AccountAmount accountAmount : txRecord.getTransferList().getAccountAmountsList()) {
+            AccountID accountId = accountAmount.getAccountID();
+            long entityId = EntityId.encode(accountId.getShardNum(), accountId.getRealmNum(),
+                    accountId.getAccountNum());
+            entityActivities.add(new EntityActivity(entityId, consensusNs, EntityActivity.Role.TRANSFER));
+        }
+
+        if (tx.getEntityId() != null) {
+            entityActivities.add(new EntityActivity(tx.getEntityId(), consensusNs, EntityActivity.Role.ENTITY));
+        }
+
+        entityActivities.forEach(recordParsedItemHandler::onEntityActivity);
     }
 
     /**
@@ -688,7 +718,7 @@ public class RecordItemParser implements RecordItemListener {
         for (int i = 0; i < transferList.getAccountAmountsCount(); ++i) {
             var aa = transferList.getAccountAmounts(i);
             var accountId = aa.getAccountID();
-            createEntity(getEntity(aa.getAccountID()));
+            getEntityId(accountId);
             addCryptoTransferList(consensusTimestamp, accountId.getRealmNum(), accountId.getAccountNum(), aa
                     .getAmount());
         }
@@ -716,7 +746,7 @@ public class RecordItemParser implements RecordItemListener {
             var aa = transferList.getAccountAmounts(i);
             var accountId = aa.getAccountID();
             long accountNum = accountId.getAccountNum();
-            createEntity(getEntity(accountId));
+            getEntityId(accountId);
             addCryptoTransferList(consensusTimestamp, accountId.getRealmNum(), accountNum, aa.getAmount());
 
             if (addInitialBalance && (initialBalance == aa.getAmount()) && (accountNum == createdAccountNum)) {
@@ -725,11 +755,11 @@ public class RecordItemParser implements RecordItemListener {
         }
 
         if (addInitialBalance) {
-            createEntity(getEntity(payerAccountId));
+            getEntityId(payerAccountId);
             addCryptoTransferList(consensusTimestamp, payerAccountId.getRealmNum(), payerAccountId
                     .getAccountNum(), -initialBalance);
 
-            createEntity(getEntity(createdAccountId));
+            getEntityId(createdAccountId);
             addCryptoTransferList(consensusTimestamp, createdAccountId
                     .getRealmNum(), createdAccountNum, initialBalance);
         }
@@ -779,6 +809,7 @@ public class RecordItemParser implements RecordItemListener {
     private Entities getEntity(long shardNum, long realmNum, long entityNum, String type) {
         return entityRepository.findByPrimaryKey(shardNum, realmNum, entityNum).orElseGet(() -> {
             Entities entity = new Entities();
+            entity.setId(EntityId.encode(shardNum, realmNum, entityNum));
             entity.setEntityNum(entityNum);
             entity.setEntityRealm(realmNum);
             entity.setEntityShard(shardNum);
@@ -807,24 +838,19 @@ public class RecordItemParser implements RecordItemListener {
         if (0 == entityNum) {
             return null;
         }
-        return entityRepository.findEntityIdByNativeIds(shardNum, realmNum, entityNum).orElseGet(() -> {
-            Entities entityId = new Entities();
-            entityId.setEntityShard(shardNum);
-            entityId.setEntityRealm(realmNum);
-            entityId.setEntityNum(entityNum);
-            entityId.setEntityTypeId(entityTypeRepository.findByName(type).map(EntityType::getId).get());
-            return entityRepository.saveAndCacheEntityId(entityId);
-        });
+        Integer entityTypeId = entityTypeRepository.findByName(type).map(EntityType::getId).get();
+        return entityRepository.insertIfMissing(EntityId.of(shardNum, realmNum, entityNum, entityTypeId));
     }
 
+    /**
+     * Makes sure a row exists for the entity so other rows can reference it by id. Unlike saving the entity, this
+     * doesn't update any of its other columns.
+     */
     private Entities createEntity(Entities entity) {
-        if (entity != null && entity.getId() == null) {
-            log.debug("Creating entity: {}", () -> entity.getDisplayId());
-            var result = entityRepository.save(entity);
-            var entityId = new EntityId(result.getId(), result.getEntityShard(), result.getEntityRealm(),
-                    result.getEntityNum(), result.getEntityTypeId());
-            entityRepository.cache(entityId);
-            return result;
+        if (entity != null) {
+            log.trace("Creating entity if missing: {}", () -> entity.getDisplayId());
+            entityRepository.insertIfMissing(EntityId.of(entity.getEntityShard(), entity.getEntityRealm(),
+                    entity.getEntityNum(), entity.getEntityTypeId()));
         }
         return entity;
     }
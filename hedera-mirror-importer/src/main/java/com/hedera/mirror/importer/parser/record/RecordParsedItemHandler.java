@@ -22,6 +22,7 @@ package com.hedera.mirror.importer.parser.record;
 
 import com.hedera.mirror.importer.domain.ContractResult;
 import com.hedera.mirror.importer.domain.CryptoTransfer;
+import com.hedera.mirror.importer.domain.EntityActivity;
 import com.hedera.mirror.importer.domain.FileData;
 import com.hedera.mirror.importer.domain.LiveHash;
 import com.hedera.mirror.importer.domain.NonFeeTransfer;
@@ -47,4 +48,6 @@ public interface RecordParsedItemHandler extends ParsedItemHandler {
     void onFileData(FileData fileData) throws ImporterException;
 
     void onLiveHash(LiveHash liveHash) throws ImporterException;
+
+    void onEntityActivity(EntityActivity entityActivity) throws ImporterException;
 }
@@ -22,6 +22,7 @@ package com.hedera.mirror.importer.parser.record;
 
 import java.nio.file.Path;
 import java.time.Duration;
+import javax.validation.constraints.Min;
 import javax.validation.constraints.NotNull;
 import lombok.Data;
 import org.springframework.boot.context.properties.ConfigurationProperties;
@@ -48,6 +49,18 @@ public class RecordParserProperties implements ParserProperties {
     @NotNull
     private PersistProperties persist = new PersistProperties();
 
+    /**
+     * The maximum number of verified files the downloader can hand off to the parser before it has to wait
+     */
+    @Min(1)
+    private int queueCapacity = 10;
+
+    /**
+     * The number of consecutive files that are read and parsed concurrently ahead of the file being loaded
+     */
+    @Min(1)
+    private int threads = 4;
+
     @Override
     public Path getStreamPath() {
         return mirrorProperties.getDataPath().resolve(getStreamType().getPath());
@@ -67,6 +80,8 @@ public class RecordParserProperties implements ParserProperties {
 
         private boolean cryptoTransferAmounts = true;
 
+        private boolean entityActivity = true;
+
         private boolean files = true;
 
         private boolean nonFeeTransfers = false;
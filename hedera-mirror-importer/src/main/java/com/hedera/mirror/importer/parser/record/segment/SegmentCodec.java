@@ -0,0 +1,200 @@
+package com.hedera.mirror.importer.parser.record.segment;
+
+/*-
+ * ‌
+ * Hedera Mirror Node
+ * ​
+ * Copyright (C) 2019 - 2020 Hedera Hashgraph, LLC
+ * ​
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ‍
+ */
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.IOException;
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+
+import com.hedera.mirror.importer.domain.ContractResult;
+import com.hedera.mirror.importer.domain.CryptoTransfer;
+import com.hedera.mirror.importer.domain.Entities;
+import com.hedera.mirror.importer.domain.EntityActivity;
+import com.hedera.mirror.importer.domain.FileData;
+import com.hedera.mirror.importer.domain.LiveHash;
+import com.hedera.mirror.importer.domain.NonFeeTransfer;
+import com.hedera.mirror.importer.domain.TopicMessage;
+import com.hedera.mirror.importer.domain.Transaction;
+
+/**
+ * Encodes the fields of the parsed domain objects into segment records and decodes them back. The consensus timestamp
+ * is part of the record header, so it's not repeated in the encoded fields. Nullable numbers are prefixed with a
+ * presence flag and byte arrays with their length, or -1 for null.
+ */
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public final class SegmentCodec {
+
+    static void encode(Transaction transaction, DataOutput out) throws IOException {
+        writeLong(out, transaction.getNodeAccountId());
+        writeBytes(out, transaction.getMemo());
+        writeInteger(out, transaction.getType());
+        writeInteger(out, transaction.getResult());
+        writeLong(out, transaction.getPayerAccountId());
+        writeLong(out, transaction.getChargedTxFee());
+        writeLong(out, transaction.getInitialBalance());
+        writeLong(out, transaction.getEntity() != null ? transaction.getEntity().getId() : null);
+        writeLong(out, transaction.getValidStartNs());
+        writeLong(out, transaction.getValidDurationSeconds());
+        writeLong(out, transaction.getMaxFee());
+        writeBytes(out, transaction.getTransactionHash());
+        writeBytes(out, transaction.getTransactionBytes());
+    }
+
+    static void encode(CryptoTransfer cryptoTransfer, DataOutput out) throws IOException {
+        writeLong(out, cryptoTransfer.getAmount());
+        writeLong(out, cryptoTransfer.getRealmNum());
+        writeLong(out, cryptoTransfer.getEntityNum());
+    }
+
+    static void encode(NonFeeTransfer nonFeeTransfer, DataOutput out) throws IOException {
+        writeLong(out, nonFeeTransfer.getRealmNum());
+        writeLong(out, nonFeeTransfer.getEntityNum());
+        writeLong(out, nonFeeTransfer.getAmount());
+    }
+
+    static void encode(TopicMessage topicMessage, DataOutput out) throws IOException {
+        writeBytes(out, topicMessage.getMessage());
+        out.writeInt(topicMessage.getRealmNum());
+        writeBytes(out, topicMessage.getRunningHash());
+        out.writeLong(topicMessage.getSequenceNumber());
+        out.writeInt(topicMessage.getTopicNum());
+    }
+
+    static void encode(ContractResult contractResult, DataOutput out) throws IOException {
+        writeBytes(out, contractResult.getFunctionParameters());
+        writeLong(out, contractResult.getGasSupplied());
+        writeBytes(out, contractResult.getCallResult());
+        writeLong(out, contractResult.getGasUsed());
+    }
+
+    static void encode(FileData fileData, DataOutput out) throws IOException {
+        writeBytes(out, fileData.getFileData());
+    }
+
+    static void encode(LiveHash liveHash, DataOutput out) throws IOException {
+        writeBytes(out, liveHash.getLivehash());
+    }
+
+    static void encode(EntityActivity entityActivity, DataOutput out) throws IOException {
+        writeLong(out, entityActivity.getEntityId());
+        out.writeInt(entityActivity.getRole().getId());
+    }
+
+    public static Object decode(SegmentRecord record) throws IOException {
+        DataInput in = new DataInputStream(new ByteArrayInputStream(record.getData()));
+        long consensusTimestamp = record.getConsensusTimestamp();
+
+        switch (record.getType()) {
+            case TRANSACTION:
+                Transaction transaction = new Transaction();
+                transaction.setConsensusNs(consensusTimestamp);
+                transaction.setNodeAccountId(readLong(in));
+                transaction.setMemo(readBytes(in));
+                transaction.setType(readInteger(in));
+                transaction.setResult(readInteger(in));
+                transaction.setPayerAccountId(readLong(in));
+                transaction.setChargedTxFee(readLong(in));
+                transaction.setInitialBalance(readLong(in));
+                Long entityId = readLong(in);
+                if (entityId != null) {
+                    Entities entity = new Entities();
+                    entity.setId(entityId);
+                    transaction.setEntity(entity);
+                }
+                transaction.setValidStartNs(readLong(in));
+                transaction.setValidDurationSeconds(readLong(in));
+                transaction.setMaxFee(readLong(in));
+                transaction.setTransactionHash(readBytes(in));
+                transaction.setTransactionBytes(readBytes(in));
+                return transaction;
+            case CRYPTO_TRANSFER:
+                return new CryptoTransfer(consensusTimestamp, readLong(in), readLong(in), readLong(in));
+            case NON_FEE_TRANSFER:
+                return new NonFeeTransfer(consensusTimestamp, readLong(in), readLong(in), readLong(in));
+            case TOPIC_MESSAGE:
+                return new TopicMessage(consensusTimestamp, readBytes(in), in.readInt(), readBytes(in),
+                        in.readLong(), in.readInt());
+            case CONTRACT_RESULT:
+                return new ContractResult(consensusTimestamp, readBytes(in), readLong(in), readBytes(in),
+                        readLong(in));
+            case FILE_DATA:
+                return new FileData(consensusTimestamp, readBytes(in));
+            case LIVE_HASH:
+                return new LiveHash(consensusTimestamp, readBytes(in));
+            case ENTITY_ACTIVITY:
+                Long activityEntityId = readLong(in);
+                int roleId = in.readInt();
+                for (EntityActivity.Role role : EntityActivity.Role.values()) {
+                    if (role.getId() == roleId) {
+                        return new EntityActivity(activityEntityId, consensusTimestamp, role);
+                    }
+                }
+                throw new IOException("Unknown entity activity role " + roleId);
+            default:
+                throw new IOException("Unsupported segment record type " + record.getType());
+        }
+    }
+
+    private static void writeBytes(DataOutput out, byte[] value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+        } else {
+            out.writeInt(value.length);
+            out.write(value);
+        }
+    }
+
+    private static void writeInteger(DataOutput out, Integer value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeInt(value);
+        }
+    }
+
+    private static void writeLong(DataOutput out, Long value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeLong(value);
+        }
+    }
+
+    private static byte[] readBytes(DataInput in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] value = new byte[length];
+        in.readFully(value);
+        return value;
+    }
+
+    private static Integer readInteger(DataInput in) throws IOException {
+        return in.readBoolean() ? in.readInt() : null;
+    }
+
+    private static Long readLong(DataInput in) throws IOException {
+        return in.readBoolean() ? in.readLong() : null;
+    }
+}
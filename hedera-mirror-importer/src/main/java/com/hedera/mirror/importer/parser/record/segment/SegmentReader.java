@@ -0,0 +1,144 @@
+package com.hedera.mirror.importer.parser.record.segment;
+
+/*-
+ * ‌
+ * Hedera Mirror Node
+ * ​
+ * Copyright (C) 2019 - 2020 Hedera Hashgraph, LLC
+ * ​
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ‍
+ */
+
+import static com.hedera.mirror.importer.parser.record.segment.SegmentWritingRecordParsedItemHandler.INDEX_ENTRY_SIZE;
+import static com.hedera.mirror.importer.parser.record.segment.SegmentWritingRecordParsedItemHandler.INDEX_SUFFIX;
+import static com.hedera.mirror.importer.parser.record.segment.SegmentWritingRecordParsedItemHandler.SEGMENT_SUFFIX;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.function.Consumer;
+import java.util.zip.CRC32C;
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+import lombok.extern.log4j.Log4j2;
+
+/**
+ * Reads the records of a segment written by {@link SegmentWritingRecordParsedItemHandler} sequentially, using the
+ * segment's sparse index to skip ahead to a consensus timestamp. Reading stops at the first truncated or corrupt
+ * record.
+ */
+/**
+ * Reads the records written by {@link SegmentWritingRecordParsedItemHandler}.
+ * <p>
+ * Segments are delivered at least once. A record file is flushed to its segment before the database transaction
+ * commits, so a crash in between gets the file parsed again after the restart and written to a new segment, leaving
+ * its records in both. Records are written in consensus order and a file's records are never split across segments,
+ * so a reader that consumes segments in name order avoids the duplicates by reading each segment from one past the
+ * last consensus timestamp it consumed from the previous ones.
+ */
+@Log4j2
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public final class SegmentReader {
+
+    /**
+     * Passes the records of the segment with a consensus timestamp at or after fromTimestamp to the consumer. The
+     * segment may repeat records of earlier segments, see the class documentation.
+     *
+     * @return the number of records read
+     */
+    public static long read(Path segment, long fromTimestamp, Consumer<SegmentRecord> consumer) throws IOException {
+        long position = findPosition(indexPath(segment), fromTimestamp);
+        long count = 0L;
+
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ)) {
+            channel.position(position);
+            DataInputStream in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel)));
+            CRC32C checksum = new CRC32C();
+
+            while (true) {
+                byte[] body;
+                try {
+                    int length = in.readInt();
+                    int expected = in.readInt();
+                    if (length < Byte.BYTES + Long.BYTES || length > channel.size()) {
+                        log.warn("Invalid record length {} in segment {} after {} records", length, segment, count);
+                        break;
+                    }
+                    body = new byte[length];
+                    in.readFully(body);
+                    checksum.reset();
+                    checksum.update(body);
+                    if ((int) checksum.getValue() != expected) {
+                        log.warn("Checksum mismatch in segment {} after {} records", segment, count);
+                        break;
+                    }
+                } catch (EOFException e) {
+                    break;
+                }
+
+                ByteBuffer buffer = ByteBuffer.wrap(body);
+                SegmentRecordType type = SegmentRecordType.of(buffer.get());
+                long consensusTimestamp = buffer.getLong();
+                if (consensusTimestamp >= fromTimestamp) {
+                    byte[] data = new byte[buffer.remaining()];
+                    buffer.get(data);
+                    consumer.accept(new SegmentRecord(type, consensusTimestamp, data));
+                    ++count;
+                }
+            }
+        }
+
+        return count;
+    }
+
+    /**
+     * Finds the position of the last indexed record before fromTimestamp. Records can share a consensus timestamp, so
+     * an entry with an equal timestamp might not point at the first of them.
+     */
+    private static long findPosition(Path indexPath, long fromTimestamp) throws IOException {
+        if (!Files.exists(indexPath)) {
+            return 0L;
+        }
+
+        ByteBuffer index = ByteBuffer.wrap(Files.readAllBytes(indexPath));
+        int low = 0;
+        int high = index.limit() / INDEX_ENTRY_SIZE - 1;
+        long position = 0L;
+
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            long consensusTimestamp = index.getLong(middle * INDEX_ENTRY_SIZE);
+            if (consensusTimestamp < fromTimestamp) {
+                position = index.getLong(middle * INDEX_ENTRY_SIZE + Long.BYTES);
+                low = middle + 1;
+            } else {
+                high = middle - 1;
+            }
+        }
+
+        return position;
+    }
+
+    private static Path indexPath(Path segment) {
+        String name = segment.getFileName().toString();
+        return segment.resolveSibling(name.substring(0, name.length() - SEGMENT_SUFFIX.length()) + INDEX_SUFFIX);
+    }
+}
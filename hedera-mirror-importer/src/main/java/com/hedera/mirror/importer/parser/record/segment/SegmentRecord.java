@@ -0,0 +1,38 @@
+package com.hedera.mirror.importer.parser.record.segment;
+
+/*-
+ * ‌
+ * Hedera Mirror Node
+ * ​
+ * Copyright (C) 2019 - 2020 Hedera Hashgraph, LLC
+ * ​
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ‍
+ */
+
+import java.io.IOException;
+import lombok.Value;
+
+/**
+ * A record read back from a segment. The data is the encoded domain object without the type and consensus timestamp.
+ */
+@Value
+public class SegmentRecord {
+    private final SegmentRecordType type;
+    private final long consensusTimestamp;
+    private final byte[] data;
+
+    public Object decode() throws IOException {
+        return SegmentCodec.decode(this);
+    }
+}
@@ -0,0 +1,58 @@
+package com.hedera.mirror.importer.parser.record.segment;
+
+/*-
+ * ‌
+ * Hedera Mirror Node
+ * ​
+ * Copyright (C) 2019 - 2020 Hedera Hashgraph, LLC
+ * ​
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ‍
+ */
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * The type of domain object stored in a segment record. The id is part of the on-disk format, so it must never change.
+ */
+@Getter
+@RequiredArgsConstructor
+public enum SegmentRecordType {
+
+    TRANSACTION(1),
+    CRYPTO_TRANSFER(2),
+    NON_FEE_TRANSFER(3),
+    TOPIC_MESSAGE(4),
+    CONTRACT_RESULT(5),
+    FILE_DATA(6),
+    LIVE_HASH(7),
+    ENTITY_ACTIVITY(8);
+
+    private static final Map<Integer, SegmentRecordType> ID_MAP = Arrays.stream(values())
+            .collect(Collectors.toUnmodifiableMap(SegmentRecordType::getId, Function.identity()));
+
+    private final int id;
+
+    public static SegmentRecordType of(int id) {
+        SegmentRecordType type = ID_MAP.get(id);
+        if (type == null) {
+            throw new IllegalArgumentException("Unknown segment record type " + id);
+        }
+        return type;
+    }
+}
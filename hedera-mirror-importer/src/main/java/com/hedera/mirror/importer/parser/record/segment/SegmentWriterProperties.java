@@ -0,0 +1,63 @@
+package com.hedera.mirror.importer.parser.record.segment;
+
+/*-
+ * ‌
+ * Hedera Mirror Node
+ * ​
+ * Copyright (C) 2019 - 2020 Hedera Hashgraph, LLC
+ * ​
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ‍
+ */
+
+import java.nio.file.Path;
+import javax.validation.constraints.Min;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+import com.hedera.mirror.importer.MirrorProperties;
+
+@Data
+@Validated
+@ConfigurationProperties("hedera.mirror.parser.record.segment")
+public class SegmentWriterProperties {
+
+    private final MirrorProperties mirrorProperties;
+
+    private boolean enabled = false;
+
+    /**
+     * Approximately how many bytes of records are written between entries in a segment's consensus timestamp index
+     */
+    @Min(1)
+    private int indexInterval = 4096;
+
+    private Path path;
+
+    /**
+     * The size in bytes after which a new segment is started. Segments are only rolled between record files, so a
+     * record file is never split across segments.
+     */
+    @Min(1)
+    private long segmentSize = 64L * 1024 * 1024;
+
+    /**
+     * Whether to fsync the segment and its index at the end of every record file
+     */
+    private boolean sync = true;
+
+    public Path getPath() {
+        return path != null ? path : mirrorProperties.getDataPath().resolve("segments");
+    }
+}
@@ -0,0 +1,289 @@
+package com.hedera.mirror.importer.parser.record.segment;
+
+/*-
+ * ‌
+ * Hedera Mirror Node
+ * ​
+ * Copyright (C) 2019 - 2020 Hedera Hashgraph, LLC
+ * ​
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ‍
+ */
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32C;
+import javax.annotation.PreDestroy;
+import javax.inject.Named;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.log4j.Log4j2;
+
+import com.hedera.mirror.importer.domain.ContractResult;
+import com.hedera.mirror.importer.domain.CryptoTransfer;
+import com.hedera.mirror.importer.domain.EntityActivity;
+import com.hedera.mirror.importer.domain.FileData;
+import com.hedera.mirror.importer.domain.LiveHash;
+import com.hedera.mirror.importer.domain.NonFeeTransfer;
+import com.hedera.mirror.importer.domain.RecordFile;
+import com.hedera.mirror.importer.domain.TopicMessage;
+import com.hedera.mirror.importer.domain.Transaction;
+import com.hedera.mirror.importer.exception.ImporterException;
+import com.hedera.mirror.importer.exception.ParserException;
+import com.hedera.mirror.importer.parser.RecordStreamFileListener;
+import com.hedera.mirror.importer.parser.domain.StreamFileData;
+import com.hedera.mirror.importer.parser.record.RecordParsedItemHandler;
+
+/**
+ * Appends parsed items to rolling segment files so that they can be consumed with sequential reads instead of querying
+ * the database. Each record is an int length and a CRC32C checksum of the body, followed by the body: a type byte, the
+ * consensus timestamp and the encoded fields (see {@link SegmentCodec}). Segments are named after the consensus
+ * timestamp of their first record and have a sparse index of (consensus timestamp, position) pairs alongside them.
+ * <p>
+ * A record file is written to a single segment and is truncated away again if the file fails, so segments only
+ * contain whole record files. Segments are never appended to after a restart, and a torn record at the end of a
+ * segment from a crash is skipped by {@link SegmentReader}. A file that was flushed but not committed to the database
+ * before a crash is written again to a new segment, so records are delivered at least once.
+ */
+@Log4j2
+@Named
+@RequiredArgsConstructor
+public class SegmentWritingRecordParsedItemHandler implements RecordParsedItemHandler, RecordStreamFileListener {
+
+    static final String INDEX_SUFFIX = ".idx";
+    static final String SEGMENT_SUFFIX = ".seg";
+    static final int INDEX_ENTRY_SIZE = 2 * Long.BYTES;
+    static final int RECORD_HEADER_SIZE = 2 * Integer.BYTES;
+
+    private final SegmentWriterProperties properties;
+    private final ByteArrayOutputStream recordBuffer = new ByteArrayOutputStream();
+    private final DataOutputStream recordOutput = new DataOutputStream(recordBuffer);
+    private final CRC32C checksum = new CRC32C();
+    private Segment segment;
+    // Where the current record file started, so that it can be truncated away on error
+    private Segment.Position fileStart;
+
+    @Override
+    public boolean onStart(StreamFileData streamFileData) {
+        try {
+            if (segment != null && segment.position.records >= properties.getSegmentSize()) {
+                segment.close();
+                segment = null;
+            }
+        } catch (IOException e) {
+            throw new ParserException("Error closing segment " + segment.path, e);
+        }
+
+        fileStart = segment != null ? segment.position.copy() : null;
+        return false;
+    }
+
+    @Override
+    public void onEnd(RecordFile recordFile) {
+        if (segment == null) {
+            return;
+        }
+
+        try {
+            segment.flush(properties.isSync());
+            log.debug("Wrote {} to segment {} ending at position {}", recordFile.getName(), segment.path,
+                    segment.position.records);
+        } catch (IOException e) {
+            throw new ParserException("Error flushing segment " + segment.path, e);
+        }
+    }
+
+    @Override
+    public void onError() {
+        if (segment == null) {
+            return;
+        }
+
+        try {
+            if (fileStart == null) {
+                // The segment was started by the failed file
+                segment.close();
+                Files.deleteIfExists(segment.path);
+                Files.deleteIfExists(segment.indexPath);
+                segment = null;
+            } else {
+                segment.truncate(fileStart);
+            }
+        } catch (IOException e) {
+            log.error("Error rolling back segment {}", segment.path, e);
+        }
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        if (segment != null) {
+            segment.close();
+            segment = null;
+        }
+    }
+
+    @Override
+    public void onTransaction(Transaction transaction) throws ImporterException {
+        write(SegmentRecordType.TRANSACTION, transaction.getConsensusNs(), out -> SegmentCodec
+                .encode(transaction, out));
+    }
+
+    @Override
+    public void onCryptoTransferList(CryptoTransfer cryptoTransfer) throws ImporterException {
+        write(SegmentRecordType.CRYPTO_TRANSFER, cryptoTransfer.getConsensusTimestamp(), out -> SegmentCodec
+                .encode(cryptoTransfer, out));
+    }
+
+    @Override
+    public void onNonFeeTransfer(NonFeeTransfer nonFeeTransfer) throws ImporterException {
+        write(SegmentRecordType.NON_FEE_TRANSFER, nonFeeTransfer.getConsensusTimestamp(), out -> SegmentCodec
+                .encode(nonFeeTransfer, out));
+    }
+
+    @Override
+    public void onTopicMessage(TopicMessage topicMessage) throws ImporterException {
+        write(SegmentRecordType.TOPIC_MESSAGE, topicMessage.getConsensusTimestamp(), out -> SegmentCodec
+                .encode(topicMessage, out));
+    }
+
+    @Override
+    public void onContractResult(ContractResult contractResult) throws ImporterException {
+        write(SegmentRecordType.CONTRACT_RESULT, contractResult.getConsensusTimestamp(), out -> SegmentCodec
+                .encode(contractResult, out));
+    }
+
+    @Override
+    public void onFileData(FileData fileData) throws ImporterException {
+        write(SegmentRecordType.FILE_DATA, fileData.getConsensusTimestamp(), out -> SegmentCodec
+                .encode(fileData, out));
+    }
+
+    @Override
+    public void onLiveHash(LiveHash liveHash) throws ImporterException {
+        write(SegmentRecordType.LIVE_HASH, liveHash.getConsensusTimestamp(), out -> SegmentCodec
+                .encode(liveHash, out));
+    }
+
+    @Override
+    public void onEntityActivity(EntityActivity entityActivity) throws ImporterException {
+        write(SegmentRecordType.ENTITY_ACTIVITY, entityActivity.getConsensusTimestamp(), out -> SegmentCodec
+                .encode(entityActivity, out));
+    }
+
+    private void write(SegmentRecordType type, long consensusTimestamp, Encoder encoder) {
+        try {
+            if (segment == null) {
+                segment = new Segment(properties.getPath(), consensusTimestamp);
+                log.info("Started segment {}", segment.path);
+            }
+
+            recordBuffer.reset();
+            recordOutput.writeByte(type.getId());
+            recordOutput.writeLong(consensusTimestamp);
+            encoder.encode(recordOutput);
+            recordOutput.flush();
+
+            checksum.reset();
+            checksum.update(recordBuffer.toByteArray());
+
+            Segment.Position position = segment.position;
+            if (position.records == 0 || position.records - position.lastIndexed >= properties.getIndexInterval()) {
+                segment.index.writeLong(consensusTimestamp);
+                segment.index.writeLong(position.records);
+                position.lastIndexed = position.records;
+                position.index += INDEX_ENTRY_SIZE;
+            }
+
+            segment.records.writeInt(recordBuffer.size());
+            segment.records.writeInt((int) checksum.getValue());
+            recordBuffer.writeTo(segment.records);
+            position.records += RECORD_HEADER_SIZE + recordBuffer.size();
+        } catch (IOException e) {
+            throw new ParserException("Error writing " + type + " at " + consensusTimestamp + " to segment", e);
+        }
+    }
+
+    @FunctionalInterface
+    private interface Encoder {
+        void encode(DataOutputStream out) throws IOException;
+    }
+
+    private static class Segment {
+
+        private final Path path;
+        private final Path indexPath;
+        private final FileChannel recordsChannel;
+        private final FileChannel indexChannel;
+        private final DataOutputStream records;
+        private final DataOutputStream index;
+        private Position position = new Position();
+
+        Segment(Path directory, long consensusTimestamp) throws IOException {
+            Files.createDirectories(directory);
+
+            // A file that was written before a crash but not committed to the database is written again after the
+            // restart, so bump the name to keep segments sorted in the order they were written
+            long name = consensusTimestamp;
+            while (Files.exists(directory.resolve(String.format("%019d", name) + SEGMENT_SUFFIX))) {
+                ++name;
+            }
+            path = directory.resolve(String.format("%019d", name) + SEGMENT_SUFFIX);
+            indexPath = directory.resolve(String.format("%019d", name) + INDEX_SUFFIX);
+            recordsChannel = FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+            indexChannel = FileChannel.open(indexPath, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+            records = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(recordsChannel)));
+            index = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(indexChannel)));
+        }
+
+        void flush(boolean sync) throws IOException {
+            records.flush();
+            index.flush();
+            if (sync) {
+                recordsChannel.force(false);
+                indexChannel.force(false);
+            }
+        }
+
+        void truncate(Position to) throws IOException {
+            flush(false);
+            recordsChannel.truncate(to.records);
+            indexChannel.truncate(to.index);
+            position = to.copy();
+        }
+
+        void close() throws IOException {
+            records.close();
+            index.close();
+        }
+
+        private static class Position {
+            private long records;
+            private long index;
+            private long lastIndexed;
+
+            Position copy() {
+                Position copy = new Position();
+                copy.records = records;
+                copy.index = index;
+                copy.lastIndexed = lastIndexed;
+                return copy;
+            }
+        }
+    }
+}
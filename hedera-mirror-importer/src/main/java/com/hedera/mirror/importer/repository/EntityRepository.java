@@ -21,12 +21,14 @@ package com.hedera.mirror.importer.repository;
  */
 
 import java.util.Optional;
+import javax.transaction.Transactional;
 
 import com.hedera.mirror.importer.domain.EntityId;
 
 import org.springframework.cache.annotation.CacheConfig;
 import org.springframework.cache.annotation.CachePut;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 
 import com.hedera.mirror.importer.config.CacheConfiguration;
@@ -45,14 +47,27 @@ public interface EntityRepository extends PagingAndSortingRepository<Entities, L
     @Override
     <S extends Entities> S save(S entity);
 
-    @Cacheable(key = "{#p0, #p1, #p2}", sync = true, cacheNames = "entity_ids",
-            cacheManager = CacheConfiguration.BIG_LRU_CACHE)
-    @Query("select new com.hedera.mirror.importer.domain.EntityId(id, entityShard, entityRealm, entityNum, entityTypeId) from Entities where entityShard = ?1 and entityRealm = ?2 and entityNum = ?3")
-    Optional<EntityId> findEntityIdByNativeIds(long entityShard, long entityRealm, long entityNum);
-
     @CachePut(key = "{#p0.entityShard, #p0.entityRealm, #p0.entityNum}", cacheNames = "entity_ids",
             cacheManager = CacheConfiguration.BIG_LRU_CACHE)
     default <S extends EntityId> S cache(S entity) {
         return entity;
     }
+
+    @Modifying
+    @Transactional
+    @Query(value = "insert into t_entities (id, entity_shard, entity_realm, entity_num, fk_entity_type_id) " +
+            "values (?1, ?2, ?3, ?4, ?5) on conflict do nothing", nativeQuery = true)
+    void insertIfMissing(long id, long entityShard, long entityRealm, long entityNum, int entityTypeId);
+
+    /**
+     * Makes sure a row exists for the entity so that it can be referenced by its encoded id. Only entities that aren't
+     * in the cache yet result in a write, and it never needs to read the database.
+     */
+    @Cacheable(key = "{#p0.entityShard, #p0.entityRealm, #p0.entityNum}", cacheNames = "entity_ids",
+            cacheManager = CacheConfiguration.BIG_LRU_CACHE)
+    default EntityId insertIfMissing(EntityId entityId) {
+        insertIfMissing(entityId.getId(), entityId.getEntityShard(), entityId.getEntityRealm(),
+                entityId.getEntityNum(), entityId.getEntityTypeId());
+        return entityId;
+    }
 }
@@ -22,8 +22,6 @@ package com.hedera.mirror.importer.repository;
 
 import java.util.Collection;
 
-import com.hedera.mirror.importer.domain.Entities;
-
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Lazy;
 
@@ -48,11 +46,4 @@ public class EntityRepositoryCustomImpl implements EntityRepositoryCustom {
         });
         return results;
     }
-
-    public <S extends Entities> EntityId saveAndCacheEntityId(S entity) {
-        var saved = entityRepository.save(entity);
-        return entityRepository.cache(
-                    new EntityId(saved.getId(), saved.getEntityShard(), saved.getEntityRealm(), saved.getEntityNum(),
-                            saved.getEntityTypeId()));
-    }
 }
@@ -20,10 +20,24 @@ package com.hedera.mirror.importer.repository;
  * ‍
  */
 
+import java.util.Optional;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
 
 import com.hedera.mirror.importer.domain.Transaction;
+import com.hedera.mirror.importer.util.Utility;
 
 public interface TransactionRepository extends CrudRepository<Transaction, Long> {
 
+    @Query(value = "select t.* from transaction_hash_prefix p join t_transactions t on " +
+            "t.consensus_ns = p.consensus_timestamp where p.hash_prefix = ?1 and t.transaction_hash = ?2 " +
+            "order by t.consensus_ns limit 1", nativeQuery = true)
+    Optional<Transaction> findByHashPrefixAndTransactionHash(long hashPrefix, byte[] transactionHash);
+
+    /**
+     * Finds the transaction with the given hash using the hash prefix index instead of scanning t_transactions
+     */
+    default Optional<Transaction> findByTransactionHash(byte[] transactionHash) {
+        return findByHashPrefixAndTransactionHash(Utility.hashPrefix(transactionHash), transactionHash);
+    }
 }
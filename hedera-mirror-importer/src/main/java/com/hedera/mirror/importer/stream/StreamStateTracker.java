@@ -0,0 +1,115 @@
+package com.hedera.mirror.importer.stream;
+
+/*-
+ * ‌
+ * Hedera Mirror Node
+ * ​
+ * Copyright (C) 2019 - 2020 Hedera Hashgraph, LLC
+ * ​
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ‍
+ */
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.inject.Named;
+import javax.transaction.Transactional;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.log4j.Log4j2;
+
+import com.hedera.mirror.importer.domain.ApplicationStatusCode;
+import com.hedera.mirror.importer.repository.ApplicationStatusRepository;
+
+/**
+ * Keeps the state of the streams (last downloaded file, its hash, last processed hash) in memory so that downloaders
+ * and parsers don't need a round-trip to t_application_status for every file. Values written by the importer are
+ * served from memory, while values it never writes (e.g. the hash mismatch bypass) are read through the repository's
+ * cache so operators can still change them at runtime.
+ * <p>
+ * Updates are either persisted by the caller as part of the same transaction as the data they describe (see {@link
+ * #persist(Connection, ApplicationStatusCode, String)}) or are written behind by {@link #flush()}. Either way the
+ * database never runs ahead of the data, so after a restart the state is recovered by loading it back from the
+ * database.
+ */
+@Log4j2
+@Named
+@RequiredArgsConstructor
+public class StreamStateTracker {
+
+    private static final String UPDATE_STATUS = "update t_application_status set status_value = ? " +
+            "where status_code = ?";
+
+    private final ApplicationStatusRepository applicationStatusRepository;
+    private final Map<ApplicationStatusCode, String> values = new ConcurrentHashMap<>();
+    private final Map<ApplicationStatusCode, String> pending = new ConcurrentHashMap<>();
+
+    public String get(ApplicationStatusCode statusCode) {
+        String value = values.get(statusCode);
+        return value != null ? value : applicationStatusRepository.findByStatusCode(statusCode);
+    }
+
+    /**
+     * Sets the in-memory value of a status that has already been persisted by the caller.
+     */
+    public void set(ApplicationStatusCode statusCode, String value) {
+        values.put(statusCode, value);
+    }
+
+    /**
+     * Updates the in-memory value of a status and queues it to be written to the database on the next flush.
+     */
+    public void update(ApplicationStatusCode statusCode, String value) {
+        values.put(statusCode, value);
+        pending.put(statusCode, value);
+    }
+
+    /**
+     * Writes the status to the database using the caller's connection so it's committed or rolled back along with the
+     * rest of the caller's transaction. The in-memory value should be {@link #set} after a successful commit.
+     */
+    public void persist(Connection connection, ApplicationStatusCode statusCode, String value) throws SQLException {
+        try (PreparedStatement preparedStatement = connection.prepareStatement(UPDATE_STATUS)) {
+            preparedStatement.setString(1, value);
+            preparedStatement.setString(2, statusCode.name());
+            preparedStatement.executeUpdate();
+        }
+    }
+
+    /**
+     * Writes all queued updates to the database in a single transaction
+     */
+    @Transactional
+    public void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+
+        pending.forEach((statusCode, value) -> {
+            applicationStatusRepository.updateStatusValue(statusCode, value);
+            // Only remove if it wasn't updated again while flushing
+            pending.remove(statusCode, value);
+            log.debug("Flushed {}={}", statusCode, value);
+        });
+    }
+
+    /**
+     * Discards the in-memory state, including any updates not yet flushed, so it's reloaded from the database
+     */
+    public void clear() {
+        values.clear();
+        pending.clear();
+    }
+}
@@ -0,0 +1,150 @@
+package com.hedera.mirror.importer.util;
+
+/*-
+ * ‌
+ * Hedera Mirror Node
+ * ​
+ * Copyright (C) 2019 - 2020 Hedera Hashgraph, LLC
+ * ​
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ‍
+ */
+
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+import lombok.extern.log4j.Log4j2;
+
+/**
+ * Compresses large payloads (transaction bytes, file data, contract results and topic messages) before they're
+ * written to the database. A compressed payload starts with a magic marker followed by a format byte, while payloads
+ * that aren't worth compressing are stored as is. Raw payloads that happen to start with the marker are wrapped with
+ * the raw format so they can't be mistaken for compressed ones.
+ * <p>
+ * Every payload must be written through this codec, even when compression is disabled, since the readers always decode.
+ * The format must match the decoding done by the gRPC and REST APIs.
+ */
+@Log4j2
+public final class PayloadCodec {
+
+    static final byte FORMAT_RAW = 0;
+    static final byte FORMAT_DEFLATE = 1;
+    private static final byte[] MAGIC = {0x00, 'H', 'M', 'C'};
+    private static final int HEADER_LENGTH = MAGIC.length + 1;
+
+    private PayloadCodec() {
+    }
+
+    /**
+     * Compresses the payload if it's at least threshold bytes and compressing it actually makes it smaller
+     */
+    public static byte[] encode(byte[] payload, int threshold) {
+        if (payload == null) {
+            return null;
+        }
+
+        if (payload.length >= threshold) {
+            byte[] compressed = deflate(payload);
+            if (compressed.length + HEADER_LENGTH < payload.length) {
+                return withHeader(FORMAT_DEFLATE, compressed);
+            }
+        }
+
+        return escape(payload);
+    }
+
+    /**
+     * Stores the payload uncompressed, wrapping it with the raw format if it happens to start with the marker
+     */
+    public static byte[] escape(byte[] payload) {
+        return hasHeader(payload) ? withHeader(FORMAT_RAW, payload) : payload;
+    }
+
+    /**
+     * Returns the original payload, decompressing it if necessary. Payloads without the marker are returned as is, as
+     * are corrupt compressed payloads since failing the read would make the row unreadable for good.
+     */
+    public static byte[] decode(byte[] data) {
+        if (!hasHeader(data)) {
+            return data;
+        }
+
+        byte[] payload = Arrays.copyOfRange(data, HEADER_LENGTH, data.length);
+        switch (data[MAGIC.length]) {
+            case FORMAT_RAW:
+                return payload;
+            case FORMAT_DEFLATE:
+                try {
+                    return inflate(payload);
+                } catch (IllegalArgumentException e) {
+                    log.warn("Unable to decode payload of {} bytes: {}", data.length, e.getMessage());
+                    return data;
+                }
+            default:
+                return data;
+        }
+    }
+
+    private static boolean hasHeader(byte[] data) {
+        return data != null && data.length >= HEADER_LENGTH &&
+                Arrays.equals(data, 0, MAGIC.length, MAGIC, 0, MAGIC.length);
+    }
+
+    private static byte[] withHeader(byte format, byte[] payload) {
+        byte[] data = new byte[HEADER_LENGTH + payload.length];
+        System.arraycopy(MAGIC, 0, data, 0, MAGIC.length);
+        data[MAGIC.length] = format;
+        System.arraycopy(payload, 0, data, HEADER_LENGTH, payload.length);
+        return data;
+    }
+
+    private static byte[] deflate(byte[] payload) {
+        Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+        try {
+            deflater.setInput(payload);
+            deflater.finish();
+            ByteArrayOutputStream outputStream = new ByteArrayOutputStream(payload.length);
+            byte[] buffer = new byte[4096];
+            while (!deflater.finished()) {
+                int length = deflater.deflate(buffer);
+                outputStream.write(buffer, 0, length);
+            }
+            return outputStream.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static byte[] inflate(byte[] compressed) {
+        Inflater inflater = new Inflater(true);
+        try {
+            inflater.setInput(compressed);
+            ByteArrayOutputStream outputStream = new ByteArrayOutputStream(compressed.length * 4);
+            byte[] buffer = new byte[4096];
+            while (!inflater.finished()) {
+                int length = inflater.inflate(buffer);
+                if (length == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new IllegalArgumentException("Truncated compressed payload");
+                }
+                outputStream.write(buffer, 0, length);
+            }
+            return outputStream.toByteArray();
+        } catch (DataFormatException e) {
+            throw new IllegalArgumentException("Invalid compressed payload", e);
+        } finally {
+            inflater.end();
+        }
+    }
+}
@@ -405,6 +405,14 @@ public class Utility {
         return Hex.encodeHexString(bytes);
     }
 
+    /**
+     * The first 8 bytes of a hash as a long, zero padded if the hash is shorter. Used as the key of
+     * transaction_hash_prefix and must match how its migration computes it.
+     */
+    public static long hashPrefix(byte[] hash) {
+        return ByteBuffer.wrap(Arrays.copyOf(hash, Long.BYTES)).getLong();
+    }
+
     /**
      * parse a timestamp string in file name to Instant
      *
@@ -0,0 +1,47 @@
+-- Make the natural keys of the record stream tables unique so they can be the conflict target of idempotent inserts
+-- (hedera.mirror.parser.record.postgresql.idempotent). t_transactions and topic_message are already unique on
+-- consensus timestamp. The unique indexes replace the existing non-unique indexes on the same leading columns.
+-- Exact duplicates could only come from the same transaction being ingested twice, so they're removed first.
+-- non_fee_transfers is left non-unique since it's copied from the transaction body, which can legitimately repeat an
+-- account and amount (e.g. a failed transfer with ACCOUNT_REPEATED_IN_ACCOUNT_AMOUNTS).
+
+--
+-- t_cryptotransferlists
+--
+delete from t_cryptotransferlists a
+    using t_cryptotransferlists b
+    where a.consensus_timestamp = b.consensus_timestamp
+      and a.realm_num = b.realm_num
+      and a.entity_num = b.entity_num
+      and a.amount = b.amount
+      and a.ctid > b.ctid;
+drop index if exists idx__t_cryptotransferlists__consensus_and_realm_and_num;
+create unique index if not exists idx__t_cryptotransferlists__consensus_and_realm_and_num
+    on t_cryptotransferlists (consensus_timestamp, realm_num, entity_num, amount);
+
+--
+-- t_file_data, t_contract_result and t_livehashes have at most one row per transaction
+--
+delete from t_file_data a
+    using t_file_data b
+    where a.consensus_timestamp = b.consensus_timestamp
+      and a.ctid > b.ctid;
+drop index if exists idx__t_file_data__consensus;
+create unique index if not exists idx__t_file_data__consensus
+    on t_file_data (consensus_timestamp desc);
+
+delete from t_contract_result a
+    using t_contract_result b
+    where a.consensus_timestamp = b.consensus_timestamp
+      and a.ctid > b.ctid;
+drop index if exists idx__t_contract_result__consensus;
+create unique index if not exists idx__t_contract_result__consensus
+    on t_contract_result (consensus_timestamp desc);
+
+delete from t_livehashes a
+    using t_livehashes b
+    where a.consensus_timestamp = b.consensus_timestamp
+      and a.ctid > b.ctid;
+drop index if exists idx__t_livehashes__consensus;
+create unique index if not exists idx__t_livehashes__consensus
+    on t_livehashes (consensus_timestamp desc);
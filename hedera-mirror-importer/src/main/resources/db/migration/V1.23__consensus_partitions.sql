@@ -0,0 +1,17 @@
+-- Range partitioning by consensus timestamp for the largest record stream tables, using table inheritance since
+-- declarative partitioning isn't available in Postgres 9.6. The importer creates the partitions ahead of ingest
+-- (hedera.mirror.importer.partition) and inserts directly into them. Queries against the parent table include its
+-- partitions and skip the ones whose check constraint excludes the queried range (constraint_exclusion=partition).
+-- Rows ingested before partitioning was enabled stay in the parent table, and the importer keeps writing rows up to
+-- the newest of them there so that a replay in idempotent mode conflicts with the existing rows instead of duplicating
+-- them in a partition. Partitions are named after the first and last day of their range.
+
+create or replace function create_consensus_partition(parent text, partition_column text, partition_name text,
+                                                      range_start bigint, range_end bigint) returns void as
+$$
+begin
+    execute format('create table if not exists %I (like %I including defaults including constraints including ' ||
+                   'indexes, check (%I >= %s and %I < %s)) inherits (%I)', partition_name, parent,
+                   partition_column, range_start, partition_column, range_end, parent);
+end;
+$$ language plpgsql;
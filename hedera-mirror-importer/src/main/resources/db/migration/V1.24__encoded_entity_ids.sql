@@ -0,0 +1,53 @@
+-- Replace the t_entities surrogate id with an id encoded from the entity's (shard, realm, num) so the importer can
+-- compute entity ids without looking them up. The shard takes the top 15 bits, the realm the next 16 bits and the
+-- number the low 32 bits. Existing ids are remapped everywhere they're referenced.
+
+create or replace function encode_entity_id(shard bigint, realm bigint, num bigint) returns bigint as
+$$
+select (shard << 48) | (realm << 32) | num;
+$$ language sql immutable;
+
+create temporary table entity_id_map on commit drop as
+    select id as old_id, encode_entity_id(entity_shard, entity_realm, entity_num) as new_id
+    from t_entities;
+create unique index on entity_id_map (old_id);
+analyze entity_id_map;
+
+-- Long step. Ids that don't map to an entity are left as is.
+update t_transactions t
+    set fk_node_acc_id   = coalesce((select new_id from entity_id_map where old_id = t.fk_node_acc_id),
+                                    t.fk_node_acc_id),
+        fk_payer_acc_id  = coalesce((select new_id from entity_id_map where old_id = t.fk_payer_acc_id),
+                                    t.fk_payer_acc_id),
+        fk_cud_entity_id = coalesce((select new_id from entity_id_map where old_id = t.fk_cud_entity_id),
+                                    t.fk_cud_entity_id);
+
+-- Negate the ids first so the new ids can't collide with old ids that haven't been remapped yet
+update t_entities set id = -id;
+update t_entities e
+    set id                    = encode_entity_id(entity_shard, entity_realm, entity_num),
+        fk_prox_acc_id        = coalesce((select new_id from entity_id_map where old_id = e.fk_prox_acc_id),
+                                         e.fk_prox_acc_id),
+        auto_renew_account_id = coalesce((select new_id from entity_id_map where old_id = e.auto_renew_account_id),
+                                         e.auto_renew_account_id);
+
+-- Rows inserted without an id (e.g. by the REST API tests) get the encoded id instead of the next sequence value
+alter table t_entities
+    alter column id drop default;
+drop sequence if exists s_entities_seq;
+
+create or replace function t_entities_encode_id() returns trigger as
+$$
+begin
+    if new.id is null then
+        new.id := encode_entity_id(new.entity_shard, new.entity_realm, new.entity_num);
+    end if;
+    return new;
+end;
+$$ language plpgsql;
+
+create trigger t_entities_encode_id
+    before insert
+    on t_entities
+    for each row
+execute procedure t_entities_encode_id();
@@ -0,0 +1,36 @@
+-- Running balance of each account, kept up to date by the record parser from the crypto transfers in each record file
+-- and reconciled against the account balance files.
+create table if not exists account_balance_current (
+    realm_num           smallint not null,
+    entity_num          integer  not null,
+    balance             bigint   not null,
+    consensus_timestamp bigint   not null,
+    primary key (realm_num, entity_num)
+);
+
+-- Seed from the latest complete balance set plus any transfers since
+with latest as (
+    select coalesce(max(consensus_timestamp), 0) as consensus_timestamp
+    from account_balance_sets
+    where is_complete = true
+),
+     transfers as (
+         select realm_num, entity_num, sum(amount) as amount, max(consensus_timestamp) as consensus_timestamp
+         from t_cryptotransferlists
+         where consensus_timestamp > (select consensus_timestamp from latest)
+         group by realm_num, entity_num
+     ),
+     balances as (
+         select account_realm_num as realm_num, account_num as entity_num, balance, consensus_timestamp
+         from account_balances
+         where consensus_timestamp = (select consensus_timestamp from latest)
+     )
+insert
+into account_balance_current (realm_num, entity_num, balance, consensus_timestamp)
+select coalesce(b.realm_num, t.realm_num),
+       coalesce(b.entity_num, t.entity_num),
+       coalesce(b.balance, 0) + coalesce(t.amount, 0),
+       coalesce(t.consensus_timestamp, b.consensus_timestamp)
+from balances b
+         full outer join transfers t on b.realm_num = t.realm_num and b.entity_num = t.entity_num
+on conflict do nothing;
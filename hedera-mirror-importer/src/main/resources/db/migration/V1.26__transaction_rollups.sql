@@ -0,0 +1,29 @@
+-- Count and fees of transactions by type and result per second, minute and hour, kept up to date by the record parser
+-- in the same transaction as the transactions. The consensus timestamp is the start of the interval in nanoseconds.
+create table if not exists transaction_rollup_second (
+    consensus_timestamp bigint  not null,
+    type                integer not null,
+    result              integer not null,
+    count               bigint  not null,
+    charged_tx_fee      bigint  not null,
+    primary key (consensus_timestamp, type, result)
+);
+
+create table if not exists transaction_rollup_minute (like transaction_rollup_second including all);
+create table if not exists transaction_rollup_hour (like transaction_rollup_second including all);
+
+-- Long step. Backfill from existing transactions.
+insert into transaction_rollup_second (consensus_timestamp, type, result, count, charged_tx_fee)
+select consensus_ns - consensus_ns % 1000000000, type, result, count(*), coalesce(sum(charged_tx_fee), 0)
+from t_transactions
+group by 1, 2, 3;
+
+insert into transaction_rollup_minute (consensus_timestamp, type, result, count, charged_tx_fee)
+select consensus_timestamp - consensus_timestamp % 60000000000, type, result, sum(count), sum(charged_tx_fee)
+from transaction_rollup_second
+group by 1, 2, 3;
+
+insert into transaction_rollup_hour (consensus_timestamp, type, result, count, charged_tx_fee)
+select consensus_timestamp - consensus_timestamp % 3600000000000, type, result, sum(count), sum(charged_tx_fee)
+from transaction_rollup_minute
+group by 1, 2, 3;
@@ -0,0 +1,25 @@
+-- Index of the transactions each entity was involved in, by the entity's encoded id. Lets an entity's transactions be
+-- looked up without scanning the transfer lists.
+create table if not exists entity_activity (
+    entity_id           bigint   not null,
+    consensus_timestamp bigint   not null,
+    role                smallint not null,
+    primary key (entity_id, consensus_timestamp, role)
+);
+
+-- Long step. Backfill from existing transactions and transfers. Transfers don't store the shard, which is always 0.
+insert into entity_activity (entity_id, consensus_timestamp, role)
+select fk_payer_acc_id, consensus_ns, 1
+from t_transactions
+union
+select encode_entity_id(0, realm_num, entity_num), consensus_timestamp, 2
+from t_cryptotransferlists
+union
+select fk_cud_entity_id, consensus_ns, 3
+from t_transactions
+where fk_cud_entity_id is not null
+on conflict do nothing;
+
+-- Lets retention find the oldest rows without scanning the table
+create index if not exists idx__entity_activity__consensus_timestamp
+    on entity_activity (consensus_timestamp);
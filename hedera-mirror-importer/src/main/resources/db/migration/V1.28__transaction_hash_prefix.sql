@@ -0,0 +1,19 @@
+-- Lookup of transactions by hash. The prefix is the first 8 bytes of the hash as a bigint, zero padded if the hash is
+-- shorter, and the full hash is compared against t_transactions to resolve collisions.
+create table if not exists transaction_hash_prefix (
+    hash_prefix         bigint not null,
+    consensus_timestamp bigint not null,
+    primary key (hash_prefix, consensus_timestamp)
+);
+
+-- Long step. Backfill from existing transactions.
+insert into transaction_hash_prefix (hash_prefix, consensus_timestamp)
+select ('x' || rpad(encode(substring(transaction_hash from 1 for 8), 'hex'), 16, '0'))::bit(64)::bigint,
+       consensus_ns
+from t_transactions
+where length(transaction_hash) > 0
+on conflict do nothing;
+
+-- Lets retention find the oldest rows without scanning the table
+create index if not exists idx__transaction_hash_prefix__consensus_timestamp
+    on transaction_hash_prefix (consensus_timestamp);
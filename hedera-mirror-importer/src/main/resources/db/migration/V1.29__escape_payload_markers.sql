@@ -0,0 +1,25 @@
+-- Payloads are read back through PayloadCodec, which strips a 5 byte header from anything starting with its marker.
+-- Rows written before every payload was encoded are stored as is, so wrap the ones that happen to start with the
+-- marker in the raw format header to keep them from being decoded. Compression is new in this release, so no existing
+-- row carries a real header.
+
+-- Long step. Scans the payload columns of every existing row.
+update t_transactions
+set transaction_bytes = '\x00484d4300'::bytea || transaction_bytes
+where substring(transaction_bytes from 1 for 4) = '\x00484d43'::bytea;
+
+update t_file_data
+set file_data = '\x00484d4300'::bytea || file_data
+where substring(file_data from 1 for 4) = '\x00484d43'::bytea;
+
+update t_contract_result
+set function_params = '\x00484d4300'::bytea || function_params
+where substring(function_params from 1 for 4) = '\x00484d43'::bytea;
+
+update t_contract_result
+set call_result = '\x00484d4300'::bytea || call_result
+where substring(call_result from 1 for 4) = '\x00484d43'::bytea;
+
+update topic_message
+set message = '\x00484d4300'::bytea || message
+where substring(message from 1 for 4) = '\x00484d43'::bytea;
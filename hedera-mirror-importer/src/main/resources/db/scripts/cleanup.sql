@@ -1,12 +1,19 @@
+TRUNCATE TABLE account_balance_current;
 TRUNCATE TABLE account_balance_sets RESTART IDENTITY CASCADE;
 TRUNCATE TABLE account_balances RESTART IDENTITY CASCADE;
+TRUNCATE TABLE entity_activity;
 TRUNCATE TABLE t_contract_result RESTART IDENTITY CASCADE;
 TRUNCATE TABLE t_cryptotransferlists RESTART IDENTITY CASCADE;
 TRUNCATE TABLE t_file_data RESTART IDENTITY CASCADE;
 TRUNCATE TABLE t_livehashes RESTART IDENTITY CASCADE;
 TRUNCATE TABLE t_record_files RESTART IDENTITY CASCADE;
 TRUNCATE TABLE t_entities RESTART IDENTITY CASCADE;
+TRUNCATE TABLE t_events RESTART IDENTITY CASCADE;
 TRUNCATE TABLE t_transactions RESTART IDENTITY CASCADE;
 TRUNCATE TABLE topic_message RESTART IDENTITY CASCADE;
+TRUNCATE TABLE transaction_hash_prefix;
+TRUNCATE TABLE transaction_rollup_hour;
+TRUNCATE TABLE transaction_rollup_minute;
+TRUNCATE TABLE transaction_rollup_second;
 TRUNCATE TABLE non_fee_transfers;
 UPDATE t_application_status SET status_value = NULL;
@@ -69,7 +69,7 @@ $$
 DECLARE
 BEGIN
     CREATE INDEX IF NOT EXISTS idx__t_cryptotransferlists__realm_and_num_and_consensus ON t_cryptotransferlists (realm_num, entity_num, consensus_timestamp);
-    CREATE INDEX IF NOT EXISTS idx__t_cryptotransferlists__consensus_and_realm_and_num ON t_cryptotransferlists (consensus_timestamp, realm_num, entity_num);
+    CREATE UNIQUE INDEX IF NOT EXISTS idx__t_cryptotransferlists__consensus_and_realm_and_num ON t_cryptotransferlists (consensus_timestamp, realm_num, entity_num, amount);
 END;
 $$ LANGUAGE plpgsql;
 
@@ -85,7 +85,7 @@ CREATE OR REPLACE FUNCTION create_t_file_data_constraints_and_indexes() RETURNS
 $$
 DECLARE
 BEGIN
-    CREATE INDEX IF NOT EXISTS idx__t_file_data__consensus ON t_file_data (consensus_timestamp DESC);
+    CREATE UNIQUE INDEX IF NOT EXISTS idx__t_file_data__consensus ON t_file_data (consensus_timestamp DESC);
 END;
 $$ LANGUAGE plpgsql;
 
@@ -102,7 +102,7 @@ CREATE OR REPLACE FUNCTION create_t_livehashes_constraints_and_indexes() RETURNS
 $$
 DECLARE
 BEGIN
-    CREATE INDEX IF NOT EXISTS idx__t_livehashes__consensus ON t_livehashes (consensus_timestamp DESC);
+    CREATE UNIQUE INDEX IF NOT EXISTS idx__t_livehashes__consensus ON t_livehashes (consensus_timestamp DESC);
 END;
 $$ LANGUAGE plpgsql;
 
@@ -119,7 +119,7 @@ CREATE OR REPLACE FUNCTION create_t_contract_result_constraints_and_indexes() RE
 $$
 DECLARE
 BEGIN
-    CREATE INDEX IF NOT EXISTS idx__t_contract_result__consensus ON t_contract_result (consensus_timestamp DESC);
+    CREATE UNIQUE INDEX IF NOT EXISTS idx__t_contract_result__consensus ON t_contract_result (consensus_timestamp DESC);
 END;
 $$ LANGUAGE plpgsql;
 
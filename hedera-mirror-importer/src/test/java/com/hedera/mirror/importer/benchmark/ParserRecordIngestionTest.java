@@ -20,6 +20,7 @@ package com.hedera.mirror.importer.benchmark;
  * ‍
  */
 
+import io.micrometer.core.instrument.MeterRegistry;
 import java.nio.file.Path;
 import javax.annotation.Resource;
 import lombok.extern.log4j.Log4j2;
@@ -36,8 +37,12 @@ import org.springframework.test.context.jdbc.Sql;
 import com.hedera.mirror.importer.FileCopier;
 import com.hedera.mirror.importer.IntegrationTest;
 import com.hedera.mirror.importer.domain.StreamType;
+import com.hedera.mirror.importer.parser.RecordStreamFileListener;
 import com.hedera.mirror.importer.parser.record.RecordFileParser;
+import com.hedera.mirror.importer.parser.record.RecordFileQueue;
+import com.hedera.mirror.importer.parser.record.RecordItemListener;
 import com.hedera.mirror.importer.parser.record.RecordParserProperties;
+import com.hedera.mirror.importer.stream.StreamStateTracker;
 
 @Log4j2
 @Sql(executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD, scripts = "classpath:db/scripts/cleanup.sql")
@@ -53,17 +58,29 @@ public class ParserRecordIngestionTest extends IntegrationTest {
     Path testPath;
 
     @Resource
-    private RecordFileParser recordFileParser;
+    private RecordParserProperties parserProperties;
 
     @Resource
-    private RecordParserProperties parserProperties;
+    private StreamStateTracker streamStateTracker;
+
+    @Resource
+    private MeterRegistry meterRegistry;
+
+    @Resource
+    private RecordItemListener recordItemListener;
+
+    @Resource
+    private RecordStreamFileListener recordStreamFileListener;
+
+    @Resource
+    private RecordFileQueue recordFileQueue;
 
     private FileCopier fileCopier;
 
     private StreamType streamType;
 
     @BeforeAll
-    void warmUp() {
+    void warmUp() throws InterruptedException {
         streamType = parserProperties.getStreamType();
         parse("2020-02-09T18_30_00.000084Z.rcd");
     }
@@ -80,13 +97,20 @@ public class ParserRecordIngestionTest extends IntegrationTest {
         parse("*.rcd");
     }
 
-    private void parse(String filePath) {
+    private void parse(String filePath) throws InterruptedException {
         fileCopier = FileCopier.create(testPath, dataPath)
                 .from(streamType.getPath(), "performance")
                 .filterFiles(filePath)
                 .to(streamType.getPath(), streamType.getValid());
         fileCopier.copy();
 
-        recordFileParser.parse();
+        // A new parser recovers the copied files from the valid directory like it would on startup
+        RecordFileParser recordFileParser = new RecordFileParser(streamStateTracker, parserProperties, meterRegistry,
+                recordItemListener, recordStreamFileListener, recordFileQueue);
+        try {
+            recordFileParser.parse();
+        } finally {
+            recordFileParser.close();
+        }
     }
 }
@@ -0,0 +1,203 @@
+package com.hedera.mirror.importer.db;
+
+/*-
+ * ‌
+ * Hedera Mirror Node
+ * ​
+ * Copyright (C) 2019 - 2020 Hedera Hashgraph, LLC
+ * ​
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ‍
+ */
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+import javax.annotation.Resource;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.jdbc.Sql;
+
+import com.hedera.mirror.importer.IntegrationTest;
+import com.hedera.mirror.importer.domain.CryptoTransfer;
+import com.hedera.mirror.importer.domain.RecordFile;
+import com.hedera.mirror.importer.domain.TopicMessage;
+import com.hedera.mirror.importer.domain.Transaction;
+import com.hedera.mirror.importer.parser.domain.StreamFileData;
+import com.hedera.mirror.importer.parser.record.PostgresWritingRecordParsedItemHandler;
+import com.hedera.mirror.importer.util.Utility;
+
+@Sql(executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD, scripts = "classpath:db/scripts/cleanup.sql")
+@Sql(executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD, scripts = "classpath:db/scripts/cleanup.sql")
+public class PartitionManagerTest extends IntegrationTest {
+
+    private static final long DAY = Duration.ofDays(1L).toNanos();
+
+    @Resource
+    private PartitionManager partitionManager;
+
+    @Resource
+    private PartitionProperties partitionProperties;
+
+    @Resource
+    private PostgresWritingRecordParsedItemHandler postgresWriter;
+
+    @Resource
+    private JdbcTemplate jdbcTemplate;
+
+    @Resource
+    private DataSource dataSource;
+
+    @BeforeEach
+    void before() {
+        partitionProperties.setEnabled(true);
+    }
+
+    @AfterEach
+    void after() {
+        partitionProperties.setEnabled(false);
+        partitionProperties.setInterval(Duration.ofDays(30L));
+    }
+
+    @Test
+    void partitionAlignedToInterval() {
+        long timestamp = Utility.convertInstantToNanos(Instant.parse("2020-03-16T10:15:30.123456789Z"));
+        String partition = partitionManager.getPartition(PartitionManager.TRANSACTION, timestamp);
+
+        assertThat(partition).isEqualTo("t_transactions_p20200309_20200408");
+        assertThat(partitionManager.getPartition(PartitionManager.TRANSACTION, timestamp + DAY)).isEqualTo(partition);
+        assertThat(partitionManager.getPartition(PartitionManager.TRANSACTION, timestamp - 10 * DAY))
+                .isEqualTo("t_transactions_p20200208_20200309");
+        assertThat(checkConstraint(partition)).contains(String.valueOf(timestamp - Math.floorMod(timestamp,
+                partitionProperties.getInterval().toNanos())));
+    }
+
+    @Test
+    void createPartitionsAhead() {
+        partitionManager.createPartitions();
+
+        long now = Utility.convertInstantToNanos(Instant.now());
+        long interval = partitionProperties.getInterval().toNanos();
+        for (int i = 0; i <= partitionProperties.getAhead(); i++) {
+            for (String table : new String[] {PartitionManager.CRYPTO_TRANSFER_LIST, PartitionManager.TOPIC_MESSAGE,
+                    PartitionManager.TRANSACTION}) {
+                String partition = partitionManager.getPartition(table, now + i * interval);
+                assertThat(jdbcTemplate.queryForObject("select count(*) from pg_inherits where inhrelid = ?::regclass",
+                        Integer.class, partition)).isEqualTo(1);
+            }
+        }
+    }
+
+    @Test
+    void intervalChangeDoesNotOverlap() {
+        PartitionManager manager = new PartitionManager(dataSource, partitionProperties);
+        long timestamp = Utility.convertInstantToNanos(Instant.parse("2020-03-16T00:00:00Z"));
+        assertThat(manager.getPartition(PartitionManager.TRANSACTION, timestamp))
+                .isEqualTo("t_transactions_p20200309_20200408");
+
+        partitionProperties.setInterval(Duration.ofDays(7L));
+        manager = new PartitionManager(dataSource, partitionProperties);
+        assertThat(manager.getPartition(PartitionManager.TRANSACTION, timestamp + DAY))
+                .isEqualTo("t_transactions_p20200309_20200408");
+        assertThat(manager.getPartition(PartitionManager.TRANSACTION, timestamp + 25 * DAY))
+                .isEqualTo("t_transactions_p20200409_20200416");
+        assertThat(manager.getPartition(PartitionManager.TRANSACTION, timestamp + 23 * DAY))
+                .isEqualTo("t_transactions_p20200408_20200409");
+        assertThat(checkConstraint("t_transactions_p20200408_20200409"))
+                .contains(String.valueOf(timestamp + 23 * DAY))
+                .contains(String.valueOf(timestamp + 24 * DAY));
+    }
+
+    @Test
+    void intervalNotWholeDays() {
+        partitionProperties.setInterval(Duration.ofHours(36L));
+        assertThatThrownBy(() -> new PartitionManager(dataSource, partitionProperties))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void rowsBeforePartitioningStayInParent() {
+        long timestamp = Utility.convertInstantToNanos(Instant.parse("2020-01-01T00:00:00Z"));
+        partitionProperties.setEnabled(false);
+        insertTopicMessage(timestamp);
+        partitionProperties.setEnabled(true);
+
+        // Replaying the file in idempotent mode has to write to the parent to conflict with the existing row
+        PartitionManager manager = new PartitionManager(dataSource, partitionProperties);
+        assertThat(manager.getPartition(PartitionManager.TOPIC_MESSAGE, timestamp - 1)).isEqualTo("topic_message");
+        assertThat(manager.getPartition(PartitionManager.TOPIC_MESSAGE, timestamp)).isEqualTo("topic_message");
+        assertThat(manager.getPartition(PartitionManager.TOPIC_MESSAGE, timestamp + 1))
+                .isEqualTo("topic_message_p20191210_20200109");
+    }
+
+    @Test
+    void disabled() {
+        partitionProperties.setEnabled(false);
+        assertThat(partitionManager.getPartition(PartitionManager.TOPIC_MESSAGE, 1L)).isEqualTo("topic_message");
+    }
+
+    @Test
+    void writerInsertsIntoPartitions() {
+        long timestamp = Utility.convertInstantToNanos(Instant.parse("2020-01-01T00:00:00Z"));
+        Transaction transaction = new Transaction();
+        transaction.setConsensusNs(timestamp);
+        transaction.setNodeAccountId(1L);
+        transaction.setPayerAccountId(1L);
+        transaction.setValidStartNs(timestamp - 1);
+        transaction.setType(14);
+        transaction.setResult(22);
+        transaction.setValidDurationSeconds(120L);
+        transaction.setMaxFee(1L);
+        transaction.setChargedTxFee(1L);
+        transaction.setInitialBalance(0L);
+
+        postgresWriter.onStart(new StreamFileData(UUID.randomUUID().toString(), null));
+        postgresWriter.onTransaction(transaction);
+        postgresWriter.onCryptoTransferList(new CryptoTransfer(timestamp, 1L, 0L, 2L));
+        postgresWriter.onTopicMessage(topicMessage(timestamp));
+        postgresWriter.onEnd(new RecordFile(null, "file", 0L, 0L, "", ""));
+
+        for (String table : new String[] {PartitionManager.CRYPTO_TRANSFER_LIST, PartitionManager.TOPIC_MESSAGE,
+                PartitionManager.TRANSACTION}) {
+            String partition = partitionManager.getPartition(table, timestamp);
+            assertThat(count(table)).isEqualTo(1);
+            assertThat(count("only " + table)).isZero();
+            assertThat(count(partition)).isEqualTo(1);
+        }
+    }
+
+    private void insertTopicMessage(long timestamp) {
+        postgresWriter.onStart(new StreamFileData(UUID.randomUUID().toString(), null));
+        postgresWriter.onTopicMessage(topicMessage(timestamp));
+        postgresWriter.onEnd(new RecordFile(null, "file", 0L, 0L, "", ""));
+    }
+
+    private TopicMessage topicMessage(long timestamp) {
+        return new TopicMessage(timestamp, new byte[] {1}, 0, new byte[] {2}, 1L, 1001);
+    }
+
+    private int count(String table) {
+        return jdbcTemplate.queryForObject("select count(*) from " + table, Integer.class);
+    }
+
+    private String checkConstraint(String table) {
+        return jdbcTemplate.queryForObject("select pg_get_constraintdef(oid) from pg_constraint " +
+                "where conrelid = ?::regclass and contype = 'c'", String.class, table);
+    }
+}
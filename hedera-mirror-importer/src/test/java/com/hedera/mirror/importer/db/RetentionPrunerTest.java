@@ -0,0 +1,205 @@
+package com.hedera.mirror.importer.db;
+
+/*-
+ * ‌
+ * Hedera Mirror Node
+ * ​
+ * Copyright (C) 2019 - 2020 Hedera Hashgraph, LLC
+ * ​
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ‍
+ */
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.time.Instant;
+import javax.annotation.Resource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.jdbc.Sql;
+
+import com.hedera.mirror.importer.IntegrationTest;
+import com.hedera.mirror.importer.util.Utility;
+
+@Sql(executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD, scripts = "classpath:db/scripts/cleanup.sql")
+@Sql(executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD, scripts = "classpath:db/scripts/cleanup.sql")
+public class RetentionPrunerTest extends IntegrationTest {
+
+    private static final long SECOND = Duration.ofSeconds(1L).toNanos();
+
+    @Resource
+    private RetentionPruner retentionPruner;
+
+    @Resource
+    private RetentionProperties retentionProperties;
+
+    @Resource
+    private MeterRegistry meterRegistry;
+
+    @Resource
+    private JdbcTemplate jdbcTemplate;
+
+    @Resource
+    private PartitionManager partitionManager;
+
+    @Resource
+    private PartitionProperties partitionProperties;
+
+    @BeforeEach
+    void before() {
+        retentionProperties.setEnabled(true);
+        retentionProperties.setBatchDelay(Duration.ZERO);
+        retentionProperties.setBatchSize(2);
+    }
+
+    @AfterEach
+    void after() {
+        retentionProperties.setEnabled(false);
+        retentionProperties.setBatchDelay(Duration.ofMillis(100L));
+        retentionProperties.setBatchSize(10_000);
+        retentionProperties.getTables().clear();
+    }
+
+    @Test
+    void pruneExpiredRows() {
+        for (long i = 1; i <= 10; i++) {
+            insertTransfer(i * SECOND, 1L);
+            insertTransfer(i * SECOND, 2L);
+        }
+        insertTransaction(10 * SECOND);
+        retentionProperties.getTables().put("t_cryptotransferlists", Duration.ofSeconds(3L));
+        double before = rowsPruned("t_cryptotransferlists");
+
+        retentionPruner.prune();
+
+        // Rows from 7s onwards are within 3s of the newest transaction
+        assertThat(jdbcTemplate.queryForList("select distinct consensus_timestamp from t_cryptotransferlists " +
+                "order by consensus_timestamp", Long.class)).containsExactly(7 * SECOND, 8 * SECOND, 9 * SECOND,
+                10 * SECOND);
+        assertThat(rowsPruned("t_cryptotransferlists") - before).isEqualTo(12.0);
+    }
+
+    @Test
+    void sameExpiryForAllTables() {
+        insertTransfer(SECOND, 1L);
+        insertTransfer(5 * SECOND, 1L);
+        insertTransaction(10 * SECOND);
+        retentionProperties.getTables().put("t_cryptotransferlists", Duration.ofSeconds(7L));
+
+        retentionPruner.prune();
+
+        // Expiry is measured from the newest transaction rather than the newest transfer
+        assertThat(jdbcTemplate.queryForList("select consensus_timestamp from t_cryptotransferlists", Long.class))
+                .containsExactly(5 * SECOND);
+    }
+
+    @Test
+    void pruneSnapshotInBatches() {
+        for (long i = 1; i <= 5; i++) {
+            insertBalance(SECOND, i);
+            insertBalance(10 * SECOND, i);
+        }
+        insertTransaction(10 * SECOND);
+        retentionProperties.getTables().put("account_balances", Duration.ofSeconds(3L));
+        double before = rowsPruned("account_balances");
+
+        retentionPruner.prune();
+
+        assertThat(jdbcTemplate.queryForList("select distinct consensus_timestamp from account_balances", Long.class))
+                .containsExactly(10 * SECOND);
+        assertThat(rowsPruned("account_balances") - before).isEqualTo(5.0);
+    }
+
+    @Test
+    void dropExpiredPartitions() {
+        long day = Duration.ofDays(1L).toNanos();
+        long newest = Utility.convertInstantToNanos(Instant.parse("2020-03-20T00:00:00Z"));
+        partitionProperties.setEnabled(true);
+        String expired;
+        String boundary;
+        try {
+            expired = partitionManager.getPartition(PartitionManager.CRYPTO_TRANSFER_LIST, newest - 70 * day);
+            boundary = partitionManager.getPartition(PartitionManager.CRYPTO_TRANSFER_LIST, newest);
+        } finally {
+            partitionProperties.setEnabled(false);
+        }
+
+        insertTransfer(newest - 100 * day, 1L);
+        insertTransfer(expired, newest - 70 * day, 2L);
+        insertTransfer(boundary, newest - 10 * day, 3L);
+        insertTransfer(boundary, newest, 4L);
+        insertTransaction(newest);
+        retentionProperties.getTables().put("t_cryptotransferlists", Duration.ofDays(5L));
+
+        retentionPruner.prune();
+
+        assertThat(jdbcTemplate.queryForList("select c.relname from pg_inherits i join pg_class c " +
+                "on c.oid = i.inhrelid where i.inhparent = 't_cryptotransferlists'::regclass", String.class))
+                .contains(boundary)
+                .doesNotContain(expired);
+        assertThat(jdbcTemplate.queryForList("select entity_num from t_cryptotransferlists", Long.class))
+                .containsExactly(4L);
+    }
+
+    @Test
+    void unlistedTablesKept() {
+        insertTransfer(SECOND, 1L);
+        insertTransfer(10 * SECOND, 1L);
+        retentionProperties.getTables().put("topic_message", Duration.ofSeconds(1L));
+
+        retentionPruner.prune();
+
+        assertThat(jdbcTemplate.queryForObject("select count(*) from t_cryptotransferlists", Integer.class))
+                .isEqualTo(2);
+    }
+
+    @Test
+    void disabled() {
+        insertTransfer(SECOND, 1L);
+        insertTransfer(10 * SECOND, 1L);
+        retentionProperties.setEnabled(false);
+        retentionProperties.getTables().put("t_cryptotransferlists", Duration.ofSeconds(1L));
+
+        retentionPruner.prune();
+
+        assertThat(jdbcTemplate.queryForObject("select count(*) from t_cryptotransferlists", Integer.class))
+                .isEqualTo(2);
+    }
+
+    private void insertTransfer(long consensusTimestamp, long entityNum) {
+        insertTransfer("t_cryptotransferlists", consensusTimestamp, entityNum);
+    }
+
+    private void insertTransfer(String table, long consensusTimestamp, long entityNum) {
+        jdbcTemplate.update("insert into " + table + " (consensus_timestamp, realm_num, entity_num, amount) " +
+                "values (?, 0, ?, 1)", consensusTimestamp, entityNum);
+    }
+
+    private void insertBalance(long consensusTimestamp, long accountNum) {
+        jdbcTemplate.update("insert into account_balances (consensus_timestamp, balance, account_realm_num, " +
+                "account_num) values (?, 1, 0, ?)", consensusTimestamp, accountNum);
+    }
+
+    private void insertTransaction(long consensusTimestamp) {
+        jdbcTemplate.update("insert into t_transactions (consensus_ns, fk_node_acc_id, fk_payer_acc_id, " +
+                "valid_start_ns, result, type) values (?, 3, 2, ?, 22, 14)", consensusTimestamp, consensusTimestamp);
+    }
+
+    private double rowsPruned(String table) {
+        return meterRegistry.counter("hedera.mirror.retention.rows", "table", table).count();
+    }
+}
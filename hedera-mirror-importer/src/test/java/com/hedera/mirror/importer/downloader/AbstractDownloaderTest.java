@@ -22,6 +22,7 @@ package com.hedera.mirror.importer.downloader;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.reset;
 import static org.mockito.Mockito.verify;
 
@@ -48,11 +49,13 @@ import com.hedera.mirror.importer.config.MirrorImporterConfiguration;
 import com.hedera.mirror.importer.domain.ApplicationStatusCode;
 import com.hedera.mirror.importer.domain.HederaNetwork;
 import com.hedera.mirror.importer.repository.ApplicationStatusRepository;
+import com.hedera.mirror.importer.stream.StreamStateTracker;
 import com.hedera.mirror.importer.util.Utility;
 
 public abstract class AbstractDownloaderTest {
     @Mock(answer = Answers.RETURNS_SMART_NULLS)
     protected ApplicationStatusRepository applicationStatusRepository;
+    protected StreamStateTracker streamStateTracker;
     @TempDir
     protected Path s3Path;
     protected S3Mock s3;
@@ -81,8 +84,8 @@ public abstract class AbstractDownloaderTest {
     // Implementation can assume that mirrorProperties and commonDownloaderProperties have been initialized.
     protected abstract DownloaderProperties getDownloaderProperties();
 
-    // Implementations can assume that s3AsyncClient, applicationStatusRepository, networkAddressBook and
-    // downloaderProperties have been initialized.
+    // Implementations can assume that s3AsyncClient, streamStateTracker, networkAddressBook and downloaderProperties
+    // have been initialized.
     protected abstract Downloader getDownloader();
 
     protected abstract Path getTestDataDir();
@@ -98,6 +101,7 @@ public abstract class AbstractDownloaderTest {
         initProperties();
         s3AsyncClient = new MirrorImporterConfiguration(commonDownloaderProperties).s3AsyncClient();
         networkAddressBook = new NetworkAddressBook(mirrorProperties);
+        streamStateTracker = new StreamStateTracker(applicationStatusRepository);
         downloader = getDownloader();
 
         fileCopier = FileCopier.create(Utility.getResource("data").toPath(), s3Path)
@@ -148,11 +152,13 @@ public abstract class AbstractDownloaderTest {
             throws Exception {
         fileCopier.copy();
         downloader.download();
-        verify(applicationStatusRepository).updateStatusValue(key, fileName1);
+        verify(applicationStatusRepository, never()).updateStatusValue(key, fileName1);
         verify(applicationStatusRepository).updateStatusValue(key, fileName2);
+        assertThat(streamStateTracker.get(key)).isEqualTo(fileName2);
         assertValidFiles(List.of(fileName1, fileName2));
 
         reset(applicationStatusRepository);
+        streamStateTracker.clear();
         // Corrupt the downloaded signatures to test that they get overwritten by good ones on re-download.
         Files.walk(downloaderProperties.getStreamPath()).filter(this::isSigFile)
                 .forEach(AbstractDownloaderTest::corruptFile);
@@ -160,7 +166,6 @@ public abstract class AbstractDownloaderTest {
         // results. This is unlike AWS S3 which does not return back the marker.
         doReturn(fileName1).when(applicationStatusRepository).findByStatusCode(key);
         downloader.download();
-        verify(applicationStatusRepository).updateStatusValue(key, fileName1);
         verify(applicationStatusRepository).updateStatusValue(key, fileName2);
         assertValidFiles(List.of(fileName1, fileName2));
     }
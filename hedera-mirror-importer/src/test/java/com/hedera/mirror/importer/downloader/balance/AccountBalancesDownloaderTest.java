@@ -49,7 +49,7 @@ public class AccountBalancesDownloaderTest extends AbstractDownloaderTest {
 
     @Override
     protected Downloader getDownloader() {
-        return new AccountBalancesDownloader(s3AsyncClient, applicationStatusRepository, networkAddressBook,
+        return new AccountBalancesDownloader(s3AsyncClient, streamStateTracker, networkAddressBook,
                 (BalanceDownloaderProperties) downloaderProperties);
     }
 
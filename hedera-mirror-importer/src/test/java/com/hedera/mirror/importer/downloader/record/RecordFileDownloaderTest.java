@@ -23,7 +23,7 @@ package com.hedera.mirror.importer.downloader.record;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doReturn;
-import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.verify;
 
 import com.google.common.primitives.Bytes;
@@ -35,6 +35,8 @@ import java.util.List;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.util.ResourceUtils;
 
@@ -43,11 +45,15 @@ import com.hedera.mirror.importer.domain.ApplicationStatusCode;
 import com.hedera.mirror.importer.downloader.AbstractDownloaderTest;
 import com.hedera.mirror.importer.downloader.Downloader;
 import com.hedera.mirror.importer.downloader.DownloaderProperties;
+import com.hedera.mirror.importer.parser.record.RecordFileQueue;
 import com.hedera.mirror.importer.util.Utility;
 
 @ExtendWith(MockitoExtension.class)
 public class RecordFileDownloaderTest extends AbstractDownloaderTest {
 
+    @Mock
+    private RecordFileQueue recordFileQueue;
+
     @Override
     protected DownloaderProperties getDownloaderProperties() {
         DownloaderProperties properties = new RecordDownloaderProperties(mirrorProperties, commonDownloaderProperties);
@@ -57,8 +63,8 @@ public class RecordFileDownloaderTest extends AbstractDownloaderTest {
 
     @Override
     protected Downloader getDownloader() {
-        return new RecordFileDownloader(s3AsyncClient, applicationStatusRepository, networkAddressBook,
-                (RecordDownloaderProperties) downloaderProperties);
+        return new RecordFileDownloader(s3AsyncClient, streamStateTracker, networkAddressBook,
+                (RecordDownloaderProperties) downloaderProperties, recordFileQueue);
     }
 
     @Override
@@ -78,11 +84,9 @@ public class RecordFileDownloaderTest extends AbstractDownloaderTest {
 
         downloader.download();
 
-        verify(applicationStatusRepository).updateStatusValue(
-                ApplicationStatusCode.LAST_VALID_DOWNLOADED_RECORD_FILE, "2019-07-01T14:13:00.317763Z.rcd");
         verify(applicationStatusRepository).updateStatusValue(
                 ApplicationStatusCode.LAST_VALID_DOWNLOADED_RECORD_FILE, "2019-07-01T14:29:00.302068Z.rcd");
-        verify(applicationStatusRepository, times(2)).updateStatusValue(
+        verify(applicationStatusRepository).updateStatusValue(
                 eq(ApplicationStatusCode.LAST_VALID_DOWNLOADED_RECORD_FILE_HASH), any());
         assertValidFiles(List.of("2019-07-01T14:13:00.317763Z.rcd", "2019-07-01T14:29:00.302068Z.rcd"));
     }
@@ -92,13 +96,15 @@ public class RecordFileDownloaderTest extends AbstractDownloaderTest {
     void downloadV2() throws Exception {
         fileCopier.copy();
         downloader.download();
-        verify(applicationStatusRepository).updateStatusValue(
-                ApplicationStatusCode.LAST_VALID_DOWNLOADED_RECORD_FILE, "2019-08-30T18_10_00.419072Z.rcd");
         verify(applicationStatusRepository).updateStatusValue(
                 ApplicationStatusCode.LAST_VALID_DOWNLOADED_RECORD_FILE, "2019-08-30T18_10_05.249678Z.rcd");
-        verify(applicationStatusRepository, times(2)).updateStatusValue(
+        verify(applicationStatusRepository).updateStatusValue(
                 eq(ApplicationStatusCode.LAST_VALID_DOWNLOADED_RECORD_FILE_HASH), any());
         assertValidFiles(List.of("2019-08-30T18_10_05.249678Z.rcd", "2019-08-30T18_10_00.419072Z.rcd"));
+
+        InOrder inOrder = inOrder(recordFileQueue);
+        inOrder.verify(recordFileQueue).put(validPath.resolve("2019-08-30T18_10_00.419072Z.rcd").toFile());
+        inOrder.verify(recordFileQueue).put(validPath.resolve("2019-08-30T18_10_05.249678Z.rcd").toFile());
     }
 
     @Test
@@ -106,11 +112,9 @@ public class RecordFileDownloaderTest extends AbstractDownloaderTest {
     void partialConsensus() throws Exception {
         fileCopier.filterDirectories("*0.0.3").filterDirectories("*0.0.4").filterDirectories("*0.0.5").copy();
         downloader.download();
-        verify(applicationStatusRepository).updateStatusValue(
-                ApplicationStatusCode.LAST_VALID_DOWNLOADED_RECORD_FILE, "2019-08-30T18_10_00.419072Z.rcd");
         verify(applicationStatusRepository).updateStatusValue(
                 ApplicationStatusCode.LAST_VALID_DOWNLOADED_RECORD_FILE, "2019-08-30T18_10_05.249678Z.rcd");
-        verify(applicationStatusRepository, times(2)).updateStatusValue(
+        verify(applicationStatusRepository).updateStatusValue(
                 eq(ApplicationStatusCode.LAST_VALID_DOWNLOADED_RECORD_FILE_HASH), any());
         assertValidFiles(List.of("2019-08-30T18_10_05.249678Z.rcd", "2019-08-30T18_10_00.419072Z.rcd"));
     }
@@ -127,11 +131,9 @@ public class RecordFileDownloaderTest extends AbstractDownloaderTest {
         fileCopier.filterDirectories("*0.0.3").copy();
         downloader.download();
 
-        verify(applicationStatusRepository).updateStatusValue(
-                ApplicationStatusCode.LAST_VALID_DOWNLOADED_RECORD_FILE, "2019-08-30T18_10_00.419072Z.rcd");
         verify(applicationStatusRepository).updateStatusValue(
                 ApplicationStatusCode.LAST_VALID_DOWNLOADED_RECORD_FILE, "2019-08-30T18_10_05.249678Z.rcd");
-        verify(applicationStatusRepository, times(2)).updateStatusValue(
+        verify(applicationStatusRepository).updateStatusValue(
                 eq(ApplicationStatusCode.LAST_VALID_DOWNLOADED_RECORD_FILE_HASH), any());
         assertValidFiles(List.of("2019-08-30T18_10_05.249678Z.rcd", "2019-08-30T18_10_00.419072Z.rcd"));
     }
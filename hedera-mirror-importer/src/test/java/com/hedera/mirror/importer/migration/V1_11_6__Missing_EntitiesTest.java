@@ -33,6 +33,8 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.sql.Connection;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
 import javax.annotation.Resource;
 import javax.sql.DataSource;
 import org.apache.commons.codec.binary.Base64;
@@ -207,6 +209,24 @@ public class V1_11_6__Missing_EntitiesTest extends IntegrationTest {
                 .containsOnlyNulls();
     }
 
+    @Test
+    void multipleChunks() throws Exception {
+        int count = V1_11_6__Missing_Entities.CHUNK_SIZE + 1;
+        List<String> lines = new ArrayList<>();
+        for (int i = 1; i <= count; i++) {
+            AccountID id = accountId.toBuilder().setAccountNum(i).build();
+            lines.add(Base64.encodeBase64String(accountInfo().setAccountID(id).build().toByteArray()));
+        }
+        Files.write(migration.getAccountInfoPath(), lines);
+
+        migration.migrate(new FlywayContext());
+
+        // The proxy account 0.0.2 is also one of the accounts in the file
+        assertThat(entityRepository.count()).isEqualTo(count);
+        assertThat(jdbcTemplate.queryForObject("select count(*) from t_entities where key is not null",
+                Integer.class)).isEqualTo(count);
+    }
+
     private AccountInfo.Builder accountInfo() throws Exception {
         return AccountInfo.newBuilder()
                 .setAccountID(accountId)
@@ -28,6 +28,8 @@ import javax.transaction.Transactional;
 
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.jdbc.Sql;
 
 import com.hedera.mirror.importer.IntegrationTest;
 
@@ -37,9 +39,14 @@ public class AccountBalancesFileLoaderTest extends IntegrationTest {
     @Value("classpath:data/accountBalances/balance0.0.3/2019-08-30T18_15_00.016002001Z_Balances.csv")
     private Path path;
 
+    private static final long CONSENSUS_TIMESTAMP = 1567188900016002001L;
+
     @Resource
     private BalanceParserProperties parserProperties;
 
+    @Resource
+    private JdbcTemplate jdbcTemplate;
+
     @Test
     public void positiveSmallFile() throws Exception {
         // The test has a 2 line header and 2 data lines.
@@ -51,4 +58,49 @@ public class AccountBalancesFileLoaderTest extends IntegrationTest {
         );
         // TODO assert the rows actually added to the database.
     }
+
+    // Not in a test transaction since the loader's connection needs to see the data and lock the current balances
+    @Test
+    @Sql(executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD, scripts = "classpath:db/scripts/cleanup.sql")
+    @Sql(executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD, scripts = "classpath:db/scripts/cleanup.sql")
+    @Transactional(Transactional.TxType.NOT_SUPPORTED)
+    public void reconcileCurrentBalances() throws Exception {
+        jdbcTemplate.update("insert into account_balance_current values (0, 1, 1000, 1), (0, 2, 5, 1)");
+        jdbcTemplate.update("insert into t_cryptotransferlists (consensus_timestamp, amount, realm_num, entity_num) " +
+                "values (?, 10, 0, 1), (?, 20, 0, 1)", CONSENSUS_TIMESTAMP, CONSENSUS_TIMESTAMP + 1);
+        jdbcTemplate.update("insert into t_transactions (fk_node_acc_id, fk_payer_acc_id, valid_start_ns, " +
+                "consensus_ns, result, type) values (3, 2, 0, ?, 22, 14)", CONSENSUS_TIMESTAMP + 1);
+
+        try (var cut = new AccountBalancesFileLoader(parserProperties, path)) {
+            assertTrue(cut.loadAccountBalances());
+        }
+
+        // Transfers at or before the balance file's timestamp are already included in its balances
+        assertEquals(270L, balance(1));
+        assertEquals(2588856875379417355L, balance(2));
+        assertEquals(235713285725910423L, balance(3));
+        assertEquals(25391, jdbcTemplate.queryForObject("select count(*) from account_balance_current",
+                Integer.class));
+    }
+
+    @Test
+    @Sql(executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD, scripts = "classpath:db/scripts/cleanup.sql")
+    @Sql(executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD, scripts = "classpath:db/scripts/cleanup.sql")
+    @Transactional(Transactional.TxType.NOT_SUPPORTED)
+    public void reconcileCurrentBalancesWhenRecordsBehind() throws Exception {
+        jdbcTemplate.update("insert into account_balance_current values (0, 1, 1000, 1)");
+
+        try (var cut = new AccountBalancesFileLoader(parserProperties, path)) {
+            assertTrue(cut.loadAccountBalances());
+        }
+
+        assertEquals(1000L, balance(1));
+        assertEquals(1, jdbcTemplate.queryForObject("select count(*) from account_balance_current",
+                Integer.class));
+    }
+
+    private long balance(long num) {
+        return jdbcTemplate.queryForObject("select balance from account_balance_current where realm_num = 0 and " +
+                "entity_num = ?", Long.class, num);
+    }
 }
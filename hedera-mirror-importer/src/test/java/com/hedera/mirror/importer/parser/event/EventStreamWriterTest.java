@@ -0,0 +1,158 @@
+package com.hedera.mirror.importer.parser.event;
+
+/*-
+ * ‌
+ * Hedera Mirror Node
+ * ​
+ * Copyright (C) 2019 - 2020 Hedera Hashgraph, LLC
+ * ​
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ‍
+ */
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Instant;
+import javax.annotation.Resource;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.jdbc.Sql;
+
+import com.hedera.mirror.importer.IntegrationTest;
+
+@Sql(executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD, scripts = "classpath:db/scripts/cleanup.sql")
+@Sql(executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD, scripts = "classpath:db/scripts/cleanup.sql")
+public class EventStreamWriterTest extends IntegrationTest {
+
+    @Resource
+    private EventStreamWriter eventStreamWriter;
+
+    @Resource
+    private EventParserProperties parserProperties;
+
+    @Resource
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void parentsResolvedWithinFile() {
+        Event parent = event(1, null, null);
+        Event child = event(2, parent.getHash(), null);
+        Event grandchild = event(3, child.getHash(), parent.getHash());
+
+        eventStreamWriter.onStart("file1");
+        eventStreamWriter.onEvent(parent);
+        eventStreamWriter.onEvent(child);
+        eventStreamWriter.onEvent(grandchild);
+        eventStreamWriter.onEnd("");
+
+        assertThat(count()).isEqualTo(3);
+        assertThat(selfParentId(child)).isEqualTo(id(parent));
+        assertThat(selfParentId(grandchild)).isEqualTo(id(child));
+        assertThat(otherParentId(grandchild)).isEqualTo(id(parent));
+    }
+
+    @Test
+    void parentsResolvedAcrossFilesAndBatches() {
+        int batchSize = parserProperties.getBatchSize();
+        parserProperties.setBatchSize(2);
+
+        try {
+            Event previous = event(1, null, null);
+            eventStreamWriter.onStart("file1");
+            eventStreamWriter.onEvent(previous);
+            eventStreamWriter.onEnd("");
+
+            eventStreamWriter.onStart("file2");
+            for (int i = 2; i <= 5; i++) {
+                Event current = event(i, previous.getHash(), null);
+                eventStreamWriter.onEvent(current);
+                previous = current;
+            }
+            eventStreamWriter.onEnd("");
+        } finally {
+            parserProperties.setBatchSize(batchSize);
+        }
+
+        assertThat(count()).isEqualTo(5);
+        assertThat(jdbcTemplate.queryForObject("select count(*) from t_events e join t_events p " +
+                "on e.self_parent_id = p.id and e.self_parent_hash = p.hash", Integer.class)).isEqualTo(4);
+    }
+
+    @Test
+    void rollbackInvalidatesCachedIds() {
+        Event parent = event(1, null, null);
+        eventStreamWriter.onStart("file1");
+        eventStreamWriter.onEvent(parent);
+        eventStreamWriter.onError();
+        assertThat(count()).isZero();
+
+        // Parent is re-inserted with a new id after the rollback
+        Event child = event(2, parent.getHash(), null);
+        eventStreamWriter.onStart("file1");
+        eventStreamWriter.onEvent(parent);
+        eventStreamWriter.onEvent(child);
+        eventStreamWriter.onEnd("");
+
+        assertThat(count()).isEqualTo(2);
+        assertThat(selfParentId(child)).isEqualTo(id(parent));
+    }
+
+    @Test
+    void unknownParent() {
+        Event orphan = event(1, new byte[] {9, 9, 9}, null);
+        eventStreamWriter.onStart("file1");
+        eventStreamWriter.onEvent(orphan);
+        eventStreamWriter.onEnd("");
+
+        assertThat(count()).isEqualTo(1);
+        assertThat(selfParentId(orphan)).isNull();
+    }
+
+    private Event event(long consensusOrder, byte[] selfParentHash, byte[] otherParentHash) {
+        Instant now = Instant.now();
+        return Event.builder()
+                .consensusOrder(consensusOrder)
+                .consensusTimestamp(now.plusNanos(consensusOrder))
+                .creatorId(0L)
+                .creatorSeq(consensusOrder)
+                .hash(new byte[] {0, 1, (byte) consensusOrder})
+                .otherId(1L)
+                .otherParentGen(0L)
+                .otherParentHash(otherParentHash)
+                .otherSeq(0L)
+                .selfParentGen(consensusOrder - 1)
+                .selfParentHash(selfParentHash)
+                .signature(new byte[] {2, 3})
+                .timeCreated(now)
+                .txCounts(new int[] {0, 0, 0})
+                .build();
+    }
+
+    private int count() {
+        return jdbcTemplate.queryForObject("select count(*) from t_events", Integer.class);
+    }
+
+    private Long id(Event event) {
+        return jdbcTemplate.queryForObject("select id from t_events where hash = ?", Long.class, event.getHash());
+    }
+
+    private Long selfParentId(Event event) {
+        return jdbcTemplate.queryForObject("select self_parent_id from t_events where hash = ?", Long.class,
+                event.getHash());
+    }
+
+    private Long otherParentId(Event event) {
+        return jdbcTemplate.queryForObject("select other_parent_id from t_events where hash = ?", Long.class,
+                event.getHash());
+    }
+}
@@ -0,0 +1,133 @@
+package com.hedera.mirror.importer.parser.record;
+
+/*-
+ * ‌
+ * Hedera Mirror Node
+ * ​
+ * Copyright (C) 2019 - 2020 Hedera Hashgraph, LLC
+ * ​
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ‍
+ */
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.hedera.mirror.importer.MirrorProperties;
+import com.hedera.mirror.importer.domain.RecordFile;
+import com.hedera.mirror.importer.domain.Transaction;
+import com.hedera.mirror.importer.exception.ParserException;
+import com.hedera.mirror.importer.parser.domain.StreamFileData;
+import com.hedera.mirror.importer.parser.record.segment.SegmentWriterProperties;
+import com.hedera.mirror.importer.parser.record.segment.SegmentWritingRecordParsedItemHandler;
+
+@ExtendWith(MockitoExtension.class)
+public class CompositeRecordParsedItemHandlerTest {
+
+    private final StreamFileData streamFileData = new StreamFileData("file1", null);
+    private final RecordFile recordFile = new RecordFile();
+    private final Transaction transaction = new Transaction();
+
+    @Mock
+    private PostgresWritingRecordParsedItemHandler postgresHandler;
+
+    @Mock
+    private SegmentWritingRecordParsedItemHandler segmentHandler;
+
+    private SegmentWriterProperties segmentWriterProperties;
+
+    @BeforeEach
+    void before() {
+        segmentWriterProperties = new SegmentWriterProperties(new MirrorProperties());
+        segmentWriterProperties.setEnabled(true);
+    }
+
+    @Test
+    void fansOut() {
+        CompositeRecordParsedItemHandler handler = handler();
+
+        assertFalse(handler.onStart(streamFileData));
+        handler.onTransaction(transaction);
+        handler.onEnd(recordFile);
+
+        InOrder inOrder = inOrder(postgresHandler, segmentHandler);
+        inOrder.verify(postgresHandler).onStart(streamFileData);
+        inOrder.verify(segmentHandler).onStart(streamFileData);
+        inOrder.verify(postgresHandler).onTransaction(transaction);
+        inOrder.verify(segmentHandler).onTransaction(transaction);
+        inOrder.verify(segmentHandler).onEnd(recordFile);
+        inOrder.verify(postgresHandler).onEnd(recordFile);
+    }
+
+    @Test
+    void replayOnlyToDatabase() {
+        when(postgresHandler.onStart(streamFileData)).thenReturn(true);
+        CompositeRecordParsedItemHandler handler = handler();
+
+        assertTrue(handler.onStart(streamFileData));
+        handler.onTransaction(transaction);
+        handler.onEnd(recordFile);
+
+        verify(postgresHandler).onTransaction(transaction);
+        verify(postgresHandler).onEnd(recordFile);
+        verify(segmentHandler, never()).onStart(any());
+        verify(segmentHandler, never()).onTransaction(any());
+        verify(segmentHandler, never()).onEnd(any());
+    }
+
+    @Test
+    void disabled() {
+        segmentWriterProperties.setEnabled(false);
+        CompositeRecordParsedItemHandler handler = handler();
+
+        handler.onStart(streamFileData);
+        handler.onTransaction(transaction);
+        handler.onEnd(recordFile);
+
+        verify(postgresHandler).onEnd(recordFile);
+        verify(segmentHandler, never()).onStart(any());
+        verify(segmentHandler, never()).onTransaction(any());
+    }
+
+    @Test
+    void errorRollsBackAll() {
+        doThrow(new ParserException("segment")).when(segmentHandler).onEnd(recordFile);
+        doThrow(new ParserException("rollback")).when(postgresHandler).onError();
+        CompositeRecordParsedItemHandler handler = handler();
+
+        handler.onStart(streamFileData);
+        assertThatThrownBy(() -> handler.onEnd(recordFile)).isInstanceOf(ParserException.class);
+        handler.onError();
+
+        verify(postgresHandler, never()).onEnd(any());
+        verify(postgresHandler).onError();
+        verify(segmentHandler).onError();
+    }
+
+    private CompositeRecordParsedItemHandler handler() {
+        return new CompositeRecordParsedItemHandler(postgresHandler, segmentHandler, segmentWriterProperties);
+    }
+}
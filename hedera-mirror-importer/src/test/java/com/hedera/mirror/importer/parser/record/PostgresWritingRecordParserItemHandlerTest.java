@@ -21,13 +21,18 @@ package com.hedera.mirror.importer.parser.record;
  */
 
 import com.hedera.mirror.importer.IntegrationTest;
+import com.hedera.mirror.importer.db.PartitionManager;
 import com.hedera.mirror.importer.domain.*;
 import com.hedera.mirror.importer.exception.DuplicateFileException;
 import com.hedera.mirror.importer.parser.domain.StreamFileData;
 import com.hedera.mirror.importer.repository.*;
+import com.hedera.mirror.importer.stream.StreamStateTracker;
 import org.junit.jupiter.api.BeforeEach;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
 import org.junit.jupiter.api.Test;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.test.context.jdbc.Sql;
 import org.testcontainers.shaded.org.bouncycastle.util.Strings;
 
@@ -35,7 +40,10 @@ import javax.annotation.Resource;
 import javax.sql.DataSource;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -78,6 +86,21 @@ public class PostgresWritingRecordParserItemHandlerTest extends IntegrationTest
     @Resource
     protected PostgresWriterProperties postgresWriterProperties;
 
+    @Resource
+    protected ApplicationStatusRepository applicationStatusRepository;
+
+    @Resource
+    protected StreamStateTracker streamStateTracker;
+
+    @Resource
+    protected PartitionManager partitionManager;
+
+    @Resource
+    protected JdbcTemplate jdbcTemplate;
+
+    @Resource
+    protected DataSource dataSource;
+
     private String fileName;
 
     @BeforeEach
@@ -124,6 +147,27 @@ public class PostgresWritingRecordParserItemHandlerTest extends IntegrationTest
         assertExistsAndEquals(nonFeeTransferRepository, nonFeeTransfer2, 2L);
     }
 
+    @Test
+    void onNonFeeTransferRepeatedInIdempotentMode() throws Exception {
+        // given: a transaction that repeats the same transfer, as a failed transfer can
+        postgresWriter.onError(); // discard the non-idempotent connection opened by beforeEach
+        postgresWriterProperties.setIdempotent(true);
+        NonFeeTransfer nonFeeTransfer = new NonFeeTransfer(1L, 1L, 0L, 1L);
+
+        // when
+        try {
+            postgresWriter.onStart(new StreamFileData(fileName, null));
+            postgresWriter.onNonFeeTransfer(nonFeeTransfer);
+            postgresWriter.onNonFeeTransfer(nonFeeTransfer);
+            completeFileAndCommit();
+        } finally {
+            postgresWriterProperties.setIdempotent(false);
+        }
+
+        // then
+        assertEquals(2, nonFeeTransferRepository.count());
+    }
+
     @Test
     void onTopicMessage() throws Exception {
         // given
@@ -140,6 +184,31 @@ public class PostgresWritingRecordParserItemHandlerTest extends IntegrationTest
         assertExistsAndEquals(topicMessageRepository, expectedTopicMessage, 1L);
     }
 
+    @Test
+    void onTopicMessageNotifies() throws Exception {
+        // given
+        byte[] message = Strings.toByteArray("test message");
+        byte[] runningHash = Strings.toByteArray("running hash");
+        TopicMessage topicMessage1 = new TopicMessage(1L, message, 0, runningHash, 10L, 1001);
+        TopicMessage topicMessage2 = new TopicMessage(2L, message, 0, runningHash, 11L, 1001);
+
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.execute("listen topic_message");
+
+            // when
+            postgresWriter.onTopicMessage(topicMessage1);
+            postgresWriter.onTopicMessage(topicMessage2);
+            completeFileAndCommit();
+
+            // then
+            PGNotification[] notifications = connection.unwrap(PGConnection.class).getNotifications(1000);
+            assertEquals(1, notifications.length);
+            assertEquals("2", notifications[0].getParameter());
+            statement.execute("unlisten topic_message");
+        }
+    }
+
     @Test
     void onFileData() throws Exception {
         // given
@@ -154,6 +223,44 @@ public class PostgresWritingRecordParserItemHandlerTest extends IntegrationTest
         assertExistsAndEquals(fileDataRepository, expectedFileData, 11L);
     }
 
+    @Test
+    void onFileDataCompressed() throws Exception {
+        // given
+        byte[] data = new byte[postgresWriterProperties.getCompressThreshold() * 4];
+        Arrays.fill(data, (byte) 'a');
+        FileData expectedFileData = new FileData(11L, data);
+        postgresWriterProperties.setCompress(true);
+
+        // when
+        try {
+            postgresWriter.onFileData(expectedFileData);
+            completeFileAndCommit();
+        } finally {
+            postgresWriterProperties.setCompress(false);
+        }
+
+        // then
+        assertTrue(jdbcTemplate.queryForObject("select length(file_data) from t_file_data", Integer.class) <
+                data.length);
+        assertExistsAndEquals(fileDataRepository, expectedFileData, 11L);
+    }
+
+    @Test
+    void onFileDataWithPayloadMarker() throws Exception {
+        // given
+        byte[] data = {0x00, 'H', 'M', 'C', 0x00, 1, 2, 3};
+        FileData expectedFileData = new FileData(11L, data);
+
+        // when
+        postgresWriter.onFileData(expectedFileData);
+        completeFileAndCommit();
+
+        // then
+        assertEquals(data.length + 5, jdbcTemplate.queryForObject("select length(file_data) from t_file_data",
+                Integer.class));
+        assertExistsAndEquals(fileDataRepository, expectedFileData, 11L);
+    }
+
     @Test
     void onContractResult() throws Exception {
         // given
@@ -183,6 +290,43 @@ public class PostgresWritingRecordParserItemHandlerTest extends IntegrationTest
         assertExistsAndEquals(liveHashRepository, expectedLiveHash, 20L);
     }
 
+    @Test
+    void findByTransactionHash() {
+        // given: two transactions with the same hash prefix
+        byte[] hash = Strings.toByteArray("transactionHash1");
+        byte[] otherHash = Strings.toByteArray("transactionHash2");
+        Transaction transaction = transaction(1L, 14, 22, 10L);
+        transaction.setTransactionHash(hash);
+        Transaction otherTransaction = transaction(2L, 14, 22, 10L);
+        otherTransaction.setTransactionHash(otherHash);
+
+        // when
+        postgresWriter.onTransaction(transaction);
+        postgresWriter.onTransaction(otherTransaction);
+        completeFileAndCommit();
+
+        // then
+        assertEquals(1L, transactionRepository.findByTransactionHash(hash).get().getConsensusNs());
+        assertEquals(2L, transactionRepository.findByTransactionHash(otherHash).get().getConsensusNs());
+        assertFalse(transactionRepository.findByTransactionHash(Strings.toByteArray("transactionHash3"))
+                .isPresent());
+        assertEquals(2, jdbcTemplate.queryForObject("select count(*) from transaction_hash_prefix", Integer.class));
+    }
+
+    @Test
+    void onEntityActivity() {
+        // when
+        postgresWriter.onEntityActivity(new EntityActivity(5L, 1L, EntityActivity.Role.PAYER));
+        postgresWriter.onEntityActivity(new EntityActivity(5L, 1L, EntityActivity.Role.TRANSFER));
+        postgresWriter.onEntityActivity(new EntityActivity(6L, 1L, EntityActivity.Role.TRANSFER));
+        completeFileAndCommit();
+
+        // then
+        assertEquals(List.of(List.of(5L, 1L, 1), List.of(5L, 1L, 2), List.of(6L, 1L, 2)),
+                jdbcTemplate.query("select * from entity_activity order by entity_id, role", (rs, rowNum) ->
+                        List.of(rs.getLong("entity_id"), rs.getLong("consensus_timestamp"), rs.getInt("role"))));
+    }
+
     @Test
     void onTransaction() throws Exception {
         // given
@@ -207,18 +351,25 @@ public class PostgresWritingRecordParserItemHandlerTest extends IntegrationTest
         postgresWriterProperties.setBatchSize(batchSize);
 
         Connection connection = mock(Connection.class);
-        List<PreparedStatement> insertStatements = new ArrayList<>(); // tracks all PreparedStatements
-        when(connection.prepareStatement(any())).then(ignored -> {
+        List<PreparedStatement> insertStatements = new ArrayList<>(); // tracks all batched PreparedStatements
+        when(connection.prepareStatement(any())).then(invocation -> {
             PreparedStatement preparedStatement = mock(PreparedStatement.class);
-            when(preparedStatement.executeBatch()).thenReturn(new int[]{});
-            insertStatements.add(preparedStatement);
+            if (invocation.getArgument(0, String.class).startsWith("insert into t_record_files")) {
+                ResultSet resultSet = mock(ResultSet.class);
+                when(resultSet.next()).thenReturn(true);
+                when(preparedStatement.executeQuery()).thenReturn(resultSet);
+            } else {
+                when(preparedStatement.executeBatch()).thenReturn(new int[] {});
+                insertStatements.add(preparedStatement);
+            }
             return preparedStatement;
         });
 
         DataSource dataSource = mock(DataSource.class);
         when(dataSource.getConnection()).thenReturn(connection);
         PostgresWritingRecordParsedItemHandler postgresWriter2 =
-                new PostgresWritingRecordParsedItemHandler(postgresWriterProperties, dataSource, recordFileRepository);
+                new PostgresWritingRecordParsedItemHandler(postgresWriterProperties, dataSource, streamStateTracker,
+                        partitionManager);
         postgresWriter2.onStart(new StreamFileData(UUID.randomUUID().toString(), null)); // setup connection
 
         // when
@@ -259,7 +410,152 @@ public class PostgresWritingRecordParserItemHandlerTest extends IntegrationTest
         postgresWriter.onError();  // close connection
     }
 
-    // TODO: add test to check contents of recordFileRepo
+    @Test
+    void replayInIdempotentMode() throws Exception {
+        postgresWriter.onError(); // discard the non-idempotent connection opened by beforeEach
+        postgresWriterProperties.setIdempotent(true);
+
+        try {
+            // given: file processed once
+            assertFalse(postgresWriter.onStart(new StreamFileData(fileName, null)));
+            onAllItems();
+            postgresWriter.onEnd(new RecordFile(null, fileName, 1L, 2L, "abc", "def"));
+
+            // when: the same file is replayed
+            assertTrue(postgresWriter.onStart(new StreamFileData(fileName, null)));
+            onAllItems();
+            postgresWriter.onEnd(new RecordFile(null, fileName, 3L, 4L, "abc", "xyz"));
+        } finally {
+            postgresWriterProperties.setIdempotent(false);
+        }
+
+        // then
+        assertEquals(1, transactionRepository.count());
+        assertEquals(1, cryptoTransferRepository.count());
+        assertEquals(1, nonFeeTransferRepository.count());
+        assertEquals(1, topicMessageRepository.count());
+        assertEquals(1, fileDataRepository.count());
+        assertEquals(1, contractResultRepository.count());
+        assertEquals(1, liveHashRepository.count());
+        List<RecordFile> recordFiles = recordFileRepository.findByName(fileName);
+        assertEquals(1, recordFiles.size());
+        assertEquals(new RecordFile(recordFiles.get(0).getId(), fileName, 1L, 2L, "abc", "def"), recordFiles.get(0));
+        assertEquals("abc", streamStateTracker.get(ApplicationStatusCode.LAST_PROCESSED_RECORD_HASH));
+        assertEquals(1L, balance(1L));
+        assertEquals(List.of(List.of(0L, 0, 0, 1L, 1L)), rollups("second"));
+    }
+
+    @Test
+    void balancesUpdatedFromTransfers() {
+        // given: transfers in a file that's rolled back
+        postgresWriter.onCryptoTransferList(new CryptoTransfer(1L, 100L, 0L, 1L));
+        postgresWriter.onError();
+
+        // when: two files are processed
+        postgresWriter.onStart(new StreamFileData(fileName, null));
+        postgresWriter.onCryptoTransferList(new CryptoTransfer(2L, 10L, 0L, 1L));
+        postgresWriter.onCryptoTransferList(new CryptoTransfer(2L, -10L, 0L, 2L));
+        postgresWriter.onCryptoTransferList(new CryptoTransfer(3L, 5L, 0L, 1L));
+        postgresWriter.onCryptoTransferList(new CryptoTransfer(3L, -5L, 0L, 3L));
+        completeFileAndCommit();
+
+        fileName = UUID.randomUUID().toString();
+        postgresWriter.onStart(new StreamFileData(fileName, null));
+        postgresWriter.onCryptoTransferList(new CryptoTransfer(4L, -1L, 0L, 1L));
+        postgresWriter.onCryptoTransferList(new CryptoTransfer(4L, 1L, 0L, 2L));
+        completeFileAndCommit();
+
+        // then
+        assertEquals(14L, balance(1L));
+        assertEquals(-9L, balance(2L));
+        assertEquals(-5L, balance(3L));
+        assertEquals(4L, jdbcTemplate.queryForObject("select consensus_timestamp from account_balance_current " +
+                "where realm_num = 0 and entity_num = 1", Long.class));
+    }
+
+    @Test
+    void rollupsUpdatedFromTransactions() {
+        long minute = 60_000_000_000L;
+        long hour = 60 * minute;
+
+        // given: a transaction in a file that's rolled back
+        postgresWriter.onTransaction(transaction(hour + 1L, 14, 22, 1000L));
+        postgresWriter.onError();
+
+        // when: two files are processed
+        postgresWriter.onStart(new StreamFileData(fileName, null));
+        postgresWriter.onTransaction(transaction(hour + 1L, 14, 22, 10L));
+        postgresWriter.onTransaction(transaction(hour + 2L, 14, 22, 20L));
+        postgresWriter.onTransaction(transaction(hour + 3L, 14, 11, 30L));
+        postgresWriter.onTransaction(transaction(hour + minute, 14, 22, 40L));
+        completeFileAndCommit();
+
+        fileName = UUID.randomUUID().toString();
+        postgresWriter.onStart(new StreamFileData(fileName, null));
+        postgresWriter.onTransaction(transaction(hour + minute + 4L, 14, 22, 50L));
+        postgresWriter.onTransaction(transaction(2 * hour, 27, 22, 60L));
+        completeFileAndCommit();
+
+        // then
+        assertEquals(List.of(
+                List.of(hour, 14, 11, 1L, 30L),
+                List.of(hour, 14, 22, 2L, 30L),
+                List.of(hour + minute, 14, 22, 2L, 90L),
+                List.of(2 * hour, 27, 22, 1L, 60L)), rollups("second"));
+        assertEquals(List.of(
+                List.of(hour, 14, 11, 1L, 30L),
+                List.of(hour, 14, 22, 2L, 30L),
+                List.of(hour + minute, 14, 22, 2L, 90L),
+                List.of(2 * hour, 27, 22, 1L, 60L)), rollups("minute"));
+        assertEquals(List.of(
+                List.of(hour, 14, 11, 1L, 30L),
+                List.of(hour, 14, 22, 4L, 120L),
+                List.of(2 * hour, 27, 22, 1L, 60L)), rollups("hour"));
+    }
+
+    @Test
+    void onEndPersistsRecordFileAndLastProcessedHash() {
+        // when
+        postgresWriter.onEnd(new RecordFile(null, fileName, 1L, 2L, "abc", "def"));
+
+        // then
+        List<RecordFile> recordFiles = recordFileRepository.findByName(fileName);
+        assertEquals(1, recordFiles.size());
+        RecordFile recordFile = recordFiles.get(0);
+        assertEquals(new RecordFile(recordFile.getId(), fileName, 1L, 2L, "abc", "def"), recordFile);
+        assertEquals("abc", applicationStatusRepository.findById(ApplicationStatusCode.LAST_PROCESSED_RECORD_HASH)
+                .get().getStatusValue());
+        assertEquals("abc", streamStateTracker.get(ApplicationStatusCode.LAST_PROCESSED_RECORD_HASH));
+    }
+
+    private void onAllItems() {
+        postgresWriter.onTransaction(new Transaction(101L, 0L, Strings.toByteArray("memo"), 0, 0, 1L, 1L, 1L, null,
+                1L, 1L, 1L, Strings.toByteArray("transactionHash"), null));
+        postgresWriter.onCryptoTransferList(new CryptoTransfer(101L, 1L, 0L, 1L));
+        postgresWriter.onNonFeeTransfer(new NonFeeTransfer(101L, 1L, 0L, 1L));
+        postgresWriter.onTopicMessage(new TopicMessage(101L, Strings.toByteArray("message"), 0,
+                Strings.toByteArray("running hash"), 10L, 1001));
+        postgresWriter.onFileData(new FileData(101L, Strings.toByteArray("file data")));
+        postgresWriter.onContractResult(new ContractResult(101L, Strings.toByteArray("function parameters"),
+                10000L, Strings.toByteArray("call result"), 10000L));
+        postgresWriter.onLiveHash(new LiveHash(101L, Strings.toByteArray("live hash")));
+    }
+
+    private Transaction transaction(long consensusNs, int type, int result, long chargedTxFee) {
+        return new Transaction(consensusNs, 0L, Strings.toByteArray("memo"), type, result, 1L, chargedTxFee, 1L,
+                null, 1L, 1L, 1L, Strings.toByteArray("transactionHash"), null);
+    }
+
+    private List<List<Object>> rollups(String interval) {
+        return jdbcTemplate.query("select * from transaction_rollup_" + interval + " order by consensus_timestamp, " +
+                "type, result", (rs, rowNum) -> List.of(rs.getLong("consensus_timestamp"), rs.getInt("type"),
+                rs.getInt("result"), rs.getLong("count"), rs.getLong("charged_tx_fee")));
+    }
+
+    private long balance(long entityNum) {
+        return jdbcTemplate.queryForObject("select balance from account_balance_current where realm_num = 0 and " +
+                "entity_num = ?", Long.class, entityNum);
+    }
 
     static <T, ID> void assertExistsAndEquals(CrudRepository<T, ID> repository, T expected, ID id) throws Exception {
         Optional<T> actual = repository.findById(id);
@@ -31,7 +31,9 @@ import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import java.io.File;
 import java.io.FileInputStream;
 import java.nio.file.Files;
@@ -42,11 +44,11 @@ import java.util.Set;
 import javax.annotation.Resource;
 import org.apache.commons.io.FileUtils;
 import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
 import org.mockito.ArgumentCaptor;
-import org.mockito.InjectMocks;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.test.context.jdbc.Sql;
@@ -60,6 +62,7 @@ import com.hedera.mirror.importer.exception.ParserSQLException;
 import com.hedera.mirror.importer.parser.RecordStreamFileListener;
 import com.hedera.mirror.importer.parser.domain.StreamFileData;
 import com.hedera.mirror.importer.repository.ApplicationStatusRepository;
+import com.hedera.mirror.importer.stream.StreamStateTracker;
 
 // Class manually commits so have to manually cleanup tables
 @Sql(executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD, scripts = "classpath:db/scripts/cleanup.sql")
@@ -71,16 +74,19 @@ public class RecordFileParserTest extends IntegrationTest {
     @Value("classpath:data")
     Path testPath;
     @Resource
-    @InjectMocks
-    private RecordFileParser recordFileParser;
-    @Resource
     private ApplicationStatusRepository applicationStatusRepository;
     @Resource
+    private MeterRegistry meterRegistry;
+    @Resource
+    private StreamStateTracker streamStateTracker;
+    @Resource
     private RecordParserProperties parserProperties;
     @MockBean
     private RecordItemListener recordItemListener;
     @MockBean
     private RecordStreamFileListener recordStreamFileListener;
+    private RecordFileParser recordFileParser;
+    private RecordFileQueue recordFileQueue;
     private FileCopier fileCopier;
     private StreamType streamType;
 
@@ -94,6 +100,11 @@ public class RecordFileParserTest extends IntegrationTest {
 
     @BeforeEach
     void before() {
+        streamStateTracker.clear();
+        // A new parser for each test so that it recovers files from the valid directory like it would on startup
+        recordFileQueue = new RecordFileQueue(parserProperties);
+        recordFileParser = new RecordFileParser(streamStateTracker, parserProperties, meterRegistry,
+                recordItemListener, recordStreamFileListener, recordFileQueue);
         parserProperties.setEnabled(true);
         parserProperties.setKeepFiles(false);
         streamType = parserProperties.getStreamType();
@@ -113,6 +124,11 @@ public class RecordFileParserTest extends IntegrationTest {
                 recordFile1.getFileHash());
     }
 
+    @AfterEach
+    void after() throws InterruptedException {
+        recordFileParser.close();
+    }
+
     @Test
     void parse() throws Exception {
         // given
@@ -138,6 +154,98 @@ public class RecordFileParserTest extends IntegrationTest {
         assertAllProcessed();
     }
 
+    @Test
+    void parseSingleThreaded() throws Exception {
+        // given
+        int threads = parserProperties.getThreads();
+        parserProperties.setThreads(1);
+        fileCopier.copy();
+
+        // when
+        RecordFileParser singleThreadedParser = new RecordFileParser(streamStateTracker, parserProperties,
+                meterRegistry, recordItemListener, recordStreamFileListener, recordFileQueue);
+        try {
+            singleThreadedParser.parse();
+        } finally {
+            parserProperties.setThreads(threads);
+            singleThreadedParser.close();
+        }
+
+        // then
+        assertAllProcessed();
+    }
+
+    @Test
+    void failureDiscardsLaterFiles() throws Exception {
+        // given: the second file is read while the first one fails to load
+        fileCopier.copy();
+        doThrow(ParserSQLException.class).when(recordStreamFileListener).onEnd(any());
+
+        // when
+        recordFileParser.parse();
+
+        // then
+        assertValidFiles();
+        verify(recordItemListener, times(NUM_TXNS_FILE_1)).onItem(any());
+        assertOnStart(file1.getPath());
+        verify(recordStreamFileListener).onError();
+    }
+
+    @Test
+    void parseQueuedFiles() throws Exception {
+        // given: startup recovery found nothing
+        recordFileParser.parse();
+        fileCopier.copy();
+        recordFileQueue.put(file1);
+        recordFileQueue.put(file2);
+
+        // when
+        recordFileParser.parse();
+
+        // then
+        assertAllProcessed();
+    }
+
+    @Test
+    void queuedFilesAlreadyRecovered() throws Exception {
+        // given: files are queued while they're also in the valid directory on startup
+        fileCopier.copy();
+        recordFileQueue.put(file1);
+        recordFileQueue.put(file2);
+
+        // when
+        recordFileParser.parse();
+        recordFileParser.parse();
+
+        // then
+        assertAllProcessed();
+    }
+
+    @Test
+    void recoverAfterError() throws Exception {
+        // given
+        recordFileParser.parse();
+        fileCopier.copy();
+        recordFileQueue.put(file1);
+        recordFileQueue.put(file2);
+        doThrow(ParserSQLException.class).doNothing().when(recordStreamFileListener).onEnd(any());
+
+        // when
+        recordFileParser.parse();
+
+        // then
+        assertValidFiles();
+
+        // when: file1 is no longer queued, but is found in the valid directory
+        recordFileParser.parse();
+
+        // then
+        assertParsedFiles();
+        assertFalse(Files.exists(file1.toPath()));
+        assertFalse(Files.exists(file2.toPath()));
+        verify(recordStreamFileListener).onError();
+    }
+
     @Test
     void disabled() throws Exception {
         // given
@@ -192,6 +300,20 @@ public class RecordFileParserTest extends IntegrationTest {
         verify(recordStreamFileListener).onError();
     }
 
+    @Test
+    void replayIgnoresHashChain() throws Exception {
+        // given: files were already loaded past the hash they link to
+        applicationStatusRepository.updateStatusValue(LAST_PROCESSED_RECORD_HASH, "123");
+        when(recordStreamFileListener.onStart(any())).thenReturn(true);
+        fileCopier.copy();
+
+        // when
+        recordFileParser.parse();
+
+        // then
+        assertAllProcessed();
+    }
+
     @Test
     void bypassHashMismatch() throws Exception {
         // given
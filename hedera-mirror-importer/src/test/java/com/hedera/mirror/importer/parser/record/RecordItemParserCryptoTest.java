@@ -44,15 +44,20 @@ import com.hederahashgraph.api.proto.java.TransactionReceipt;
 import com.hederahashgraph.api.proto.java.TransactionRecord;
 import com.hederahashgraph.api.proto.java.TransferList;
 import java.time.Instant;
+import java.util.List;
+import javax.annotation.Resource;
 import org.apache.commons.codec.binary.Hex;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.CsvSource;
+import org.springframework.jdbc.core.JdbcTemplate;
 
 import com.hedera.mirror.importer.domain.CryptoTransfer;
 import com.hedera.mirror.importer.domain.Entities;
+import com.hedera.mirror.importer.domain.EntityActivity;
+import com.hedera.mirror.importer.domain.EntityId;
 import com.hedera.mirror.importer.domain.LiveHash;
 import com.hedera.mirror.importer.parser.domain.RecordItem;
 import com.hedera.mirror.importer.util.Utility;
@@ -78,10 +83,14 @@ public class RecordItemParserCryptoTest extends AbstractRecordItemParserTest {
     private static final long[] transferAccounts = {98, 2002, 3};
     private static final long[] transferAmounts = {1000, -2000, 20};
 
+    @Resource
+    private JdbcTemplate jdbcTemplate;
+
     @BeforeEach
     void before() {
         parserProperties.getPersist().setClaims(true);
         parserProperties.getPersist().setCryptoTransferAmounts(true);
+        parserProperties.getPersist().setEntityActivity(true);
     }
 
     @Test
@@ -840,6 +849,37 @@ public class RecordItemParserCryptoTest extends AbstractRecordItemParserTest {
         verifyRepoCryptoTransferList(record);
     }
 
+    @Test
+    void cryptoTransferEntityActivity() throws Exception {
+        Transaction transaction = cryptoTransferTransaction();
+        TransactionBody transactionBody = TransactionBody.parseFrom(transaction.getBodyBytes());
+        TransactionRecord record = transactionRecordSuccess(transactionBody);
+
+        parseRecordItemAndCommit(new RecordItem(transaction, record));
+
+        long consensusTimestamp = Utility.timeStampInNanos(record.getConsensusTimestamp());
+        assertEquals(List.of(
+                List.of(EntityId.encode(0, 0, 2), consensusTimestamp, EntityActivity.Role.PAYER.getId()),
+                List.of(EntityId.encode(0, 0, 3), consensusTimestamp, EntityActivity.Role.TRANSFER.getId()),
+                List.of(EntityId.encode(0, 0, 98), consensusTimestamp, EntityActivity.Role.TRANSFER.getId()),
+                List.of(EntityId.encode(0, 0, 2002), consensusTimestamp, EntityActivity.Role.TRANSFER.getId())),
+                jdbcTemplate.query("select * from entity_activity order by entity_id, role", (rs, rowNum) ->
+                        List.of(rs.getLong("entity_id"), rs.getLong("consensus_timestamp"), rs.getInt("role"))));
+    }
+
+    @Test
+    void cryptoTransferWithoutEntityActivity() throws Exception {
+        parserProperties.getPersist().setEntityActivity(false);
+        Transaction transaction = cryptoTransferTransaction();
+        TransactionBody transactionBody = TransactionBody.parseFrom(transaction.getBodyBytes());
+        TransactionRecord record = transactionRecordSuccess(transactionBody);
+
+        parseRecordItemAndCommit(new RecordItem(transaction, record));
+
+        assertEquals(1, transactionRepository.count());
+        assertEquals(0, jdbcTemplate.queryForObject("select count(*) from entity_activity", Integer.class));
+    }
+
     @Test
     void cryptoTransferWithoutPersistence() throws Exception {
         parserProperties.getPersist().setCryptoTransferAmounts(false);
@@ -0,0 +1,307 @@
+package com.hedera.mirror.importer.parser.record.segment;
+
+/*-
+ * ‌
+ * Hedera Mirror Node
+ * ​
+ * Copyright (C) 2019 - 2020 Hedera Hashgraph, LLC
+ * ​
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ‍
+ */
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.hedera.mirror.importer.MirrorProperties;
+import com.hedera.mirror.importer.domain.ContractResult;
+import com.hedera.mirror.importer.domain.CryptoTransfer;
+import com.hedera.mirror.importer.domain.Entities;
+import com.hedera.mirror.importer.domain.EntityActivity;
+import com.hedera.mirror.importer.domain.FileData;
+import com.hedera.mirror.importer.domain.LiveHash;
+import com.hedera.mirror.importer.domain.NonFeeTransfer;
+import com.hedera.mirror.importer.domain.RecordFile;
+import com.hedera.mirror.importer.domain.TopicMessage;
+import com.hedera.mirror.importer.domain.Transaction;
+import com.hedera.mirror.importer.parser.domain.StreamFileData;
+
+public class SegmentWritingRecordParsedItemHandlerTest {
+
+    @TempDir
+    Path dataPath;
+
+    private SegmentWriterProperties properties;
+    private SegmentWritingRecordParsedItemHandler handler;
+
+    @BeforeEach
+    void before() {
+        MirrorProperties mirrorProperties = new MirrorProperties();
+        mirrorProperties.setDataPath(dataPath);
+        properties = new SegmentWriterProperties(mirrorProperties);
+        handler = new SegmentWritingRecordParsedItemHandler(properties);
+    }
+
+    @AfterEach
+    void after() throws IOException {
+        handler.close();
+    }
+
+    @Test
+    void roundTrip() throws IOException {
+        Transaction transaction = new Transaction();
+        transaction.setConsensusNs(1L);
+        transaction.setNodeAccountId(3L);
+        transaction.setMemo(new byte[] {1, 2});
+        transaction.setType(14);
+        transaction.setResult(22);
+        transaction.setPayerAccountId(1001L);
+        transaction.setChargedTxFee(100L);
+        transaction.setEntity(entity(1002L));
+        transaction.setValidStartNs(0L);
+        transaction.setValidDurationSeconds(120L);
+        transaction.setMaxFee(200L);
+        transaction.setTransactionHash(new byte[] {3, 4});
+        List<Object> items = List.of(transaction,
+                new CryptoTransfer(1L, -100L, 0L, 1001L),
+                new NonFeeTransfer(1L, 0L, 1002L, 100L),
+                new TopicMessage(2L, new byte[] {5}, 0, new byte[] {6}, 1L, 1003),
+                new ContractResult(3L, new byte[] {7}, 1000L, null, 500L),
+                new FileData(4L, new byte[] {8}),
+                new LiveHash(5L, new byte[] {9}),
+                new EntityActivity(1001L, 1L, EntityActivity.Role.PAYER));
+
+        handler.onStart(streamFileData("file1"));
+        handler.onTransaction(transaction);
+        handler.onCryptoTransferList((CryptoTransfer) items.get(1));
+        handler.onNonFeeTransfer((NonFeeTransfer) items.get(2));
+        handler.onTopicMessage((TopicMessage) items.get(3));
+        handler.onContractResult((ContractResult) items.get(4));
+        handler.onFileData((FileData) items.get(5));
+        handler.onLiveHash((LiveHash) items.get(6));
+        handler.onEntityActivity((EntityActivity) items.get(7));
+        handler.onEnd(recordFile("file1"));
+
+        List<Path> segments = segments();
+        assertThat(segments).hasSize(1);
+        assertThat(segments.get(0).getFileName().toString()).isEqualTo("0000000000000000001.seg");
+        assertThat(read(segments.get(0), 0L))
+                .extracting(SegmentRecord::getType)
+                .containsExactly(SegmentRecordType.values());
+        assertThat(decode(read(segments.get(0), 0L)))
+                .usingFieldByFieldElementComparator()
+                .usingComparatorForElementFieldsWithType((a, b) -> a.getId().compareTo(b.getId()), Entities.class)
+                .containsExactlyElementsOf(items);
+    }
+
+    @Test
+    void readFromTimestamp() throws IOException {
+        properties.setIndexInterval(100);
+
+        handler.onStart(streamFileData("file1"));
+        for (long i = 1; i <= 1000; i++) {
+            handler.onCryptoTransferList(new CryptoTransfer(i, i, 0L, 1L));
+            handler.onCryptoTransferList(new CryptoTransfer(i, -i, 0L, 2L));
+        }
+        handler.onEnd(recordFile("file1"));
+
+        Path segment = segments().get(0);
+        long indexEntries = Files.size(segment.resolveSibling("0000000000000000001.idx")) /
+                SegmentWritingRecordParsedItemHandler.INDEX_ENTRY_SIZE;
+        assertThat(indexEntries).isGreaterThan(1L).isLessThan(2000L);
+
+        List<SegmentRecord> records = read(segment, 501L);
+        assertThat(records).hasSize(1000);
+        assertThat(records.get(0).getConsensusTimestamp()).isEqualTo(501L);
+        assertThat(decode(records).get(0)).isEqualTo(new CryptoTransfer(501L, 501L, 0L, 1L));
+        assertThat(read(segment, 1001L)).isEmpty();
+    }
+
+    @Test
+    void errorTruncatesFile() throws IOException {
+        handler.onStart(streamFileData("file1"));
+        handler.onFileData(new FileData(1L, new byte[] {1}));
+        handler.onEnd(recordFile("file1"));
+        Path segment = segments().get(0);
+        long size = Files.size(segment);
+
+        handler.onStart(streamFileData("file2"));
+        handler.onFileData(new FileData(2L, new byte[] {2}));
+        handler.onError();
+        assertThat(Files.size(segment)).isEqualTo(size);
+
+        handler.onStart(streamFileData("file2"));
+        handler.onFileData(new FileData(3L, new byte[] {3}));
+        handler.onEnd(recordFile("file2"));
+
+        assertThat(decode(read(segment, 0L))).containsExactly(new FileData(1L, new byte[] {1}),
+                new FileData(3L, new byte[] {3}));
+    }
+
+    @Test
+    void errorDeletesNewSegment() throws IOException {
+        handler.onStart(streamFileData("file1"));
+        handler.onFileData(new FileData(1L, new byte[] {1}));
+        handler.onError();
+        assertThat(segments()).isEmpty();
+    }
+
+    @Test
+    void rollsBetweenFiles() throws IOException {
+        properties.setSegmentSize(1);
+
+        for (long i = 1; i <= 3; i++) {
+            handler.onStart(streamFileData("file" + i));
+            handler.onLiveHash(new LiveHash(i * 10, new byte[] {1}));
+            handler.onLiveHash(new LiveHash(i * 10 + 1, new byte[] {2}));
+            handler.onEnd(recordFile("file" + i));
+        }
+
+        List<Path> segments = segments();
+        assertThat(segments).extracting(p -> p.getFileName().toString())
+                .containsExactly("0000000000000000010.seg", "0000000000000000020.seg", "0000000000000000030.seg");
+        for (Path segment : segments) {
+            assertThat(read(segment, 0L)).hasSize(2);
+        }
+    }
+
+    @Test
+    void existingSegmentNotOverwritten() throws IOException {
+        handler.onStart(streamFileData("file1"));
+        handler.onLiveHash(new LiveHash(1L, new byte[] {1}));
+        handler.onEnd(recordFile("file1"));
+        handler.close();
+
+        // Simulates the file being written again after a restart
+        handler = new SegmentWritingRecordParsedItemHandler(properties);
+        handler.onStart(streamFileData("file1"));
+        handler.onLiveHash(new LiveHash(1L, new byte[] {1}));
+        handler.onEnd(recordFile("file1"));
+
+        assertThat(segments()).extracting(p -> p.getFileName().toString())
+                .containsExactly("0000000000000000001.seg", "0000000000000000002.seg");
+    }
+
+    @Test
+    void rewrittenFileSkippedByResumingReader() throws IOException {
+        handler.onStart(streamFileData("file1"));
+        handler.onLiveHash(new LiveHash(1L, new byte[] {1}));
+        handler.onLiveHash(new LiveHash(2L, new byte[] {2}));
+        handler.onEnd(recordFile("file1"));
+        handler.close();
+
+        // Simulates file1 being written again after a crash before its database commit
+        handler = new SegmentWritingRecordParsedItemHandler(properties);
+        for (long i = 1; i <= 2; i++) {
+            handler.onStart(streamFileData("file" + i));
+            handler.onLiveHash(new LiveHash(i * 2 - 1, new byte[] {1}));
+            handler.onLiveHash(new LiveHash(i * 2, new byte[] {2}));
+            handler.onEnd(recordFile("file" + i));
+        }
+
+        List<Long> timestamps = new ArrayList<>();
+        long fromTimestamp = 0L;
+        for (Path segment : segments()) {
+            for (SegmentRecord record : read(segment, fromTimestamp)) {
+                timestamps.add(record.getConsensusTimestamp());
+                fromTimestamp = record.getConsensusTimestamp() + 1;
+            }
+        }
+
+        assertThat(timestamps).containsExactly(1L, 2L, 3L, 4L);
+    }
+
+    @Test
+    void corruptRecord() throws IOException {
+        handler.onStart(streamFileData("file1"));
+        handler.onLiveHash(new LiveHash(1L, new byte[] {1}));
+        handler.onLiveHash(new LiveHash(2L, new byte[] {2}));
+        handler.onEnd(recordFile("file1"));
+
+        Path segment = segments().get(0);
+        try (RandomAccessFile file = new RandomAccessFile(segment.toFile(), "rw")) {
+            file.seek(file.length() - 1);
+            file.write(9);
+        }
+
+        assertThat(decode(read(segment, 0L))).containsExactly(new LiveHash(1L, new byte[] {1}));
+    }
+
+    @Test
+    void truncatedRecord() throws IOException {
+        handler.onStart(streamFileData("file1"));
+        handler.onLiveHash(new LiveHash(1L, new byte[] {1}));
+        handler.onLiveHash(new LiveHash(2L, new byte[] {2}));
+        handler.onEnd(recordFile("file1"));
+
+        Path segment = segments().get(0);
+        try (RandomAccessFile file = new RandomAccessFile(segment.toFile(), "rw")) {
+            file.setLength(file.length() - 3);
+        }
+
+        assertThat(decode(read(segment, 0L))).containsExactly(new LiveHash(1L, new byte[] {1}));
+    }
+
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> paths = Files.list(properties.getPath())) {
+            return paths.filter(p -> p.toString().endsWith(SegmentWritingRecordParsedItemHandler.SEGMENT_SUFFIX))
+                    .sorted()
+                    .collect(Collectors.toList());
+        } catch (NoSuchFileException e) {
+            return List.of();
+        }
+    }
+
+    private List<SegmentRecord> read(Path segment, long fromTimestamp) throws IOException {
+        List<SegmentRecord> records = new ArrayList<>();
+        SegmentReader.read(segment, fromTimestamp, records::add);
+        return records;
+    }
+
+    private List<Object> decode(List<SegmentRecord> records) throws IOException {
+        List<Object> items = new ArrayList<>();
+        for (SegmentRecord record : records) {
+            items.add(record.decode());
+        }
+        return items;
+    }
+
+    private Entities entity(long id) {
+        Entities entity = new Entities();
+        entity.setId(id);
+        return entity;
+    }
+
+    private RecordFile recordFile(String name) {
+        RecordFile recordFile = new RecordFile();
+        recordFile.setName(name);
+        return recordFile;
+    }
+
+    private StreamFileData streamFileData(String name) {
+        return new StreamFileData(name, null);
+    }
+}
@@ -21,12 +21,12 @@ package com.hedera.mirror.importer.repository;
  */
 
 import static org.assertj.core.api.Assertions.assertThat;
-import static org.junit.jupiter.api.Assertions.assertAll;
-import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 import org.junit.jupiter.api.Test;
 
 import com.hedera.mirror.importer.domain.Entities;
+import com.hedera.mirror.importer.domain.EntityId;
 
 public class EntityRepositoryTest extends AbstractRepositoryTest {
 
@@ -78,23 +78,40 @@ public class EntityRepositoryTest extends AbstractRepositoryTest {
     }
 
     @Test
-    void findEntityIdByNativeIds() {
-        var entityTypeId = entityTypeRepository.findByName("account").get().getId();
-
+    void savedEntityHasEncodedId() {
         var entity = new Entities();
-        entity.setEntityTypeId(entityTypeId);
+        entity.setEntityTypeId(entityTypeRepository.findByName("account").get().getId());
         entity.setEntityShard(1L);
         entity.setEntityRealm(2L);
         entity.setEntityNum(3L);
-        final var expected = entityRepository.save(entity);
+        entity = entityRepository.save(entity);
+
+        assertThat(entity.getId()).isEqualTo((1L << 48) | (2L << 32) | 3L).isEqualTo(EntityId.encode(1L, 2L, 3L));
+    }
+
+    @Test
+    void insertIfMissing() {
+        int entityTypeId = entityTypeRepository.findByName("account").get().getId();
+        var entityId = EntityId.of(0L, 1L, 2L, entityTypeId);
+        assertThat(entityRepository.insertIfMissing(entityId)).isEqualTo(entityId);
+
+        var entity = entityRepository.findById(entityId.getId()).get();
+        entity.setExpiryTimeNs(300L);
+        entityRepository.save(entity);
+        entityRepository.insertIfMissing(entityId.getId(), 0L, 1L, 2L, entityTypeId);
 
-        var entityId = entityRepository.findEntityIdByNativeIds(entity.getEntityShard(), entity.getEntityRealm(),
-                entity.getEntityNum()).get();
+        assertThat(entityRepository.count()).isEqualTo(1L);
+        assertThat(entityRepository.findById(entityId.getId()).get())
+                .returns(2L, Entities::getEntityNum)
+                .returns(300L, Entities::getExpiryTimeNs);
+    }
 
-        assertAll(() -> assertEquals(expected.getId(), entityId.getId())
-                ,() -> assertEquals(expected.getEntityShard(), entityId.getEntityShard())
-                ,() -> assertEquals(expected.getEntityRealm(), entityId.getEntityRealm())
-                ,() -> assertEquals(expected.getEntityNum(), entityId.getEntityNum())
-        );
+    @Test
+    void encodeOutOfRange() {
+        assertThat(EntityId.encode(32767L, 65535L, 4294967295L)).isEqualTo(Long.MAX_VALUE);
+        assertThrows(IllegalArgumentException.class, () -> EntityId.encode(32768L, 0L, 0L));
+        assertThrows(IllegalArgumentException.class, () -> EntityId.encode(0L, 65536L, 0L));
+        assertThrows(IllegalArgumentException.class, () -> EntityId.encode(0L, 0L, 4294967296L));
+        assertThrows(IllegalArgumentException.class, () -> EntityId.encode(0L, 0L, -1L));
     }
 }
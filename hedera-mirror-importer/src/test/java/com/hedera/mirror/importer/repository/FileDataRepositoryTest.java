@@ -20,6 +20,8 @@ package com.hedera.mirror.importer.repository;
  * ‍
  */
 
+import javax.annotation.Resource;
+import javax.persistence.EntityManager;
 import org.assertj.core.api.Assertions;
 import org.junit.jupiter.api.Test;
 import org.springframework.test.context.jdbc.Sql;
@@ -32,6 +34,9 @@ import com.hedera.mirror.importer.domain.Transaction;
 // Class manually commits so have to manually cleanup tables
 public class FileDataRepositoryTest extends AbstractRepositoryTest {
 
+    @Resource
+    private EntityManager entityManager;
+
     @Test
     void insert() {
         Entities entity = insertAccountEntity();
@@ -46,4 +51,21 @@ public class FileDataRepositoryTest extends AbstractRepositoryTest {
                 .isNotNull()
                 .isEqualTo(fileData);
     }
+
+    @Test
+    void insertWithPayloadMarker() {
+        Entities entity = insertAccountEntity();
+        Transaction transaction = insertTransaction(entity, "FILECREATE");
+        byte[] data = {0x00, 0x48, 0x4d, 0x43, 0x00, 0x01, 0x02};
+
+        FileData fileData = new FileData();
+        fileData.setConsensusTimestamp(transaction.getConsensusNs());
+        fileData.setFileData(data);
+        fileDataRepository.save(fileData);
+        entityManager.flush();
+        entityManager.clear();
+
+        Assertions.assertThat(fileDataRepository.findById(transaction.getConsensusNs()).get().getFileData())
+                .isEqualTo(data);
+    }
 }
@@ -0,0 +1,103 @@
+package com.hedera.mirror.importer.stream;
+
+/*-
+ * ‌
+ * Hedera Mirror Node
+ * ​
+ * Copyright (C) 2019 - 2020 Hedera Hashgraph, LLC
+ * ​
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ‍
+ */
+
+import static com.hedera.mirror.importer.domain.ApplicationStatusCode.LAST_PROCESSED_EVENT_HASH;
+import static com.hedera.mirror.importer.domain.ApplicationStatusCode.LAST_VALID_DOWNLOADED_RECORD_FILE;
+import static com.hedera.mirror.importer.domain.ApplicationStatusCode.LAST_VALID_DOWNLOADED_RECORD_FILE_HASH;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.sql.Connection;
+import javax.annotation.Resource;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.context.jdbc.Sql;
+
+import com.hedera.mirror.importer.IntegrationTest;
+import com.hedera.mirror.importer.domain.ApplicationStatus;
+import com.hedera.mirror.importer.domain.ApplicationStatusCode;
+import com.hedera.mirror.importer.repository.ApplicationStatusRepository;
+
+@Sql(executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD, scripts = "classpath:db/scripts/cleanup.sql")
+@Sql(executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD, scripts = "classpath:db/scripts/cleanup.sql")
+public class StreamStateTrackerTest extends IntegrationTest {
+
+    @Resource
+    private StreamStateTracker streamStateTracker;
+
+    @Resource
+    private ApplicationStatusRepository applicationStatusRepository;
+
+    @Resource
+    private DataSource dataSource;
+
+    @BeforeEach
+    void before() {
+        streamStateTracker.clear();
+    }
+
+    @Test
+    void updateIsWrittenBehind() {
+        streamStateTracker.update(LAST_VALID_DOWNLOADED_RECORD_FILE, "file1");
+        streamStateTracker.update(LAST_VALID_DOWNLOADED_RECORD_FILE_HASH, "hash1");
+        streamStateTracker.update(LAST_VALID_DOWNLOADED_RECORD_FILE, "file2");
+
+        assertThat(streamStateTracker.get(LAST_VALID_DOWNLOADED_RECORD_FILE)).isEqualTo("file2");
+        assertThat(persisted(LAST_VALID_DOWNLOADED_RECORD_FILE)).isNull();
+
+        streamStateTracker.flush();
+        assertThat(persisted(LAST_VALID_DOWNLOADED_RECORD_FILE)).isEqualTo("file2");
+        assertThat(persisted(LAST_VALID_DOWNLOADED_RECORD_FILE_HASH)).isEqualTo("hash1");
+    }
+
+    @Test
+    void clearDiscardsUnflushedUpdates() {
+        streamStateTracker.update(LAST_VALID_DOWNLOADED_RECORD_FILE, "file1");
+        streamStateTracker.flush();
+        streamStateTracker.update(LAST_VALID_DOWNLOADED_RECORD_FILE, "file2");
+
+        // Simulates a restart before the second update was flushed
+        streamStateTracker.clear();
+        streamStateTracker.flush();
+
+        assertThat(streamStateTracker.get(LAST_VALID_DOWNLOADED_RECORD_FILE)).isEqualTo("file1");
+        assertThat(persisted(LAST_VALID_DOWNLOADED_RECORD_FILE)).isEqualTo("file1");
+    }
+
+    @Test
+    void persistIsPartOfCallersTransaction() throws Exception {
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            streamStateTracker.persist(connection, LAST_PROCESSED_EVENT_HASH, "hash1");
+            connection.rollback();
+            assertThat(persisted(LAST_PROCESSED_EVENT_HASH)).isNull();
+
+            streamStateTracker.persist(connection, LAST_PROCESSED_EVENT_HASH, "hash2");
+            connection.commit();
+            assertThat(persisted(LAST_PROCESSED_EVENT_HASH)).isEqualTo("hash2");
+        }
+    }
+
+    private String persisted(ApplicationStatusCode statusCode) {
+        return applicationStatusRepository.findById(statusCode).map(ApplicationStatus::getStatusValue).orElse(null);
+    }
+}
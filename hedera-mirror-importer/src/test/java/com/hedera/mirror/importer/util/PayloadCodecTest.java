@@ -0,0 +1,101 @@
+package com.hedera.mirror.importer.util;
+
+/*-
+ * ‌
+ * Hedera Mirror Node
+ * ​
+ * Copyright (C) 2019 - 2020 Hedera Hashgraph, LLC
+ * ​
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ‍
+ */
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Arrays;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+public class PayloadCodecTest {
+
+    private static final int THRESHOLD = 1024;
+
+    @Test
+    void nullPayload() {
+        assertThat(PayloadCodec.encode(null, THRESHOLD)).isNull();
+        assertThat(PayloadCodec.decode(null)).isNull();
+    }
+
+    @Test
+    void belowThresholdStoredAsIs() {
+        byte[] payload = repeated(THRESHOLD - 1);
+        assertThat(PayloadCodec.encode(payload, THRESHOLD)).isSameAs(payload);
+        assertThat(PayloadCodec.decode(payload)).isSameAs(payload);
+    }
+
+    @Test
+    void compressible() {
+        byte[] payload = repeated(THRESHOLD * 4);
+        byte[] encoded = PayloadCodec.encode(payload, THRESHOLD);
+        assertThat(encoded.length).isLessThan(payload.length);
+        assertThat(encoded[4]).isEqualTo(PayloadCodec.FORMAT_DEFLATE);
+        assertThat(PayloadCodec.decode(encoded)).isEqualTo(payload);
+    }
+
+    @Test
+    void incompressibleStoredAsIs() {
+        byte[] payload = new byte[THRESHOLD];
+        new Random(1).nextBytes(payload);
+        payload[0] = 1;
+        assertThat(PayloadCodec.encode(payload, THRESHOLD)).isSameAs(payload);
+    }
+
+    @Test
+    void rawPayloadWithMarker() {
+        byte[] payload = {0x00, 'H', 'M', 'C', PayloadCodec.FORMAT_DEFLATE, 1, 2, 3};
+        byte[] encoded = PayloadCodec.encode(payload, THRESHOLD);
+        assertThat(encoded).hasSize(payload.length + 5);
+        assertThat(encoded[4]).isEqualTo(PayloadCodec.FORMAT_RAW);
+        assertThat(PayloadCodec.decode(encoded)).isEqualTo(payload);
+    }
+
+    @Test
+    void escape() {
+        byte[] payload = repeated(THRESHOLD * 4);
+        assertThat(PayloadCodec.escape(payload)).isSameAs(payload);
+
+        byte[] payloadWithMarker = {0x00, 'H', 'M', 'C', PayloadCodec.FORMAT_RAW, 1, 2, 3};
+        byte[] escaped = PayloadCodec.escape(payloadWithMarker);
+        assertThat(escaped).hasSize(payloadWithMarker.length + 5);
+        assertThat(PayloadCodec.decode(escaped)).isEqualTo(payloadWithMarker);
+    }
+
+    @Test
+    void unknownFormat() {
+        byte[] data = {0x00, 'H', 'M', 'C', 9, 1, 2, 3};
+        assertThat(PayloadCodec.decode(data)).isSameAs(data);
+    }
+
+    @Test
+    void truncated() {
+        byte[] encoded = PayloadCodec.encode(repeated(THRESHOLD * 4), THRESHOLD);
+        byte[] truncated = Arrays.copyOf(encoded, encoded.length - 2);
+        assertThat(PayloadCodec.decode(truncated)).isSameAs(truncated);
+    }
+
+    private byte[] repeated(int length) {
+        byte[] payload = new byte[length];
+        Arrays.fill(payload, (byte) 'a');
+        return payload;
+    }
+}
@@ -48,6 +48,17 @@ public class UtilityTest {
     @TempDir
     Path tempDir;
 
+    @ParameterizedTest(name = "hashPrefix({0})")
+    @CsvSource({
+            "0102030405060708090a, 72623859790382856",
+            "ff01020000000000ff, -71773920037961728",
+            "ff0102, -71773920037961728",
+            "'', 0"
+    })
+    void hashPrefix(String hash, long expected) throws Exception {
+        assertEquals(expected, Utility.hashPrefix(Hex.decodeHex(hash)));
+    }
+
     @Test
     void accountIDToString() {
         AccountID accountId = AccountID.newBuilder().setAccountNum(100).build();
@@ -193,3 +193,30 @@ describe('Utils isValidEntityNum tests', () => {
     expect(utils.isValidEntityNum('0.2.3')).toBe(true);
   });
 });
+
+describe('Utils decodePayload tests', () => {
+  const zlib = require('zlib');
+  const header = (format) => Buffer.from([0x00, 0x48, 0x4d, 0x43, format]);
+  const payload = Buffer.from('a'.repeat(2048));
+
+  test('Verify null', () => {
+    expect(utils.decodePayload(null)).toBe(null);
+  });
+  test('Verify uncompressed payload', () => {
+    expect(utils.decodePayload(payload)).toEqual(payload);
+  });
+  test('Verify raw format', () => {
+    expect(utils.decodePayload(Buffer.concat([header(0), payload]))).toEqual(payload);
+  });
+  test('Verify deflate format', () => {
+    expect(utils.decodePayload(Buffer.concat([header(1), zlib.deflateRawSync(payload)]))).toEqual(payload);
+  });
+  test('Verify unknown format', () => {
+    const data = Buffer.concat([header(9), payload]);
+    expect(utils.decodePayload(data)).toEqual(data);
+  });
+  test('Verify corrupt deflate format', () => {
+    const data = Buffer.concat([header(1), Buffer.from([0xff, 0xff, 0xff])]);
+    expect(utils.decodePayload(data)).toEqual(data);
+  });
+});
@@ -55,7 +55,7 @@ const formatTopicMessageRow = function(row) {
   return {
     consensus_timestamp: utils.nsToSecNs(row['consensus_timestamp']),
     topic_id: `${config.shard}.${row['realm_num']}.${row['topic_num']}`,
-    message: utils.encodeBase64(row['message']),
+    message: utils.encodeBase64(utils.decodePayload(row['message'])),
     running_hash: utils.encodeBase64(row['running_hash']),
     sequence_number: parseInt(row['sequence_number'])
   };
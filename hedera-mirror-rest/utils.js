@@ -19,6 +19,7 @@
  */
 'use strict';
 const math = require('mathjs');
+const zlib = require('zlib');
 const config = require('./config.js');
 const ed25519 = require('./ed25519.js');
 
@@ -628,6 +629,41 @@ const encodeKey = function(key) {
   return ret;
 };
 
+// Marker and formats of payloads compressed by the importer. Must match the importer's PayloadCodec.
+const PAYLOAD_MAGIC = Buffer.from([0x00, 0x48, 0x4d, 0x43]);
+const PAYLOAD_FORMAT_RAW = 0;
+const PAYLOAD_FORMAT_DEFLATE = 1;
+
+/**
+ * Decodes a payload column that the importer may have compressed. Anything without the marker is returned as is, as is
+ * a compressed payload that fails to inflate so that a corrupt row can't fail every request that returns it.
+ * @param {Buffer} buffer Nullable payload from the database
+ * @return {Buffer} original payload
+ */
+const decodePayload = function(buffer) {
+  if (
+    null === buffer ||
+    buffer.length <= PAYLOAD_MAGIC.length ||
+    !buffer.slice(0, PAYLOAD_MAGIC.length).equals(PAYLOAD_MAGIC)
+  ) {
+    return buffer;
+  }
+
+  const payload = buffer.slice(PAYLOAD_MAGIC.length + 1);
+  switch (buffer[PAYLOAD_MAGIC.length]) {
+    case PAYLOAD_FORMAT_RAW:
+      return payload;
+    case PAYLOAD_FORMAT_DEFLATE:
+      try {
+        return zlib.inflateRawSync(payload);
+      } catch (err) {
+        return buffer;
+      }
+    default:
+      return buffer;
+  }
+};
+
 /**
  * Base64 encoding of a byte array for returning in JSON output
  * @param {Array} key Byte array to be encoded
@@ -662,6 +698,7 @@ module.exports = {
   createSingleErrorJsonResponse: createSingleErrorJsonResponse,
   createTransactionId: createTransactionId,
   convertMySqlStyleQueryToPostgres: convertMySqlStyleQueryToPostgres,
+  decodePayload: decodePayload,
   encodeBase64: encodeBase64,
   encodeKey: encodeKey,
   ENTITY_TYPE_FILE: ENTITY_TYPE_FILE,